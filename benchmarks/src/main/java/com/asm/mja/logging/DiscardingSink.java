@@ -0,0 +1,21 @@
+package com.asm.mja.logging;
+
+/**
+ * Trace sink that discards its input, so benchmarks measure the trace pipeline rather than the disk.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class DiscardingSink implements TraceSink {
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,123 @@
+package com.asm.mja.logging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the STACK filter loop formerly generated into instrumented methods, which concatenates
+ * {@code class + "." + method} for every frame, with a compiled {@link StackFilter}.
+ *
+ * The {@code match*} benchmarks test a pre-captured 40-frame stack, so they measure matching alone.
+ * The {@code capture*} benchmarks capture and filter the current stack as a STACK probe does, with
+ * {@code callerFrames} extra frames below the probe and {@code trace.stackMaxDepth} set to {@code maxDepth};
+ * on Java 9+ {@link StackCapture} uses {@code StackWalker} there, while the legacy loop always captures
+ * the whole stack. Filters either never match (the common case for a filtered rule) or match the
+ * outermost frame of the pre-captured stack.
+ * Run with {@code -prof gc} to see bytes allocated per call.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StackFilterBenchmark {
+
+    private static final int DEPTH = 40;
+
+    @Param({"com.example.NotOnTheStack", "com.example.Main.main"})
+    public String filter;
+
+    /** Extra frames below the capturing method, as in a deep application server stack. */
+    @Param({"0", "200"})
+    public int callerFrames;
+
+    /** {@code trace.stackMaxDepth}; 0 captures the whole stack. */
+    @Param({"0", "16"})
+    public int maxDepth;
+
+    private StackTraceElement[] stack;
+    private StackFilter compiled;
+    private int filterId;
+
+    @Setup
+    public void setup() {
+        stack = new StackTraceElement[DEPTH];
+        for (int i = 0; i < DEPTH - 1; i++) {
+            stack[i] = new StackTraceElement("com.example.service.layer" + (i % 5) + ".Component" + i, "handle" + i, "Component" + i + ".java", 100 + i);
+        }
+        stack[DEPTH - 1] = new StackTraceElement("com.example.Main", "main", "Main.java", 7);
+        compiled = StackFilter.compile(filter);
+        filterId = StackFilter.register(filter);
+        StackCapture.setMaxDepth(maxDepth);
+    }
+
+    @TearDown
+    public void tearDown() {
+        StackCapture.setMaxDepth(0);
+    }
+
+    @Benchmark
+    public boolean matchConcatenatedSignature() {
+        return legacyMatches(stack, filter);
+    }
+
+    @Benchmark
+    public boolean matchCompiledFilter() {
+        return compiled.matches(stack);
+    }
+
+    @Benchmark
+    public StackTraceElement[] captureConcatenatedSignature() {
+        return legacyCapture(callerFrames);
+    }
+
+    @Benchmark
+    public StackTraceElement[] captureCompiledFilter() {
+        return compiledCapture(callerFrames);
+    }
+
+    private StackTraceElement[] legacyCapture(int remaining) {
+        if (remaining > 0) {
+            return legacyCapture(remaining - 1);
+        }
+        StackTraceElement[] captured = new Throwable().getStackTrace();
+        return legacyMatches(captured, filter) ? captured : null;
+    }
+
+    private StackTraceElement[] compiledCapture(int remaining) {
+        if (remaining > 0) {
+            return compiledCapture(remaining - 1);
+        }
+        return StackCapture.captureIfMatches(filterId);
+    }
+
+    /**
+     * The loop StackActionHandler generated before filters were compiled.
+     */
+    private static boolean legacyMatches(StackTraceElement[] stack, String filterName) {
+        for (int i = 0; i < stack.length; i++) {
+            StackTraceElement element = stack[i];
+            String signature = element.getClassName() + "." + element.getMethodName();
+            if (signature.indexOf(filterName) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a STACK probe hit on the instrumented thread, running the code StackActionHandler generates
+ * against a synchronous trace written to a sink that discards its input.
+ *
+ * {@code inlineHit} captures and symbolizes the stack and encodes and writes the record on the calling
+ * thread, as without {@code trace.deferStacks}. {@code deferredHit} only creates the {@link Throwable}
+ * and publishes it to the stack symbolizer, which resolves, encodes and writes it in the background;
+ * records the symbolizer cannot keep up with are dropped rather than slowing the caller down.
+ * {@code callerFrames} adds frames below the probe. Run with {@code -prof gc} to see bytes allocated per hit.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StackProbeBenchmark {
+
+    /** Extra frames below the instrumented method, as in a deep application server stack. */
+    @Param({"0", "50"})
+    public int callerFrames;
+
+    private TraceFileLogger logger;
+    private int inlineProbeId;
+    private int deferredProbeId;
+
+    @Setup
+    public void setup() throws Exception {
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setSink(TraceSinkType.CUSTOM);
+        traceConfig.setSinkClass(DiscardingSink.class.getName());
+        traceConfig.setDeferStacks(true);
+        logger = TraceFileLogger.getInstance();
+        logger.init(Files.createTempDirectory("mja-stack-bench").toString(), traceConfig);
+        inlineProbeId = ProbeRegistry.getInstance().register("com.example.Bench", "inline", "INGRESS", "STACK");
+        deferredProbeId = ProbeRegistry.getInstance().register("com.example.Bench", "deferred", "INGRESS", "STACK");
+    }
+
+    @TearDown
+    public void tearDown() {
+        logger.close();
+    }
+
+    @Benchmark
+    public void inlineHit() {
+        inline(callerFrames);
+    }
+
+    @Benchmark
+    public void deferredHit() {
+        deferred(callerFrames);
+    }
+
+    private void inline(int remaining) {
+        if (remaining > 0) {
+            inline(remaining - 1);
+            return;
+        }
+        logger.probeStack(inlineProbeId, StackCapture.capture());
+    }
+
+    private void deferred(int remaining) {
+        if (remaining > 0) {
+            deferred(remaining - 1);
+            return;
+        }
+        if (logger.isStackSymbolizationDeferred()) {
+            logger.probeRawStack(deferredProbeId, -1, new Throwable());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.asm.mja.logging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the legacy StringBuilder/SimpleDateFormat trace line construction with
+ * {@link TraceTextEncoder}, {@link BinaryTraceEncoder} and {@link TraceJsonEncoder} for ARGS, RET and STACK records.
+ * Run with {@code -prof gc} to see bytes allocated per record; the binary benchmarks
+ * return the encoded size so it can be compared with the text size.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceEncodingBenchmark {
+
+    private static final String ARGS_MESSAGE = "{com.example.OrderService.placeOrder} | INGRESS | ARGS |  0=ORD-1042 1=3 2=true";
+    private static final String RET_MESSAGE = "{com.example.OrderService.placeOrder} | EGRESS | RET | Order{id=ORD-1042, status=PLACED}";
+    private static final String STACK_MESSAGE = "{com.example.OrderService.placeOrder} | INGRESS | STACK";
+
+    private final TraceTextEncoder encoder = new TraceTextEncoder();
+    private final TraceBuffer buffer = new TraceBuffer();
+    private final TraceRecord record = new TraceRecord();
+    private final BinaryTraceEncoder binaryEncoder = new BinaryTraceEncoder(System.currentTimeMillis());
+    private final TraceJsonEncoder jsonEncoder = new TraceJsonEncoder();
+    private ProbeSite argsProbe;
+    private ProbeSite retProbe;
+    private ProbeSite stackProbe;
+    private StackTraceElement[] stack;
+    private String threadName;
+
+    @Setup
+    public void setup() {
+        stack = new Throwable().getStackTrace();
+        threadName = Thread.currentThread().getName();
+        ProbeRegistry registry = ProbeRegistry.getInstance();
+        argsProbe = registry.get(registry.register("com.example.OrderService", "placeOrder", "INGRESS", "ARGS"));
+        retProbe = registry.get(registry.register("com.example.OrderService", "placeOrder", "EGRESS", "RET"));
+        stackProbe = registry.get(registry.register("com.example.OrderService", "placeOrder", "INGRESS", "STACK"));
+    }
+
+    @Benchmark
+    public byte[] legacyArgs() {
+        return legacyLine("[TRACE] ", ARGS_MESSAGE);
+    }
+
+    @Benchmark
+    public byte[] legacyRet() {
+        return legacyLine("[TRACE] ", RET_MESSAGE);
+    }
+
+    @Benchmark
+    public byte[] legacyStack() {
+        StringBuilder logMessage = legacyPrefix("[TRACE] ");
+        logMessage.append(STACK_MESSAGE).append("\n");
+        for (StackTraceElement element : stack) {
+            if (element.toString().startsWith("java.lang.Thread.getStackTrace"))
+                continue;
+            logMessage.append("\tat ").append(element.toString()).append('\n');
+        }
+        return (logMessage.toString() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int encoderArgs() {
+        return encode(ARGS_MESSAGE, null);
+    }
+
+    @Benchmark
+    public int encoderRet() {
+        return encode(RET_MESSAGE, null);
+    }
+
+    @Benchmark
+    public int encoderStack() {
+        return encode(STACK_MESSAGE, stack);
+    }
+
+    @Benchmark
+    public int binaryArgs() {
+        return encodeBinary(argsProbe, " 0=ORD-1042 1=3 2=true", null);
+    }
+
+    @Benchmark
+    public int binaryRet() {
+        return encodeBinary(retProbe, "Order{id=ORD-1042, status=PLACED}", null);
+    }
+
+    @Benchmark
+    public int binaryStack() {
+        return encodeBinary(stackProbe, null, stack);
+    }
+
+    @Benchmark
+    public int jsonArgs() {
+        return encodeProbe(jsonEncoder, argsProbe, " 0=ORD-1042 1=3 2=true", null);
+    }
+
+    @Benchmark
+    public int jsonRet() {
+        return encodeProbe(jsonEncoder, retProbe, "Order{id=ORD-1042, status=PLACED}", null);
+    }
+
+    @Benchmark
+    public int jsonStack() {
+        return encodeProbe(jsonEncoder, stackProbe, null, stack);
+    }
+
+    private int encodeProbe(TraceEncoder probeEncoder, ProbeSite probe, String payload, StackTraceElement[] frames) {
+        record.set(TraceRecord.Level.TRACE, System.currentTimeMillis(), 1L, threadName, probe, payload, frames);
+        buffer.reset();
+        probeEncoder.encode(record, buffer);
+        return buffer.length();
+    }
+
+    private int encodeBinary(ProbeSite probe, String payload, StackTraceElement[] frames) {
+        return encodeProbe(binaryEncoder, probe, payload, frames);
+    }
+
+    private int encode(String message, StackTraceElement[] frames) {
+        record.set(TraceRecord.Level.TRACE, System.currentTimeMillis(), 1L, threadName, null, message, frames);
+        buffer.reset();
+        encoder.encode(record, buffer);
+        return buffer.length();
+    }
+
+    private static byte[] legacyLine(String level, String message) {
+        StringBuilder logMessage = legacyPrefix(level);
+        logMessage.append(message);
+        return (logMessage.toString() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder legacyPrefix(String level) {
+        StringBuilder logMessage = new StringBuilder();
+        logMessage.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date())).append(' ');
+        logMessage.append(level);
+        logMessage.append('[').append(Thread.currentThread().getName()).append("] ");
+        return logMessage;
+    }
+}
@@ -0,0 +1,110 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of {@link TraceFileLogger#trace}, {@link TraceFileLogger#stack} and
+ * {@link TraceFileLogger#exception} when 1, 4, 16 and 64 threads write to one trace at the same time, written to
+ * a sink that discards its input so the numbers show the encoding and the contention on the trace file's lock
+ * (or, with {@code async}, on the ring buffer) rather than the disk.
+ *
+ * Each thread count is a subclass, {@code Threads1} to {@code Threads64}; select one with a regex such as
+ * {@code TraceFileLoggerBenchmark.Threads16}. Throughput is reported in calls per microsecond across all threads,
+ * latency as sampled per-call percentiles. Run with {@code -prof gc} to see bytes allocated per call. In async mode
+ * the default {@code drop} backpressure applies, so calls beyond what the writer thread keeps up with are counted
+ * and dropped rather than written.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class TraceFileLoggerBenchmark {
+
+    private static final String MESSAGE = "Order ORD-1042 placed for customer 3 in 12ms";
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    private TraceFileLogger logger;
+    private StackTraceElement[] stack;
+    private Exception exception;
+
+    @Setup
+    public void setup() throws Exception {
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setSink(TraceSinkType.CUSTOM);
+        traceConfig.setSinkClass(DiscardingSink.class.getName());
+        traceConfig.setAsync(async);
+        logger = TraceFileLogger.getInstance();
+        logger.init(Files.createTempDirectory("mja-logger-bench").toString(), traceConfig);
+        exception = deepException(20);
+        stack = exception.getStackTrace();
+    }
+
+    @TearDown
+    public void tearDown() {
+        logger.close();
+    }
+
+    @Benchmark
+    public void trace() {
+        logger.trace(MESSAGE);
+    }
+
+    @Benchmark
+    public void stack() {
+        logger.stack(MESSAGE, stack);
+    }
+
+    @Benchmark
+    public void exception() {
+        logger.exception(exception);
+    }
+
+    /**
+     * @return an exception thrown {@code depth} frames below this method, as from a typical application stack.
+     */
+    private static Exception deepException(int depth) {
+        if (depth > 0) {
+            return deepException(depth - 1);
+        }
+        return new IllegalStateException("Order ORD-1042 could not be placed");
+    }
+
+    @Threads(1)
+    public static class Threads1 extends TraceFileLoggerBenchmark {
+    }
+
+    @Threads(4)
+    public static class Threads4 extends TraceFileLoggerBenchmark {
+    }
+
+    @Threads(16)
+    public static class Threads16 extends TraceFileLoggerBenchmark {
+    }
+
+    @Threads(64)
+    public static class Threads64 extends TraceFileLoggerBenchmark {
+    }
+}
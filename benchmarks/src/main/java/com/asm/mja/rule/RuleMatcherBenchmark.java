@@ -0,0 +1,85 @@
+package com.asm.mja.rule;
+
+import com.asm.mja.transformer.Action;
+import com.asm.mja.transformer.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to find the rules for one loaded class among {@code rules} rules, half exact class names and half package
+ * wildcards, with {@link RuleMatcher} and with a scan of every rule's pattern. {@code hit} looks up a class one
+ * exact and one wildcard rule match, {@code miss} a class in no rule's package.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleMatcherBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int rules;
+
+    private List<Rule> ruleList;
+    private RuleMatcher matcher;
+    private String hit;
+    private final String miss = "org.apache.catalina.core.StandardWrapperValve";
+
+    @Setup
+    public void setup() {
+        ruleList = new ArrayList<>();
+        for (int i = 0; i < rules; i++) {
+            String pattern = i % 2 == 0 ? "com.example.pkg" + i + ".Service" + i : "com.example.pkg" + (i - 1) + ".*";
+            ruleList.add(new Rule(pattern, "handle", Event.INGRESS, Action.ARGS, 0));
+        }
+        matcher = RuleMatcher.compile(ruleList);
+        hit = "com.example.pkg" + (rules / 2 & ~1) + ".Service" + (rules / 2 & ~1);
+    }
+
+    @Benchmark
+    public List<Rule> trieHit() {
+        return matcher.match(hit);
+    }
+
+    @Benchmark
+    public List<Rule> trieMiss() {
+        return matcher.match(miss);
+    }
+
+    @Benchmark
+    public List<Rule> scanHit() {
+        return scan(hit);
+    }
+
+    @Benchmark
+    public List<Rule> scanMiss() {
+        return scan(miss);
+    }
+
+    private List<Rule> scan(String className) {
+        List<Rule> matched = new ArrayList<>();
+        for (Rule rule : ruleList) {
+            if (RuleMatcher.matchesName(rule.getClassName(), className)) {
+                matched.add(rule);
+            }
+        }
+        return matched;
+    }
+}
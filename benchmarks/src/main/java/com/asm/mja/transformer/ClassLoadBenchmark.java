@@ -0,0 +1,131 @@
+package com.asm.mja.transformer;
+
+import com.asm.mja.config.Config;
+import com.asm.mja.config.InstrumentationConfig;
+import com.asm.mja.config.TraceConfig;
+import com.asm.mja.logging.AgentLogger;
+import com.asm.mja.logging.DiscardingSink;
+import com.asm.mja.logging.LogLevel;
+import com.asm.mja.logging.TraceFileLogger;
+import com.asm.mja.logging.TraceSinkType;
+import com.asm.mja.rule.Rule;
+import com.asm.mja.rule.RuleParser;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to define {@link #CLASSES} classes no rule applies to in a fresh class loader, with {@code agent} off, and
+ * with it on, when every class first goes through {@link GlobalTransformer#transform} as the JVM hands it to the
+ * agent. The transformer holds {@code rules} rules, half exact class names and half package wildcards. Run with
+ * {@code -prof gc}: the bytes allocated per operation should not grow when the agent is on.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassLoadBenchmark {
+
+    private static final int CLASSES = 200;
+
+    @Param({"off", "on"})
+    public String agent;
+
+    @Param({"10", "1000"})
+    public int rules;
+
+    private TraceFileLogger logger;
+    private GlobalTransformer transformer;
+    private String[] names;
+    private String[] internalNames;
+    private byte[][] classfiles;
+
+    @Setup
+    public void setup() throws Exception {
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setSink(TraceSinkType.CUSTOM);
+        traceConfig.setSinkClass(DiscardingSink.class.getName());
+        Path traceDir = Files.createTempDirectory("mja-class-load-bench");
+        AgentLogger.init(traceDir.resolve("agent.log").toString(), LogLevel.WARNING);
+        logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+
+        List<String> ruleStrings = new ArrayList<>();
+        for (int i = 0; i < rules; i++) {
+            String className = i % 2 == 0 ? "com.example.pkg" + i + ".Service" + i : "com.example.pkg" + (i - 1) + ".*";
+            ruleStrings.add(className + "::handle@INGRESS::ARGS");
+        }
+        List<Rule> parsed = RuleParser.parseRules(ruleStrings);
+        Config config = new Config();
+        config.setPrintClassLoaderTrace(false);
+        config.setInstrumentation(new InstrumentationConfig());
+        transformer = new GlobalTransformer(config, logger, parsed, "javaagent", null);
+
+        names = new String[CLASSES];
+        internalNames = new String[CLASSES];
+        classfiles = new byte[CLASSES][];
+        ClassPool pool = new ClassPool(true);
+        for (int i = 0; i < CLASSES; i++) {
+            names[i] = "org.example.app.module" + (i % 10) + ".Handler" + i;
+            internalNames[i] = names[i].replace('.', '/');
+            CtClass ctClass = pool.makeClass(names[i]);
+            ctClass.addMethod(CtNewMethod.make("public int handle(int count) { return count * " + i + "; }", ctClass));
+            classfiles[i] = ctClass.toBytecode();
+            ctClass.detach();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        logger.close();
+        AgentLogger.close();
+    }
+
+    @Benchmark
+    public ClassLoader loadClasses() throws Exception {
+        boolean transform = "on".equals(agent);
+        DefiningLoader loader = new DefiningLoader();
+        for (int i = 0; i < CLASSES; i++) {
+            byte[] bytes = classfiles[i];
+            if (transform) {
+                bytes = transformer.transform(loader, internalNames[i], null, null, bytes);
+            }
+            loader.define(names[i], bytes);
+        }
+        return loader;
+    }
+
+    private static final class DefiningLoader extends ClassLoader {
+
+        private DefiningLoader() {
+            super(ClassLoadBenchmark.class.getClassLoader());
+        }
+
+        private void define(String name, byte[] bytes) {
+            defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.asm.mja.transformer;
+
+import com.asm.mja.config.Config;
+import com.asm.mja.config.InstrumentationConfig;
+import com.asm.mja.config.TraceConfig;
+import com.asm.mja.logging.AgentLogger;
+import com.asm.mja.logging.DiscardingSink;
+import com.asm.mja.logging.LogLevel;
+import com.asm.mja.logging.TraceFileLogger;
+import com.asm.mja.logging.TraceSinkType;
+import com.asm.mja.rule.Rule;
+import com.asm.mja.rule.RuleParser;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time {@link GlobalTransformer#transform} keeps the class loader waiting for a class with {@code methods}
+ * methods that {@code rules} rules apply to, cycling through ARGS, RET, STACK and PROFILE on different methods,
+ * with each {@code engine}. Run with {@code -prof gc} to see bytes allocated per transformation.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassTransformBenchmark {
+
+    private static final String CLASS_NAME = "com.example.bench.LargeService";
+    private static final String[] RULE_SUFFIXES = {"@INGRESS::ARGS", "@EGRESS::RET", "@INGRESS::STACK", "@PROFILE"};
+
+    @Param({"50", "500"})
+    public int methods;
+
+    @Param({"1", "6", "24"})
+    public int rules;
+
+    @Param({"javassist", "asm"})
+    public String engine;
+
+    private TraceFileLogger logger;
+    private GlobalTransformer transformer;
+    private byte[] classfile;
+
+    @Setup
+    public void setup() throws Exception {
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setSink(TraceSinkType.CUSTOM);
+        traceConfig.setSinkClass(DiscardingSink.class.getName());
+        Path traceDir = Files.createTempDirectory("mja-transform-bench");
+        // handlers log the generated code at info
+        AgentLogger.init(traceDir.resolve("agent.log").toString(), LogLevel.WARNING);
+        logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+        classfile = largeClass(methods);
+
+        List<String> ruleStrings = new ArrayList<>();
+        for (int i = 0; i < rules; i++) {
+            ruleStrings.add(CLASS_NAME + "::m" + (i * methods / rules) + RULE_SUFFIXES[i % RULE_SUFFIXES.length]);
+        }
+        List<Rule> parsed = RuleParser.parseRules(ruleStrings);
+        InstrumentationConfig instrumentation = new InstrumentationConfig();
+        instrumentation.setEngine(InstrumentationEngine.fromValue(engine));
+        Config config = new Config();
+        config.setPrintClassLoaderTrace(false);
+        config.setInstrumentation(instrumentation);
+        transformer = new GlobalTransformer(config, logger, parsed, "javaagent", null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        logger.close();
+        AgentLogger.close();
+    }
+
+    @Benchmark
+    public byte[] transform() throws Exception {
+        return transformer.transform(null, CLASS_NAME.replace('.', '/'), null, null, classfile);
+    }
+
+    private static byte[] largeClass(int methods) throws Exception {
+        CtClass ctClass = ClassPool.getDefault().makeClass(CLASS_NAME);
+        for (int i = 0; i < methods; i++) {
+            ctClass.addMethod(CtNewMethod.make(
+                    "public int m" + i + "(int count, String name) {" +
+                    "    int total = 0;" +
+                    "    for (int j = 0; j < count; j++) { total += name.length() * j; }" +
+                    "    return total;" +
+                    "}", ctClass));
+        }
+        byte[] bytes = ctClass.toBytecode();
+        ctClass.detach();
+        return bytes;
+    }
+}
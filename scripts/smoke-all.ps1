@@ -3,13 +3,18 @@ $ErrorActionPreference = "Stop"
 
 $scriptDir = Split-Path -Parent $MyInvocation.MyCommand.Path
 
-Write-Host "[smoke-all] Running startup attach smoke..."
-& (Join-Path $scriptDir "smoke-javaagent.ps1")
+# the default engine first, then the asm engine
+foreach ($engine in @("javassist", "asm")) {
+    $env:MJA_ENGINE = $engine
 
-Write-Host "[smoke-all] Running runtime attach smoke..."
-& (Join-Path $scriptDir "smoke-attach.ps1")
+    Write-Host "[smoke-all] Running startup attach smoke ($engine)..."
+    & (Join-Path $scriptDir "smoke-javaagent.ps1")
 
-Write-Host "[smoke-all] Running class replacement smoke..."
-& (Join-Path $scriptDir "smoke-class-replace.ps1")
+    Write-Host "[smoke-all] Running runtime attach smoke ($engine)..."
+    & (Join-Path $scriptDir "smoke-attach.ps1")
+
+    Write-Host "[smoke-all] Running class replacement smoke ($engine)..."
+    & (Join-Path $scriptDir "smoke-class-replace.ps1")
+}
 
 Write-Host "[smoke-all] PASS"
@@ -3,13 +3,18 @@ set -euo pipefail
 
 script_dir="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 
-echo "[smoke-all] Running startup attach smoke..."
-bash "$script_dir/smoke-javaagent.sh"
+# the default engine first, then the asm engine
+for engine in javassist asm; do
+  export MJA_ENGINE="$engine"
 
-echo "[smoke-all] Running runtime attach smoke..."
-bash "$script_dir/smoke-attach.sh"
+  echo "[smoke-all] Running startup attach smoke ($engine)..."
+  bash "$script_dir/smoke-javaagent.sh"
 
-echo "[smoke-all] Running class replacement smoke..."
-bash "$script_dir/smoke-class-replace.sh"
+  echo "[smoke-all] Running runtime attach smoke ($engine)..."
+  bash "$script_dir/smoke-attach.sh"
+
+  echo "[smoke-all] Running class replacement smoke ($engine)..."
+  bash "$script_dir/smoke-class-replace.sh"
+done
 
 echo "[smoke-all] PASS"
@@ -1,6 +1,10 @@
 Set-StrictMode -Version Latest
 $ErrorActionPreference = "Stop"
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+$engine = if ($env:MJA_ENGINE) { $env:MJA_ENGINE } else { "javassist" }
+$verifyArgs = @(if ($engine -eq "javassist") { "-Xverify:none" })
+
 function Assert-True {
     param(
         [bool]$Condition,
@@ -87,6 +91,7 @@ instrumentation:
   enabled: true
   configRefreshInterval: 1000
   traceFileLocation: "$(Escape-YamlPath $traceRoot)"
+  engine: $engine
   agentRules:
     - com.monarchit.target.TargetApp::TargetApp@INGRESS::ARGS
     - com.monarchit.target.TargetApp::hotMethod@INGRESS::ARGS
@@ -124,7 +129,7 @@ $targetStdErr = Join-Path $runDir "target.err.log"
 Write-Host "[smoke-attach] Starting target app without agent..."
 $proc = Start-Process `
     -FilePath "java" `
-    -ArgumentList @("-Xverify:none", "-cp", $targetClasses, "com.monarchit.target.TargetApp") `
+    -ArgumentList ($verifyArgs + @("-cp", $targetClasses, "com.monarchit.target.TargetApp")) `
     -PassThru `
     -RedirectStandardOutput $targetStdOut `
     -RedirectStandardError $targetStdErr
@@ -1,6 +1,13 @@
 #!/usr/bin/env bash
 set -euo pipefail
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+engine="${MJA_ENGINE:-javassist}"
+verify_opt=""
+if [ "$engine" = "javassist" ]; then
+  verify_opt="-Xverify:none"
+fi
+
 wait_until() {
   local timeout_secs="$1"
   local poll_interval_secs="$2"
@@ -71,6 +78,7 @@ instrumentation:
   enabled: true
   configRefreshInterval: 1000
   traceFileLocation: "$escaped_trace_root"
+  engine: $engine
   agentRules:
     - com.monarchit.target.TargetApp::TargetApp@INGRESS::ARGS
     - com.monarchit.target.TargetApp::hotMethod@INGRESS::ARGS
@@ -105,7 +113,7 @@ target_stdout="$run_dir/target.out.log"
 target_stderr="$run_dir/target.err.log"
 
 echo "[smoke-attach] Starting target app without agent..."
-java -Xverify:none -cp "$target_classes" com.monarchit.target.TargetApp >"$target_stdout" 2>"$target_stderr" &
+java ${verify_opt:+"$verify_opt"} -cp "$target_classes" com.monarchit.target.TargetApp >"$target_stdout" 2>"$target_stderr" &
 target_pid=$!
 
 cleanup() {
@@ -1,6 +1,13 @@
 #!/usr/bin/env bash
 set -euo pipefail
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+engine="${MJA_ENGINE:-javassist}"
+verify_opt=""
+if [ "$engine" = "javassist" ]; then
+  verify_opt="-Xverify:none"
+fi
+
 escape_yaml_path() {
   echo "$1" | sed 's/\\/\\\\/g'
 }
@@ -60,6 +67,7 @@ instrumentation:
   enabled: true
   configRefreshInterval: 1000
   traceFileLocation: "$escaped_trace_root"
+  engine: $engine
   agentRules:
     - com.monarchit.target.TargetApp@CHANGE::FILE::[$escaped_patch_class]
     - com.monarchit.target.*@CHANGE::JAR::[$escaped_patch_jar]
@@ -88,7 +96,7 @@ target_stdout="$run_dir/target.out.log"
 target_stderr="$run_dir/target.err.log"
 
 echo "[smoke-class-replace] Starting target app without agent..."
-java -Xverify:none -cp "$target_classes" com.monarchit.target.TargetApp >"$target_stdout" 2>"$target_stderr" &
+java ${verify_opt:+"$verify_opt"} -cp "$target_classes" com.monarchit.target.TargetApp >"$target_stdout" 2>"$target_stderr" &
 target_pid=$!
 
 cleanup() {
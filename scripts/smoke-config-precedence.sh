@@ -1,6 +1,13 @@
 #!/usr/bin/env bash
 set -euo pipefail
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+engine="${MJA_ENGINE:-javassist}"
+verify_opt=""
+if [ "$engine" = "javassist" ]; then
+  verify_opt="-Xverify:none"
+fi
+
 escape_yaml_path() {
   echo "$1" | sed 's/\\/\\\\/g'
 }
@@ -43,6 +50,7 @@ instrumentation:
   enabled: false
   configRefreshInterval: 1000
   traceFileLocation: "$escaped_trace_root"
+  engine: $engine
 observer:
   enabled: true
   printClassLoaderTrace: false
@@ -69,7 +77,7 @@ target_stdout="$run_dir/target.out.log"
 target_stderr="$run_dir/target.err.log"
 
 echo "[smoke-config-precedence] Starting target app with nested+legacy config..."
-java -Xverify:none "-javaagent:$agent_jar_local=$agent_args" -cp "$target_classes" com.monarchit.target.TargetApp >"$target_stdout" 2>"$target_stderr" &
+java ${verify_opt:+"$verify_opt"} "-javaagent:$agent_jar_local=$agent_args" -cp "$target_classes" com.monarchit.target.TargetApp >"$target_stdout" 2>"$target_stderr" &
 target_pid=$!
 
 cleanup() {
@@ -1,6 +1,10 @@
 Set-StrictMode -Version Latest
 $ErrorActionPreference = "Stop"
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+$engine = if ($env:MJA_ENGINE) { $env:MJA_ENGINE } else { "javassist" }
+$verifyArgs = @(if ($engine -eq "javassist") { "-Xverify:none" })
+
 function Assert-True {
     param(
         [bool]$Condition,
@@ -44,6 +48,7 @@ instrumentation:
   enabled: true
   configRefreshInterval: 1000
   traceFileLocation: "$(Escape-YamlPath $TraceRoot)"
+  engine: $engine
   agentRules:
     - com.monarchit.target.TargetApp::hotMethod@EGRESS::RET
 $addRule
@@ -105,7 +110,7 @@ Write-Host "[smoke-config-reload] Starting target app with initial ADD rule..."
 $proc = Start-Process `
     -FilePath "java" `
     -ArgumentList @(
-        "-Xverify:none",
+        $verifyArgs
         "-javaagent:`"$agentJarLocal`"=$agentArgs",
         "-cp", $targetClasses,
         "com.monarchit.target.TargetApp"
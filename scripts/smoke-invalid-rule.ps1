@@ -1,6 +1,10 @@
 Set-StrictMode -Version Latest
 $ErrorActionPreference = "Stop"
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+$engine = if ($env:MJA_ENGINE) { $env:MJA_ENGINE } else { "javassist" }
+$verifyArgs = @(if ($engine -eq "javassist") { "-Xverify:none" })
+
 function Assert-True {
     param(
         [bool]$Condition,
@@ -60,6 +64,7 @@ instrumentation:
   enabled: true
   configRefreshInterval: 1000
   traceFileLocation: "$(Escape-YamlPath $traceRoot)"
+  engine: $engine
   agentRules:
     - com.monarchit.target.TargetApp::hotMethod@INGRESS::NOT_A_REAL_ACTION
 observer:
@@ -90,7 +95,7 @@ Write-Host "[smoke-invalid-rule] Starting target app with invalid rule config...
 $proc = Start-Process `
     -FilePath "java" `
     -ArgumentList @(
-        "-Xverify:none",
+        $verifyArgs
         "-javaagent:`"$agentJarLocal`"=$agentArgs",
         "-cp", $targetClasses,
         "com.monarchit.target.TargetApp"
@@ -1,6 +1,13 @@
 #!/usr/bin/env bash
 set -euo pipefail
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+engine="${MJA_ENGINE:-javassist}"
+verify_opt=""
+if [ "$engine" = "javassist" ]; then
+  verify_opt="-Xverify:none"
+fi
+
 escape_yaml_path() {
   echo "$1" | sed 's/\\/\\\\/g'
 }
@@ -43,6 +50,7 @@ instrumentation:
   enabled: true
   configRefreshInterval: 1000
   traceFileLocation: "$escaped_trace_root"
+  engine: $engine
   agentRules:
     - com.monarchit.target.TargetApp::hotMethod@INGRESS::NOT_A_REAL_ACTION
 observer:
@@ -70,7 +78,7 @@ target_stderr="$run_dir/target.err.log"
 
 echo "[smoke-invalid-rule] Starting target app with invalid rule config..."
 set +e
-java -Xverify:none "-javaagent:$agent_jar_local=$agent_args" -cp "$target_classes" com.monarchit.target.TargetApp >"$target_stdout" 2>"$target_stderr"
+java ${verify_opt:+"$verify_opt"} "-javaagent:$agent_jar_local=$agent_args" -cp "$target_classes" com.monarchit.target.TargetApp >"$target_stdout" 2>"$target_stderr"
 exit_code=$?
 set -e
 
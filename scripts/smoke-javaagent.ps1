@@ -1,6 +1,10 @@
 Set-StrictMode -Version Latest
 $ErrorActionPreference = "Stop"
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+$engine = if ($env:MJA_ENGINE) { $env:MJA_ENGINE } else { "javassist" }
+$verifyArgs = @(if ($engine -eq "javassist") { "-Xverify:none" })
+
 function Assert-True {
     param(
         [bool]$Condition,
@@ -70,6 +74,7 @@ instrumentation:
   enabled: true
   configRefreshInterval: 1000
   traceFileLocation: "$(Escape-YamlPath $traceRoot)"
+  engine: $engine
   agentRules:
     - com.monarchit.target.TargetApp::TargetApp@INGRESS::ARGS
     - com.monarchit.target.TargetApp::hotMethod@INGRESS::ARGS
@@ -108,7 +113,7 @@ Write-Host "[smoke-javaagent] Starting target app with -javaagent..."
 $proc = Start-Process `
     -FilePath "java" `
     -ArgumentList @(
-        "-Xverify:none",
+        $verifyArgs
         "-javaagent:`"$agentJarLocal`"=$agentArgs",
         "-cp", $targetClasses,
         "com.monarchit.target.TargetApp"
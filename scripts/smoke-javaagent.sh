@@ -1,6 +1,13 @@
 #!/usr/bin/env bash
 set -euo pipefail
 
+# instrumentation engine under test; javassist, the default, still needs bytecode verification turned off
+engine="${MJA_ENGINE:-javassist}"
+verify_opt=""
+if [ "$engine" = "javassist" ]; then
+  verify_opt="-Xverify:none"
+fi
+
 assert_true() {
   local condition="$1"
   local message="$2"
@@ -59,6 +66,7 @@ instrumentation:
   enabled: true
   configRefreshInterval: 1000
   traceFileLocation: "$escaped_trace_root"
+  engine: $engine
   agentRules:
     - com.monarchit.target.TargetApp::TargetApp@INGRESS::ARGS
     - com.monarchit.target.TargetApp::hotMethod@INGRESS::ARGS
@@ -93,7 +101,7 @@ target_stdout="$run_dir/target.out.log"
 target_stderr="$run_dir/target.err.log"
 
 echo "[smoke-javaagent] Starting target app with -javaagent..."
-java -Xverify:none "-javaagent:$agent_jar_local=$agent_args" -cp "$target_classes" com.monarchit.target.TargetApp \
+java ${verify_opt:+"$verify_opt"} "-javaagent:$agent_jar_local=$agent_args" -cp "$target_classes" com.monarchit.target.TargetApp \
   >"$target_stdout" 2>"$target_stderr" &
 target_pid=$!
 
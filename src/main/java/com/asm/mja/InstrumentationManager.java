@@ -2,6 +2,7 @@ package com.asm.mja;
 
 import com.asm.mja.config.Config;
 import com.asm.mja.config.ConfigParser;
+import com.asm.mja.logging.ProbeSwitches;
 import com.asm.mja.metrics.MetricsHttpServer;
 import com.asm.mja.monitor.*;
 import com.asm.mja.rule.Rule;
@@ -42,6 +43,9 @@ public class InstrumentationManager implements Runnable {
 
     private List<Rule> currentRules;
 
+    // Instrumentation rules whose probes are in the loaded classes, switched on or off
+    private List<Rule> wovenRules = Collections.emptyList();
+
     private JVMMemoryMonitor jvmMemoryMonitor;
 
     private JVMCPUMonitor jvmCpuMonitor;
@@ -94,6 +98,7 @@ public class InstrumentationManager implements Runnable {
 
     public void setCurrentRules(List<Rule> currentRules) {
         this.currentRules = currentRules;
+        this.wovenRules = currentRules == null ? Collections.<Rule>emptyList() : transformerRules(currentRules);
     }
 
     public void setConfigRefreshInterval(Long configRefreshInterval) {this.configRefreshInterval = configRefreshInterval; }
@@ -146,30 +151,107 @@ public class InstrumentationManager implements Runnable {
             return;
         }
 
+        List<String> rulesString = new ArrayList<>(config.getAgentRules());
+        List<Rule> newRules;
+        try {
+            newRules = RuleParser.parseRules(rulesString);
+        } catch (Throwable t) {
+            logger.error("Failed to parse new rules during config reload; keeping previous instrumentation. Reason: " + t.getMessage());
+            return;
+        }
+
+        if (canSwitchProbes(config, newRules)) {
+            transformer.resetConfig(config);
+            switchProbes(transformerRules(newRules));
+            currentRules = newRules;
+            initialConfig = config;
+            return;
+        }
+
         if (!isBackupDirAvailable()) {
             logger.warn("No backup available, won't proceed with reverting instrumentations");
             initialConfig = config;
             return;
         }
 
-        List<Rule> rules = currentRules == null ? Collections.<Rule>emptyList() : new ArrayList<>(currentRules);
+        List<Rule> rules = revertibleRules();
         resetTransformerState();
         revertInstrumentation(rules);
 
         transformer.resetConfig(config);
-        List<String> rulesString = new ArrayList<>(config.getAgentRules());
-        List<Rule> newRules;
-        try {
-            newRules = RuleParser.parseRules(rulesString);
-        } catch (Throwable t) {
-            logger.error("Failed to parse new rules during config reload; keeping previous instrumentation. Reason: " + t.getMessage());
-            return;
+        List<Rule> newWovenRules = transformerRules(newRules);
+        // switched on before the classes are redefined, as rules switched off earlier keep their switch
+        for (Rule rule : newWovenRules) {
+            ProbeSwitches.setEnabled(rule.getKey(), true);
         }
         addNewInstrumentation(newRules);
+        wovenRules = newWovenRules;
         currentRules = newRules;
         initialConfig = config;
     }
 
+    /**
+     * A reload that keeps the engine and the class replacement rules, and whose instrumentation rules are all
+     * woven already, only switches probes on and off, without redefining any class.
+     */
+    private boolean canSwitchProbes(Config config, List<Rule> newRules) {
+        if (initialConfig == null || initialConfig.getInstrumentationEngine() != config.getInstrumentationEngine()) {
+            return false;
+        }
+        List<Rule> rules = currentRules == null ? Collections.<Rule>emptyList() : currentRules;
+        if (!ruleKeys(replacementRules(rules)).equals(ruleKeys(replacementRules(newRules)))) {
+            return false;
+        }
+        return ruleKeys(wovenRules).containsAll(ruleKeys(transformerRules(newRules)));
+    }
+
+    private void switchProbes(List<Rule> enabledRules) {
+        Set<String> enabledKeys = ruleKeys(enabledRules);
+        int switchedOn = 0;
+        int switchedOff = 0;
+        for (String key : ruleKeys(wovenRules)) {
+            boolean enabled = enabledKeys.contains(key);
+            if (ProbeSwitches.setEnabled(key, enabled)) {
+                if (enabled) {
+                    switchedOn++;
+                } else {
+                    switchedOff++;
+                }
+            }
+        }
+        logger.trace("Switched probes of " + switchedOn + " rule(s) on and " + switchedOff
+                + " rule(s) off without redefining classes");
+    }
+
+    /**
+     * @return the rules whose classes differ from their backup: woven rules, switched on or not, and class replacements.
+     */
+    private List<Rule> revertibleRules() {
+        List<Rule> rules = new ArrayList<>(wovenRules);
+        if (currentRules != null) {
+            rules.addAll(replacementRules(currentRules));
+        }
+        return rules;
+    }
+
+    private static List<Rule> transformerRules(List<Rule> rules) {
+        return rules.stream()
+                .filter(rule -> !rule.isClassReplacementRule())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Rule> replacementRules(List<Rule> rules) {
+        return rules.stream()
+                .filter(Rule::isClassReplacementRule)
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> ruleKeys(List<Rule> rules) {
+        return rules.stream()
+                .map(Rule::getKey)
+                .collect(Collectors.toSet());
+    }
+
     private boolean isBackupDirAvailable() {
         String backupDir = logger.getTraceDir() + File.separator + "backup";
         return new File(backupDir).exists();
@@ -184,15 +266,8 @@ public class InstrumentationManager implements Runnable {
     }
 
     private void addNewInstrumentation(List<Rule> newRules) {
-        List<Rule> transformerRules = newRules.stream()
-                .filter(rule -> !rule.isClassReplacementRule())
-                .collect(Collectors.toList());
-        List<Rule> replacementRules = newRules.stream()
-                .filter(Rule::isClassReplacementRule)
-                .collect(Collectors.toList());
-
-        applyTransformerRules(transformerRules);
-        applyClassReplacementRules(replacementRules);
+        applyTransformerRules(transformerRules(newRules));
+        applyClassReplacementRules(replacementRules(newRules));
     }
 
     private void applyTransformerRules(List<Rule> transformerRules) {
@@ -417,10 +492,7 @@ public class InstrumentationManager implements Runnable {
         if (currentRules == null || currentRules.isEmpty()) {
             return;
         }
-        List<Rule> replacementRules = currentRules.stream()
-                .filter(Rule::isClassReplacementRule)
-                .collect(Collectors.toList());
-        applyClassReplacementRules(replacementRules);
+        applyClassReplacementRules(replacementRules(currentRules));
     }
 
     public void shutdown() {
@@ -550,22 +622,24 @@ public class InstrumentationManager implements Runnable {
     }
 
     private void disableInstrumentationIfActive(Config config) {
-        if (transformer == null || currentRules == null || currentRules.isEmpty()) {
+        if (transformer == null || revertibleRules().isEmpty()) {
             initialConfig = config;
             currentRules = Collections.emptyList();
             return;
         }
 
         if (!isBackupDirAvailable()) {
-            logger.warn("No backup available, won't proceed with reverting instrumentations");
+            logger.warn("No backup available, won't proceed with reverting instrumentations; switching their probes off instead");
+            switchProbes(Collections.<Rule>emptyList());
             initialConfig = config;
             currentRules = Collections.emptyList();
             return;
         }
 
-        List<Rule> rules = new ArrayList<>(currentRules);
+        List<Rule> rules = revertibleRules();
         resetTransformerState();
         revertInstrumentation(rules);
+        wovenRules = Collections.emptyList();
         currentRules = Collections.emptyList();
         initialConfig = config;
         logger.trace("Instrumentation disabled by config reload");
@@ -4,6 +4,7 @@ import com.asm.mja.config.Config;
 import com.asm.mja.config.ConfigValidationResult;
 import com.asm.mja.logging.AgentLogger;
 import com.asm.mja.logging.TraceFileLogger;
+import com.asm.mja.logging.TraceHousekeeper;
 import com.asm.mja.rule.Rule;
 import com.asm.mja.rule.RuleParser;
 import com.asm.mja.transformer.GlobalTransformer;
@@ -71,7 +72,8 @@ public class AgentStartupOrchestrator {
             }
 
             AgentLogger.debug("Creating TraceFileLogger instance for instrumentation logging");
-            TraceFileLogger traceFileLogger = TraceBootstrap.setupTraceFileLogger(config.getTraceFileLocation());
+            TraceFileLogger traceFileLogger = TraceBootstrap.setupTraceFileLogger(config.getTraceFileLocation(), config.getTraceConfig());
+            TraceBootstrap.startHousekeeping(config.getTraceFileLocation(), traceFileLogger, config.getHousekeepingConfig());
 
             traceFileLogger.trace(AGENT_NAME + " Java Agent " + VERSION);
             traceFileLogger.trace(JVMUtils.getJVMCommandLine());
@@ -114,7 +116,10 @@ public class AgentStartupOrchestrator {
             InstrumentationManagerBootstrap.start(inst, configFile, globalTransformer, traceFileLogger, rules, config);
 
             AgentLogger.debug("Setting up shutdown hook to close resources");
-            Thread shutdownHook = new Thread(traceFileLogger::close);
+            Thread shutdownHook = new Thread(() -> {
+                traceFileLogger.close();
+                TraceHousekeeper.getInstance().stop();
+            });
             shutdownHook.setName("monarch-shutdown-hook");
             Runtime.getRuntime().addShutdownHook(shutdownHook);
 
@@ -1,6 +1,9 @@
 package com.asm.mja.bootstrap;
 
+import com.asm.mja.config.HousekeepingConfig;
+import com.asm.mja.config.TraceConfig;
 import com.asm.mja.logging.TraceFileLogger;
+import com.asm.mja.logging.TraceHousekeeper;
 import com.asm.mja.utils.DateUtils;
 import com.asm.mja.utils.JVMUtils;
 
@@ -17,16 +20,30 @@ public class TraceBootstrap {
     }
 
     public static TraceFileLogger setupTraceFileLogger(String traceFileLocation) {
+        return setupTraceFileLogger(traceFileLocation, new TraceConfig());
+    }
+
+    public static TraceFileLogger setupTraceFileLogger(String traceFileLocation, TraceConfig traceConfig) {
         TraceFileLogger traceFileLogger;
         String traceDir = traceFileLocation + File.separator + "Monarch_" + JVMUtils.getJVMPID() + "_" + DateUtils.getFormattedTimestampForFileName();
         File traceDirObj = new File(traceDir);
         if (traceDirObj.mkdir()) {
             traceFileLogger = TraceFileLogger.getInstance();
-            traceFileLogger.init(traceDirObj.getAbsolutePath());
+            traceFileLogger.init(traceDirObj.getAbsolutePath(), traceConfig);
         } else {
             traceFileLogger = TraceFileLogger.getInstance();
-            traceFileLogger.init(traceFileLocation);
+            traceFileLogger.init(traceFileLocation, traceConfig);
         }
         return traceFileLogger;
     }
+
+    /**
+     * Starts retention of trace files, class backups and heap dumps under {@code traceFileLocation}.
+     */
+    public static void startHousekeeping(String traceFileLocation, TraceFileLogger traceFileLogger, HousekeepingConfig housekeepingConfig) {
+        TraceHousekeeper.getInstance().start(traceFileLocation, traceFileLogger.getTraceDir(), housekeepingConfig);
+        if (housekeepingConfig.isRetentionEnabled()) {
+            traceFileLogger.trace("Housekeeping started with " + housekeepingConfig);
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package com.asm.mja.config;
 
+import com.asm.mja.transformer.InstrumentationEngine;
+
 import java.util.HashSet;
 import java.util.List;
 
@@ -56,6 +58,27 @@ public class Config {
         this.agentRules = agentRules;
     }
 
+    public TraceConfig getTraceConfig() {
+        if (instrumentation != null && instrumentation.getTrace() != null) {
+            return instrumentation.getTrace();
+        }
+        return new TraceConfig();
+    }
+
+    public HousekeepingConfig getHousekeepingConfig() {
+        if (instrumentation != null && instrumentation.getHousekeeping() != null) {
+            return instrumentation.getHousekeeping();
+        }
+        return new HousekeepingConfig();
+    }
+
+    public InstrumentationEngine getInstrumentationEngine() {
+        if (instrumentation != null && instrumentation.getEngine() != null) {
+            return instrumentation.getEngine();
+        }
+        return InstrumentationEngine.JAVASSIST;
+    }
+
     public boolean isPrintClassLoaderTrace() {
         if (observer != null && observer.getPrintClassLoaderTrace() != null) {
             return observer.getPrintClassLoaderTrace();
@@ -1,6 +1,11 @@
 package com.asm.mja.config;
 
 import com.asm.mja.logging.AgentLogger;
+import com.asm.mja.logging.SocketEndpoint;
+import com.asm.mja.logging.TraceBudget;
+import com.asm.mja.logging.TraceFormat;
+import com.asm.mja.logging.TraceShardMode;
+import com.asm.mja.logging.TraceSinkType;
 import com.asm.mja.rule.ReplacementSourceType;
 import com.asm.mja.rule.Rule;
 import com.asm.mja.rule.RuleParser;
@@ -83,9 +88,224 @@ public class ConfigValidator {
             return false;
         }
 
+        return isTraceValid(config.getTraceConfig()) && isHousekeepingValid(config.getHousekeepingConfig());
+    }
+
+    private static boolean isTraceValid(TraceConfig traceConfig) {
+        if (traceConfig.getResolvedBufferSize() <= 0) {
+            AgentLogger.error("Trace buffer size must be greater than zero");
+            return false;
+        }
+
+        if (traceConfig.getResolvedSampleRate() <= 0) {
+            AgentLogger.error("Trace sample rate must be greater than zero");
+            return false;
+        }
+
+        int segmentSizeMb = traceConfig.getResolvedSegmentSizeMb();
+        if (segmentSizeMb <= 0 || segmentSizeMb > TraceConfig.MAX_SEGMENT_SIZE_MB) {
+            AgentLogger.error("Trace segment size must be between 1 and " + TraceConfig.MAX_SEGMENT_SIZE_MB + " MB");
+            return false;
+        }
+
+        if (traceConfig.getResolvedMaxSegments() <= 0) {
+            AgentLogger.error("Trace segment count must be greater than zero");
+            return false;
+        }
+
+        int maxTotalSizeMb = traceConfig.getResolvedMaxTotalSizeMb();
+        if (maxTotalSizeMb < 0 || (maxTotalSizeMb > 0 && maxTotalSizeMb < segmentSizeMb)) {
+            AgentLogger.error("Trace maxTotalSizeMb must be zero (no limit) or at least the segment size");
+            return false;
+        }
+
+        if (traceConfig.getResolvedShardBy() != TraceShardMode.NONE) {
+            if (traceConfig.isAsyncEnabled()) {
+                AgentLogger.error("Trace shardBy cannot be combined with async; sharded traces are written by each producing thread");
+                return false;
+            }
+            if (traceConfig.isDeferStacksEnabled()) {
+                AgentLogger.error("Trace shardBy cannot be combined with deferStacks; sharded traces are written by each producing thread");
+                return false;
+            }
+            if (traceConfig.getResolvedSink() != TraceSinkType.FILE) {
+                AgentLogger.error("Trace shardBy requires the file sink");
+                return false;
+            }
+        }
+
+        if (traceConfig.getResolvedSink() == TraceSinkType.SOCKET && !isSocketSinkValid(traceConfig)) {
+            return false;
+        }
+
+        if (traceConfig.getResolvedSink() == TraceSinkType.CUSTOM
+                && (traceConfig.getSinkClass() == null || traceConfig.getSinkClass().trim().isEmpty())) {
+            AgentLogger.error("Trace sink custom requires sinkClass, the name of a TraceSink implementation");
+            return false;
+        }
+
+        int journalSizeMb = traceConfig.getResolvedJournalSizeMb();
+        if (journalSizeMb < 0 || journalSizeMb > TraceConfig.MAX_SEGMENT_SIZE_MB) {
+            AgentLogger.error("Trace journalSizeMb must be zero (no journal) or at most " + TraceConfig.MAX_SEGMENT_SIZE_MB + " MB");
+            return false;
+        }
+        if (journalSizeMb > 0 && traceConfig.getResolvedFormat() == TraceFormat.BINARY) {
+            AgentLogger.error("Trace journal requires the text or json format; binary records cannot be read without their dictionary");
+            return false;
+        }
+
+        int indexBucketSec = traceConfig.getResolvedIndexBucketSec();
+        if (indexBucketSec < 0) {
+            AgentLogger.error("Trace indexBucketSec must be zero (no index) or greater");
+            return false;
+        }
+        if (indexBucketSec > 0) {
+            if (traceConfig.getResolvedFormat() == TraceFormat.BINARY) {
+                AgentLogger.error("Trace index requires the text or json format");
+                return false;
+            }
+            if (traceConfig.getResolvedSink() != TraceSinkType.FILE || traceConfig.isRotationEnabled()
+                    || traceConfig.getResolvedShardBy() != TraceShardMode.NONE) {
+                AgentLogger.error("Trace index requires the file sink without rotation or shardBy; it indexes a single agent.trace");
+                return false;
+            }
+        }
+
+        FlightRecorderConfig flightRecorder = traceConfig.getResolvedFlightRecorder();
+        if (flightRecorder.isEnabled()) {
+            if (flightRecorder.getResolvedMaxEvents() <= 0) {
+                AgentLogger.error("Flight recorder maxEvents must be greater than zero");
+                return false;
+            }
+            if (flightRecorder.getResolvedMaxAgeSec() < 0 || flightRecorder.getResolvedMinDumpIntervalSec() < 0) {
+                AgentLogger.error("Flight recorder maxAgeSec and minDumpIntervalSec must be zero or greater");
+                return false;
+            }
+        }
+
+        TraceBudgetConfig budget = traceConfig.getResolvedBudget();
+        if (budget.getResolvedMaxKbPerSec() < 0 || budget.getResolvedMaxDiskMb() < 0) {
+            AgentLogger.error("Trace budget maxKbPerSec and maxDiskMb must be zero (no budget) or greater");
+            return false;
+        }
+        if (budget.isEnabled()) {
+            if (budget.getResolvedStackSampleEvery() <= 0) {
+                AgentLogger.error("Trace budget stackSampleEvery must be greater than zero");
+                return false;
+            }
+            if (budget.getResolvedRecoverAfterSec() < 0) {
+                AgentLogger.error("Trace budget recoverAfterSec must be zero or greater");
+                return false;
+            }
+        }
+        if (budget.getResolvedMaxDiskMb() > 0 && !isDiskBudgetRecoverable(traceConfig, budget.getResolvedMaxDiskMb())) {
+            AgentLogger.error("Trace budget maxDiskMb requires the mmap sink or rotation, with maxTotalSizeMb at most "
+                    + TraceBudget.RECOVER_BELOW_PERCENT + "% of maxDiskMb; only the run's own files are pruned, "
+                    + "so verbosity lowered by an unbounded trace would never be raised again");
+            return false;
+        }
+
+        if (traceConfig.getResolvedStackSummaryIntervalSec() < 0) {
+            AgentLogger.error("Trace stackSummaryIntervalSec must be zero (shutdown only) or greater");
+            return false;
+        }
+
+        if (traceConfig.getResolvedStackSummaryTop() <= 0) {
+            AgentLogger.error("Trace stackSummaryTop must be greater than zero");
+            return false;
+        }
+
+        if (traceConfig.getResolvedStackMaxDepth() < 0) {
+            AgentLogger.error("Trace stackMaxDepth must be zero (whole stack) or greater");
+            return false;
+        }
+
+        if (traceConfig.getResolvedRateLimitReportIntervalSec() < 0) {
+            AgentLogger.error("Trace rateLimitReportIntervalSec must be zero (shutdown only) or greater");
+            return false;
+        }
+
+        if (traceConfig.getResolvedRotateSizeMb() < 0 || traceConfig.getResolvedRotateIntervalMin() < 0) {
+            AgentLogger.error("Trace rotateSizeMb and rotateIntervalMin must be zero (no rotation) or greater");
+            return false;
+        }
+
+        if (traceConfig.isRotationEnabled()) {
+            if (traceConfig.getResolvedSink() != TraceSinkType.FILE) {
+                AgentLogger.error("Trace rotation applies to the file sink; the mmap sink rolls by segmentSizeMb");
+                return false;
+            }
+            if (traceConfig.getResolvedShardBy() != TraceShardMode.NONE) {
+                AgentLogger.error("Trace rotation cannot be combined with shardBy");
+                return false;
+            }
+        }
+
         return true;
     }
 
+    /**
+     * The disk budget measures the current run's trace directory, which only retention shrinks: verbosity can only
+     * recover if retention keeps the trace files under the level at which it is raised again.
+     */
+    private static boolean isDiskBudgetRecoverable(TraceConfig traceConfig, long maxDiskMb) {
+        boolean sizeBounded = traceConfig.getResolvedSink() == TraceSinkType.MMAP || traceConfig.isRotationEnabled();
+        long maxTotalSizeMb = traceConfig.getResolvedMaxTotalSizeMb();
+        return sizeBounded && maxTotalSizeMb > 0 && maxTotalSizeMb * 100 <= maxDiskMb * TraceBudget.RECOVER_BELOW_PERCENT;
+    }
+
+    private static boolean isSocketSinkValid(TraceConfig traceConfig) {
+        SocketEndpoint endpoint;
+        try {
+            endpoint = SocketEndpoint.parse(traceConfig.getResolvedSocketAddress());
+        } catch (IllegalArgumentException e) {
+            AgentLogger.error(e.getMessage());
+            return false;
+        }
+        if (!endpoint.isUnix() && endpoint.getPort() == 0) {
+            AgentLogger.error("Trace socket address " + endpoint + " needs the collector's port");
+            return false;
+        }
+        if (endpoint.isUnix() && !SocketEndpoint.isUnixSupported()) {
+            AgentLogger.error("Trace socket address " + endpoint + " needs Unix domain sockets, available on Java 16 or later");
+            return false;
+        }
+        if (traceConfig.getResolvedFormat() == TraceFormat.BINARY) {
+            AgentLogger.error("Trace sink socket streams lines; use the text or json format");
+            return false;
+        }
+        if (traceConfig.getResolvedSocketBufferKb() <= 0) {
+            AgentLogger.error("Trace socketBufferKb must be greater than zero");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isHousekeepingValid(HousekeepingConfig housekeepingConfig) {
+        if (housekeepingConfig.getResolvedIntervalSec() <= 0) {
+            AgentLogger.error("Housekeeping interval must be greater than zero");
+            return false;
+        }
+
+        return isRetentionValid("trace", housekeepingConfig.getResolvedTrace())
+                && isRetentionValid("backup", housekeepingConfig.getResolvedBackup())
+                && isRetentionValid("hprof", housekeepingConfig.getResolvedHprof());
+    }
+
+    private static boolean isRetentionValid(String category, RetentionConfig retentionConfig) {
+        if (isNegative(retentionConfig.getMaxFiles())
+                || isNegative(retentionConfig.getMaxAgeHours())
+                || isNegative(retentionConfig.getMaxTotalSizeMb())) {
+            AgentLogger.error("Housekeeping " + category + " retention limits must not be negative");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isNegative(Integer value) {
+        return value != null && value < 0;
+    }
+
     private static boolean isObserverValid(Config config) {
         if (!config.isObserverActive()) {
             return true;
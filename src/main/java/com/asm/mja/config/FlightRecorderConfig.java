@@ -0,0 +1,102 @@
+package com.asm.mja.config;
+
+/**
+ * Nested flight recorder configuration section ({@code instrumentation.trace.flightRecorder}): keeps probe
+ * records in memory and writes them to a file only when a trigger fires.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class FlightRecorderConfig {
+    public static final int DEFAULT_MAX_EVENTS = 65536;
+    public static final int DEFAULT_MAX_AGE_SEC = 60;
+    public static final int DEFAULT_MIN_DUMP_INTERVAL_SEC = 60;
+
+    private Boolean enabled;
+    private Integer maxEvents;
+    private Integer maxAgeSec;
+    private Integer minDumpIntervalSec;
+    private Boolean triggerOnAlerts;
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Integer getMaxEvents() {
+        return maxEvents;
+    }
+
+    public void setMaxEvents(Integer maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    public Integer getMaxAgeSec() {
+        return maxAgeSec;
+    }
+
+    public void setMaxAgeSec(Integer maxAgeSec) {
+        this.maxAgeSec = maxAgeSec;
+    }
+
+    public Integer getMinDumpIntervalSec() {
+        return minDumpIntervalSec;
+    }
+
+    public void setMinDumpIntervalSec(Integer minDumpIntervalSec) {
+        this.minDumpIntervalSec = minDumpIntervalSec;
+    }
+
+    public Boolean getTriggerOnAlerts() {
+        return triggerOnAlerts;
+    }
+
+    public void setTriggerOnAlerts(Boolean triggerOnAlerts) {
+        this.triggerOnAlerts = triggerOnAlerts;
+    }
+
+    public boolean isEnabled() {
+        return enabled != null && enabled;
+    }
+
+    /**
+     * @return probe records kept in memory; older ones are overwritten.
+     */
+    public int getResolvedMaxEvents() {
+        return maxEvents != null ? maxEvents : DEFAULT_MAX_EVENTS;
+    }
+
+    /**
+     * @return seconds of history written by a dump, or 0 for every record kept.
+     */
+    public int getResolvedMaxAgeSec() {
+        return maxAgeSec != null ? maxAgeSec : DEFAULT_MAX_AGE_SEC;
+    }
+
+    /**
+     * @return minimum seconds between dumps fired by alerts or rule hits; explicit HTTP requests always dump.
+     */
+    public int getResolvedMinDumpIntervalSec() {
+        return minDumpIntervalSec != null ? minDumpIntervalSec : DEFAULT_MIN_DUMP_INTERVAL_SEC;
+    }
+
+    /**
+     * @return true if heap and GC monitor alerts dump the recorder.
+     */
+    public boolean isTriggerOnAlertsEnabled() {
+        return triggerOnAlerts == null || triggerOnAlerts;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightRecorderConfig{" +
+                "enabled=" + enabled +
+                ", maxEvents=" + maxEvents +
+                ", maxAgeSec=" + maxAgeSec +
+                ", minDumpIntervalSec=" + minDumpIntervalSec +
+                ", triggerOnAlerts=" + triggerOnAlerts +
+                '}';
+    }
+}
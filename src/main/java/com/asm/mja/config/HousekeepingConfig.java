@@ -0,0 +1,81 @@
+package com.asm.mja.config;
+
+/**
+ * Nested housekeeping configuration section ({@code instrumentation.housekeeping}): retention of
+ * trace files, class backups and heap dumps under {@code traceFileLocation}.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class HousekeepingConfig {
+    public static final int DEFAULT_INTERVAL_SEC = 300;
+
+    private Integer intervalSec;
+    private RetentionConfig trace;
+    private RetentionConfig backup;
+    private RetentionConfig hprof;
+
+    public Integer getIntervalSec() {
+        return intervalSec;
+    }
+
+    public void setIntervalSec(Integer intervalSec) {
+        this.intervalSec = intervalSec;
+    }
+
+    public RetentionConfig getTrace() {
+        return trace;
+    }
+
+    public void setTrace(RetentionConfig trace) {
+        this.trace = trace;
+    }
+
+    public RetentionConfig getBackup() {
+        return backup;
+    }
+
+    public void setBackup(RetentionConfig backup) {
+        this.backup = backup;
+    }
+
+    public RetentionConfig getHprof() {
+        return hprof;
+    }
+
+    public void setHprof(RetentionConfig hprof) {
+        this.hprof = hprof;
+    }
+
+    public int getResolvedIntervalSec() {
+        return intervalSec != null ? intervalSec : DEFAULT_INTERVAL_SEC;
+    }
+
+    public RetentionConfig getResolvedTrace() {
+        return trace != null ? trace : new RetentionConfig();
+    }
+
+    public RetentionConfig getResolvedBackup() {
+        return backup != null ? backup : new RetentionConfig();
+    }
+
+    public RetentionConfig getResolvedHprof() {
+        return hprof != null ? hprof : new RetentionConfig();
+    }
+
+    /**
+     * @return true if any category has a retention limit, so the periodic sweep is worth running.
+     */
+    public boolean isRetentionEnabled() {
+        return getResolvedTrace().hasLimits() || getResolvedBackup().hasLimits() || getResolvedHprof().hasLimits();
+    }
+
+    @Override
+    public String toString() {
+        return "HousekeepingConfig{" +
+                "intervalSec=" + intervalSec +
+                ", trace=" + trace +
+                ", backup=" + backup +
+                ", hprof=" + hprof +
+                '}';
+    }
+}
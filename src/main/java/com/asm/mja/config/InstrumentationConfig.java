@@ -1,5 +1,7 @@
 package com.asm.mja.config;
 
+import com.asm.mja.transformer.InstrumentationEngine;
+
 import java.util.HashSet;
 
 /**
@@ -12,6 +14,9 @@ public class InstrumentationConfig {
     private Integer configRefreshInterval;
     private String traceFileLocation;
     private HashSet<String> agentRules;
+    private TraceConfig trace;
+    private HousekeepingConfig housekeeping;
+    private InstrumentationEngine engine;
 
     public Boolean getEnabled() {
         return enabled;
@@ -44,4 +49,28 @@ public class InstrumentationConfig {
     public void setAgentRules(HashSet<String> agentRules) {
         this.agentRules = agentRules;
     }
+
+    public TraceConfig getTrace() {
+        return trace;
+    }
+
+    public void setTrace(TraceConfig trace) {
+        this.trace = trace;
+    }
+
+    public HousekeepingConfig getHousekeeping() {
+        return housekeeping;
+    }
+
+    public void setHousekeeping(HousekeepingConfig housekeeping) {
+        this.housekeeping = housekeeping;
+    }
+
+    public InstrumentationEngine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(InstrumentationEngine engine) {
+        this.engine = engine;
+    }
 }
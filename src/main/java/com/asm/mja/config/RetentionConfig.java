@@ -0,0 +1,50 @@
+package com.asm.mja.config;
+
+/**
+ * Retention limits for one category of agent output ({@code instrumentation.housekeeping.<category>}).
+ * An absent limit is not enforced.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class RetentionConfig {
+    private Integer maxFiles;
+    private Integer maxAgeHours;
+    private Integer maxTotalSizeMb;
+
+    public Integer getMaxFiles() {
+        return maxFiles;
+    }
+
+    public void setMaxFiles(Integer maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+
+    public Integer getMaxAgeHours() {
+        return maxAgeHours;
+    }
+
+    public void setMaxAgeHours(Integer maxAgeHours) {
+        this.maxAgeHours = maxAgeHours;
+    }
+
+    public Integer getMaxTotalSizeMb() {
+        return maxTotalSizeMb;
+    }
+
+    public void setMaxTotalSizeMb(Integer maxTotalSizeMb) {
+        this.maxTotalSizeMb = maxTotalSizeMb;
+    }
+
+    public boolean hasLimits() {
+        return maxFiles != null || maxAgeHours != null || maxTotalSizeMb != null;
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionConfig{" +
+                "maxFiles=" + maxFiles +
+                ", maxAgeHours=" + maxAgeHours +
+                ", maxTotalSizeMb=" + maxTotalSizeMb +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+package com.asm.mja.config;
+
+/**
+ * Nested trace budget configuration section ({@code instrumentation.trace.budget}): the write rate and disk
+ * usage the trace may approach before the agent lowers its verbosity.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceBudgetConfig {
+    public static final int DEFAULT_STACK_SAMPLE_EVERY = 10;
+    public static final int DEFAULT_RECOVER_AFTER_SEC = 30;
+
+    private Integer maxKbPerSec;
+    private Integer maxDiskMb;
+    private Integer stackSampleEvery;
+    private Integer recoverAfterSec;
+
+    public Integer getMaxKbPerSec() {
+        return maxKbPerSec;
+    }
+
+    public void setMaxKbPerSec(Integer maxKbPerSec) {
+        this.maxKbPerSec = maxKbPerSec;
+    }
+
+    public Integer getMaxDiskMb() {
+        return maxDiskMb;
+    }
+
+    public void setMaxDiskMb(Integer maxDiskMb) {
+        this.maxDiskMb = maxDiskMb;
+    }
+
+    public Integer getStackSampleEvery() {
+        return stackSampleEvery;
+    }
+
+    public void setStackSampleEvery(Integer stackSampleEvery) {
+        this.stackSampleEvery = stackSampleEvery;
+    }
+
+    public Integer getRecoverAfterSec() {
+        return recoverAfterSec;
+    }
+
+    public void setRecoverAfterSec(Integer recoverAfterSec) {
+        this.recoverAfterSec = recoverAfterSec;
+    }
+
+    /**
+     * @return true if a write rate or disk budget is set.
+     */
+    public boolean isEnabled() {
+        return getResolvedMaxKbPerSec() > 0 || getResolvedMaxDiskMb() > 0;
+    }
+
+    /**
+     * @return trace bytes per second, in KB, the agent may write; 0 for no write rate budget.
+     */
+    public int getResolvedMaxKbPerSec() {
+        return maxKbPerSec != null ? maxKbPerSec : 0;
+    }
+
+    /**
+     * @return MB the current run's trace directory may grow to; 0 for no disk budget.
+     */
+    public int getResolvedMaxDiskMb() {
+        return maxDiskMb != null ? maxDiskMb : 0;
+    }
+
+    /**
+     * @return one in this many STACK hits is written once stacks are sampled.
+     */
+    public int getResolvedStackSampleEvery() {
+        return stackSampleEvery != null ? stackSampleEvery : DEFAULT_STACK_SAMPLE_EVERY;
+    }
+
+    /**
+     * @return seconds the trace must stay well under budget before verbosity is raised by one step.
+     */
+    public int getResolvedRecoverAfterSec() {
+        return recoverAfterSec != null ? recoverAfterSec : DEFAULT_RECOVER_AFTER_SEC;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceBudgetConfig{" +
+                "maxKbPerSec=" + maxKbPerSec +
+                ", maxDiskMb=" + maxDiskMb +
+                ", stackSampleEvery=" + stackSampleEvery +
+                ", recoverAfterSec=" + recoverAfterSec +
+                '}';
+    }
+}
@@ -0,0 +1,425 @@
+package com.asm.mja.config;
+
+import com.asm.mja.logging.BackpressurePolicy;
+import com.asm.mja.logging.TraceFormat;
+import com.asm.mja.logging.TraceShardMode;
+import com.asm.mja.logging.TraceSinkType;
+
+/**
+ * Nested trace output configuration section ({@code instrumentation.trace}).
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceConfig {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+    public static final int DEFAULT_SEGMENT_SIZE_MB = 64;
+    public static final int DEFAULT_MAX_SEGMENTS = 10;
+    public static final int MAX_SEGMENT_SIZE_MB = 1024;
+    public static final int DEFAULT_STACK_SUMMARY_INTERVAL_SEC = 60;
+    public static final int DEFAULT_STACK_SUMMARY_TOP = 10;
+    public static final int DEFAULT_RATE_LIMIT_REPORT_INTERVAL_SEC = 10;
+    public static final String DEFAULT_SOCKET_ADDRESS = "127.0.0.1:9400";
+    public static final int DEFAULT_SOCKET_BUFFER_KB = 4096;
+
+    private Boolean async;
+    private Integer bufferSize;
+    private BackpressurePolicy backpressure;
+    private Integer sampleRate;
+    private TraceFormat format;
+    private TraceSinkType sink;
+    private Integer segmentSizeMb;
+    private Integer maxSegments;
+    private Integer maxTotalSizeMb;
+    private Boolean compressSegments;
+    private TraceShardMode shardBy;
+    private Boolean stackDedup;
+    private Integer stackSummaryIntervalSec;
+    private Integer stackSummaryTop;
+    private Integer stackMaxDepth;
+    private Boolean deferStacks;
+    private Integer rotateSizeMb;
+    private Integer rotateIntervalMin;
+    private Integer rateLimitReportIntervalSec;
+    private String socketAddress;
+    private Integer socketBufferKb;
+    private String sinkClass;
+    private Integer journalSizeMb;
+    private FlightRecorderConfig flightRecorder;
+    private Integer indexBucketSec;
+    private TraceBudgetConfig budget;
+
+    public Boolean getAsync() {
+        return async;
+    }
+
+    public void setAsync(Boolean async) {
+        this.async = async;
+    }
+
+    public Integer getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(Integer bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public BackpressurePolicy getBackpressure() {
+        return backpressure;
+    }
+
+    public void setBackpressure(BackpressurePolicy backpressure) {
+        this.backpressure = backpressure;
+    }
+
+    public Integer getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(Integer sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public TraceFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(TraceFormat format) {
+        this.format = format;
+    }
+
+    public TraceSinkType getSink() {
+        return sink;
+    }
+
+    public void setSink(TraceSinkType sink) {
+        this.sink = sink;
+    }
+
+    public Integer getSegmentSizeMb() {
+        return segmentSizeMb;
+    }
+
+    public void setSegmentSizeMb(Integer segmentSizeMb) {
+        this.segmentSizeMb = segmentSizeMb;
+    }
+
+    public Integer getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(Integer maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    public Integer getMaxTotalSizeMb() {
+        return maxTotalSizeMb;
+    }
+
+    public void setMaxTotalSizeMb(Integer maxTotalSizeMb) {
+        this.maxTotalSizeMb = maxTotalSizeMb;
+    }
+
+    public Boolean getCompressSegments() {
+        return compressSegments;
+    }
+
+    public void setCompressSegments(Boolean compressSegments) {
+        this.compressSegments = compressSegments;
+    }
+
+    public TraceShardMode getShardBy() {
+        return shardBy;
+    }
+
+    public void setShardBy(TraceShardMode shardBy) {
+        this.shardBy = shardBy;
+    }
+
+    public Boolean getStackDedup() {
+        return stackDedup;
+    }
+
+    public void setStackDedup(Boolean stackDedup) {
+        this.stackDedup = stackDedup;
+    }
+
+    public Integer getStackSummaryIntervalSec() {
+        return stackSummaryIntervalSec;
+    }
+
+    public void setStackSummaryIntervalSec(Integer stackSummaryIntervalSec) {
+        this.stackSummaryIntervalSec = stackSummaryIntervalSec;
+    }
+
+    public Integer getStackSummaryTop() {
+        return stackSummaryTop;
+    }
+
+    public void setStackSummaryTop(Integer stackSummaryTop) {
+        this.stackSummaryTop = stackSummaryTop;
+    }
+
+    public Boolean getDeferStacks() {
+        return deferStacks;
+    }
+
+    public void setDeferStacks(Boolean deferStacks) {
+        this.deferStacks = deferStacks;
+    }
+
+    public Integer getStackMaxDepth() {
+        return stackMaxDepth;
+    }
+
+    public void setStackMaxDepth(Integer stackMaxDepth) {
+        this.stackMaxDepth = stackMaxDepth;
+    }
+
+    public Integer getRotateSizeMb() {
+        return rotateSizeMb;
+    }
+
+    public void setRotateSizeMb(Integer rotateSizeMb) {
+        this.rotateSizeMb = rotateSizeMb;
+    }
+
+    public Integer getRotateIntervalMin() {
+        return rotateIntervalMin;
+    }
+
+    public void setRotateIntervalMin(Integer rotateIntervalMin) {
+        this.rotateIntervalMin = rotateIntervalMin;
+    }
+
+    public Integer getRateLimitReportIntervalSec() {
+        return rateLimitReportIntervalSec;
+    }
+
+    public void setRateLimitReportIntervalSec(Integer rateLimitReportIntervalSec) {
+        this.rateLimitReportIntervalSec = rateLimitReportIntervalSec;
+    }
+
+    public String getSocketAddress() {
+        return socketAddress;
+    }
+
+    public void setSocketAddress(String socketAddress) {
+        this.socketAddress = socketAddress;
+    }
+
+    public Integer getSocketBufferKb() {
+        return socketBufferKb;
+    }
+
+    public void setSocketBufferKb(Integer socketBufferKb) {
+        this.socketBufferKb = socketBufferKb;
+    }
+
+    public String getSinkClass() {
+        return sinkClass;
+    }
+
+    public void setSinkClass(String sinkClass) {
+        this.sinkClass = sinkClass;
+    }
+
+    public Integer getJournalSizeMb() {
+        return journalSizeMb;
+    }
+
+    public void setJournalSizeMb(Integer journalSizeMb) {
+        this.journalSizeMb = journalSizeMb;
+    }
+
+    public FlightRecorderConfig getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    public void setFlightRecorder(FlightRecorderConfig flightRecorder) {
+        this.flightRecorder = flightRecorder;
+    }
+
+    public Integer getIndexBucketSec() {
+        return indexBucketSec;
+    }
+
+    public void setIndexBucketSec(Integer indexBucketSec) {
+        this.indexBucketSec = indexBucketSec;
+    }
+
+    public TraceBudgetConfig getBudget() {
+        return budget;
+    }
+
+    public void setBudget(TraceBudgetConfig budget) {
+        this.budget = budget;
+    }
+
+    public boolean isAsyncEnabled() {
+        return async != null && async;
+    }
+
+    public int getResolvedBufferSize() {
+        return bufferSize != null ? bufferSize : DEFAULT_BUFFER_SIZE;
+    }
+
+    public BackpressurePolicy getResolvedBackpressure() {
+        return backpressure != null ? backpressure : BackpressurePolicy.DROP;
+    }
+
+    public int getResolvedSampleRate() {
+        return sampleRate != null ? sampleRate : DEFAULT_SAMPLE_RATE;
+    }
+
+    public TraceFormat getResolvedFormat() {
+        return format != null ? format : TraceFormat.TEXT;
+    }
+
+    public TraceSinkType getResolvedSink() {
+        return sink != null ? sink : TraceSinkType.FILE;
+    }
+
+    public int getResolvedSegmentSizeMb() {
+        return segmentSizeMb != null ? segmentSizeMb : DEFAULT_SEGMENT_SIZE_MB;
+    }
+
+    public int getResolvedMaxSegments() {
+        return maxSegments != null ? maxSegments : DEFAULT_MAX_SEGMENTS;
+    }
+
+    /**
+     * @return total disk budget for trace segments in MB, or 0 when only the segment count is limited.
+     */
+    public int getResolvedMaxTotalSizeMb() {
+        return maxTotalSizeMb != null ? maxTotalSizeMb : 0;
+    }
+
+    public boolean isCompressSegmentsEnabled() {
+        return compressSegments == null || compressSegments;
+    }
+
+    public TraceShardMode getResolvedShardBy() {
+        return shardBy != null ? shardBy : TraceShardMode.NONE;
+    }
+
+    public boolean isStackDedupEnabled() {
+        return stackDedup != null && stackDedup;
+    }
+
+    /**
+     * @return seconds between top-stacks summaries in dedup mode, or 0 to write the summary only on shutdown.
+     */
+    public int getResolvedStackSummaryIntervalSec() {
+        return stackSummaryIntervalSec != null ? stackSummaryIntervalSec : DEFAULT_STACK_SUMMARY_INTERVAL_SEC;
+    }
+
+    public int getResolvedStackSummaryTop() {
+        return stackSummaryTop != null ? stackSummaryTop : DEFAULT_STACK_SUMMARY_TOP;
+    }
+
+    public boolean isDeferStacksEnabled() {
+        return deferStacks != null && deferStacks;
+    }
+
+    /**
+     * @return frames captured by STACK probes, or 0 for the whole stack.
+     */
+    public int getResolvedStackMaxDepth() {
+        return stackMaxDepth != null ? stackMaxDepth : 0;
+    }
+
+    /**
+     * @return size in MB at which the file sink rotates the trace file, or 0 for no size-based rotation.
+     */
+    public int getResolvedRotateSizeMb() {
+        return rotateSizeMb != null ? rotateSizeMb : 0;
+    }
+
+    /**
+     * @return minutes after which the file sink rotates the trace file, or 0 for no time-based rotation.
+     */
+    public int getResolvedRotateIntervalMin() {
+        return rotateIntervalMin != null ? rotateIntervalMin : 0;
+    }
+
+    public boolean isRotationEnabled() {
+        return getResolvedRotateSizeMb() > 0 || getResolvedRotateIntervalMin() > 0;
+    }
+
+    /**
+     * @return seconds between suppressed-hit reports of rate-limited rules, or 0 to report on shutdown only.
+     */
+    public int getResolvedRateLimitReportIntervalSec() {
+        return rateLimitReportIntervalSec != null ? rateLimitReportIntervalSec : DEFAULT_RATE_LIMIT_REPORT_INTERVAL_SEC;
+    }
+
+    /**
+     * @return {@code host:port} or {@code unix:<path>} of the collector the socket sink streams to.
+     */
+    public String getResolvedSocketAddress() {
+        return socketAddress != null ? socketAddress : DEFAULT_SOCKET_ADDRESS;
+    }
+
+    /**
+     * @return KB of records the socket sink buffers while the collector is slow or unreachable.
+     */
+    public int getResolvedSocketBufferKb() {
+        return socketBufferKb != null ? socketBufferKb : DEFAULT_SOCKET_BUFFER_KB;
+    }
+
+    /**
+     * @return size of the crash-survivable trace journal in MB, or 0 when it is disabled.
+     */
+    public int getResolvedJournalSizeMb() {
+        return journalSizeMb != null ? journalSizeMb : 0;
+    }
+
+    /**
+     * @return width in seconds of the time buckets of the sparse trace index, or 0 when it is disabled.
+     */
+    public int getResolvedIndexBucketSec() {
+        return indexBucketSec != null ? indexBucketSec : 0;
+    }
+
+    public FlightRecorderConfig getResolvedFlightRecorder() {
+        return flightRecorder != null ? flightRecorder : new FlightRecorderConfig();
+    }
+
+    public TraceBudgetConfig getResolvedBudget() {
+        return budget != null ? budget : new TraceBudgetConfig();
+    }
+
+    @Override
+    public String toString() {
+        return "TraceConfig{" +
+                "async=" + async +
+                ", bufferSize=" + bufferSize +
+                ", backpressure=" + backpressure +
+                ", sampleRate=" + sampleRate +
+                ", format=" + format +
+                ", sink=" + sink +
+                ", segmentSizeMb=" + segmentSizeMb +
+                ", maxSegments=" + maxSegments +
+                ", maxTotalSizeMb=" + maxTotalSizeMb +
+                ", compressSegments=" + compressSegments +
+                ", shardBy=" + shardBy +
+                ", stackDedup=" + stackDedup +
+                ", stackSummaryIntervalSec=" + stackSummaryIntervalSec +
+                ", stackSummaryTop=" + stackSummaryTop +
+                ", stackMaxDepth=" + stackMaxDepth +
+                ", deferStacks=" + deferStacks +
+                ", rotateSizeMb=" + rotateSizeMb +
+                ", rotateIntervalMin=" + rotateIntervalMin +
+                ", rateLimitReportIntervalSec=" + rateLimitReportIntervalSec +
+                ", socketAddress=" + socketAddress +
+                ", socketBufferKb=" + socketBufferKb +
+                ", sinkClass=" + sinkClass +
+                ", journalSizeMb=" + journalSizeMb +
+                ", flightRecorder=" + flightRecorder +
+                ", indexBucketSec=" + indexBucketSec +
+                ", budget=" + budget +
+                '}';
+    }
+}
@@ -0,0 +1,189 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.metrics.MetricsSnapshot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains the trace ring buffer on a single {@code monarch-trace-writer} thread.
+ * Records are written in batches and the underlying output is flushed once per
+ * batch instead of once per record.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class AsyncTraceWriter implements Runnable {
+
+    interface RecordWriter extends TraceRingBuffer.RecordConsumer {
+        void flush();
+    }
+
+    private static final String THREAD_NAME = "monarch-trace-writer";
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCKED_PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long METRICS_PUBLISH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private final TraceRingBuffer ring;
+    private final BackpressurePolicy policy;
+    private final int sampleRate;
+    private final RecordWriter recordWriter;
+    private final String threadName;
+    /** Only the trace writer reports its ring on {@code /metrics}. */
+    private final boolean publishesMetrics;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread thread;
+    private long lastMetricsPublish;
+
+    AsyncTraceWriter(int bufferSize, BackpressurePolicy policy, int sampleRate, RecordWriter recordWriter) {
+        this(bufferSize, policy, sampleRate, recordWriter, THREAD_NAME, true);
+    }
+
+    AsyncTraceWriter(int bufferSize, BackpressurePolicy policy, int sampleRate, RecordWriter recordWriter,
+                     String threadName, boolean publishesMetrics) {
+        this.ring = new TraceRingBuffer(bufferSize);
+        this.policy = policy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.recordWriter = recordWriter;
+        this.threadName = threadName;
+        this.publishesMetrics = publishesMetrics;
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Publishes a record according to the configured backpressure policy.
+     *
+     * @return true if the record was enqueued, false if it was dropped.
+     */
+    boolean publish(TraceRecord record) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+
+        if (policy == BackpressurePolicy.SAMPLE
+                && ring.size() >= ring.capacity() / 2
+                && sampleCounter.getAndIncrement() % sampleRate != 0) {
+            dropped.increment();
+            return false;
+        }
+
+        if (ring.offer(record)) {
+            enqueued.increment();
+            return true;
+        }
+
+        if (policy == BackpressurePolicy.BLOCK) {
+            while (running) {
+                LockSupport.parkNanos(BLOCKED_PRODUCER_PARK_NANOS);
+                if (ring.offer(record)) {
+                    enqueued.increment();
+                    return true;
+                }
+            }
+        }
+
+        dropped.increment();
+        return false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            int drained = drainBatch();
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            publishMetricsIfDue();
+        }
+        while (drainBatch() > 0) {
+            // flush whatever producers published before shutdown
+        }
+        publishMetrics();
+    }
+
+    private int drainBatch() {
+        int drained = 0;
+        try {
+            drained = ring.drain(recordWriter, MAX_BATCH_SIZE);
+        } catch (TraceRingBuffer.DrainException e) {
+            drained = e.drained;
+            reportFailure(e.getCause());
+        } catch (Throwable t) {
+            reportFailure(t);
+        } finally {
+            // records encoded before a failure must not wait for a batch that may never come
+            try {
+                recordWriter.flush();
+            } catch (Throwable t) {
+                reportFailure(t);
+            }
+        }
+        return drained;
+    }
+
+    private void reportFailure(Throwable t) {
+        System.err.println("Monarch " + threadName + " failed to write a record: " + t.getMessage());
+    }
+
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread writerThread = thread;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    int getPendingCount() {
+        return ring.size();
+    }
+
+    private void publishMetricsIfDue() {
+        if (!publishesMetrics) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastMetricsPublish >= METRICS_PUBLISH_INTERVAL_NANOS) {
+            lastMetricsPublish = now;
+            publishMetrics();
+        }
+    }
+
+    private void publishMetrics() {
+        if (!publishesMetrics) {
+            return;
+        }
+        MetricsSnapshot.getInstance().updateTraceMetrics(getEnqueuedCount(), getDroppedCount(), ring.size(), ring.capacity());
+    }
+}
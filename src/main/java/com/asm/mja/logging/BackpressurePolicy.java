@@ -0,0 +1,44 @@
+package com.asm.mja.logging;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * What an instrumented thread does when the asynchronous trace buffer is full.
+ *
+ * DROP:   Discard the record and count it as dropped.
+ * BLOCK:  Wait for the trace writer to free a slot.
+ * SAMPLE: Once the buffer is half full, keep only every Nth record; drop when full.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public enum BackpressurePolicy {
+    DROP("drop"),
+    BLOCK("block"),
+    SAMPLE("sample");
+
+    private final String value;
+
+    BackpressurePolicy(String value) {
+        this.value = value;
+    }
+
+    @JsonCreator
+    public static BackpressurePolicy fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (BackpressurePolicy policy : values()) {
+            if (policy.value.equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported trace backpressure policy - " + value);
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,230 @@
+package com.asm.mja.logging;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes the binary trace format back into the text trace format or JSON lines.
+ * Input may be a whole file, a single segment, or several of either concatenated.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ * @see BinaryTraceFormat
+ */
+public final class BinaryTraceDecoder {
+
+    public enum Output {
+        TEXT,
+        JSON
+    }
+
+    private static final TraceRecord.Level[] LEVELS = TraceRecord.Level.values();
+
+    private final TraceEncoder encoder;
+    private final Map<Integer, ProbeSite> probes = new HashMap<>();
+    private final Map<Long, String> threads = new HashMap<>();
+    private final TraceRecord record = new TraceRecord();
+    private final TraceBuffer buffer = new TraceBuffer();
+    private long baseEpochMillis;
+    private boolean headerSeen;
+    private long recordCount;
+    private boolean truncated;
+
+    public BinaryTraceDecoder(Output output) {
+        this.encoder = output == Output.JSON ? new TraceJsonEncoder() : new TraceTextEncoder();
+    }
+
+    /**
+     * Decodes every record in {@code in} and writes it to {@code out}. Dictionary state carries over
+     * between calls, so segments can be decoded one after another. A record cut off by the end of the
+     * input is skipped and reported by {@link #isTruncated()}.
+     *
+     * @throws IOException if the input is not a binary trace or is corrupt.
+     */
+    public void decode(InputStream in, OutputStream out) throws IOException {
+        InputStream input = buffered(in);
+        truncated = false;
+        while (next(input)) {
+            buffer.reset();
+            encoder.encode(record, buffer);
+            record.clear();
+            out.write(buffer.array(), 0, buffer.length());
+        }
+        out.flush();
+    }
+
+    static InputStream buffered(InputStream in) {
+        return in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+    }
+
+    /**
+     * Reads entries up to and including the next record, which is then available from {@link #current()}.
+     * {@code in} must be the same buffered stream on every call.
+     *
+     * @return false at the end of the input.
+     */
+    boolean next(InputStream in) throws IOException {
+        try {
+            int tag;
+            while ((tag = in.read()) != -1) {
+                switch (tag) {
+                    case BinaryTraceFormat.PADDING:
+                        break;
+                    case 'M':
+                        readHeader(in);
+                        break;
+                    case BinaryTraceFormat.TAG_PROBE:
+                        requireHeader();
+                        readProbe(in);
+                        break;
+                    case BinaryTraceFormat.TAG_THREAD:
+                        requireHeader();
+                        threads.put(readVarint(in), readString(in));
+                        break;
+                    case BinaryTraceFormat.TAG_RECORD:
+                        requireHeader();
+                        readRecord(in);
+                        recordCount++;
+                        return true;
+                    default:
+                        throw new IOException("Corrupt binary trace: unexpected entry tag 0x" + Integer.toHexString(tag));
+                }
+            }
+        } catch (EOFException e) {
+            truncated = true;
+        }
+        return false;
+    }
+
+    TraceRecord current() {
+        return record;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return true if the last input ended in the middle of an entry.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    private void readHeader(InputStream in) throws IOException {
+        for (int i = 1; i < BinaryTraceFormat.MAGIC.length; i++) {
+            if (readByte(in) != BinaryTraceFormat.MAGIC[i]) {
+                throw new IOException("Not a binary trace: bad magic");
+            }
+        }
+        int version = readByte(in);
+        if (version != BinaryTraceFormat.VERSION) {
+            throw new IOException("Unsupported binary trace version " + version);
+        }
+        baseEpochMillis = readVarint(in);
+        headerSeen = true;
+    }
+
+    private void requireHeader() throws IOException {
+        if (!headerSeen) {
+            throw new IOException("Not a binary trace: missing header");
+        }
+    }
+
+    private void readProbe(InputStream in) throws IOException {
+        int id = (int) readVarint(in);
+        String className = readString(in);
+        String methodName = readString(in);
+        String event = readString(in);
+        String action = readString(in);
+        probes.put(id, new ProbeSite(id, className, methodName, event, action));
+    }
+
+    private void readRecord(InputStream in) throws IOException {
+        int levelOrdinal = readByte(in);
+        if (levelOrdinal >= LEVELS.length) {
+            throw new IOException("Corrupt binary trace: unknown level " + levelOrdinal);
+        }
+        long timestamp = baseEpochMillis + readZigZag(in);
+        long threadId = readVarint(in);
+        int probeId = (int) readVarint(in) - 1;
+        String message = readString(in);
+        StackTraceElement[] stack = null;
+        int frames = (int) readVarint(in) - 1;
+        if (frames >= 0) {
+            stack = new StackTraceElement[frames];
+            for (int i = 0; i < frames; i++) {
+                String className = readString(in);
+                String methodName = readString(in);
+                String fileName = readString(in);
+                int lineNumber = (int) readZigZag(in);
+                stack[i] = new StackTraceElement(className, methodName, fileName, lineNumber);
+            }
+        }
+        String threadName = threads.get(threadId);
+        if (threadName == null) {
+            threadName = "thread-" + threadId;
+        }
+        record.set(LEVELS[levelOrdinal], timestamp, threadId, threadName, probeId < 0 ? null : probe(probeId), message, stack);
+    }
+
+    private ProbeSite probe(int id) {
+        ProbeSite probe = probes.get(id);
+        if (probe == null) {
+            probe = new ProbeSite(id, "<unknown>", "probe" + id, "?", null);
+            probes.put(id, probe);
+        }
+        return probe;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt binary trace: varint too long");
+    }
+
+    private static long readZigZag(InputStream in) throws IOException {
+        long value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        long length = readVarint(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt binary trace: string of " + length + " bytes");
+        }
+        byte[] bytes = new byte[(int) length];
+        int read = 0;
+        while (read < bytes.length) {
+            int count = in.read(bytes, read, bytes.length - read);
+            if (count == -1) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,136 @@
+package com.asm.mja.logging;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Tracks which probe and thread names have already been written to the current binary trace
+ * file or segment. Not thread-safe; {@link TraceFileLogger} calls it under its write lock.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class BinaryTraceDictionary implements MappedSegmentTraceSink.SegmentListener {
+
+    private final long baseEpochMillis;
+    private final BitSet probesWritten = new BitSet();
+    private final ThreadNames threadsWritten = new ThreadNames();
+    private final TraceBuffer preamble = new TraceBuffer();
+
+    BinaryTraceDictionary(long baseEpochMillis) {
+        this.baseEpochMillis = baseEpochMillis;
+    }
+
+    long getBaseEpochMillis() {
+        return baseEpochMillis;
+    }
+
+    /**
+     * Appends the dictionary entries {@code record} needs that the current file does not have yet.
+     */
+    void define(TraceRecord record, TraceBuffer out) {
+        ProbeSite probe = record.probe;
+        if (probe != null && !probesWritten.get(probe.id)) {
+            appendProbe(probe, out);
+            probesWritten.set(probe.id);
+        }
+        String threadName = record.threadName;
+        if (threadName != null && !threadsWritten.matches(record.threadId, threadName)) {
+            appendThread(record.threadId, threadName, out);
+            threadsWritten.put(record.threadId, threadName);
+        }
+    }
+
+    /**
+     * Appends the file header followed by every dictionary entry written so far, so that a new
+     * file or segment can be decoded on its own.
+     */
+    void appendPreamble(TraceBuffer out) {
+        out.append(BinaryTraceFormat.MAGIC).append((byte) BinaryTraceFormat.VERSION).appendVarint(baseEpochMillis);
+        ProbeRegistry registry = ProbeRegistry.getInstance();
+        for (int id = probesWritten.nextSetBit(0); id >= 0; id = probesWritten.nextSetBit(id + 1)) {
+            ProbeSite probe = registry.get(id);
+            if (probe != null) {
+                appendProbe(probe, out);
+            }
+        }
+        for (int slot = 0; slot < threadsWritten.names.length; slot++) {
+            String name = threadsWritten.names[slot];
+            if (name != null) {
+                appendThread(threadsWritten.ids[slot], name, out);
+            }
+        }
+    }
+
+    @Override
+    public void segmentOpened(TraceSink sink) throws IOException {
+        preamble.reset();
+        appendPreamble(preamble);
+        preamble.writeTo(sink);
+    }
+
+    private static void appendProbe(ProbeSite probe, TraceBuffer out) {
+        out.append((byte) BinaryTraceFormat.TAG_PROBE);
+        out.appendVarint(probe.id);
+        out.appendLengthPrefixed(probe.className);
+        out.appendLengthPrefixed(probe.methodName);
+        out.appendLengthPrefixed(probe.event);
+        out.appendLengthPrefixed(probe.action);
+    }
+
+    private static void appendThread(long threadId, String name, TraceBuffer out) {
+        out.append((byte) BinaryTraceFormat.TAG_THREAD);
+        out.appendVarint(threadId);
+        out.appendLengthPrefixed(name);
+    }
+
+    /**
+     * Open-addressing map from thread id to the name last written, so lookups do not box the id.
+     */
+    private static final class ThreadNames {
+        private long[] ids = new long[64];
+        private String[] names = new String[64];
+        private int size;
+
+        boolean matches(long threadId, String name) {
+            int slot = slotOf(ids, names, threadId);
+            return name.equals(names[slot]);
+        }
+
+        void put(long threadId, String name) {
+            int slot = slotOf(ids, names, threadId);
+            if (names[slot] == null) {
+                if ((size + 1) * 2 > names.length) {
+                    resize();
+                    slot = slotOf(ids, names, threadId);
+                }
+                size++;
+            }
+            ids[slot] = threadId;
+            names[slot] = name;
+        }
+
+        private void resize() {
+            long[] oldIds = ids;
+            String[] oldNames = names;
+            ids = new long[oldIds.length * 2];
+            names = new String[oldNames.length * 2];
+            for (int i = 0; i < oldNames.length; i++) {
+                if (oldNames[i] != null) {
+                    int slot = slotOf(ids, names, oldIds[i]);
+                    ids[slot] = oldIds[i];
+                    names[slot] = oldNames[i];
+                }
+            }
+        }
+
+        private static int slotOf(long[] ids, String[] names, long threadId) {
+            int mask = names.length - 1;
+            int slot = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9 & mask;
+            while (names[slot] != null && ids[slot] != threadId) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
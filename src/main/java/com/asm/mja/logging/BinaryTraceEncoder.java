@@ -0,0 +1,40 @@
+package com.asm.mja.logging;
+
+/**
+ * Encodes the RECORD entry of the binary trace format. Dictionary entries for the record's probe
+ * and thread are written separately by {@link BinaryTraceDictionary}.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class BinaryTraceEncoder implements TraceEncoder {
+
+    private final long baseEpochMillis;
+
+    BinaryTraceEncoder(long baseEpochMillis) {
+        this.baseEpochMillis = baseEpochMillis;
+    }
+
+    @Override
+    public void encode(TraceRecord record, TraceBuffer out) {
+        out.append((byte) BinaryTraceFormat.TAG_RECORD);
+        out.append((byte) record.level.ordinal());
+        out.appendZigZag(record.timestamp - baseEpochMillis);
+        out.appendVarint(record.threadId);
+        out.appendVarint(record.probe == null ? 0 : record.probe.id + 1L);
+        out.appendLengthPrefixed(record.message);
+
+        StackTraceElement[] stack = record.stack;
+        if (stack == null) {
+            out.append((byte) 0);
+            return;
+        }
+        out.appendVarint(stack.length + 1L);
+        for (StackTraceElement element : stack) {
+            out.appendLengthPrefixed(element.getClassName());
+            out.appendLengthPrefixed(element.getMethodName());
+            out.appendLengthPrefixed(element.getFileName());
+            out.appendZigZag(element.getLineNumber());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.asm.mja.logging;
+
+/**
+ * Layout of the binary trace format ({@code agent.trace.bin}).
+ * <pre>
+ * file    := header entry*
+ * header  := 'M' 'J' 'T' 'B' version:u8 baseEpochMillis:varint
+ * entry   := PROBE  probeId:varint className:str methodName:str event:str action:str
+ *          | THREAD threadId:varint name:str
+ *          | RECORD level:u8 timestampDelta:zigzag threadId:varint probeId+1:varint message:str stack
+ * stack   := 0 | frameCount+1:varint (className:str methodName:str fileName:str lineNumber:zigzag)*
+ * str     := 0 (null) | utf8Length+1:varint utf8Bytes
+ * </pre>
+ * Timestamps are relative to the header's base; probe and thread names are written once per file
+ * (or segment) as dictionary entries before the first record that uses them. A header may appear
+ * again mid-stream, which lets segments and files be concatenated; zero bytes between entries are
+ * padding left by an unfinished memory-mapped segment.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class BinaryTraceFormat {
+
+    static final byte[] MAGIC = {'M', 'J', 'T', 'B'};
+    static final int VERSION = 1;
+
+    static final int PADDING = 0;
+    static final int TAG_PROBE = 1;
+    static final int TAG_THREAD = 2;
+    static final int TAG_RECORD = 3;
+
+    private BinaryTraceFormat() {
+    }
+}
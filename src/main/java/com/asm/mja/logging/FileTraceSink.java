@@ -0,0 +1,45 @@
+package com.asm.mja.logging;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Appends trace bytes to a single file, either with one {@code write} per call
+ * or through an in-memory buffer that is written out when full, flushed or closed.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class FileTraceSink implements TraceSink {
+
+    private final OutputStream out;
+
+    FileTraceSink(String fileName) throws IOException {
+        this(fileName, 0);
+    }
+
+    /**
+     * @param bufferSize bytes buffered before writing to the file, or 0 to write through.
+     */
+    FileTraceSink(String fileName, int bufferSize) throws IOException {
+        OutputStream file = new FileOutputStream(fileName, true);
+        this.out = bufferSize > 0 ? new BufferedOutputStream(file, bufferSize) : file;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
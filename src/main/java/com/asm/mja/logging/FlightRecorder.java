@@ -0,0 +1,232 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.utils.DateUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent probe records in memory instead of writing them, and writes them to a file
+ * ({@code agent.trace.flight-<timestamp>-<n>}) only when a trigger fires.
+ *
+ * Recording claims the next slot of a fixed ring with one atomic increment and copies the record's
+ * references into it; nothing is encoded, and deferred stacks stay unsymbolized until a dump. Each slot
+ * has its own monitor, so writers only contend after lapping the whole ring or while a dump reads that slot.
+ *
+ * Dumps run on the {@code monarch-flight-recorder} thread. Automatic triggers (monitor alerts and
+ * {@code ::TRIGGER} rules) fire at most once per minimum dump interval; explicit requests always dump.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class FlightRecorder {
+
+    private static final String THREAD_NAME = "monarch-flight-recorder";
+    private static final String DUMP_SUFFIX = ".flight-";
+    private static final int WRITE_THRESHOLD = 64 * 1024;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final long maxAgeMillis;
+    private final long minDumpIntervalMillis;
+    private final boolean triggerOnAlerts;
+    private final Path directory;
+    private final TraceFormat format;
+    private final AtomicLong nextAutomaticDumpAt = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger dumps = new AtomicInteger();
+    private final ExecutorService dumper;
+
+    /**
+     * @param capacity              records kept, rounded up to a power of two.
+     * @param maxAgeMillis          history written by a dump, or 0 for every record kept.
+     * @param minDumpIntervalMillis minimum time between automatically triggered dumps.
+     * @param directory             the run's trace directory, which dumps are written to.
+     */
+    FlightRecorder(int capacity, long maxAgeMillis, long minDumpIntervalMillis, boolean triggerOnAlerts,
+                   Path directory, TraceFormat format) {
+        int requested = Math.min(MAX_CAPACITY, Math.max(2, capacity));
+        int size = Integer.highestOneBit(requested) == requested ? requested : Integer.highestOneBit(requested) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.maxAgeMillis = maxAgeMillis;
+        this.minDumpIntervalMillis = minDumpIntervalMillis;
+        this.triggerOnAlerts = triggerOnAlerts;
+        this.directory = directory;
+        this.format = format;
+        this.dumper = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Copies {@code record} into the next slot, overwriting the oldest record once the ring is full.
+     */
+    void record(TraceRecord record) {
+        long position = cursor.getAndIncrement();
+        Slot slot = slots[(int) (position & mask)];
+        synchronized (slot) {
+            slot.record.copyFrom(record);
+            slot.position = position;
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    boolean isTriggeredByAlerts() {
+        return triggerOnAlerts;
+    }
+
+    /**
+     * Schedules a dump unless an automatic one fired less than the minimum dump interval ago.
+     *
+     * @return true if a dump was scheduled.
+     */
+    boolean trigger(String reason) {
+        long now = System.currentTimeMillis();
+        long allowedAt = nextAutomaticDumpAt.get();
+        if (now < allowedAt || !nextAutomaticDumpAt.compareAndSet(allowedAt, now + minDumpIntervalMillis)) {
+            return false;
+        }
+        try {
+            dumper.execute(() -> {
+                try {
+                    dump(reason);
+                } catch (IOException e) {
+                    System.err.println("Flight recorder dump failed: " + e.getMessage());
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            // closed
+            return false;
+        }
+    }
+
+    /**
+     * Dumps on the recorder thread and waits for the file, regardless of the minimum dump interval.
+     *
+     * @return the dump file.
+     */
+    Path dumpNow(String reason) throws IOException {
+        Future<Path> dump;
+        try {
+            dump = dumper.submit(() -> dump(reason));
+        } catch (RuntimeException e) {
+            throw new IOException("Flight recorder is closed");
+        }
+        try {
+            return dump.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the flight recorder dump");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * Writes the recorded records that are within the maximum age, oldest first, in the trace format.
+     */
+    private Path dump(String reason) throws IOException {
+        long now = System.currentTimeMillis();
+        long end = cursor.get();
+        long start = Math.max(0, end - slots.length);
+        long oldest = maxAgeMillis > 0 ? now - maxAgeMillis : Long.MIN_VALUE;
+        Path file = directory.resolve(format.getFileName() + DUMP_SUFFIX
+                + DateUtils.getFormattedTimestampForFileName() + "-" + dumps.incrementAndGet());
+
+        TraceEncoder encoder = format.newEncoder(now);
+        BinaryTraceDictionary dictionary = format == TraceFormat.BINARY ? new BinaryTraceDictionary(now) : null;
+        TraceRecord record = new TraceRecord();
+        TraceBuffer buffer = new TraceBuffer(WRITE_THRESHOLD);
+        long written = 0;
+        try (FileTraceSink sink = new FileTraceSink(file.toString(), WRITE_THRESHOLD)) {
+            if (dictionary != null) {
+                dictionary.segmentOpened(sink);
+            }
+            Thread current = Thread.currentThread();
+            record.set(TraceRecord.Level.TRACE, now, current.getId(), current.getName(), null,
+                    "Flight recorder dump triggered by " + reason + "; "
+                            + (maxAgeMillis > 0 ? "records from the last " + (maxAgeMillis / 1000) + "s" : "all records kept")
+                            + " follow", null);
+            encode(record, encoder, dictionary, buffer);
+            for (long position = start; position < end; position++) {
+                Slot slot = slots[(int) (position & mask)];
+                synchronized (slot) {
+                    if (slot.position != position) {
+                        // overwritten since the dump started
+                        continue;
+                    }
+                    record.copyFrom(slot.record);
+                }
+                if (record.timestamp < oldest || !symbolize(record)) {
+                    record.clear();
+                    continue;
+                }
+                encode(record, encoder, dictionary, buffer);
+                written++;
+                if (buffer.length() >= WRITE_THRESHOLD) {
+                    buffer.writeTo(sink);
+                    buffer.reset();
+                }
+            }
+            buffer.writeTo(sink);
+        }
+        TraceFileLogger.getInstance().trace("Flight recorder dumped " + written + " records to " + file
+                + " (trigger: " + reason + ")");
+        return file;
+    }
+
+    private static void encode(TraceRecord record, TraceEncoder encoder, BinaryTraceDictionary dictionary, TraceBuffer buffer) {
+        if (dictionary != null) {
+            dictionary.define(record, buffer);
+        }
+        encoder.encode(record, buffer);
+        record.clear();
+    }
+
+    /**
+     * @return false if the record's deferred stack is rejected by its filter.
+     */
+    private static boolean symbolize(TraceRecord record) {
+        if (record.rawStack == null) {
+            return true;
+        }
+        record.stack = StackSymbolizer.symbolize(record.rawStack, record.rawStackFilterId);
+        record.rawStack = null;
+        return record.stack != null;
+    }
+
+    void close() {
+        dumper.shutdown();
+        try {
+            dumper.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Slot {
+        final TraceRecord record = new TraceRecord();
+        /** Position of the record in the slot; -1 until the slot is first written. */
+        long position = -1;
+    }
+}
@@ -0,0 +1,176 @@
+package com.asm.mja.logging;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Writes trace bytes into memory-mapped segment files of a fixed size
+ * ({@code agent.trace.00000}, {@code agent.trace.00001}, ...).
+ * <p>
+ * Appends are plain copies into the mapping, so there is no system call per record.
+ * When a segment is full it is forced, unmapped and truncated to its written length, and a new one is
+ * mapped. Closed segments are gzip-compressed by the housekeeping executor, and the oldest segments are deleted
+ * once more than {@code maxSegments} exist or they take more than {@code maxTotalBytes} on disk.
+ * <p>
+ * The active segment is preallocated to the full segment size; after a crash its unwritten tail reads as NUL bytes.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class MappedSegmentTraceSink implements TraceSink {
+
+    static final String COMPRESSED_SUFFIX = SegmentFiles.COMPRESSED_SUFFIX;
+
+    private final SegmentFiles files;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long maxTotalBytes;
+    private final boolean compress;
+    private final Executor housekeeper;
+    private final SegmentListener listener;
+
+    private volatile int activeIndex;
+    private boolean openingSegment;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    /**
+     * Notified after a segment has been mapped and before any record is written into it,
+     * so that self-describing formats can repeat their header.
+     */
+    interface SegmentListener {
+        void segmentOpened(TraceSink sink) throws IOException;
+    }
+
+    /**
+     * @param maxTotalBytes disk budget for all segments including the active one; {@code <= 0} for no byte limit.
+     * @param listener      called for every new segment, or null.
+     * @param housekeeper   runs compression and retention of closed segments.
+     */
+    MappedSegmentTraceSink(Path directory, String baseName, int segmentSize, int maxSegments,
+                           long maxTotalBytes, boolean compress, SegmentListener listener,
+                           Executor housekeeper) throws IOException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be greater than zero");
+        }
+        if (maxSegments <= 0) {
+            throw new IllegalArgumentException("Segment count must be greater than zero");
+        }
+        this.files = new SegmentFiles(directory, baseName);
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.maxTotalBytes = maxTotalBytes;
+        this.compress = compress;
+        this.listener = listener;
+        this.housekeeper = housekeeper;
+        Files.createDirectories(directory);
+        activeIndex = files.nextIndex();
+        openSegment();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (mapped == null) {
+            throw new IOException("Trace segment sink is closed");
+        }
+        while (length > 0) {
+            int remaining = mapped.remaining();
+            // Keep a record in one segment unless it is larger than a whole segment.
+            if (remaining == 0 || (remaining < length && mapped.position() > 0)) {
+                roll();
+                remaining = mapped.remaining();
+            }
+            int chunk = Math.min(remaining, length);
+            mapped.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Mapped writes are already visible to readers of the file; the page cache is forced
+     * to disk only when a segment is rolled or the sink is closed.
+     */
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mapped == null) {
+            return;
+        }
+        closeSegment();
+    }
+
+    Path getActiveSegment() {
+        return files.path(activeIndex);
+    }
+
+    private void roll() throws IOException {
+        Path closed = closeSegment();
+        activeIndex++;
+        openSegment();
+        try {
+            housekeeper.execute(() -> housekeep(closed));
+        } catch (RejectedExecutionException e) {
+            // housekeeping has shut down: keep the closed segment as it is
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(files.path(activeIndex),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        if (listener != null && !openingSegment) {
+            // a preamble larger than a segment rolls without re-entering the listener
+            openingSegment = true;
+            try {
+                listener.segmentOpened(this);
+            } finally {
+                openingSegment = false;
+            }
+        }
+    }
+
+    private Path closeSegment() throws IOException {
+        MappedByteBuffer current = mapped;
+        FileChannel currentChannel = channel;
+        mapped = null;
+        channel = null;
+        int written = current.position();
+        try {
+            current.force();
+            MappedBuffers.unmap(current);
+            currentChannel.truncate(written);
+        } finally {
+            currentChannel.close();
+        }
+        return files.path(activeIndex);
+    }
+
+    private void housekeep(Path closed) {
+        try {
+            if (compress && Files.exists(closed)) {
+                SegmentFiles.compress(closed);
+            }
+            files.enforceRetention(maxSegments, maxTotalBytes, activeIndex, 0);
+        } catch (IOException e) {
+            System.err.println("Trace segment housekeeping failed for " + closed + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return raw and compressed segments ordered from oldest to newest.
+     */
+    List<Path> listSegments() throws IOException {
+        return files.list();
+    }
+}
@@ -0,0 +1,190 @@
+package com.asm.mja.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size, memory-mapped circular journal of the most recent encoded trace records
+ * ({@code agent.journal}), kept alongside the regular trace output.
+ *
+ * Every record is copied into the mapping before it is handed to the sink, so it is in the OS page cache
+ * as soon as the call returns: it survives the JVM being killed, dying of an OOM or crashing in native code,
+ * though not a machine crash. {@link ProbeJournalReader} dumps the journal afterwards.
+ *
+ * The file is a {@value #HEADER_SIZE}-byte header followed by the data area. Records are framed as
+ * {@code int length, long sequence, bytes}; a frame never wraps, and {@link #WRAP} marks the unused end of
+ * the area when the next frame did not fit. The header holds the logical (ever-increasing) positions of the
+ * oldest frame and of the end of the newest one. Before a frame is written, the tail is moved past the frames
+ * it will overwrite, and the head is only moved once the frame is complete, so a reader always finds whole
+ * frames between the two, whenever the process stopped.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class ProbeJournal implements Closeable {
+
+    static final String FILE_NAME = "agent.journal";
+    /** "MJAJRNL1". */
+    static final long MAGIC = 0x4d4a414a524e4c31L;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int FRAME_HEADER_SIZE = 12;
+    static final int WRAP = -1;
+
+    static final int STATE_OPEN = 1;
+    static final int STATE_CLOSED = 2;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 8;
+    static final int STATE_OFFSET = 12;
+    static final int CAPACITY_OFFSET = 16;
+    static final int TAIL_OFFSET = 24;
+    static final int HEAD_OFFSET = 32;
+    static final int NEXT_SEQUENCE_OFFSET = 40;
+    static final int CREATED_AT_OFFSET = 48;
+
+    private final Path file;
+    private final int capacity;
+    private final Lock lock = new ReentrantLock();
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long tail;
+    private long head;
+    private long nextSequence = 1;
+    private long oversized;
+
+    /**
+     * Creates or replaces the journal file.
+     *
+     * @param capacity bytes in the data area; records larger than this are not journaled.
+     */
+    ProbeJournal(Path file, int capacity) throws IOException {
+        if (capacity < FRAME_HEADER_SIZE) {
+            throw new IllegalArgumentException("Journal capacity is too small: " + capacity);
+        }
+        this.file = file;
+        this.capacity = capacity;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) HEADER_SIZE + capacity);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        mapped.putInt(VERSION_OFFSET, VERSION);
+        mapped.putInt(STATE_OFFSET, STATE_OPEN);
+        mapped.putInt(CAPACITY_OFFSET, capacity);
+        mapped.putLong(TAIL_OFFSET, 0);
+        mapped.putLong(HEAD_OFFSET, 0);
+        mapped.putLong(NEXT_SEQUENCE_OFFSET, nextSequence);
+        mapped.putLong(CREATED_AT_OFFSET, System.currentTimeMillis());
+        // written last: a reader ignores a file whose header is incomplete
+        mapped.putLong(MAGIC_OFFSET, MAGIC);
+    }
+
+    /**
+     * Appends one or more whole encoded records as a single frame, overwriting the oldest frames as needed.
+     */
+    void append(byte[] bytes, int offset, int length) {
+        int frameSize = FRAME_HEADER_SIZE + length;
+        lock.lock();
+        try {
+            if (mapped == null) {
+                return;
+            }
+            if (length <= 0 || frameSize > capacity) {
+                if (length > 0) {
+                    oversized++;
+                }
+                return;
+            }
+            long start = head;
+            int position = (int) (start % capacity);
+            int wrapAt = -1;
+            if (capacity - position < frameSize) {
+                wrapAt = position;
+                start += capacity - position;
+                position = 0;
+            }
+            long end = start + frameSize;
+            while (end - tail > capacity) {
+                tail = next(tail);
+            }
+            mapped.putLong(TAIL_OFFSET, tail);
+            if (wrapAt >= 0 && capacity - wrapAt >= FRAME_HEADER_SIZE) {
+                mapped.putInt(HEADER_SIZE + wrapAt, WRAP);
+            }
+            int frame = HEADER_SIZE + position;
+            mapped.putInt(frame, length);
+            mapped.putLong(frame + 4, nextSequence);
+            mapped.position(frame + FRAME_HEADER_SIZE);
+            mapped.put(bytes, offset, length);
+            nextSequence++;
+            head = end;
+            mapped.putLong(NEXT_SEQUENCE_OFFSET, nextSequence);
+            mapped.putLong(HEAD_OFFSET, head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the logical position of the frame after the one starting at {@code position}.
+     */
+    private long next(long position) {
+        int physical = (int) (position % capacity);
+        int remaining = capacity - physical;
+        if (remaining < FRAME_HEADER_SIZE) {
+            return position + remaining;
+        }
+        int length = mapped.getInt(HEADER_SIZE + physical);
+        return length == WRAP ? position + remaining : position + FRAME_HEADER_SIZE + length;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return number of frames that were larger than the whole journal and were skipped.
+     */
+    long getOversizedCount() {
+        lock.lock();
+        try {
+            return oversized;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the journal as cleanly closed and forces it to disk.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (mapped == null) {
+                return;
+            }
+            mapped.putInt(STATE_OFFSET, STATE_CLOSED);
+            mapped.force();
+            MappedBuffers.unmap(mapped);
+            mapped = null;
+            channel.close();
+            channel = null;
+        } finally {
+            lock.unlock();
+        }
+        if (oversized > 0) {
+            System.err.println("Trace journal " + file + " skipped " + oversized + " records larger than the journal");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.asm.mja.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace journal ({@code agent.journal}) written by {@link ProbeJournal}, typically after the agent's
+ * process has died, and copies the journaled records to a stream, oldest first, in the trace format the
+ * agent was writing.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class ProbeJournalReader {
+
+    private long frameCount;
+    private long firstSequence;
+    private long lastSequence;
+    private boolean closedCleanly;
+    private long createdAtMillis;
+    private boolean truncated;
+
+    /**
+     * @throws IOException if the file cannot be read or is not a trace journal.
+     */
+    public void read(Path journal, OutputStream out) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < ProbeJournal.HEADER_SIZE) {
+                throw new IOException(journal + " is not a trace journal");
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.BIG_ENDIAN);
+        }
+        if (data.getLong(ProbeJournal.MAGIC_OFFSET) != ProbeJournal.MAGIC) {
+            throw new IOException(journal + " is not a trace journal");
+        }
+        int version = data.getInt(ProbeJournal.VERSION_OFFSET);
+        if (version != ProbeJournal.VERSION) {
+            throw new IOException("Unsupported trace journal version " + version + " in " + journal);
+        }
+        int capacity = data.getInt(ProbeJournal.CAPACITY_OFFSET);
+        if (capacity < ProbeJournal.FRAME_HEADER_SIZE || data.capacity() < (long) ProbeJournal.HEADER_SIZE + capacity) {
+            throw new IOException(journal + " is shorter than its header says; it may have been truncated");
+        }
+        closedCleanly = data.getInt(ProbeJournal.STATE_OFFSET) == ProbeJournal.STATE_CLOSED;
+        createdAtMillis = data.getLong(ProbeJournal.CREATED_AT_OFFSET);
+        long tail = data.getLong(ProbeJournal.TAIL_OFFSET);
+        long head = data.getLong(ProbeJournal.HEAD_OFFSET);
+        if (tail < 0 || head < tail || head - tail > capacity) {
+            throw new IOException("Inconsistent positions in trace journal " + journal);
+        }
+
+        byte[] bytes = new byte[Math.min(capacity, 64 * 1024)];
+        long position = tail;
+        while (position < head) {
+            int physical = (int) (position % capacity);
+            int remaining = capacity - physical;
+            if (remaining < ProbeJournal.FRAME_HEADER_SIZE) {
+                position += remaining;
+                continue;
+            }
+            int frame = ProbeJournal.HEADER_SIZE + physical;
+            int length = data.getInt(frame);
+            if (length == ProbeJournal.WRAP) {
+                position += remaining;
+                continue;
+            }
+            if (length <= 0 || ProbeJournal.FRAME_HEADER_SIZE + length > remaining
+                    || position + ProbeJournal.FRAME_HEADER_SIZE + length > head) {
+                truncated = true;
+                return;
+            }
+            long sequence = data.getLong(frame + 4);
+            if (frameCount == 0) {
+                firstSequence = sequence;
+            }
+            lastSequence = sequence;
+            frameCount++;
+            copy(data, frame + ProbeJournal.FRAME_HEADER_SIZE, length, bytes, out);
+            position += ProbeJournal.FRAME_HEADER_SIZE + length;
+        }
+    }
+
+    private static void copy(ByteBuffer data, int offset, int length, byte[] bytes, OutputStream out) throws IOException {
+        ByteBuffer frame = data.duplicate();
+        frame.position(offset);
+        while (length > 0) {
+            int chunk = Math.min(length, bytes.length);
+            frame.get(bytes, 0, chunk);
+            out.write(bytes, 0, chunk);
+            length -= chunk;
+        }
+    }
+
+    /**
+     * @return number of frames read; a frame holds one or more records written together.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return sequence number of the oldest frame read; frames before it were overwritten.
+     */
+    public long getFirstSequence() {
+        return firstSequence;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return false if the agent never closed the journal, e.g. because its process was killed or crashed.
+     */
+    public boolean isClosedCleanly() {
+        return closedCleanly;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * @return true if reading stopped at a damaged frame.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,172 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.utils.HeapDumpUtils;
+
+/**
+ * Builds and writes ARGS, RET, STACK, HEAP and PROFILE probe payloads for methods instrumented by the ASM engine,
+ * which calls these instead of inlining the payload code into every instrumented method. Called from
+ * instrumented code; none of them throws, so the generated code needs no exception handlers.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class ProbePayloads {
+
+    private static final String NULL = "NULL";
+
+    private ProbePayloads() {
+    }
+
+    /**
+     * Writes the probe without a payload if the trace budget drops payloads.
+     *
+     * @return true if the payload should not be built.
+     */
+    public static boolean skipPayload(int probeId) {
+        if (!TraceBudget.isPayloadDropped()) {
+            return false;
+        }
+        probe(probeId, null);
+        return true;
+    }
+
+    public static StringBuilder arg(StringBuilder args, int index, Object value) {
+        return args.append(' ').append(index).append('=').append(text(value));
+    }
+
+    public static StringBuilder arg(StringBuilder args, int index, int value) {
+        return args.append(' ').append(index).append('=').append(value);
+    }
+
+    public static StringBuilder arg(StringBuilder args, int index, long value) {
+        return args.append(' ').append(index).append('=').append(value);
+    }
+
+    public static StringBuilder arg(StringBuilder args, int index, float value) {
+        return args.append(' ').append(index).append('=').append(value);
+    }
+
+    public static StringBuilder arg(StringBuilder args, int index, double value) {
+        return args.append(' ').append(index).append('=').append(value);
+    }
+
+    public static StringBuilder arg(StringBuilder args, int index, boolean value) {
+        return args.append(' ').append(index).append('=').append(value);
+    }
+
+    public static StringBuilder arg(StringBuilder args, int index, char value) {
+        return args.append(' ').append(index).append('=').append(value);
+    }
+
+    /**
+     * Writes an ARGS probe with the arguments appended by {@code arg}, or {@code NULL} for a method without any.
+     */
+    public static void args(StringBuilder args, int probeId) {
+        probe(probeId, args.length() == 0 ? NULL : args.toString());
+    }
+
+    public static void returned(Object value, int probeId) {
+        probe(probeId, TraceBudget.isPayloadDropped() ? null : text(value));
+    }
+
+    public static void returned(int value, int probeId) {
+        probe(probeId, TraceBudget.isPayloadDropped() ? null : String.valueOf(value));
+    }
+
+    public static void returned(long value, int probeId) {
+        probe(probeId, TraceBudget.isPayloadDropped() ? null : String.valueOf(value));
+    }
+
+    public static void returned(float value, int probeId) {
+        probe(probeId, TraceBudget.isPayloadDropped() ? null : String.valueOf(value));
+    }
+
+    public static void returned(double value, int probeId) {
+        probe(probeId, TraceBudget.isPayloadDropped() ? null : String.valueOf(value));
+    }
+
+    public static void returned(boolean value, int probeId) {
+        probe(probeId, TraceBudget.isPayloadDropped() ? null : String.valueOf(value));
+    }
+
+    public static void returned(char value, int probeId) {
+        probe(probeId, TraceBudget.isPayloadDropped() ? null : String.valueOf(value));
+    }
+
+    public static void returnedVoid(int probeId) {
+        probe(probeId, TraceBudget.isPayloadDropped() ? null : "VOID");
+    }
+
+    public static void heap(int probeId) {
+        try {
+            HeapDumpUtils.collectHeap();
+        } catch (Exception ignored) {
+            return;
+        }
+        probe(probeId, null);
+    }
+
+    public static void profile(long startNanos, int probeId) {
+        probe(probeId, "Execution time: " + (System.nanoTime() - startNanos) / 1000000 + "ms");
+    }
+
+    /**
+     * @return true if the STACK probe should pass a bare {@link Throwable} to {@link #rawStack} instead of calling
+     * {@link #stack}.
+     */
+    public static boolean isStackDeferred() {
+        try {
+            return TraceFileLogger.getInstance().isStackSymbolizationDeferred();
+        } catch (Exception ignored) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a STACK probe with the stack of the instrumented method that called this.
+     *
+     * @param filterId id returned by {@link StackFilter#register(String)}, or -1 for none.
+     */
+    public static void stack(int probeId, int filterId) {
+        try {
+            StackTraceElement[] stack = StackCapture.captureCallerOf(filterId);
+            if (stack != null) {
+                TraceFileLogger.getInstance().probeStack(probeId, stack);
+            }
+        } catch (Exception ignored) {
+            // the instrumented method must not fail because its probe did
+        }
+    }
+
+    /**
+     * Records a STACK probe to be symbolized off the instrumented thread.
+     *
+     * @param capture created in the instrumented method, so its stack starts there.
+     */
+    public static void rawStack(Throwable capture, int probeId, int filterId) {
+        try {
+            TraceFileLogger.getInstance().probeRawStack(probeId, filterId, capture);
+        } catch (Exception ignored) {
+            // the instrumented method must not fail because its probe did
+        }
+    }
+
+    private static void probe(int probeId, String payload) {
+        try {
+            TraceFileLogger.getInstance().probe(probeId, payload);
+        } catch (Exception ignored) {
+            // the instrumented method must not fail because its probe did
+        }
+    }
+
+    private static String text(Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        try {
+            return value.toString();
+        } catch (Exception e) {
+            return "<" + e.getClass().getName() + " in toString()>";
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.asm.mja.logging;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket for a rule with a {@code ::RATE[n/unit]} limit. Generated code calls
+ * {@link #tryAcquire(int)} before building any payload and skips the probe when it returns false.
+ *
+ * The bucket holds {@code n} tokens and refills one token every {@code unit / n}. It is kept as a single
+ * "next free" timestamp (the generic cell rate algorithm): a hit is allowed while that timestamp is less
+ * than one period ahead of now, and allowing it moves the timestamp forward by one refill interval with a
+ * CAS. Suppressed hits only read the timestamp and bump a striped counter.
+ *
+ * Suppressed counts are written to the trace as {@code suppressed=<n> limit=<n/unit>} lines for the probe
+ * site, at most once per report interval by the next thread that hits the probe, and for every limiter on shutdown.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class ProbeRateLimiter {
+
+    private static final long DEFAULT_REPORT_INTERVAL_NANOS = 10_000_000_000L;
+    private static final Map<String, Integer> IDS_BY_KEY = new HashMap<>();
+    private static volatile ProbeRateLimiter[] limiters = new ProbeRateLimiter[16];
+    private static volatile int size;
+    private static volatile long reportIntervalNanos = DEFAULT_REPORT_INTERVAL_NANOS;
+
+    final int probeId;
+    final String limit;
+    private final long refillNanos;
+    /** How far ahead of now the next free slot may be while a hit is still allowed: one period minus one refill. */
+    private final long toleranceNanos;
+    private final AtomicLong nextFreeAt;
+    private final LongAdder suppressed = new LongAdder();
+    private final AtomicLong nextReportAt;
+    /** Suppressed hits already written to the trace; guarded by {@code this}. */
+    private long reported;
+
+    ProbeRateLimiter(int probeId, long permits, long periodNanos, String limit, long now) {
+        this.probeId = probeId;
+        this.limit = limit;
+        this.refillNanos = Math.max(1, periodNanos / permits);
+        this.toleranceNanos = periodNanos - refillNanos;
+        this.nextFreeAt = new AtomicLong(now);
+        this.nextReportAt = new AtomicLong(now + reportIntervalNanos);
+    }
+
+    /**
+     * Creates the bucket for a rate-limited probe site, or returns the id of the bucket registered
+     * earlier for the same site and limit, so re-applying rules keeps its state.
+     *
+     * @param probeId     id returned by {@link ProbeRegistry#register(String, String, String, String)}.
+     * @param permits     hits allowed per period.
+     * @param periodNanos length of the period.
+     * @param limit       the limit as written in the rule, used in suppressed-count reports.
+     * @return the limiter id to embed in generated code.
+     */
+    public static synchronized int register(int probeId, long permits, long periodNanos, String limit) {
+        if (permits <= 0 || periodNanos <= 0) {
+            throw new IllegalArgumentException("Rate limit must allow at least one hit per period: " + limit);
+        }
+        String key = probeId + "#" + permits + "#" + periodNanos;
+        Integer existing = IDS_BY_KEY.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        ProbeRateLimiter[] current = limiters;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = new ProbeRateLimiter(probeId, permits, periodNanos, limit, System.nanoTime());
+        IDS_BY_KEY.put(key, id);
+        limiters = current;
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * Takes a token from the bucket. Called from instrumented code; never throws.
+     *
+     * @return true if the probe should be traced, false if the hit was counted as suppressed.
+     */
+    public static boolean tryAcquire(int id) {
+        ProbeRateLimiter limiter = get(id);
+        return limiter == null || limiter.acquire(System.nanoTime());
+    }
+
+    /**
+     * @return the limiter for {@code id}, or null if no such limiter has been registered.
+     */
+    static ProbeRateLimiter get(int id) {
+        // read size before limiters: register() publishes the array before the new size
+        if (id < 0 || id >= size) {
+            return null;
+        }
+        return limiters[id];
+    }
+
+    /**
+     * @param intervalMillis time between suppressed-count reports of a limiter, or 0 to report on shutdown only.
+     */
+    static void setReportIntervalMillis(long intervalMillis) {
+        reportIntervalNanos = intervalMillis * 1_000_000L;
+    }
+
+    /**
+     * Writes the outstanding suppressed counts of every limiter, as done when the trace is closed.
+     */
+    static void reportAll() {
+        int count = size;
+        ProbeRateLimiter[] current = limiters;
+        for (int i = 0; i < count; i++) {
+            current[i].report();
+        }
+    }
+
+    boolean acquire(long now) {
+        long interval = reportIntervalNanos;
+        if (interval > 0) {
+            long reportAt = nextReportAt.get();
+            if (now - reportAt >= 0 && nextReportAt.compareAndSet(reportAt, now + interval)) {
+                report();
+            }
+        }
+        while (true) {
+            long freeAt = nextFreeAt.get();
+            long start = freeAt - now > 0 ? freeAt : now;
+            if (start - now > toleranceNanos) {
+                suppressed.increment();
+                return false;
+            }
+            if (nextFreeAt.compareAndSet(freeAt, start + refillNanos)) {
+                return true;
+            }
+        }
+    }
+
+    long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    private synchronized void report() {
+        long total = suppressed.sum();
+        long delta = total - reported;
+        if (delta <= 0) {
+            return;
+        }
+        try {
+            TraceFileLogger.getInstance().probe(probeId, "suppressed=" + delta + " limit=" + limit);
+            reported = total;
+        } catch (RuntimeException e) {
+            // the trace is not open; the count is reported next time
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.asm.mja.logging;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns a stable integer id to every probe site woven into application code.
+ * Generated code passes the id to {@link TraceFileLogger#probe(int, String)} instead of
+ * concatenating the class and method names into every trace line, so encoders can look up
+ * or dictionary-encode the site.
+ *
+ * Ids are dense, start at zero and are never reused for the lifetime of the agent.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class ProbeRegistry {
+
+    private static final ProbeRegistry INSTANCE = new ProbeRegistry();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, ProbeSite> sitesByKey = new HashMap<>();
+    private volatile ProbeSite[] sites = new ProbeSite[INITIAL_CAPACITY];
+    private volatile int size;
+
+    private ProbeRegistry() {
+    }
+
+    public static ProbeRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a probe site, or returns the id of an identical site registered earlier.
+     *
+     * @param action the rule action, or null for actionless events such as PROFILE.
+     * @return the probe id to embed in generated code.
+     */
+    public synchronized int register(String className, String methodName, String event, String action) {
+        String key = ProbeSite.key(className, methodName, event, action);
+        ProbeSite existing = sitesByKey.get(key);
+        if (existing != null) {
+            return existing.id;
+        }
+        int id = size;
+        ProbeSite[] current = sites;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        ProbeSite site = new ProbeSite(id, className, methodName, event, action);
+        current[id] = site;
+        sitesByKey.put(key, site);
+        sites = current;
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * @return the site for {@code id}, or null if no such probe has been registered.
+     */
+    ProbeSite get(int id) {
+        // read size before sites: register() publishes the array before the new size
+        if (id < 0 || id >= size) {
+            return null;
+        }
+        return sites[id];
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,53 @@
+package com.asm.mja.logging;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An instrumented location: the class, method, event and action of a rule applied to a method.
+ * The text form of its record prefix ({@code {class.method} | EVENT | ACTION}) and its JSON fields are encoded once.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class ProbeSite {
+
+    final int id;
+    final String className;
+    final String methodName;
+    final String event;
+    /** Null for probes that carry no action, such as PROFILE. */
+    final String action;
+    final byte[] prefix;
+    /** The site's fields in {@link TraceJsonEncoder} records, escaped once. */
+    final byte[] jsonFields;
+
+    ProbeSite(int id, String className, String methodName, String event, String action) {
+        this.id = id;
+        this.className = className;
+        this.methodName = methodName;
+        this.event = event;
+        this.action = action;
+        this.prefix = describe().getBytes(StandardCharsets.UTF_8);
+        this.jsonFields = TraceJsonEncoder.probeFields(id, className, methodName, event, action);
+    }
+
+    /**
+     * @return {@code {class.method} | EVENT | ACTION}, as written before the probe payload in text traces.
+     */
+    String describe() {
+        return describe(className, methodName, event, action);
+    }
+
+    static String describe(String className, String methodName, String event, String action) {
+        StringBuilder text = new StringBuilder();
+        text.append('{').append(className).append('.').append(methodName).append("} | ").append(event);
+        if (action != null) {
+            text.append(" | ").append(action);
+        }
+        return text.toString();
+    }
+
+    static String key(String className, String methodName, String event, String action) {
+        return className + '#' + methodName + '#' + event + '#' + action;
+    }
+}
@@ -0,0 +1,122 @@
+package com.asm.mja.logging;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On/off switch for the probes of a rule, so a config reload can turn probes already woven into loaded classes
+ * off and on again without redefining those classes.
+ *
+ * Instrumented code checks the switch before anything else of the probe. The ASM engine links the check as an
+ * {@code invokedynamic} call site bound to the switch's {@link MutableCallSite}, whose target is a constant; the
+ * JIT folds the constant, so a switched-off probe compiles to nothing, and flipping the switch deoptimizes the
+ * code that inlined the old constant. Javassist snippets and class files older than Java 7 call
+ * {@link #isEnabled(int)} instead, which reads a volatile flag.
+ *
+ * A rule keeps its switch, and the switch its state, for the lifetime of the agent.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class ProbeSwitches {
+
+    private static final MethodType CHECK_TYPE = MethodType.methodType(boolean.class);
+    private static final Map<String, Integer> IDS_BY_KEY = new HashMap<>();
+    private static volatile Switch[] switches = new Switch[16];
+    private static volatile int size;
+
+    private ProbeSwitches() {
+    }
+
+    /**
+     * Creates the switch for a rule, turned on, or returns the id of the switch registered earlier for it.
+     *
+     * @param ruleKey the rule's {@code getKey()}.
+     * @return the switch id to embed in generated code.
+     */
+    public static synchronized int register(String ruleKey) {
+        Integer existing = IDS_BY_KEY.get(ruleKey);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        Switch[] current = switches;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = new Switch();
+        IDS_BY_KEY.put(ruleKey, id);
+        switches = current;
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * Turns a rule's probes on or off in every class they were woven into, and in classes they are woven into
+     * later. The switch is created if the rule was not woven yet.
+     *
+     * @return true if the switch changed.
+     */
+    public static synchronized boolean setEnabled(String ruleKey, boolean enabled) {
+        Switch probeSwitch = switches[register(ruleKey)];
+        if (probeSwitch.enabled == enabled) {
+            return false;
+        }
+        probeSwitch.enabled = enabled;
+        probeSwitch.site.setTarget(MethodHandles.constant(boolean.class, enabled));
+        MutableCallSite.syncAll(new MutableCallSite[]{probeSwitch.site});
+        return true;
+    }
+
+    /**
+     * Called from instrumented code; never throws.
+     *
+     * @return false if the rule's probes are switched off.
+     */
+    public static boolean isEnabled(int id) {
+        Switch probeSwitch = get(id);
+        return probeSwitch == null || probeSwitch.enabled;
+    }
+
+    /**
+     * Bootstrap method of the {@code invokedynamic} switch checks emitted by the ASM engine.
+     *
+     * @param type must be {@code ()boolean}.
+     * @param id   the switch id, a static argument of the call site.
+     */
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, int id) {
+        if (!CHECK_TYPE.equals(type)) {
+            throw new IllegalArgumentException("Probe switch checks take no arguments and return boolean, not " + type);
+        }
+        Switch probeSwitch = get(id);
+        if (probeSwitch == null) {
+            throw new IllegalArgumentException("Unknown probe switch " + id);
+        }
+        return probeSwitch.site;
+    }
+
+    private static Switch get(int id) {
+        // read size before switches: register() publishes the array before the new size
+        if (id < 0 || id >= size) {
+            return null;
+        }
+        return switches[id];
+    }
+
+    private static final class Switch {
+        /** Shared by every call site that checks this switch. */
+        private final MutableCallSite site;
+        private volatile boolean enabled = true;
+
+        private Switch() {
+            MethodHandle on = MethodHandles.constant(boolean.class, true);
+            this.site = new MutableCallSite(on);
+        }
+    }
+}
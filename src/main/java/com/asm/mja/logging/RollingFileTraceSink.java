@@ -0,0 +1,150 @@
+package com.asm.mja.logging;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Appends trace bytes to {@code agent.trace} and rotates it by size or age: the active file is
+ * renamed to the next numbered segment ({@code agent.trace.00000}, ...) and a new one is started.
+ * <p>
+ * Rotation happens on the writing thread and only renames the file; compressing the rotated file
+ * and deleting the oldest segments is handed to the housekeeping executor, so no application
+ * thread ever gzips or scans the directory.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class RollingFileTraceSink implements TraceSink {
+
+    private final Path active;
+    private final SegmentFiles files;
+    private final int bufferSize;
+    private final long rotateBytes;
+    private final long rotateIntervalMillis;
+    private final int maxSegments;
+    private final long maxTotalBytes;
+    private final boolean compress;
+    private final MappedSegmentTraceSink.SegmentListener listener;
+    private final Executor housekeeper;
+
+    private OutputStream out;
+    private long written;
+    private long opened;
+    private long rotateAt;
+    private int nextIndex;
+    private boolean openingFile;
+
+    /**
+     * @param rotateBytes          size at which the active file is rotated, or {@code <= 0} for no size limit.
+     * @param rotateIntervalMillis age at which the active file is rotated, or {@code <= 0} for no time limit.
+     * @param maxSegments          files kept, including the active one.
+     * @param maxTotalBytes        disk budget for all files including the active one; {@code <= 0} for no byte limit.
+     * @param listener             called for every new file, or null.
+     * @param housekeeper          runs compression and retention of rotated files.
+     */
+    RollingFileTraceSink(Path active, int bufferSize, long rotateBytes, long rotateIntervalMillis, int maxSegments,
+                         long maxTotalBytes, boolean compress, MappedSegmentTraceSink.SegmentListener listener,
+                         Executor housekeeper) throws IOException {
+        if (maxSegments <= 0) {
+            throw new IllegalArgumentException("Segment count must be greater than zero");
+        }
+        this.active = active;
+        this.files = new SegmentFiles(active.getParent(), active.getFileName().toString());
+        this.bufferSize = bufferSize;
+        this.rotateBytes = rotateBytes;
+        this.rotateIntervalMillis = rotateIntervalMillis;
+        this.maxSegments = maxSegments;
+        this.maxTotalBytes = maxTotalBytes;
+        this.compress = compress;
+        this.listener = listener;
+        this.housekeeper = housekeeper;
+        this.nextIndex = files.nextIndex();
+        open();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (out == null) {
+            throw new IOException("Trace file sink is closed");
+        }
+        if (written > opened && isRotationDue(length)) {
+            rotate();
+        }
+        out.write(bytes, offset, length);
+        written += length;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private boolean isRotationDue(int length) {
+        if (openingFile) {
+            return false;
+        }
+        if (rotateBytes > 0 && written + length > rotateBytes) {
+            return true;
+        }
+        return rotateIntervalMillis > 0 && System.currentTimeMillis() >= rotateAt;
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        out = null;
+        Path rotated = files.path(nextIndex++);
+        Files.move(active, rotated, StandardCopyOption.REPLACE_EXISTING);
+        open();
+        try {
+            housekeeper.execute(() -> housekeep(rotated));
+        } catch (RejectedExecutionException e) {
+            // housekeeping has shut down: keep the rotated file as it is
+        }
+    }
+
+    private void open() throws IOException {
+        OutputStream file = Files.newOutputStream(active, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        out = bufferSize > 0 ? new BufferedOutputStream(file, bufferSize) : file;
+        written = Files.size(active);
+        rotateAt = System.currentTimeMillis() + rotateIntervalMillis;
+        if (listener != null) {
+            openingFile = true;
+            try {
+                listener.segmentOpened(this);
+            } finally {
+                openingFile = false;
+            }
+        }
+        // a file holding only what was written on open (e.g. a dictionary preamble) is never rotated
+        opened = written;
+    }
+
+    private void housekeep(Path rotated) {
+        try {
+            if (compress && Files.exists(rotated)) {
+                SegmentFiles.compress(rotated);
+            }
+            // the active file is not numbered, so it counts against the limits separately
+            files.enforceRetention(maxSegments - 1, maxTotalBytes, Integer.MAX_VALUE, SegmentFiles.sizeOf(active));
+        } catch (IOException e) {
+            System.err.println("Trace file housekeeping failed for " + rotated + ": " + e.getMessage());
+        }
+    }
+}
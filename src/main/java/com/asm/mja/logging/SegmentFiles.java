@@ -0,0 +1,148 @@
+package com.asm.mja.logging;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Naming, compression and retention of numbered trace files ({@code agent.trace.00000},
+ * {@code agent.trace.00001.gz}, ...), shared by the memory-mapped and the rotating file sinks.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class SegmentFiles {
+
+    static final String COMPRESSED_SUFFIX = ".gz";
+    private static final int INDEX_DIGITS = 5;
+
+    private final Path directory;
+    private final String baseName;
+
+    SegmentFiles(Path directory, String baseName) {
+        this.directory = directory;
+        this.baseName = baseName;
+    }
+
+    Path path(int index) {
+        StringBuilder name = new StringBuilder(baseName).append('.');
+        String digits = Integer.toString(index);
+        for (int i = digits.length(); i < INDEX_DIGITS; i++) {
+            name.append('0');
+        }
+        return directory.resolve(name.append(digits).toString());
+    }
+
+    /**
+     * @return raw and compressed segments ordered from oldest to newest.
+     */
+    List<Path> list() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, baseName + ".*")) {
+            for (Path path : stream) {
+                if (indexOf(path) >= 0) {
+                    segments.add(path);
+                }
+            }
+        }
+        segments.sort((a, b) -> Integer.compare(indexOf(a), indexOf(b)));
+        return segments;
+    }
+
+    int nextIndex() throws IOException {
+        List<Path> existing = list();
+        return existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1)) + 1;
+    }
+
+    /**
+     * Deletes the oldest segments below {@code activeIndex} while more than {@code maxSegments}
+     * exist or, with {@code maxTotalBytes > 0}, while they take more than {@code maxTotalBytes}.
+     *
+     * @param extraBytes bytes of an active file that is not itself a numbered segment but counts against the budget.
+     */
+    void enforceRetention(int maxSegments, long maxTotalBytes, int activeIndex, long extraBytes) throws IOException {
+        List<Path> segments = list();
+        long totalBytes = extraBytes;
+        for (Path segment : segments) {
+            totalBytes += sizeOf(segment);
+        }
+        int count = segments.size();
+        for (Path oldest : segments) {
+            boolean overCount = count > maxSegments;
+            boolean overBytes = maxTotalBytes > 0 && totalBytes > maxTotalBytes;
+            if (!overCount && !overBytes) {
+                break;
+            }
+            if (indexOf(oldest) >= activeIndex) {
+                break;
+            }
+            long size = sizeOf(oldest);
+            if (Files.deleteIfExists(oldest)) {
+                count--;
+                totalBytes -= size;
+            }
+        }
+    }
+
+    /**
+     * @return the segment index encoded in the file name, or -1 if the file is not a segment.
+     */
+    int indexOf(Path path) {
+        String name = path.getFileName().toString();
+        int start = baseName.length() + 1;
+        if (!name.startsWith(baseName) || name.length() <= start || name.charAt(start - 1) != '.') {
+            return -1;
+        }
+        int end = name.endsWith(COMPRESSED_SUFFIX) ? name.length() - COMPRESSED_SUFFIX.length() : name.length();
+        if (end - start < INDEX_DIGITS) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    /**
+     * Replaces {@code file} with {@code file.gz}. The archive is written under a temporary name
+     * first, so readers never see a partial {@code .gz}.
+     */
+    static void compress(Path file) throws IOException {
+        Path compressed = file.resolveSibling(file.getFileName() + COMPRESSED_SUFFIX);
+        Path partial = file.resolveSibling(file.getFileName() + COMPRESSED_SUFFIX + ".tmp");
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+            byte[] chunk = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+        } catch (NoSuchFileException e) {
+            Files.deleteIfExists(partial);
+            return;
+        }
+        Files.move(partial, compressed, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(file);
+    }
+
+    static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
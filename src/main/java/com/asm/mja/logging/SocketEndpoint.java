@@ -0,0 +1,182 @@
+package com.asm.mja.logging;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Address of a local trace collector: {@code host:port} for TCP, or {@code unix:/path/to/socket}
+ * for a Unix domain socket. Unix domain sockets need Java 16+ and are opened reflectively, since
+ * the agent is compiled for Java 8.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class SocketEndpoint {
+
+    private static final String UNIX_PREFIX = "unix:";
+
+    private final String spec;
+    /** Null for a TCP endpoint. */
+    private final String unixPath;
+    private final String host;
+    private final int port;
+
+    private SocketEndpoint(String spec, String unixPath, String host, int port) {
+        this.spec = spec;
+        this.unixPath = unixPath;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code spec} is neither {@code host:port} nor {@code unix:<path>}.
+     */
+    public static SocketEndpoint parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("Trace socket address is empty");
+        }
+        String value = spec.trim();
+        if (value.startsWith(UNIX_PREFIX)) {
+            String path = value.substring(UNIX_PREFIX.length());
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("Unix socket path is empty: " + spec);
+            }
+            return new SocketEndpoint(value, path, null, 0);
+        }
+        int colon = value.lastIndexOf(':');
+        if (colon <= 0 || colon == value.length() - 1) {
+            throw new IllegalArgumentException("Expected host:port or unix:<path> for trace socket address: " + spec);
+        }
+        int port;
+        try {
+            port = Integer.parseInt(value.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid port in trace socket address: " + spec);
+        }
+        // port 0 lets a collector bind any free port
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Invalid port in trace socket address: " + spec);
+        }
+        String host = value.substring(0, colon);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        return new SocketEndpoint(value, null, host, port);
+    }
+
+    public boolean isUnix() {
+        return unixPath != null;
+    }
+
+    /**
+     * @return the TCP port, or 0 for a Unix domain socket.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return true if this JVM can open Unix domain socket channels.
+     */
+    public static boolean isUnixSupported() {
+        try {
+            Class.forName("java.net.UnixDomainSocketAddress");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a blocking channel connected to the endpoint.
+     */
+    SocketChannel connect() throws IOException {
+        if (!isUnix()) {
+            SocketChannel channel = SocketChannel.open();
+            try {
+                channel.socket().setTcpNoDelay(true);
+                channel.connect(new InetSocketAddress(host, port));
+                return channel;
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        SocketChannel channel = (SocketChannel) invoke(SocketChannel.class, "open", unixFamily());
+        try {
+            channel.connect(unixAddress());
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a blocking server channel bound to the endpoint, replacing a stale Unix socket file.
+     */
+    ServerSocketChannel bind() throws IOException {
+        if (!isUnix()) {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(host, port));
+            return server;
+        }
+        Files.deleteIfExists(Paths.get(unixPath));
+        ServerSocketChannel server = (ServerSocketChannel) invoke(ServerSocketChannel.class, "open", unixFamily());
+        server.bind(unixAddress());
+        return server;
+    }
+
+    /**
+     * @return the bound TCP port of {@code server}, or 0 for a Unix domain socket.
+     */
+    static int localPort(ServerSocketChannel server) throws IOException {
+        SocketAddress address = server.getLocalAddress();
+        return address instanceof InetSocketAddress ? ((InetSocketAddress) address).getPort() : 0;
+    }
+
+    private static ProtocolFamily unixFamily() throws IOException {
+        try {
+            return StandardProtocolFamily.valueOf("UNIX");
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unix domain sockets require Java 16 or later");
+        }
+    }
+
+    private SocketAddress unixAddress() throws IOException {
+        try {
+            Class<?> type = Class.forName("java.net.UnixDomainSocketAddress");
+            return (SocketAddress) type.getMethod("of", String.class).invoke(null, unixPath);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unix domain sockets require Java 16 or later");
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot create Unix socket address " + unixPath + ": " + e);
+        }
+    }
+
+    private static Object invoke(Class<?> type, String factory, ProtocolFamily family) throws IOException {
+        try {
+            Method method = type.getMethod(factory, ProtocolFamily.class);
+            return method.invoke(null, family);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Unix domain sockets require Java 16 or later");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
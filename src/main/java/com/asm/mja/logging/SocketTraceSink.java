@@ -0,0 +1,251 @@
+package com.asm.mja.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams encoded trace records to a local collector over TCP or a Unix domain socket.
+ *
+ * {@link #write} only copies the record into a bounded pending buffer; the {@code monarch-trace-socket}
+ * thread swaps it out and sends everything that accumulated in one batch. While the collector is
+ * unreachable the thread reconnects with exponential backoff, and records that do not fit into the
+ * pending buffer are dropped and counted, so instrumented threads never block on the network.
+ *
+ * The stream is line oriented (text or JSON-lines format). When a connection breaks mid-batch, the batch
+ * is resent on the next connection from the start of the first line the old connection did not fully take.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class SocketTraceSink implements TraceSink {
+
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+    private final SocketEndpoint endpoint;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final Thread sender;
+
+    /** Records written since the sender last took a batch; guarded by {@code lock}. */
+    private ByteBuffer pending;
+    /** The batch being sent; only touched by the sender thread. */
+    private ByteBuffer sending;
+    private boolean sendingBatch;
+    private boolean closed;
+    private long droppedRecords;
+    private long reportedDrops;
+    private SocketChannel channel;
+
+    /**
+     * @param bufferBytes bytes buffered while the collector is slow or unreachable.
+     */
+    SocketTraceSink(SocketEndpoint endpoint, int bufferBytes) {
+        this.endpoint = endpoint;
+        this.pending = ByteBuffer.allocate(bufferBytes);
+        this.sending = ByteBuffer.allocate(bufferBytes);
+        this.sending.flip();
+        this.sender = new Thread(this::run, "monarch-trace-socket");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("Trace socket sink is closed");
+            }
+            if (length > pending.remaining()) {
+                droppedRecords++;
+                return;
+            }
+            boolean wasEmpty = pending.position() == 0;
+            pending.put(bytes, offset, length);
+            if (wasEmpty) {
+                pendingAvailable.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records are sent by the sender thread as soon as it is free; flushing does not wait for the network.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Gives the sender up to two seconds to deliver buffered records, then disconnects.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+            while ((pending.position() > 0 || sendingBatch) && System.nanoTime() < deadline) {
+                drained.await(10, TimeUnit.MILLISECONDS);
+            }
+            closed = true;
+            pendingAvailable.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        sender.interrupt();
+        try {
+            sender.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannel();
+        long dropped = getDroppedRecordCount();
+        if (dropped > 0) {
+            System.err.println("Trace socket " + endpoint + " dropped " + dropped + " records in total");
+        }
+    }
+
+    long getDroppedRecordCount() {
+        lock.lock();
+        try {
+            return droppedRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (true) {
+            if (!sending.hasRemaining() && !takeBatch()) {
+                return;
+            }
+            try {
+                if (channel == null) {
+                    channel = endpoint.connect();
+                    backoff = MIN_BACKOFF_MILLIS;
+                    reportDrops();
+                }
+                while (sending.hasRemaining()) {
+                    channel.write(sending);
+                }
+                batchSent();
+            } catch (IOException e) {
+                if (channel != null) {
+                    System.err.println("Trace socket " + endpoint + " disconnected: " + e.getMessage());
+                }
+                closeChannel();
+                rewindToLineStart();
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Swaps the pending buffer in as the next batch, waiting for records if there are none.
+     *
+     * @return false once the sink is closed.
+     */
+    private boolean takeBatch() {
+        lock.lock();
+        try {
+            while (pending.position() == 0) {
+                if (closed) {
+                    return false;
+                }
+                drained.signalAll();
+                pendingAvailable.await();
+            }
+            ByteBuffer batch = pending;
+            pending = sending;
+            pending.clear();
+            sending = batch;
+            sending.flip();
+            sendingBatch = true;
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void batchSent() {
+        lock.lock();
+        try {
+            sendingBatch = false;
+            if (pending.position() == 0) {
+                drained.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the send position back to just after the last newline the broken connection took, so the
+     * next connection starts with a whole record.
+     */
+    private void rewindToLineStart() {
+        int position = sending.position();
+        while (position > 0 && sending.get(position - 1) != '\n') {
+            position--;
+        }
+        sending.position(position);
+    }
+
+    private void reportDrops() {
+        long dropped = getDroppedRecordCount();
+        if (dropped > reportedDrops) {
+            System.err.println("Trace socket connected to " + endpoint + "; " + (dropped - reportedDrops)
+                    + " records were dropped while the buffer was full");
+            reportedDrops = dropped;
+        }
+    }
+
+    /**
+     * @return false if the sink was closed while waiting.
+     */
+    private boolean sleep(long millis) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            pendingAvailable.await(millis, TimeUnit.MILLISECONDS);
+            return !closed;
+        } catch (InterruptedException e) {
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeChannel() {
+        SocketChannel current = channel;
+        channel = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // already broken
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.asm.mja.logging;
+
+import java.util.Arrays;
+
+/**
+ * Captures the caller's stack for STACK probes. Called from instrumented code.
+ *
+ * This is the Java 8 implementation, which materializes the whole stack with
+ * {@link Throwable#getStackTrace()} and then trims it. On Java 9+ the multi-release jar
+ * replaces it with a {@code StackWalker} version that walks at most {@code maxDepth} frames
+ * and only creates {@link StackTraceElement}s once a {@link StackFilter} has matched.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class StackCapture {
+
+    /** Frames captured per stack; 0 means the whole stack. */
+    private static volatile int maxDepth;
+
+    private StackCapture() {
+    }
+
+    static void setMaxDepth(int depth) {
+        maxDepth = Math.max(0, depth);
+    }
+
+    static int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the caller's stack, starting with the calling method, limited to the configured depth.
+     */
+    public static StackTraceElement[] capture() {
+        return trim(new Throwable().getStackTrace(), 1);
+    }
+
+    /**
+     * @param filterId id returned by {@link StackFilter#register(String)}.
+     * @return the caller's stack, limited to the configured depth, or null if the filter rejects it.
+     */
+    public static StackTraceElement[] captureIfMatches(int filterId) {
+        return filter(trim(new Throwable().getStackTrace(), 1), filterId);
+    }
+
+    /**
+     * Captures the stack of the method that called the caller, for helpers that instrumented code calls.
+     *
+     * @param filterId id returned by {@link StackFilter#register(String)}, or -1 for none.
+     * @return the stack, starting with the caller's caller, or null if the filter rejects it.
+     */
+    static StackTraceElement[] captureCallerOf(int filterId) {
+        return filter(trim(new Throwable().getStackTrace(), 2), filterId);
+    }
+
+    private static StackTraceElement[] filter(StackTraceElement[] stack, int filterId) {
+        StackFilter filter = StackFilter.get(filterId);
+        return filter == null || filter.matches(stack) ? stack : null;
+    }
+
+    /**
+     * @param ownFrames frames of this class and its callers to drop from the top of the stack.
+     */
+    private static StackTraceElement[] trim(StackTraceElement[] stack, int ownFrames) {
+        int depth = maxDepth;
+        int end = depth > 0 ? Math.min(stack.length, depth + ownFrames) : stack.length;
+        return Arrays.copyOfRange(stack, Math.min(ownFrames, end), end);
+    }
+}
@@ -0,0 +1,157 @@
+package com.asm.mja.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Assigns ids to the distinct stacks captured by STACK probes and counts their hits, so each
+ * stack is written in full once and later hits only reference its id.
+ *
+ * Lookups are lock-free over an open-addressing table keyed by probe site and frames; only
+ * inserting a new stack takes the table lock. Once {@link #MAX_STACKS} distinct stacks are known,
+ * further new stacks are not tracked and are written in full on every hit, without taking the lock.
+ *
+ * An entry's id may only be referenced once the record defining it was written: until the hit that
+ * writes it calls {@link Entry#markDefined()}, concurrent hits are written in full as well.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class StackDeduplicator {
+
+    static final int MAX_STACKS = 4096;
+    private static final int CAPACITY = Integer.highestOneBit(MAX_STACKS * 2);
+
+    private final AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(CAPACITY);
+    private final List<Entry> entries = new ArrayList<>();
+    private final long summaryIntervalMillis;
+    private final int summaryTop;
+    private final AtomicLong nextSummaryAt;
+    /** Set once {@link #MAX_STACKS} stacks are known, so new stacks are turned away without the lock. */
+    private volatile boolean full;
+
+    /**
+     * @param summaryIntervalMillis time between top-stacks summaries; 0 disables periodic summaries.
+     * @param summaryTop            number of stacks listed in each summary.
+     */
+    StackDeduplicator(long summaryIntervalMillis, int summaryTop, long now) {
+        this.summaryIntervalMillis = summaryIntervalMillis;
+        this.summaryTop = summaryTop;
+        this.nextSummaryAt = new AtomicLong(summaryIntervalMillis > 0 ? now + summaryIntervalMillis : Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the entry for this probe site and stack, created on first sight, or null once the table is full.
+     */
+    Entry lookup(ProbeSite probe, StackTraceElement[] stack) {
+        int hash = hash(probe, stack);
+        int mask = CAPACITY - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            Entry entry = table.get(slot);
+            if (entry == null) {
+                return full ? null : insert(probe, stack, hash);
+            }
+            if (entry.matches(probe, stack, hash)) {
+                return entry;
+            }
+        }
+    }
+
+    private Entry insert(ProbeSite probe, StackTraceElement[] stack, int hash) {
+        synchronized (entries) {
+            int mask = CAPACITY - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                Entry entry = table.get(slot);
+                if (entry == null) {
+                    if (entries.size() >= MAX_STACKS) {
+                        full = true;
+                        return null;
+                    }
+                    entry = new Entry(entries.size() + 1, probe, stack.clone(), hash);
+                    entries.add(entry);
+                    table.set(slot, entry);
+                    return entry;
+                }
+                if (entry.matches(probe, stack, hash)) {
+                    return entry;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true for exactly one caller once the summary interval has elapsed.
+     */
+    boolean isSummaryDue(long now) {
+        long due = nextSummaryAt.get();
+        return now >= due && nextSummaryAt.compareAndSet(due, now + summaryIntervalMillis);
+    }
+
+    /**
+     * @return the most frequently hit stacks, most hits first.
+     */
+    List<Entry> top() {
+        List<Entry> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries);
+        }
+        snapshot.sort((a, b) -> Long.compare(b.hits.get(), a.hits.get()));
+        return snapshot.size() > summaryTop ? new ArrayList<>(snapshot.subList(0, summaryTop)) : snapshot;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static int hash(ProbeSite probe, StackTraceElement[] stack) {
+        int hash = probe == null ? 0 : probe.id;
+        for (StackTraceElement element : stack) {
+            hash = 31 * hash + element.hashCode();
+        }
+        // spread the high bits into the slot index
+        return hash ^ (hash >>> 16);
+    }
+
+    static final class Entry {
+        final int id;
+        final ProbeSite probe;
+        final StackTraceElement[] frames;
+        final AtomicLong hits = new AtomicLong();
+        /** Record message for the hit that writes the full stack. */
+        final String label;
+        private final int hash;
+        /** True once the record carrying {@link #label} and the frames was written. */
+        private volatile boolean defined;
+
+        Entry(int id, ProbeSite probe, StackTraceElement[] frames, int hash) {
+            this.id = id;
+            this.probe = probe;
+            this.frames = frames;
+            this.hash = hash;
+            this.label = "stack=" + id;
+        }
+
+        /**
+         * @return true if later hits may be written as a reference to this stack's id.
+         */
+        boolean isDefined() {
+            return defined;
+        }
+
+        /**
+         * Called by the hit that wrote the record defining this stack's id, once it was written.
+         */
+        void markDefined() {
+            defined = true;
+        }
+
+        boolean matches(ProbeSite probe, StackTraceElement[] stack, int hash) {
+            return this.hash == hash && this.probe == probe && Arrays.equals(frames, stack);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.asm.mja.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A STACK rule filter, compiled once when the rule is woven and matched against stack frames
+ * by {@link StackCapture}. Generated code refers to a filter by the id returned from {@link #register(String)}.
+ *
+ * A filter is a comma-separated list of patterns, for example {@code [com.asm,Service.handle,!com.asm.internal]}.
+ * A pattern matches a frame when it occurs anywhere in the frame's {@code class.method} signature;
+ * patterns starting with {@code !} are negated. A stack is logged when some captured frame matches
+ * one of the plain patterns (or there are none) and no captured frame matches a negated pattern.
+ *
+ * Patterns are split at their last dot into a class-name suffix and a method-name prefix ahead of time,
+ * so matching never concatenates the signature.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class StackFilter {
+
+    private static final Map<String, Integer> IDS_BY_SPEC = new HashMap<>();
+    private static volatile StackFilter[] filters = new StackFilter[16];
+    private static volatile int size;
+
+    private final Pattern[] included;
+    private final Pattern[] excluded;
+
+    private StackFilter(Pattern[] included, Pattern[] excluded) {
+        this.included = included;
+        this.excluded = excluded;
+    }
+
+    /**
+     * Compiles a filter, or returns the id of an identical filter registered earlier.
+     *
+     * @param spec the bracket payload of a STACK rule.
+     * @return the filter id to embed in generated code.
+     * @throws IllegalArgumentException if the filter contains an empty pattern.
+     */
+    public static synchronized int register(String spec) {
+        Integer existing = IDS_BY_SPEC.get(spec);
+        if (existing != null) {
+            return existing;
+        }
+        StackFilter filter = compile(spec);
+        int id = size;
+        StackFilter[] current = filters;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = filter;
+        IDS_BY_SPEC.put(spec, id);
+        filters = current;
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * @return the filter for {@code id}, or null if no such filter has been registered.
+     */
+    static StackFilter get(int id) {
+        // read size before filters: register() publishes the array before the new size
+        if (id < 0 || id >= size) {
+            return null;
+        }
+        return filters[id];
+    }
+
+    static StackFilter compile(String spec) {
+        List<Pattern> included = new ArrayList<>();
+        List<Pattern> excluded = new ArrayList<>();
+        for (String token : spec.split(",")) {
+            String pattern = token.trim();
+            boolean negated = pattern.startsWith("!");
+            if (negated) {
+                pattern = pattern.substring(1).trim();
+            }
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern in STACK filter: [" + spec + "]");
+            }
+            (negated ? excluded : included).add(new Pattern(pattern));
+        }
+        return new StackFilter(included.toArray(new Pattern[0]), excluded.toArray(new Pattern[0]));
+    }
+
+    boolean hasExclusions() {
+        return excluded.length > 0;
+    }
+
+    /**
+     * A stack frame whose method name is only looked up when a pattern needs it; resolving
+     * method names is the expensive part of walking frames with {@code StackWalker}.
+     */
+    interface Frame {
+        String getClassName();
+
+        String getMethodName();
+    }
+
+    boolean includes(Frame frame) {
+        if (included.length == 0) {
+            return true;
+        }
+        for (Pattern pattern : included) {
+            if (pattern.matches(frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean excludes(Frame frame) {
+        for (Pattern pattern : excluded) {
+            if (pattern.matches(frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the frame matches one of the plain patterns, or there are none.
+     */
+    boolean includes(String className, String methodName) {
+        if (included.length == 0) {
+            return true;
+        }
+        for (Pattern pattern : included) {
+            if (pattern.matches(className, methodName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean excludes(String className, String methodName) {
+        for (Pattern pattern : excluded) {
+            if (pattern.matches(className, methodName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if {@code stack} should be logged.
+     */
+    boolean matches(StackTraceElement[] stack) {
+        boolean included = false;
+        for (StackTraceElement element : stack) {
+            String className = element.getClassName();
+            String methodName = element.getMethodName();
+            if (excludes(className, methodName)) {
+                return false;
+            }
+            if (!included) {
+                included = includes(className, methodName);
+                if (included && excluded.length == 0) {
+                    return true;
+                }
+            }
+        }
+        return included;
+    }
+
+    /**
+     * One pattern, equivalent to {@code (className + "." + methodName).contains(text)}.
+     */
+    private static final class Pattern {
+        private final String text;
+        /** Text before the last dot, which must end the class name when the pattern spans the dot. */
+        private final String classSuffix;
+        /** Text after the last dot, which must start the method name when the pattern spans the dot. */
+        private final String methodPrefix;
+
+        Pattern(String text) {
+            this.text = text;
+            int dot = text.lastIndexOf('.');
+            this.classSuffix = dot < 0 ? null : text.substring(0, dot);
+            this.methodPrefix = dot < 0 ? null : text.substring(dot + 1);
+        }
+
+        boolean matches(String className, String methodName) {
+            if (className.contains(text)) {
+                return true;
+            }
+            if (classSuffix == null) {
+                // no dot: can only lie within the method name; method names never contain dots
+                return methodName.contains(text);
+            }
+            return className.endsWith(classSuffix) && methodName.startsWith(methodPrefix);
+        }
+
+        boolean matches(Frame frame) {
+            String className = frame.getClassName();
+            if (className.contains(text)) {
+                return true;
+            }
+            if (classSuffix == null) {
+                return frame.getMethodName().contains(text);
+            }
+            return className.endsWith(classSuffix) && frame.getMethodName().startsWith(methodPrefix);
+        }
+    }
+}
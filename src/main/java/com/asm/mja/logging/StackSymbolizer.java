@@ -0,0 +1,35 @@
+package com.asm.mja.logging;
+
+import java.util.Arrays;
+
+/**
+ * Turns a stack captured as a bare {@link Throwable} into {@link StackTraceElement}s.
+ *
+ * Creating the {@code Throwable} in instrumented code only records the JVM's internal backtrace;
+ * resolving it into class, method, file and line ({@link Throwable#getStackTrace()}) is the
+ * expensive part of a STACK hit. When deferred stacks are enabled that happens here, on the thread
+ * that writes the record, together with the depth limit and the {@link StackFilter}.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class StackSymbolizer {
+
+    private StackSymbolizer() {
+    }
+
+    /**
+     * @param raw      created in the instrumented method, so its first frame is that method.
+     * @param filterId id returned by {@link StackFilter#register(String)}, or -1 for none.
+     * @return the frames limited to the configured depth, or null if the filter rejects them.
+     */
+    static StackTraceElement[] symbolize(Throwable raw, int filterId) {
+        StackTraceElement[] stack = raw.getStackTrace();
+        int depth = StackCapture.getMaxDepth();
+        if (depth > 0 && stack.length > depth) {
+            stack = Arrays.copyOf(stack, depth);
+        }
+        StackFilter filter = StackFilter.get(filterId);
+        return filter == null || filter.matches(stack) ? stack : null;
+    }
+}
@@ -0,0 +1,251 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.metrics.MetricsSnapshot;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Lowers trace verbosity step by step while the trace approaches its write rate or disk budget
+ * ({@code trace.budget}), and raises it again once the pressure subsides.
+ *
+ * Once a second, the bytes the trace wrote since the previous check and the size of the current run's trace
+ * directory are compared with the budget. While either is at {@value #DEGRADE_AT_PERCENT}% of its budget or more,
+ * verbosity drops by one level per check:
+ * <ol>
+ *     <li>{@link #NO_PAYLOADS}: ARGS and RET probes are written without their payloads, which are not even built;</li>
+ *     <li>{@link #SAMPLED_STACKS}: in addition, only one in {@code stackSampleEvery} STACK hits is captured;</li>
+ *     <li>{@link #PAUSED}: in addition, probes of rules not marked {@code ::CRITICAL} are skipped.</li>
+ * </ol>
+ * Once both have stayed under {@value #RECOVER_BELOW_PERCENT}% for {@code recoverAfterSec}, verbosity rises by one
+ * level, and by another after each further such period. Every change is written to the trace, and the level is
+ * published with the trace metrics.
+ *
+ * Generated code asks the static methods, which read one volatile field, before building a probe.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class TraceBudget {
+
+    public static final int FULL = 0;
+    public static final int NO_PAYLOADS = 1;
+    public static final int SAMPLED_STACKS = 2;
+    public static final int PAUSED = 3;
+    static final int DEGRADE_AT_PERCENT = 90;
+    public static final int RECOVER_BELOW_PERCENT = 60;
+    private static final String[] LEVEL_NAMES = {"FULL", "NO_PAYLOADS", "SAMPLED_STACKS", "PAUSED"};
+    private static final String THREAD_NAME = "monarch-trace-budget";
+    private static final long CHECK_INTERVAL_MILLIS = 1000;
+    private static final long BYTES_PER_KB = 1024L;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private static volatile int level = FULL;
+    private static volatile int stackSampleEvery = 1;
+    /** Racy on purpose: a lost increment only shifts which hit is sampled. */
+    private static int stackHits;
+
+    private final long maxBytesPerSec;
+    private final long maxDiskBytes;
+    private final int sampleEvery;
+    private final long recoverAfterMillis;
+    private final Path traceDir;
+    private final LongSupplier writtenBytes;
+    private ScheduledExecutorService checker;
+    private long lastCheckAt;
+    private long lastWritten;
+    /** Start of the current period under {@link #RECOVER_BELOW_PERCENT}%; -1 while the trace is above it. */
+    private long calmSince = -1;
+    private long changes;
+
+    /**
+     * @param maxBytesPerSec 0 for no write rate budget.
+     * @param maxDiskBytes   0 for no disk budget.
+     * @param traceDir       the current run's trace directory, measured against {@code maxDiskBytes}.
+     * @param writtenBytes   total bytes the trace has written so far.
+     */
+    TraceBudget(long maxBytesPerSec, long maxDiskBytes, int sampleEvery, long recoverAfterMillis, Path traceDir,
+                LongSupplier writtenBytes) {
+        this.maxBytesPerSec = maxBytesPerSec;
+        this.maxDiskBytes = maxDiskBytes;
+        this.sampleEvery = sampleEvery;
+        this.recoverAfterMillis = recoverAfterMillis;
+        this.traceDir = traceDir;
+        this.writtenBytes = writtenBytes;
+        this.lastCheckAt = System.currentTimeMillis();
+        this.lastWritten = writtenBytes.getAsLong();
+    }
+
+    /**
+     * @return true if ARGS and RET probes should be written without their payload. Called from instrumented code.
+     */
+    public static boolean isPayloadDropped() {
+        return level >= NO_PAYLOADS;
+    }
+
+    /**
+     * @return true if this STACK hit should be captured. Called from instrumented code.
+     */
+    public static boolean sampleStack() {
+        if (level < SAMPLED_STACKS) {
+            return true;
+        }
+        return (stackHits++ & Integer.MAX_VALUE) % stackSampleEvery == 0;
+    }
+
+    /**
+     * @return true if probes of rules not marked {@code ::CRITICAL} should be skipped. Called from instrumented code.
+     */
+    public static boolean isPaused() {
+        return level >= PAUSED;
+    }
+
+    public static int getLevel() {
+        return level;
+    }
+
+    public static String levelName(int level) {
+        return LEVEL_NAMES[level];
+    }
+
+    /**
+     * Starts checking the trace against the budget in the background, at full verbosity.
+     */
+    synchronized void start() {
+        activate();
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Resets verbosity to full and applies this budget's STACK sampling rate.
+     */
+    synchronized void activate() {
+        stackSampleEvery = sampleEvery;
+        level = FULL;
+        publish(0, 0);
+    }
+
+    private void check() {
+        try {
+            evaluate(System.currentTimeMillis(), writtenBytes.getAsLong(), maxDiskBytes > 0 ? directorySize(traceDir) : 0);
+        } catch (Exception e) {
+            System.err.println("Failed to check trace budget: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves verbosity one level towards what the write rate since the previous check and the disk usage allow.
+     *
+     * @return the verbosity level after this check.
+     */
+    synchronized int evaluate(long now, long written, long diskBytes) {
+        long elapsed = Math.max(1, now - lastCheckAt);
+        long bytesPerSec = (written - lastWritten) * 1000 / elapsed;
+        lastCheckAt = now;
+        lastWritten = written;
+        int percent = Math.max(percentOf(bytesPerSec, maxBytesPerSec), percentOf(diskBytes, maxDiskBytes));
+        int current = level;
+        if (percent >= DEGRADE_AT_PERCENT) {
+            calmSince = -1;
+            if (current < PAUSED) {
+                change(current + 1, bytesPerSec, diskBytes);
+            }
+        } else if (percent < RECOVER_BELOW_PERCENT) {
+            if (calmSince < 0) {
+                calmSince = now;
+            }
+            if (current > FULL && now - calmSince >= recoverAfterMillis) {
+                change(current - 1, bytesPerSec, diskBytes);
+                calmSince = now;
+            }
+        } else {
+            calmSince = -1;
+        }
+        publish(bytesPerSec, diskBytes);
+        return level;
+    }
+
+    private void change(int next, long bytesPerSec, long diskBytes) {
+        boolean lowered = next > level;
+        level = next;
+        changes++;
+        String message = "Trace budget: verbosity " + (lowered ? "lowered" : "raised") + " to " + levelName(next)
+                + " (" + describe(bytesPerSec, diskBytes) + ")";
+        if (lowered) {
+            TraceFileLogger.getInstance().warn(message);
+        } else {
+            TraceFileLogger.getInstance().trace(message);
+        }
+    }
+
+    private String describe(long bytesPerSec, long diskBytes) {
+        StringBuilder description = new StringBuilder();
+        if (maxBytesPerSec > 0) {
+            description.append("write rate ").append(bytesPerSec / BYTES_PER_KB).append(" KB/s of ")
+                    .append(maxBytesPerSec / BYTES_PER_KB).append(" KB/s");
+        }
+        if (maxDiskBytes > 0) {
+            if (description.length() > 0) {
+                description.append(", ");
+            }
+            description.append("trace directory ").append(diskBytes / BYTES_PER_MB).append(" MB of ")
+                    .append(maxDiskBytes / BYTES_PER_MB).append(" MB");
+        }
+        return description.toString();
+    }
+
+    private void publish(long bytesPerSec, long diskBytes) {
+        MetricsSnapshot.getInstance().updateTraceBudgetMetrics(level, bytesPerSec, diskBytes, changes);
+    }
+
+    private static int percentOf(long value, long budget) {
+        return budget <= 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, value * 100 / budget);
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        final long[] size = {0};
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                size[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // rotated segments may be compressed or deleted while the directory is walked
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
+    /**
+     * Stops checking and restores full verbosity.
+     */
+    synchronized void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+            checker = null;
+        }
+        if (level != FULL) {
+            level = FULL;
+            changes++;
+            TraceFileLogger.getInstance().trace("Trace budget: verbosity restored to FULL, the budget is no longer enforced");
+        }
+        publish(0, 0);
+    }
+}
@@ -0,0 +1,235 @@
+package com.asm.mja.logging;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer used to encode trace records without intermediate
+ * Strings. Characters are written as UTF-8 with an ASCII fast path and
+ * numbers are written digit by digit, so a warmed-up buffer never allocates.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class TraceBuffer {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final byte[] MIN_LONG_BYTES = "-9223372036854775808".getBytes();
+
+    private byte[] bytes;
+    private int length;
+
+    TraceBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    TraceBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    TraceBuffer append(byte b) {
+        ensureCapacity(1);
+        bytes[length++] = b;
+        return this;
+    }
+
+    TraceBuffer append(char c) {
+        if (c < 0x80) {
+            return append((byte) c);
+        }
+        return appendNonAscii(c);
+    }
+
+    TraceBuffer append(byte[] source) {
+        return append(source, 0, source.length);
+    }
+
+    TraceBuffer append(byte[] source, int offset, int count) {
+        ensureCapacity(count);
+        System.arraycopy(source, offset, bytes, length, count);
+        length += count;
+        return this;
+    }
+
+    TraceBuffer append(String value) {
+        if (value == null) {
+            return appendAscii("null");
+        }
+        int count = value.length();
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (length == bytes.length) {
+                    ensureCapacity(count - i);
+                }
+                bytes[length++] = (byte) c;
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                appendCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                appendNonAscii(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends a String known to contain only ASCII characters.
+     */
+    TraceBuffer appendAscii(String value) {
+        int count = value.length();
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            bytes[length++] = (byte) value.charAt(i);
+        }
+        return this;
+    }
+
+    TraceBuffer append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(MIN_LONG_BYTES);
+        }
+        if (value < 0) {
+            append((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        int position = length + digits;
+        do {
+            bytes[--position] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Appends a non-negative number left-padded with zeros to {@code width} digits.
+     */
+    TraceBuffer appendPadded(int value, int width) {
+        ensureCapacity(width);
+        int position = length + width;
+        for (int i = 0; i < width; i++) {
+            bytes[--position] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        length += width;
+        return this;
+    }
+
+    /**
+     * Appends an unsigned LEB128 varint: 7 bits per byte, least significant group first.
+     */
+    TraceBuffer appendVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Appends a signed value as a zigzag varint, so small negative numbers stay short.
+     */
+    TraceBuffer appendZigZag(long value) {
+        return appendVarint((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Appends {@code value} as a varint of its UTF-8 length plus one, followed by the UTF-8 bytes.
+     * A null value is written as a single zero byte.
+     */
+    TraceBuffer appendLengthPrefixed(String value) {
+        if (value == null) {
+            return append((byte) 0);
+        }
+        appendVarint(utf8Length(value) + 1L);
+        return append(value);
+    }
+
+    static int utf8Length(String value) {
+        int count = value.length();
+        int utf8 = count;
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    utf8 += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    utf8 += 2;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    // written as '?'
+                } else {
+                    utf8 += 2;
+                }
+            }
+        }
+        return utf8;
+    }
+
+    void writeTo(TraceSink sink) throws IOException {
+        sink.write(bytes, 0, length);
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    int length() {
+        return length;
+    }
+
+    void reset() {
+        length = 0;
+    }
+
+    /**
+     * Drops everything appended after the first {@code length} bytes.
+     */
+    void truncate(int length) {
+        this.length = length;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    private TraceBuffer appendNonAscii(char c) {
+        if (Character.isSurrogate(c)) {
+            return append((byte) '?');
+        }
+        return appendCodePoint(c);
+    }
+
+    TraceBuffer appendCodePoint(int codePoint) {
+        ensureCapacity(4);
+        if (codePoint < 0x800) {
+            bytes[length++] = (byte) (0xC0 | (codePoint >> 6));
+            bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            bytes[length++] = (byte) (0xE0 | (codePoint >> 12));
+            bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+        return this;
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = length + additional;
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length << 1));
+        }
+    }
+}
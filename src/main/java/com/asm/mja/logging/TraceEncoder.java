@@ -0,0 +1,13 @@
+package com.asm.mja.logging;
+
+/**
+ * Turns a trace record into bytes. Encoders keep per-instance scratch state and are
+ * confined to one thread; {@link TraceFileLogger} keeps one per producer thread.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+interface TraceEncoder {
+
+    void encode(TraceRecord record, TraceBuffer out);
+}
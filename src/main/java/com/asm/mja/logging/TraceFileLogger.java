@@ -1,11 +1,20 @@
 package com.asm.mja.logging;
 
-import com.asm.mja.utils.DateUtils;
+import com.asm.mja.config.FlightRecorderConfig;
+import com.asm.mja.config.TraceBudgetConfig;
+import com.asm.mja.config.TraceConfig;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -17,27 +26,245 @@ import java.util.concurrent.locks.ReentrantLock;
 public class TraceFileLogger {
 
     private static TraceFileLogger instance;
-    private static final String LOG_FILE_NAME = "agent.trace";
+    private static final int ASYNC_WRITE_THRESHOLD = 64 * 1024;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final int SHARD_BUFFER_SIZE = 64 * 1024;
+    private static final String SHARD_SUFFIX = ".shard-";
+    private static final String STACK_SYMBOLIZER_THREAD_NAME = "monarch-stack-symbolizer";
+    private static final ThreadLocal<ProducerState> PRODUCER_STATE = ThreadLocal.withInitial(ProducerState::new);
+    /** Bytes handed to trace sinks since the agent started, across configuration reloads. */
+    private static final LongAdder WRITTEN_BYTES = new LongAdder();
     private String fileName;
-    private PrintWriter writer;
-    private final Lock lock = new ReentrantLock();
+    private volatile TraceOutput output;
+    private volatile AsyncTraceWriter asyncWriter;
+    /** Non-null when STACK deduplication is enabled. */
+    private volatile StackDeduplicator stackDeduplicator;
+    /** True when STACK probes hand raw captures to a background thread for symbolization. */
+    private volatile boolean deferStacks;
+    /** Symbolizes deferred stacks when there is no asynchronous trace writer to do it. */
+    private volatile AsyncTraceWriter stackSymbolizer;
+    /** Non-null when probe records are kept in memory and only written when a trigger fires. */
+    private volatile FlightRecorder flightRecorder;
+    /** The file being written, when the trace goes to a single file that can be followed. */
+    private volatile Path traceFile;
+    /** Non-null when verbosity is lowered as the trace approaches its write rate or disk budget. */
+    private volatile TraceBudget budget;
 
     public String traceDir;
 
     public void init(String location) {
-        fileName = location + File.separator + LOG_FILE_NAME;
+        init(location, new TraceConfig());
+    }
+
+    public void init(String location, TraceConfig traceConfig) {
+        stopBudget();
+        stopFlightRecorder();
+        stopStackSymbolizer();
+        stopAsyncWriter();
+        TraceConfig resolvedConfig = traceConfig == null ? new TraceConfig() : traceConfig;
+        fileName = location + File.separator + resolvedConfig.getResolvedFormat().getFileName();
         traceDir = location;
+        TraceOutput previous = output;
+        TraceOutput opened = null;
         try {
-            writer = new PrintWriter(new FileWriter(fileName, true));
+            opened = openOutput(location, resolvedConfig);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        output = opened;
+        traceFile = opened != null && resolvedConfig.getResolvedSink() == TraceSinkType.FILE
+                && resolvedConfig.getResolvedShardBy() == TraceShardMode.NONE
+                ? Paths.get(fileName)
+                : null;
+        stackDeduplicator = resolvedConfig.isStackDedupEnabled()
+                ? new StackDeduplicator(resolvedConfig.getResolvedStackSummaryIntervalSec() * 1000L,
+                        resolvedConfig.getResolvedStackSummaryTop(), System.currentTimeMillis())
+                : null;
+        StackCapture.setMaxDepth(resolvedConfig.getResolvedStackMaxDepth());
+        ProbeRateLimiter.setReportIntervalMillis(resolvedConfig.getResolvedRateLimitReportIntervalSec() * 1000L);
+        if (previous != null) {
+            previous.close();
+        }
+        // sharded mode writes on the producing thread; ConfigValidator rejects async sharding
+        if (opened != null && opened.primary != null && resolvedConfig.isAsyncEnabled()) {
+            asyncWriter = new AsyncTraceWriter(
+                    resolvedConfig.getResolvedBufferSize(),
+                    resolvedConfig.getResolvedBackpressure(),
+                    resolvedConfig.getResolvedSampleRate(),
+                    new BatchingRecordWriter(opened)
+            );
+            asyncWriter.start();
+            trace("Asynchronous trace writer started with " + resolvedConfig);
+        } else if (opened != null && opened.primary != null && resolvedConfig.isDeferStacksEnabled()) {
+            stackSymbolizer = new AsyncTraceWriter(
+                    resolvedConfig.getResolvedBufferSize(),
+                    resolvedConfig.getResolvedBackpressure(),
+                    resolvedConfig.getResolvedSampleRate(),
+                    new SymbolizingRecordWriter(opened),
+                    STACK_SYMBOLIZER_THREAD_NAME,
+                    false
+            );
+            stackSymbolizer.start();
+        }
+        // the asynchronous writer symbolizes deferred stacks itself
+        deferStacks = resolvedConfig.isDeferStacksEnabled() && (asyncWriter != null || stackSymbolizer != null);
+        FlightRecorderConfig recorderConfig = resolvedConfig.getResolvedFlightRecorder();
+        if (opened != null && recorderConfig.isEnabled()) {
+            flightRecorder = new FlightRecorder(
+                    recorderConfig.getResolvedMaxEvents(),
+                    recorderConfig.getResolvedMaxAgeSec() * 1000L,
+                    recorderConfig.getResolvedMinDumpIntervalSec() * 1000L,
+                    recorderConfig.isTriggerOnAlertsEnabled(),
+                    Paths.get(location),
+                    resolvedConfig.getResolvedFormat()
+            );
+            trace("Flight recorder started with " + recorderConfig);
+        }
+        TraceBudgetConfig budgetConfig = resolvedConfig.getResolvedBudget();
+        if (opened != null && budgetConfig.isEnabled()) {
+            budget = new TraceBudget(
+                    budgetConfig.getResolvedMaxKbPerSec() * 1024L,
+                    budgetConfig.getResolvedMaxDiskMb() * BYTES_PER_MB,
+                    budgetConfig.getResolvedStackSampleEvery(),
+                    budgetConfig.getResolvedRecoverAfterSec() * 1000L,
+                    Paths.get(location),
+                    this::getWrittenByteCount
+            );
+            budget.start();
+            trace("Trace budget enforced with " + budgetConfig);
+        }
+    }
+
+    private TraceOutput openOutput(String location, TraceConfig traceConfig) throws IOException {
+        TraceFormat format = traceConfig.getResolvedFormat();
+        long baseEpochMillis = System.currentTimeMillis();
+        TraceShardMode shardMode = traceConfig.getResolvedShardBy();
+        ProbeJournal journal = openJournal(location, traceConfig);
+        if (shardMode != TraceShardMode.NONE) {
+            return new TraceOutput(fileName, format, baseEpochMillis, shardMode, null, journal);
+        }
+        BinaryTraceDictionary dictionary = format == TraceFormat.BINARY
+                ? new BinaryTraceDictionary(baseEpochMillis)
+                : null;
+        TraceSink sink;
+        if (traceConfig.getResolvedSink() == TraceSinkType.SOCKET) {
+            // ConfigValidator only allows line-oriented formats here, so there is no dictionary
+            sink = new SocketTraceSink(
+                    SocketEndpoint.parse(traceConfig.getResolvedSocketAddress()),
+                    (int) (traceConfig.getResolvedSocketBufferKb() * 1024L)
+            );
+        } else if (traceConfig.getResolvedSink() == TraceSinkType.CUSTOM) {
+            sink = newCustomSink(traceConfig.getSinkClass().trim(), fileName);
+            if (dictionary != null) {
+                dictionary.segmentOpened(sink);
+            }
+        } else if (traceConfig.getResolvedSink() == TraceSinkType.MMAP) {
+            sink = new MappedSegmentTraceSink(
+                    Paths.get(location),
+                    format.getFileName(),
+                    (int) (traceConfig.getResolvedSegmentSizeMb() * BYTES_PER_MB),
+                    traceConfig.getResolvedMaxSegments(),
+                    traceConfig.getResolvedMaxTotalSizeMb() * BYTES_PER_MB,
+                    traceConfig.isCompressSegmentsEnabled(),
+                    dictionary,
+                    TraceHousekeeper.getInstance()
+            );
+        } else if (traceConfig.isRotationEnabled()) {
+            sink = new RollingFileTraceSink(
+                    Paths.get(fileName),
+                    0,
+                    traceConfig.getResolvedRotateSizeMb() * BYTES_PER_MB,
+                    traceConfig.getResolvedRotateIntervalMin() * 60_000L,
+                    traceConfig.getResolvedMaxSegments(),
+                    traceConfig.getResolvedMaxTotalSizeMb() * BYTES_PER_MB,
+                    traceConfig.isCompressSegmentsEnabled(),
+                    dictionary,
+                    TraceHousekeeper.getInstance()
+            );
+        } else {
+            sink = new FileTraceSink(fileName);
+            if (dictionary != null) {
+                dictionary.segmentOpened(sink);
+            }
+        }
+        return new TraceOutput(fileName, format, baseEpochMillis, TraceShardMode.NONE,
+                new Shard(fileName, sink, dictionary, null, journal, openIndex(traceConfig)), journal);
+    }
+
+    /**
+     * @return the sparse index of the trace file, or null if it is disabled or cannot be created.
+     */
+    private TraceIndex openIndex(TraceConfig traceConfig) {
+        int bucketSec = traceConfig.getResolvedIndexBucketSec();
+        // ConfigValidator only allows the index for a single, unrotated text or json file
+        if (bucketSec <= 0 || traceConfig.getResolvedFormat() == TraceFormat.BINARY
+                || traceConfig.getResolvedSink() != TraceSinkType.FILE || traceConfig.isRotationEnabled()) {
+            return null;
+        }
+        try {
+            return new TraceIndex(Paths.get(fileName), traceConfig.getResolvedFormat(), bucketSec * 1000L);
+        } catch (IOException e) {
+            System.err.println("Failed to open trace index for " + fileName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the crash-survivable journal, or null if it is disabled or cannot be created.
+     */
+    private static ProbeJournal openJournal(String location, TraceConfig traceConfig) {
+        int sizeMb = traceConfig.getResolvedJournalSizeMb();
+        // ConfigValidator rejects the journal for the binary format, whose records need the dictionary
+        if (sizeMb <= 0 || traceConfig.getResolvedFormat() == TraceFormat.BINARY) {
+            return null;
+        }
+        try {
+            return new ProbeJournal(Paths.get(location, ProbeJournal.FILE_NAME), (int) (sizeMb * BYTES_PER_MB));
+        } catch (IOException e) {
+            System.err.println("Failed to open trace journal in " + location + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Instantiates a {@link TraceSink} named by {@code trace.sinkClass}, preferring a constructor that
+     * takes the trace file path over a no-arg one.
+     */
+    private static TraceSink newCustomSink(String className, String traceFile) throws IOException {
+        try {
+            Class<?> type;
+            try {
+                type = Class.forName(className, true, TraceFileLogger.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                type = Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+            }
+            if (!TraceSink.class.isAssignableFrom(type)) {
+                throw new IOException(className + " does not implement " + TraceSink.class.getName());
+            }
+            try {
+                return (TraceSink) type.getConstructor(String.class).newInstance(traceFile);
+            } catch (NoSuchMethodException e) {
+                return (TraceSink) type.getConstructor().newInstance();
+            }
+        } catch (InvocationTargetException e) {
+            throw new IOException("Failed to create trace sink " + className + ": " + e.getCause(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Failed to create trace sink " + className + ": " + e, e);
+        }
     }
 
     public String getTraceDir() {
         return traceDir;
     }
 
+    /**
+     * @return the active trace file, or null if the trace is not written to a single file (mmap segments,
+     * socket, custom sink or shards).
+     */
+    public Path getTraceFile() {
+        return traceFile;
+    }
+
     private TraceFileLogger() {
 
     }
@@ -54,101 +281,708 @@ public class TraceFileLogger {
     }
 
     public void trace(String message) {
-        if (writer == null) {
-            throw new IllegalStateException("TraceFileLogger has not been initialized. Call init() first.");
-        }
-        StringBuilder logMessage = new StringBuilder();
-        logMessage.append(DateUtils.getFormattedTimestamp()).append(' ');
-        logMessage.append("[TRACE] ");
-        logMessage.append('[').append(Thread.currentThread().getName()).append("] ");
-        logMessage.append(message);
-        writeLog(logMessage.toString());
+        log(TraceRecord.Level.TRACE, null, message, null);
     }
 
     public void error(String message) {
-        if (writer == null) {
-            throw new IllegalStateException("TraceFileLogger has not been initialized. Call init() first.");
-        }
-        StringBuilder logMessage = new StringBuilder();
-        logMessage.append(DateUtils.getFormattedTimestamp()).append(' ');
-        logMessage.append("[ERROR] ");
-        logMessage.append('[').append(Thread.currentThread().getName()).append("] ");
-        logMessage.append(message);
-        writeLog(logMessage.toString());
+        log(TraceRecord.Level.ERROR, null, message, null);
     }
 
     public void error(String message, Exception e) {
-        if (writer == null) {
-            throw new IllegalStateException("TraceFileLogger has not been initialized. Call init() first.");
-        }
-        StringBuilder logMessage = new StringBuilder();
-        logMessage.append(DateUtils.getFormattedTimestamp()).append(' ');
-        logMessage.append("[ERROR] ");
-        logMessage.append('[').append(Thread.currentThread().getName()).append("] ");
-        logMessage.append(message);
-        writeLog(logMessage.toString());
+        log(TraceRecord.Level.ERROR, null, message, null);
         exception(e);
     }
 
     public void warn(String message) {
-        if (writer == null) {
-            throw new IllegalStateException("TraceFileLogger has not been initialized. Call init() first.");
-        }
-        StringBuilder logMessage = new StringBuilder();
-        logMessage.append(DateUtils.getFormattedTimestamp()).append(' ');
-        logMessage.append("[WARN] ");
-        logMessage.append('[').append(Thread.currentThread().getName()).append("] ");
-        logMessage.append(message);
-        writeLog(logMessage.toString());
+        log(TraceRecord.Level.WARN, null, message, null);
     }
 
     public void stack(String message, StackTraceElement[] stackTraceElements) {
-        if (writer == null) {
-            throw new IllegalStateException("TraceFileLogger has not been initialized. Call init() first.");
+        log(TraceRecord.Level.TRACE, null, message, stackTraceElements);
+    }
+
+    public void exception(Exception e) {
+        log(TraceRecord.Level.EXCEPTION, null, e.getMessage(), e.getStackTrace());
+    }
+
+    /**
+     * Records a hit on a probe site registered with {@link ProbeRegistry}. Called from instrumented code.
+     *
+     * @param probeId id returned by {@link ProbeRegistry#register(String, String, String, String)}.
+     * @param payload text written after the probe's {@code {class.method} | EVENT | ACTION} prefix, or null.
+     */
+    public void probe(int probeId, String payload) {
+        log(TraceRecord.Level.TRACE, ProbeRegistry.getInstance().get(probeId), payload, null);
+    }
+
+    /**
+     * Records a stack trace for a probe site registered with {@link ProbeRegistry}. Called from instrumented code.
+     *
+     * With STACK deduplication, the first hit of each distinct stack is written in full as {@code stack=<id>}
+     * and later hits only as {@code stack=<id> hits=<n>}. A hit that races the first one, before its record is
+     * written, is written in full without the id, so no record refers to a stack ahead of its definition.
+     */
+    public void probeStack(int probeId, StackTraceElement[] stackTraceElements) {
+        ProbeSite probe = ProbeRegistry.getInstance().get(probeId);
+        // a dump must not refer to a stack written before its window
+        StackDeduplicator stacks = flightRecorder == null ? stackDeduplicator : null;
+        StackDeduplicator.Entry entry = stacks == null ? null : stacks.lookup(probe, stackTraceElements);
+        if (entry == null) {
+            log(TraceRecord.Level.TRACE, probe, null, stackTraceElements);
+            return;
         }
-        StringBuilder logMessage = new StringBuilder();
-        logMessage.append(DateUtils.getFormattedTimestamp()).append(' ');
-        logMessage.append("[TRACE] ");
-        logMessage.append('[').append(Thread.currentThread().getName()).append("] ");
-        logMessage.append(message).append("\n");
-        for (StackTraceElement element : stackTraceElements) {
-            if(element.toString().startsWith("java.lang.Thread.getStackTrace"))
-                continue;
-            logMessage.append("\tat ").append(element.toString()).append('\n');
+        long hits = entry.hits.incrementAndGet();
+        if (hits == 1) {
+            log(TraceRecord.Level.TRACE, probe, entry.label, stackTraceElements);
+            entry.markDefined();
+        } else if (!entry.isDefined()) {
+            // the record defining the id may not be written yet, so this hit must not refer to it
+            log(TraceRecord.Level.TRACE, probe, null, stackTraceElements);
+        } else {
+            log(TraceRecord.Level.TRACE, probe, entry.label + " hits=" + hits, null);
+        }
+        if (stacks.isSummaryDue(System.currentTimeMillis())) {
+            writeStackSummary(stacks);
         }
-        writeLog(logMessage.toString());
     }
 
-    public void exception(Exception e) {
+    /**
+     * @return true if STACK probes should pass a bare {@link Throwable} to {@link #probeRawStack} instead of
+     * capturing frames themselves. Called from instrumented code.
+     */
+    public boolean isStackSymbolizationDeferred() {
+        return deferStacks || flightRecorder != null;
+    }
+
+    /**
+     * Records a stack trace for a probe site without symbolizing it on the calling thread: the record only
+     * carries {@code capture}, and the writer thread resolves its frames, applies the depth limit, the
+     * filter and deduplication, and encodes it. Called from instrumented code.
+     *
+     * @param filterId id returned by {@link StackFilter#register(String)}, or -1 for none.
+     * @param capture  created in the instrumented method.
+     */
+    public void probeRawStack(int probeId, int filterId, Throwable capture) {
+        FlightRecorder recorder = flightRecorder;
+        AsyncTraceWriter writer = asyncWriter;
         if (writer == null) {
-            throw new IllegalStateException("TraceFileLogger has not been initialized. Call init() first.");
+            writer = stackSymbolizer;
+        }
+        if (recorder == null && (writer == null || !deferStacks)) {
+            // deferral was switched off after the instrumented method checked it
+            StackTraceElement[] stack = StackSymbolizer.symbolize(capture, filterId);
+            if (stack != null) {
+                probeStack(probeId, stack);
+            }
+            return;
+        }
+        ProbeSite probe = ProbeRegistry.getInstance().get(probeId);
+        ProducerState state = PRODUCER_STATE.get();
+        long timestamp = System.currentTimeMillis();
+        TraceRecord record = state.record;
+        record.set(TraceRecord.Level.TRACE, timestamp, Thread.currentThread().getId(), state.threadName(timestamp), probe, null, null);
+        record.rawStack = capture;
+        record.rawStackFilterId = filterId;
+        try {
+            if (recorder != null) {
+                // symbolized only if a dump needs it
+                recorder.record(record);
+                return;
+            }
+            writer.publish(record);
+        } finally {
+            record.clear();
+        }
+        StackDeduplicator stacks = stackDeduplicator;
+        if (stacks != null && stacks.isSummaryDue(timestamp)) {
+            writeStackSummary(stacks);
+        }
+    }
+
+    /**
+     * Resolves a deferred stack on the writer thread, deduplicating it like {@link #probeStack}.
+     *
+     * @return false if the record's stack filter rejected the stack and the record should be skipped.
+     */
+    private boolean symbolize(TraceRecord record) {
+        Throwable capture = record.rawStack;
+        if (capture == null) {
+            return true;
+        }
+        record.rawStack = null;
+        StackTraceElement[] stack = StackSymbolizer.symbolize(capture, record.rawStackFilterId);
+        if (stack == null) {
+            return false;
+        }
+        StackDeduplicator stacks = stackDeduplicator;
+        StackDeduplicator.Entry entry = stacks == null ? null : stacks.lookup(record.probe, stack);
+        if (entry == null) {
+            record.stack = stack;
+            return true;
+        }
+        long hits = entry.hits.incrementAndGet();
+        if (hits == 1) {
+            record.message = entry.label;
+            record.stack = stack;
+            // this thread writes the record before any later one it symbolizes
+            entry.markDefined();
+        } else if (!entry.isDefined()) {
+            record.stack = stack;
+        } else {
+            record.message = entry.label + " hits=" + hits;
+        }
+        return true;
+    }
+
+    public boolean isFlightRecorderEnabled() {
+        return flightRecorder != null;
+    }
+
+    /**
+     * Dumps the flight recorder in the background for a monitor alert, unless alerts are not configured as
+     * triggers or a dump fired less than the minimum dump interval ago.
+     */
+    public void triggerFlightRecorder(String alert) {
+        FlightRecorder recorder = flightRecorder;
+        if (recorder != null && recorder.isTriggeredByAlerts()) {
+            recorder.trigger(alert);
+        }
+    }
+
+    /**
+     * Dumps the flight recorder in the background for a hit on a {@code ::TRIGGER} rule, unless a dump fired
+     * less than the minimum dump interval ago. Called from instrumented code.
+     */
+    public void triggerFlightRecorder(int probeId) {
+        FlightRecorder recorder = flightRecorder;
+        if (recorder != null) {
+            ProbeSite probe = ProbeRegistry.getInstance().get(probeId);
+            recorder.trigger("rule " + (probe == null ? String.valueOf(probeId) : probe.describe()));
         }
-        StringBuilder logMessage = new StringBuilder();
-        logMessage.append(DateUtils.getFormattedTimestamp()).append(' ');
-        logMessage.append("[EXCEPTION] ");
-        logMessage.append('[').append(Thread.currentThread().getName()).append("] ");
-        logMessage.append(e.getMessage());
-        for (StackTraceElement element : e.getStackTrace()) {
-            logMessage.append("\tat ").append(element.toString()).append("\n");
+    }
+
+    /**
+     * Dumps the flight recorder now, regardless of the minimum dump interval.
+     *
+     * @return the dump file, or null if the flight recorder is not enabled.
+     */
+    public Path dumpFlightRecorder(String reason) throws IOException {
+        FlightRecorder recorder = flightRecorder;
+        return recorder == null ? null : recorder.dumpNow(reason);
+    }
+
+    private void writeStackSummary(StackDeduplicator stacks) {
+        List<StackDeduplicator.Entry> top = stacks.top();
+        trace("Top " + top.size() + " of " + stacks.size() + " distinct STACK traces by hits");
+        int rank = 1;
+        for (StackDeduplicator.Entry entry : top) {
+            log(TraceRecord.Level.TRACE, entry.probe, "top#" + rank++ + " " + entry.label + " hits=" + entry.hits.get(), null);
         }
-        writeLog(logMessage.toString());
     }
 
-    private void writeLog(String message) {
-        lock.lock();
+    /**
+     * @return number of records handed to the asynchronous trace writer.
+     */
+    public long getEnqueuedRecordCount() {
+        AsyncTraceWriter current = asyncWriter;
+        return current == null ? 0 : current.getEnqueuedCount();
+    }
+
+    /**
+     * @return number of records discarded by the asynchronous trace writer's backpressure policy.
+     */
+    public long getDroppedRecordCount() {
+        AsyncTraceWriter current = asyncWriter;
+        return current == null ? 0 : current.getDroppedCount();
+    }
+
+    /**
+     * @return number of deferred stacks discarded by the stack symbolizer's backpressure policy.
+     */
+    public long getDroppedStackCount() {
+        AsyncTraceWriter current = stackSymbolizer;
+        return current == null ? 0 : current.getDroppedCount();
+    }
+
+    /**
+     * @return bytes written to the trace since the agent started; the write rate meter of the trace budget.
+     */
+    public long getWrittenByteCount() {
+        return WRITTEN_BYTES.sum();
+    }
+
+    public boolean isAsync() {
+        return asyncWriter != null;
+    }
+
+    private void log(TraceRecord.Level level, ProbeSite probe, String message, StackTraceElement[] stack) {
+        TraceOutput current = output;
+        if (current == null) {
+            throw new IllegalStateException("TraceFileLogger has not been initialized. Call init() first.");
+        }
+        ProducerState state = PRODUCER_STATE.get();
+        long timestamp = System.currentTimeMillis();
+        TraceRecord record = state.record;
+        record.set(level, timestamp, Thread.currentThread().getId(), state.threadName(timestamp), probe, message, stack);
         try {
-            writer.println(message);
-            writer.flush();
+            FlightRecorder recorder = flightRecorder;
+            if (recorder != null && probe != null) {
+                recorder.record(record);
+                return;
+            }
+            AsyncTraceWriter writer = asyncWriter;
+            if (writer != null) {
+                writer.publish(record);
+                return;
+            }
+            Shard shard = state.shard(current);
+            if (shard == null) {
+                return;
+            }
+            TraceBuffer buffer = state.buffer;
+            buffer.reset();
+            state.encoder(current).encode(record, buffer);
+            shard.write(record, buffer);
         } finally {
-            lock.unlock();
+            record.clear();
         }
     }
 
     public void close() {
-        if (writer != null) {
+        TraceOutput current = output;
+        if (current != null) {
+            stopBudget();
+            stopFlightRecorder();
+            // drain deferred stacks first, so the summary counts them
+            stopStackSymbolizer();
+            StackDeduplicator stacks = stackDeduplicator;
+            if (stacks != null && stacks.size() > 0) {
+                writeStackSummary(stacks);
+            }
+            ProbeRateLimiter.reportAll();
             trace("Shutting down TraceFileLogger");
-            writer.close();
+            stopAsyncWriter();
+            current.close();
+        }
+    }
+
+    /**
+     * Restores full verbosity.
+     */
+    private void stopBudget() {
+        TraceBudget current = budget;
+        if (current == null) {
+            return;
         }
+        budget = null;
+        current.close();
     }
 
+    /**
+     * Lets a running dump finish; records still in memory are discarded.
+     */
+    private void stopFlightRecorder() {
+        FlightRecorder current = flightRecorder;
+        if (current == null) {
+            return;
+        }
+        flightRecorder = null;
+        current.close();
+    }
+
+    private void stopStackSymbolizer() {
+        AsyncTraceWriter current = stackSymbolizer;
+        if (current == null) {
+            return;
+        }
+        deferStacks = false;
+        current.stop();
+        stackSymbolizer = null;
+        trace("Stack symbolizer stopped; enqueued=" + current.getEnqueuedCount()
+                + ", dropped=" + current.getDroppedCount());
+    }
+
+    private void stopAsyncWriter() {
+        AsyncTraceWriter current = asyncWriter;
+        if (current == null) {
+            return;
+        }
+        // Stop before detaching so the writer thread stays the only encoder until it has drained;
+        // records published in the meantime are counted as dropped.
+        current.stop();
+        asyncWriter = null;
+        trace("Asynchronous trace writer stopped; enqueued=" + current.getEnqueuedCount()
+                + ", dropped=" + current.getDroppedCount());
+    }
+
+    /**
+     * Format and file state for the currently open trace: one primary shard, or one shard per
+     * thread or thread group in sharded mode.
+     */
+    private static final class TraceOutput {
+        final String fileName;
+        final TraceFormat format;
+        final long baseEpochMillis;
+        final TraceShardMode shardMode;
+        /** The single trace file; null in sharded mode. */
+        final Shard primary;
+        final ConcurrentMap<String, Shard> shards = new ConcurrentHashMap<>();
+        /** Shared by all shards; null unless {@code trace.journalSizeMb} is set. */
+        final ProbeJournal journal;
+
+        TraceOutput(String fileName, TraceFormat format, long baseEpochMillis, TraceShardMode shardMode, Shard primary,
+                    ProbeJournal journal) {
+            this.fileName = fileName;
+            this.format = format;
+            this.baseEpochMillis = baseEpochMillis;
+            this.shardMode = shardMode;
+            this.primary = primary;
+            this.journal = journal;
+        }
+
+        TraceEncoder newEncoder() {
+            return format.newEncoder(baseEpochMillis);
+        }
+
+        /**
+         * @return the shard {@code thread} writes to, or null if its file could not be opened.
+         */
+        Shard shardFor(Thread thread) {
+            if (primary != null) {
+                return primary;
+            }
+            String key;
+            if (shardMode == TraceShardMode.THREAD) {
+                key = "t" + thread.getId();
+            } else {
+                ThreadGroup group = thread.getThreadGroup();
+                key = "g-" + sanitize(group == null ? "none" : group.getName());
+            }
+            Shard shard = shards.get(key);
+            if (shard != null) {
+                return shard;
+            }
+            synchronized (shards) {
+                shard = shards.get(key);
+                if (shard == null) {
+                    if (shardMode == TraceShardMode.THREAD) {
+                        closeShardsOfDeadThreads();
+                    }
+                    shard = openShard(key, shardMode == TraceShardMode.THREAD ? thread : null);
+                    if (shard != null) {
+                        shards.put(key, shard);
+                    }
+                }
+            }
+            return shard;
+        }
+
+        private Shard openShard(String key, Thread owner) {
+            String shardFileName = fileName + SHARD_SUFFIX + key;
+            try {
+                FileTraceSink sink = new FileTraceSink(shardFileName, SHARD_BUFFER_SIZE);
+                BinaryTraceDictionary dictionary = null;
+                if (format == TraceFormat.BINARY) {
+                    dictionary = new BinaryTraceDictionary(baseEpochMillis);
+                    dictionary.segmentOpened(sink);
+                }
+                return new Shard(shardFileName, sink, dictionary, owner, journal, null);
+            } catch (IOException e) {
+                System.err.println("Failed to open trace shard " + shardFileName + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * Flushes and closes the shards of threads that have terminated, so pools that replace
+         * their threads do not keep one open file per thread ever seen.
+         */
+        private void closeShardsOfDeadThreads() {
+            Iterator<Shard> iterator = shards.values().iterator();
+            while (iterator.hasNext()) {
+                Shard shard = iterator.next();
+                Thread owner = shard.owner == null ? null : shard.owner.get();
+                if (shard.owner != null && (owner == null || !owner.isAlive())) {
+                    iterator.remove();
+                    shard.close();
+                }
+            }
+        }
+
+        void close() {
+            if (primary != null) {
+                primary.close();
+            }
+            for (Shard shard : shards.values()) {
+                shard.close();
+            }
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close trace journal " + journal.getFile() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * One trace file with its own lock, so sharded writers never contend with each other.
+     */
+    private static final class Shard {
+        final String fileName;
+        final TraceSink sink;
+        /** Non-null for the binary format. */
+        final BinaryTraceDictionary dictionary;
+        final TraceBuffer definitions = new TraceBuffer(256);
+        final Lock lock = new ReentrantLock();
+        /** The thread that owns a per-thread shard; null otherwise. */
+        final WeakReference<Thread> owner;
+        /** Receives every record before the sink does; null when the journal is disabled. */
+        final ProbeJournal journal;
+        /** Sparse time and probe index of the file; null when it is disabled. */
+        final TraceIndex index;
+
+        Shard(String fileName, TraceSink sink, BinaryTraceDictionary dictionary, Thread owner, ProbeJournal journal,
+              TraceIndex index) {
+            this.fileName = fileName;
+            this.sink = sink;
+            this.dictionary = dictionary;
+            this.owner = owner == null ? null : new WeakReference<>(owner);
+            this.journal = journal;
+            this.index = index;
+        }
+
+        void write(TraceRecord record, TraceBuffer encoded) {
+            journal(encoded);
+            lock.lock();
+            try {
+                if (dictionary != null) {
+                    definitions.reset();
+                    dictionary.define(record, definitions);
+                    WRITTEN_BYTES.add(definitions.length());
+                    definitions.writeTo(sink);
+                }
+                if (index != null) {
+                    index.add(record, encoded.length());
+                }
+                WRITTEN_BYTES.add(encoded.length());
+                encoded.writeTo(sink);
+            } catch (IOException e) {
+                System.err.println("Failed to write to trace file " + fileName + ": " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @param span the records in {@code encoded}, for the index.
+         */
+        void write(TraceBuffer encoded, TraceIndex.Span span) {
+            journal(encoded);
+            lock.lock();
+            try {
+                if (index != null) {
+                    index.add(span, encoded.length());
+                }
+                WRITTEN_BYTES.add(encoded.length());
+                encoded.writeTo(sink);
+            } catch (IOException e) {
+                System.err.println("Failed to write to trace file " + fileName + ": " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void journal(TraceBuffer encoded) {
+            if (journal != null) {
+                journal.append(encoded.array(), 0, encoded.length());
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                sink.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close trace file " + fileName + ": " + e.getMessage());
+            } finally {
+                closeIndex();
+                lock.unlock();
+            }
+        }
+
+        private void closeIndex() {
+            if (index == null) {
+                return;
+            }
+            try {
+                index.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close trace index " + index.getFile() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder safe = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            safe.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.' ? c : '_');
+        }
+        return safe.toString();
+    }
+
+    /**
+     * Per-thread encoding state for the synchronous path, reused across records.
+     */
+    private static final class ProducerState {
+        private static final boolean JVM_CACHES_THREAD_NAME = !System.getProperty("java.version").startsWith("1.");
+        private static final long THREAD_NAME_REFRESH_MILLIS = 1000;
+
+        final TraceRecord record = new TraceRecord();
+        final TraceBuffer buffer = new TraceBuffer();
+        private TraceEncoder encoder;
+        private TraceOutput encoderOutput;
+        private Shard shard;
+        private TraceOutput shardOutput;
+        private String threadName;
+        private long threadNameReadAt;
+
+        TraceEncoder encoder(TraceOutput output) {
+            if (encoderOutput != output) {
+                encoder = output.newEncoder();
+                encoderOutput = output;
+            }
+            return encoder;
+        }
+
+        Shard shard(TraceOutput output) {
+            if (shardOutput != output || shard == null) {
+                shard = output.shardFor(Thread.currentThread());
+                shardOutput = output;
+            }
+            return shard;
+        }
+
+        /**
+         * On Java 8 {@link Thread#getName()} copies the name on every call, so the
+         * name is cached and re-read at most once per second.
+         */
+        String threadName(long now) {
+            if (JVM_CACHES_THREAD_NAME) {
+                return Thread.currentThread().getName();
+            }
+            if (threadName == null || now - threadNameReadAt >= THREAD_NAME_REFRESH_MILLIS) {
+                threadName = Thread.currentThread().getName();
+                threadNameReadAt = now;
+            }
+            return threadName;
+        }
+    }
+
+    /**
+     * Encodes a record into a batch, leaving the batch as it was if encoding fails partway, so the next
+     * flush does not write a partial record.
+     */
+    private static void encode(TraceEncoder encoder, TraceRecord record, TraceBuffer batch) {
+        int mark = batch.length();
+        try {
+            encoder.encode(record, batch);
+        } catch (RuntimeException | Error e) {
+            batch.truncate(mark);
+            throw e;
+        }
+    }
+
+    /**
+     * Encodes drained records into one buffer and writes it once per batch. While the asynchronous
+     * writer runs it is the only encoder, so it updates the binary dictionary without the write lock.
+     */
+    private final class BatchingRecordWriter implements AsyncTraceWriter.RecordWriter {
+        private final TraceOutput target;
+        private final TraceEncoder encoder;
+        private final TraceBuffer batch = new TraceBuffer(ASYNC_WRITE_THRESHOLD);
+        private final TraceIndex.Span span = new TraceIndex.Span();
+
+        BatchingRecordWriter(TraceOutput target) {
+            this.target = target;
+            this.encoder = target.newEncoder();
+        }
+
+        @Override
+        public void accept(TraceRecord record) {
+            if (!symbolize(record)) {
+                return;
+            }
+            if (target.primary.dictionary != null) {
+                target.primary.dictionary.define(record, batch);
+            }
+            encode(encoder, record, batch);
+            if (target.primary.index != null) {
+                span.add(record);
+            }
+            if (batch.length() >= ASYNC_WRITE_THRESHOLD) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (batch.length() == 0) {
+                return;
+            }
+            target.primary.write(batch, span);
+            batch.reset();
+            span.reset();
+        }
+    }
+
+    /**
+     * Symbolizes and encodes deferred stacks on the stack symbolizer thread while the trace is written
+     * synchronously. Text and JSON records are batched into one write; binary records are written one at
+     * a time, since their dictionary entries are shared with the instrumented threads under the file lock.
+     */
+    private final class SymbolizingRecordWriter implements AsyncTraceWriter.RecordWriter {
+        private final Shard target;
+        private final TraceEncoder encoder;
+        private final TraceBuffer batch = new TraceBuffer(ASYNC_WRITE_THRESHOLD);
+        private final TraceIndex.Span span = new TraceIndex.Span();
+
+        SymbolizingRecordWriter(TraceOutput output) {
+            this.target = output.primary;
+            this.encoder = output.newEncoder();
+        }
+
+        @Override
+        public void accept(TraceRecord record) {
+            if (!symbolize(record)) {
+                return;
+            }
+            if (target.dictionary != null) {
+                flush();
+                encode(encoder, record, batch);
+                target.write(record, batch);
+                batch.reset();
+                return;
+            }
+            encode(encoder, record, batch);
+            if (target.index != null) {
+                span.add(record);
+            }
+            if (batch.length() >= ASYNC_WRITE_THRESHOLD) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (batch.length() == 0) {
+                return;
+            }
+            target.write(batch, span);
+            batch.reset();
+            span.reset();
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package com.asm.mja.logging;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Encoding of the trace file.
+ *
+ * TEXT:   Human-readable lines in {@code agent.trace}.
+ * BINARY: Dictionary-encoded records in {@code agent.trace.bin}; decode with {@code com.asm.mja.tools.TraceDecoderCLI}.
+ * JSON:   One JSON object per record in {@code agent.trace.jsonl}, with typed fields for log pipelines.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public enum TraceFormat {
+    TEXT("text", "agent.trace"),
+    BINARY("binary", "agent.trace.bin"),
+    JSON("json", "agent.trace.jsonl");
+
+    private final String value;
+    private final String fileName;
+
+    TraceFormat(String value, String fileName) {
+        this.value = value;
+        this.fileName = fileName;
+    }
+
+    @JsonCreator
+    public static TraceFormat fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (TraceFormat format : values()) {
+            if (format.value.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported trace format - " + value);
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @param baseEpochMillis start of the trace, which binary timestamps are relative to.
+     */
+    TraceEncoder newEncoder(long baseEpochMillis) {
+        switch (this) {
+            case BINARY:
+                return new BinaryTraceEncoder(baseEpochMillis);
+            case JSON:
+                return new TraceJsonEncoder();
+            default:
+                return new TraceTextEncoder();
+        }
+    }
+}
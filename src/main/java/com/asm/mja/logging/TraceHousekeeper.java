@@ -0,0 +1,292 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.HousekeepingConfig;
+import com.asm.mja.config.RetentionConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background housekeeping for everything the agent writes under {@code traceFileLocation}.
+ * <p>
+ * A single low-priority daemon thread compresses rotated trace files and periodically applies
+ * per-category retention (file count, age, total size) to:
+ * <ul>
+ *     <li>trace: {@code agent.trace*} files of earlier runs ({@code Monarch_<pid>_<timestamp>} directories);</li>
+ *     <li>backup: {@code backup} directories of earlier runs;</li>
+ *     <li>hprof: {@code heapDump_*.hprof} files of all runs.</li>
+ * </ul>
+ * The oldest artifacts go first. Files of the current run's trace and backup are never touched, because
+ * they are still being written or are needed to revert instrumentation, and the newest heap dump is always kept.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class TraceHousekeeper implements Executor {
+
+    private static final TraceHousekeeper INSTANCE = new TraceHousekeeper();
+    private static final String THREAD_NAME = "monarch-housekeeper";
+    private static final String RUN_DIRECTORY_PREFIX = "Monarch_";
+    private static final String TRACE_FILE_PREFIX = "agent.trace";
+    private static final String BACKUP_DIRECTORY = "backup";
+    private static final String HEAP_DUMP_PREFIX = "heapDump_";
+    private static final String HEAP_DUMP_SUFFIX = ".hprof";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final long MILLIS_PER_HOUR = 60L * 60L * 1000L;
+
+    private ScheduledThreadPoolExecutor executor;
+
+    private TraceHousekeeper() {
+    }
+
+    public static TraceHousekeeper getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs {@code task} on the housekeeping thread, starting it if needed.
+     */
+    @Override
+    public void execute(Runnable task) {
+        executor().execute(task);
+    }
+
+    /**
+     * Schedules the periodic retention sweep. Does nothing if no category has a limit.
+     *
+     * @param traceFileLocation the configured {@code traceFileLocation}.
+     * @param currentRun        the trace directory of this run.
+     */
+    public void start(String traceFileLocation, String currentRun, HousekeepingConfig housekeepingConfig) {
+        if (!housekeepingConfig.isRetentionEnabled()) {
+            return;
+        }
+        Path root = new File(traceFileLocation).toPath().toAbsolutePath();
+        Path run = new File(currentRun).toPath().toAbsolutePath();
+        long interval = housekeepingConfig.getResolvedIntervalSec();
+        executor().scheduleWithFixedDelay(() -> sweep(root, run, housekeepingConfig, System.currentTimeMillis()),
+                0, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cancels the retention sweep and waits briefly for pending compressions.
+     */
+    public void stop() {
+        ScheduledThreadPoolExecutor current;
+        synchronized (this) {
+            current = executor;
+            executor = null;
+        }
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            current.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized ScheduledThreadPoolExecutor executor() {
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        }
+        return executor;
+    }
+
+    /**
+     * Applies every category's retention once.
+     *
+     * @return number of artifacts deleted.
+     */
+    static int sweep(Path root, Path currentRun, HousekeepingConfig housekeepingConfig, long now) {
+        List<Artifact> traces = new ArrayList<>();
+        List<Artifact> backups = new ArrayList<>();
+        List<Artifact> heapDumps = new ArrayList<>();
+        List<Path> previousRuns = new ArrayList<>();
+        try {
+            collectHeapDumps(root, heapDumps);
+            try (DirectoryStream<Path> runs = Files.newDirectoryStream(root, RUN_DIRECTORY_PREFIX + "*")) {
+                for (Path run : runs) {
+                    if (!Files.isDirectory(run)) {
+                        continue;
+                    }
+                    collectHeapDumps(run, heapDumps);
+                    if (run.toAbsolutePath().equals(currentRun)) {
+                        continue;
+                    }
+                    previousRuns.add(run);
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(run, TRACE_FILE_PREFIX + "*")) {
+                        for (Path file : files) {
+                            if (Files.isRegularFile(file)) {
+                                traces.add(Artifact.of(file));
+                            }
+                        }
+                    }
+                    Path backup = run.resolve(BACKUP_DIRECTORY);
+                    if (Files.isDirectory(backup)) {
+                        backups.add(Artifact.of(backup));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Housekeeping could not scan " + root + ": " + e.getMessage());
+            return 0;
+        }
+
+        int deleted = applyRetention(traces, housekeepingConfig.getResolvedTrace(), now, false)
+                + applyRetention(backups, housekeepingConfig.getResolvedBackup(), now, false)
+                + applyRetention(heapDumps, housekeepingConfig.getResolvedHprof(), now, true);
+        for (Path run : previousRuns) {
+            deleteIfEmpty(run);
+        }
+        if (deleted > 0) {
+            logDeleted(deleted);
+        }
+        return deleted;
+    }
+
+    private static void collectHeapDumps(Path directory, List<Artifact> heapDumps) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, HEAP_DUMP_PREFIX + "*" + HEAP_DUMP_SUFFIX)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) {
+                    heapDumps.add(Artifact.of(file));
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the oldest artifacts while the category has too many, too old or too large artifacts.
+     *
+     * @param keepNewest whether the newest artifact survives regardless of the limits.
+     */
+    static int applyRetention(List<Artifact> artifacts, RetentionConfig retentionConfig, long now, boolean keepNewest) {
+        if (!retentionConfig.hasLimits() || artifacts.isEmpty()) {
+            return 0;
+        }
+        artifacts.sort((a, b) -> Long.compare(a.lastModified, b.lastModified));
+        Integer maxFiles = retentionConfig.getMaxFiles();
+        Integer maxAgeHours = retentionConfig.getMaxAgeHours();
+        Integer maxTotalSizeMb = retentionConfig.getMaxTotalSizeMb();
+        long cutoff = maxAgeHours == null ? Long.MIN_VALUE : now - maxAgeHours * MILLIS_PER_HOUR;
+        long maxBytes = maxTotalSizeMb == null ? Long.MAX_VALUE : maxTotalSizeMb * BYTES_PER_MB;
+
+        long totalBytes = 0;
+        for (Artifact artifact : artifacts) {
+            totalBytes += artifact.size;
+        }
+        int count = artifacts.size();
+        int deletable = keepNewest ? count - 1 : count;
+        int deleted = 0;
+        for (int i = 0; i < deletable; i++) {
+            Artifact oldest = artifacts.get(i);
+            boolean overCount = maxFiles != null && count > maxFiles;
+            boolean tooOld = oldest.lastModified < cutoff;
+            boolean overBytes = totalBytes > maxBytes;
+            if (!overCount && !tooOld && !overBytes) {
+                break;
+            }
+            if (delete(oldest.path)) {
+                count--;
+                totalBytes -= oldest.size;
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private static boolean delete(Path path) {
+        try {
+            if (Files.isDirectory(path)) {
+                Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                        Files.delete(file);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                        Files.delete(dir);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+                return true;
+            }
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Housekeeping could not delete " + path + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void deleteIfEmpty(Path directory) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            if (entries.iterator().hasNext()) {
+                return;
+            }
+        } catch (IOException e) {
+            return;
+        }
+        delete(directory);
+    }
+
+    private static void logDeleted(int deleted) {
+        try {
+            TraceFileLogger.getInstance().trace("Housekeeping deleted " + deleted + " expired trace, backup or heap dump artifacts");
+        } catch (IllegalStateException e) {
+            // trace logger already closed
+        }
+    }
+
+    /**
+     * A file, or a directory counted with the size of its contents, as seen by one sweep.
+     */
+    static final class Artifact {
+        final Path path;
+        final long size;
+        final long lastModified;
+
+        Artifact(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        static Artifact of(Path path) throws IOException {
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            if (!Files.isDirectory(path)) {
+                return new Artifact(path, Files.size(path), lastModified);
+            }
+            long[] size = {0};
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    size[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return new Artifact(path, size[0], lastModified);
+        }
+    }
+}
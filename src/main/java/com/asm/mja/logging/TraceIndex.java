@@ -0,0 +1,218 @@
+package com.asm.mja.logging;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+
+/**
+ * Sparse side index of a trace file ({@code agent.trace.idx}), maintained as the trace is written, so
+ * {@link TraceQuery} can seek to the parts of a large trace that can hold the records asked for.
+ *
+ * The trace is cut into blocks at every time bucket boundary and at least every {@value #MAX_BLOCK_BYTES}
+ * bytes. When a block ends, one entry is appended with its byte range, the range of its record timestamps and
+ * the ids of the probe sites written in it, preceded by the names of probe sites the index has not described
+ * yet. The index is append-only and flushed once per block, so a crash loses at most the entry of the block
+ * being written; {@link TraceQuery} scans that unindexed tail.
+ *
+ * File layout: {@code int magic, int version, UTF format, long bucketMillis, long createdAt}, then entries
+ * {@code 'P' int id, UTF class, UTF method, UTF event, UTF action} and
+ * {@code 'B' long offset, long length, long minTimestamp, long maxTimestamp, int records, int probeCount, int[] probeIds}.
+ *
+ * Not thread-safe; a shard calls it under its write lock, before writing the bytes it reports.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class TraceIndex implements Closeable {
+
+    static final String FILE_SUFFIX = ".idx";
+    /** "MJIX". */
+    static final int MAGIC = 0x4d4a4958;
+    static final int VERSION = 1;
+    static final byte PROBE_ENTRY = 'P';
+    static final byte BLOCK_ENTRY = 'B';
+    static final long MAX_BLOCK_BYTES = 1024 * 1024;
+
+    private final Path traceFile;
+    private final Path file;
+    private final long bucketMillis;
+    private final DataOutputStream out;
+    /** Probe sites already described in this index file. */
+    private final BitSet described = new BitSet();
+    private final BitSet probes = new BitSet();
+    private boolean open;
+    private boolean failed;
+    private long bucket;
+    private long offset;
+    private long length;
+    private long minTimestamp;
+    private long maxTimestamp;
+    private int records;
+
+    /**
+     * Opens the index of {@code traceFile}, appending to an existing one, as after a configuration reload.
+     */
+    TraceIndex(Path traceFile, TraceFormat format, long bucketMillis) throws IOException {
+        this.traceFile = traceFile;
+        this.file = indexFileOf(traceFile);
+        this.bucketMillis = bucketMillis;
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile(), true), 8192));
+        if (!exists) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(format.getValue());
+            out.writeLong(bucketMillis);
+            out.writeLong(System.currentTimeMillis());
+            out.flush();
+        }
+    }
+
+    static Path indexFileOf(Path traceFile) {
+        return Paths.get(traceFile + FILE_SUFFIX);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Accounts for one record of {@code bytes} encoded bytes about to be written.
+     */
+    void add(TraceRecord record, int bytes) {
+        begin(record.timestamp);
+        include(record.timestamp, record.timestamp, 1, bytes);
+        if (record.probe != null) {
+            probes.set(record.probe.id);
+        }
+    }
+
+    /**
+     * Accounts for a batch of records, summarized by {@code span}, about to be written in {@code bytes} bytes.
+     */
+    void add(Span span, int bytes) {
+        if (span.records == 0) {
+            return;
+        }
+        begin(span.minTimestamp);
+        include(span.minTimestamp, span.maxTimestamp, span.records, bytes);
+        probes.or(span.probes);
+    }
+
+    private void begin(long timestamp) {
+        long recordBucket = Math.floorDiv(timestamp, bucketMillis);
+        // deferred stacks may arrive slightly out of order; only a later bucket starts a block
+        if (open && (recordBucket > bucket || length >= MAX_BLOCK_BYTES)) {
+            endBlock();
+        }
+        if (!open) {
+            long end = offset + length;
+            try {
+                // the file is also appended to by the previous output during a reload
+                offset = Files.size(traceFile);
+            } catch (IOException e) {
+                offset = end;
+            }
+            open = true;
+            bucket = recordBucket;
+            length = 0;
+            minTimestamp = Long.MAX_VALUE;
+            maxTimestamp = Long.MIN_VALUE;
+            records = 0;
+            probes.clear();
+        }
+    }
+
+    private void include(long min, long max, int count, int bytes) {
+        minTimestamp = Math.min(minTimestamp, min);
+        maxTimestamp = Math.max(maxTimestamp, max);
+        records += count;
+        length += bytes;
+    }
+
+    private void endBlock() {
+        open = false;
+        if (failed) {
+            return;
+        }
+        try {
+            for (int id = probes.nextSetBit(0); id >= 0; id = probes.nextSetBit(id + 1)) {
+                if (!described.get(id)) {
+                    describe(id);
+                }
+            }
+            out.writeByte(BLOCK_ENTRY);
+            out.writeLong(offset);
+            out.writeLong(length);
+            out.writeLong(minTimestamp);
+            out.writeLong(maxTimestamp);
+            out.writeInt(records);
+            out.writeInt(probes.cardinality());
+            for (int id = probes.nextSetBit(0); id >= 0; id = probes.nextSetBit(id + 1)) {
+                out.writeInt(id);
+            }
+            out.flush();
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Failed to write trace index " + file + ", no longer indexing: " + e.getMessage());
+        }
+    }
+
+    private void describe(int id) throws IOException {
+        ProbeSite site = ProbeRegistry.getInstance().get(id);
+        if (site == null) {
+            return;
+        }
+        out.writeByte(PROBE_ENTRY);
+        out.writeInt(id);
+        out.writeUTF(site.className);
+        out.writeUTF(site.methodName);
+        out.writeUTF(site.event);
+        out.writeUTF(site.action == null ? "" : site.action);
+        described.set(id);
+    }
+
+    /**
+     * Writes the entry of the open block and closes the index file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            endBlock();
+        }
+        out.close();
+    }
+
+    /**
+     * Timestamp range and probe sites of records encoded into one batch, for {@link #add(Span, int)}.
+     * Not thread-safe; each batching writer owns one and resets it after each write.
+     */
+    static final class Span {
+        private final BitSet probes = new BitSet();
+        private long minTimestamp = Long.MAX_VALUE;
+        private long maxTimestamp = Long.MIN_VALUE;
+        private int records;
+
+        void add(TraceRecord record) {
+            minTimestamp = Math.min(minTimestamp, record.timestamp);
+            maxTimestamp = Math.max(maxTimestamp, record.timestamp);
+            records++;
+            if (record.probe != null) {
+                probes.set(record.probe.id);
+            }
+        }
+
+        void reset() {
+            probes.clear();
+            minTimestamp = Long.MAX_VALUE;
+            maxTimestamp = Long.MIN_VALUE;
+            records = 0;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.asm.mja.logging;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the sparse index ({@code agent.trace.idx}) written by {@link TraceIndex} alongside a trace file.
+ * A missing last entry, as left by a crash, is tolerated; {@link TraceQuery} scans the unindexed tail.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class TraceIndexReader {
+
+    private String format;
+    private long bucketMillis;
+    private long createdAtMillis;
+    private boolean truncated;
+    private final Map<Integer, Probe> probes = new HashMap<>();
+    private final List<Block> blocks = new ArrayList<>();
+
+    /**
+     * @throws IOException if the file cannot be read or is not a trace index.
+     */
+    public void read(Path index) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index), 64 * 1024))) {
+            if (in.readInt() != TraceIndex.MAGIC) {
+                throw new IOException(index + " is not a trace index");
+            }
+            int version = in.readInt();
+            if (version != TraceIndex.VERSION) {
+                throw new IOException("Unsupported trace index version " + version + " in " + index);
+            }
+            format = in.readUTF();
+            bucketMillis = in.readLong();
+            createdAtMillis = in.readLong();
+            readEntries(in);
+        } catch (EOFException e) {
+            if (format == null) {
+                throw new IOException(index + " is not a trace index");
+            }
+            truncated = true;
+        }
+        // the outputs before and after a configuration reload may close their blocks out of order
+        Collections.sort(blocks, Comparator.comparingLong(block -> block.offset));
+    }
+
+    private void readEntries(DataInputStream in) throws IOException {
+        int type;
+        while ((type = in.read()) != -1) {
+            if (type == TraceIndex.PROBE_ENTRY) {
+                int id = in.readInt();
+                String className = in.readUTF();
+                String methodName = in.readUTF();
+                String event = in.readUTF();
+                String action = in.readUTF();
+                probes.put(id, new Probe(id, className, methodName, event, action.isEmpty() ? null : action));
+            } else if (type == TraceIndex.BLOCK_ENTRY) {
+                long offset = in.readLong();
+                long length = in.readLong();
+                long minTimestamp = in.readLong();
+                long maxTimestamp = in.readLong();
+                int records = in.readInt();
+                int[] ids = new int[in.readInt()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = in.readInt();
+                }
+                blocks.add(new Block(offset, length, minTimestamp, maxTimestamp, records, ids));
+            } else {
+                truncated = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the trace format, {@code text} or {@code json}.
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * @return true if the index ends with an incomplete entry, which was skipped.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * @return the earliest record timestamp indexed, or the index creation time if no block is indexed yet.
+     */
+    public long getFirstTimestamp() {
+        long first = Long.MAX_VALUE;
+        for (Block block : blocks) {
+            first = Math.min(first, block.minTimestamp);
+        }
+        return first == Long.MAX_VALUE ? createdAtMillis : first;
+    }
+
+    Map<Integer, Probe> probes() {
+        return probes;
+    }
+
+    List<Block> blocks() {
+        return blocks;
+    }
+
+    static final class Probe {
+        final int id;
+        final String className;
+        final String methodName;
+        final String event;
+        final String action;
+
+        Probe(int id, String className, String methodName, String event, String action) {
+            this.id = id;
+            this.className = className;
+            this.methodName = methodName;
+            this.event = event;
+            this.action = action;
+        }
+
+        /**
+         * @return the probe's record prefix in text traces, as {@link ProbeSite#describe()} writes it.
+         */
+        String describe() {
+            return ProbeSite.describe(className, methodName, event, action);
+        }
+    }
+
+    static final class Block {
+        final long offset;
+        final long length;
+        final long minTimestamp;
+        final long maxTimestamp;
+        final int records;
+        /** Sorted. */
+        final int[] probeIds;
+
+        Block(long offset, long length, long minTimestamp, long maxTimestamp, int records, int[] probeIds) {
+            this.offset = offset;
+            this.length = length;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.records = records;
+            this.probeIds = probeIds;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.asm.mja.logging;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes trace records as JSON lines with typed fields:
+ * <pre>
+ * {"timestamp":1792224123456,"level":"TRACE","threadId":1,"thread":"main","ruleId":3,"class":"com.foo.Bar","method":"baz","event":"INGRESS","action":"ARGS","payload":" 0=1"}
+ * {"timestamp":1792224123457,"level":"TRACE","threadId":1,"thread":"main","message":"Shutting down TraceFileLogger"}
+ * </pre>
+ * {@code timestamp} is in epoch milliseconds. Probe records carry the probe site's {@code ruleId} and fields
+ * and a {@code payload}, omitted when the probe has none; agent messages carry a {@code message} instead.
+ * {@code "stack"} is an array of frames. The probe site fields are escaped once per site ({@link ProbeSite#jsonFields}),
+ * so only the thread name, payload and frames are escaped per record.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class TraceJsonEncoder implements TraceEncoder {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TIMESTAMP = "{\"timestamp\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LEVEL = ",\"level\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] THREAD_ID = "\",\"threadId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] THREAD = ",\"thread\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PAYLOAD = ",\"payload\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MESSAGE = ",\"message\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STACK = ",\"stack\":[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] LEVEL_NAMES = new byte[TraceRecord.Level.values().length][];
+
+    static {
+        for (TraceRecord.Level level : TraceRecord.Level.values()) {
+            LEVEL_NAMES[level.ordinal()] = level.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final TraceBuffer frame = new TraceBuffer(256);
+
+    @Override
+    public void encode(TraceRecord record, TraceBuffer out) {
+        out.append(TIMESTAMP).append(record.timestamp);
+        out.append(LEVEL).append(LEVEL_NAMES[record.level.ordinal()]);
+        out.append(THREAD_ID).append(record.threadId);
+        out.append(THREAD);
+        appendString(record.threadName, out);
+        ProbeSite probe = record.probe;
+        if (probe != null) {
+            out.append(probe.jsonFields);
+            if (record.message != null) {
+                out.append(PAYLOAD);
+                appendString(record.message, out);
+            }
+        } else {
+            out.append(MESSAGE);
+            appendString(record.message, out);
+        }
+        StackTraceElement[] stack = record.stack;
+        if (stack != null) {
+            out.append(STACK);
+            boolean first = true;
+            for (StackTraceElement element : stack) {
+                if (record.level != TraceRecord.Level.EXCEPTION && TraceTextEncoder.isGetStackTraceFrame(element)) {
+                    continue;
+                }
+                if (!first) {
+                    out.append((byte) ',');
+                }
+                first = false;
+                frame.reset();
+                TraceTextEncoder.appendFrame(element, frame);
+                appendEscaped(frame, out);
+            }
+            out.append((byte) ']');
+        }
+        out.append((byte) '}').append((byte) '\n');
+    }
+
+    /**
+     * @return the {@code ,"ruleId":..,"class":..,"method":..,"event":..,"action":..} fields of a probe site.
+     */
+    static byte[] probeFields(int id, String className, String methodName, String event, String action) {
+        TraceBuffer out = new TraceBuffer(128);
+        out.appendAscii(",\"ruleId\":").append(id);
+        out.appendAscii(",\"class\":");
+        appendString(className, out);
+        out.appendAscii(",\"method\":");
+        appendString(methodName, out);
+        out.appendAscii(",\"event\":");
+        appendString(event, out);
+        if (action != null) {
+            out.appendAscii(",\"action\":");
+            appendString(action, out);
+        }
+        return out.toByteArray();
+    }
+
+    private static void appendString(String value, TraceBuffer out) {
+        if (value == null) {
+            out.append(NULL);
+            return;
+        }
+        out.append((byte) '"');
+        int count = value.length();
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append((byte) '\\').append((byte) c);
+            } else if (c < 0x20) {
+                appendControl(c, out);
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                out.appendCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append((byte) '"');
+    }
+
+    /**
+     * Appends already UTF-8 encoded bytes as a JSON string; multi-byte sequences pass through unchanged.
+     */
+    private static void appendEscaped(TraceBuffer encoded, TraceBuffer out) {
+        out.append((byte) '"');
+        byte[] bytes = encoded.array();
+        int length = encoded.length();
+        // frames almost never need escaping: copy them in one go when they do not
+        int clean = 0;
+        while (clean < length && !needsEscape(bytes[clean])) {
+            clean++;
+        }
+        out.append(bytes, 0, clean);
+        for (int i = clean; i < length; i++) {
+            byte b = bytes[i];
+            if (b == '"' || b == '\\') {
+                out.append((byte) '\\').append(b);
+            } else if (b >= 0 && b < 0x20) {
+                appendControl((char) b, out);
+            } else {
+                out.append(b);
+            }
+        }
+        out.append((byte) '"');
+    }
+
+    private static boolean needsEscape(byte b) {
+        return b == '"' || b == '\\' || (b >= 0 && b < 0x20);
+    }
+
+    private static void appendControl(char c, TraceBuffer out) {
+        switch (c) {
+            case '\n':
+                out.append((byte) '\\').append((byte) 'n');
+                break;
+            case '\r':
+                out.append((byte) '\\').append((byte) 'r');
+                break;
+            case '\t':
+                out.append((byte) '\\').append((byte) 't');
+                break;
+            default:
+                out.append((byte) '\\').append((byte) 'u').append((byte) '0').append((byte) '0')
+                        .append(HEX[c >> 4]).append(HEX[c & 0xF]);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.asm.mja.logging;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copies the records of a text or JSON trace file that fall into a time range and, optionally, belong to a
+ * probe site, reading only the blocks that {@link TraceIndexReader its index} says can hold them.
+ *
+ * A block is read when its timestamps overlap the range and, if a method, event or action is given, it
+ * contains a matching probe site. Records inside a block are then matched one by one. Bytes written after
+ * the last indexed block, such as the block still being written or lost in a crash, are always scanned;
+ * bytes written before indexing started are not.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class TraceQuery {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int TEXT_TIMESTAMP_LENGTH = 23;
+
+    private final TraceIndexReader index;
+    private final long fromMillis;
+    private final long toMillis;
+    private final String method;
+    private final String event;
+    private final String action;
+    private final boolean json;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private byte[] line = new byte[256];
+    private String cachedSecond;
+    private long cachedSecondMillis;
+
+    private long matchedCount;
+    private long blocksRead;
+    private long bytesRead;
+    private long tailOffset;
+    private long traceSize;
+
+    /**
+     * @param fromMillis start of the range, inclusive.
+     * @param toMillis   end of the range, exclusive.
+     * @param method     {@code Class.method}, with the class fully qualified or simple, or a method name
+     *                   alone; null for any.
+     * @param event      e.g. {@code EGRESS}; null for any.
+     * @param action     e.g. {@code RET}; null for any.
+     */
+    public TraceQuery(TraceIndexReader index, long fromMillis, long toMillis, String method, String event, String action) {
+        this.index = index;
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.method = method == null ? null : latin1(method);
+        this.event = event;
+        this.action = action;
+        this.json = TraceFormat.JSON.getValue().equals(index.getFormat());
+    }
+
+    /**
+     * Writes the matching records of {@code trace} to {@code out} in file order.
+     */
+    public void run(Path trace, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(trace, StandardOpenOption.READ)) {
+            traceSize = channel.size();
+            for (long[] range : ranges()) {
+                if (range[0] >= traceSize) {
+                    continue;
+                }
+                scan(channel, range[0], Math.min(range[1], traceSize), out);
+            }
+        }
+    }
+
+    /**
+     * @return the byte ranges to scan, in file order: the selected blocks, merged when adjacent, and the
+     * unindexed tail.
+     */
+    private List<long[]> ranges() {
+        List<TraceIndexReader.Block> blocks = index.blocks();
+        int[] probes = isProbeFiltered() ? matchingProbes() : null;
+        List<long[]> ranges = new ArrayList<>();
+        long tail = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            TraceIndexReader.Block block = blocks.get(i);
+            long end = block.offset + block.length;
+            // bytes appended by another output during a reload belong to the gap before the next block
+            if (i + 1 < blocks.size()) {
+                end = Math.max(end, blocks.get(i + 1).offset);
+            }
+            tail = Math.max(tail, end);
+            if (block.maxTimestamp < fromMillis || block.minTimestamp >= toMillis
+                    || (probes != null && !containsAny(block.probeIds, probes))) {
+                continue;
+            }
+            blocksRead++;
+            long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1] == block.offset) {
+                last[1] = end;
+            } else {
+                ranges.add(new long[]{block.offset, end});
+            }
+        }
+        long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+        if (last != null && last[1] == tail) {
+            last[1] = Long.MAX_VALUE;
+        } else {
+            ranges.add(new long[]{tail, Long.MAX_VALUE});
+        }
+        tailOffset = tail;
+        return ranges;
+    }
+
+    private int[] matchingProbes() {
+        List<Integer> ids = new ArrayList<>();
+        for (TraceIndexReader.Probe probe : index.probes().values()) {
+            if (matchesMethod(latin1(probe.className), latin1(probe.methodName))
+                    && (event == null || event.equalsIgnoreCase(probe.event))
+                    && (action == null || action.equalsIgnoreCase(probe.action))) {
+                ids.add(probe.id);
+            }
+        }
+        int[] sorted = new int[ids.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ids.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static boolean containsAny(int[] sortedIds, int[] sortedWanted) {
+        int i = 0;
+        int j = 0;
+        while (i < sortedIds.length && j < sortedWanted.length) {
+            if (sortedIds[i] == sortedWanted[j]) {
+                return true;
+            }
+            if (sortedIds[i] < sortedWanted[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    private void scan(FileChannel channel, long start, long end, OutputStream out) throws IOException {
+        bytesRead += end - start;
+        channel.position(start);
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel), READ_BUFFER_SIZE);
+        long remaining = end - start;
+        boolean matching = false;
+        while (remaining > 0) {
+            int length = readLine(in, remaining);
+            if (length == 0) {
+                break;
+            }
+            remaining -= length;
+            if (isRecordStart(length)) {
+                matching = matches(length);
+                if (matching) {
+                    matchedCount++;
+                }
+            }
+            // stack frames of a text record follow on their own lines
+            if (matching) {
+                out.write(line, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Reads up to and including the next newline, at most {@code limit} bytes.
+     *
+     * @return bytes read into {@link #line}; 0 at the end of the stream.
+     */
+    private int readLine(InputStream in, long limit) throws IOException {
+        int length = 0;
+        int b;
+        while (length < limit && (b = in.read()) != -1) {
+            if (length == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[length++] = (byte) b;
+            if (b == '\n') {
+                break;
+            }
+        }
+        return length;
+    }
+
+    private boolean isRecordStart(int length) {
+        if (json) {
+            return length > 0 && line[0] == '{';
+        }
+        return length > TEXT_TIMESTAMP_LENGTH
+                && isDigit(line[0]) && line[4] == '-' && line[7] == '-' && line[10] == ' '
+                && line[13] == ':' && line[16] == ':' && line[19] == '.' && line[TEXT_TIMESTAMP_LENGTH] == ' ';
+    }
+
+    private boolean matches(int length) {
+        String record = new String(line, 0, length, StandardCharsets.ISO_8859_1);
+        long timestamp = json ? jsonTimestamp(record) : textTimestamp(record);
+        if (timestamp < fromMillis || timestamp >= toMillis) {
+            return false;
+        }
+        if (!isProbeFiltered()) {
+            return true;
+        }
+        return json ? matchesJsonProbe(record) : matchesTextProbe(record);
+    }
+
+    private boolean isProbeFiltered() {
+        return method != null || event != null || action != null;
+    }
+
+    private boolean matchesMethod(String className, String methodName) {
+        if (method == null) {
+            return true;
+        }
+        int dot = method.lastIndexOf('.');
+        if (dot < 0) {
+            return method.equals(methodName);
+        }
+        if (!method.substring(dot + 1).equals(methodName)) {
+            return false;
+        }
+        String wantedClass = method.substring(0, dot);
+        return className.equals(wantedClass)
+                || className.endsWith("." + wantedClass)
+                || className.endsWith("$" + wantedClass);
+    }
+
+    /**
+     * Matches {@code ... [thread] {class.method} | EVENT | ACTION | payload}.
+     */
+    private boolean matchesTextProbe(String record) {
+        int threadStart = record.indexOf("] [", TEXT_TIMESTAMP_LENGTH);
+        int open = threadStart < 0 ? -1 : record.indexOf("] {", threadStart + 3);
+        int close = open < 0 ? -1 : record.indexOf("} | ", open);
+        if (close < 0) {
+            return false;
+        }
+        String site = record.substring(open + 3, close);
+        int dot = site.lastIndexOf('.');
+        if (dot < 0 || !matchesMethod(site.substring(0, dot), site.substring(dot + 1))) {
+            return false;
+        }
+        int eventStart = close + 4;
+        int eventEnd = fieldEnd(record, eventStart);
+        if (event != null && !event.equalsIgnoreCase(record.substring(eventStart, eventEnd))) {
+            return false;
+        }
+        if (action == null) {
+            return true;
+        }
+        if (!record.startsWith(" | ", eventEnd)) {
+            return false;
+        }
+        return action.equalsIgnoreCase(record.substring(eventEnd + 3, fieldEnd(record, eventEnd + 3)));
+    }
+
+    private static int fieldEnd(String record, int start) {
+        int end = record.indexOf(" | ", start);
+        if (end >= 0) {
+            return end;
+        }
+        end = record.length();
+        while (end > start && (record.charAt(end - 1) == '\n' || record.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return end;
+    }
+
+    private boolean matchesJsonProbe(String record) {
+        String className = jsonField(record, "class");
+        String methodName = jsonField(record, "method");
+        if (className == null || methodName == null || !matchesMethod(className, methodName)) {
+            return false;
+        }
+        return (event == null || event.equalsIgnoreCase(jsonField(record, "event")))
+                && (action == null || action.equalsIgnoreCase(jsonField(record, "action")));
+    }
+
+    /**
+     * @return the unescaped value of a probe site string field, or null if the record has none.
+     */
+    private static String jsonField(String record, String name) {
+        // field names inside string values have escaped quotes, so this only finds the field itself
+        String key = ",\"" + name + "\":\"";
+        int start = record.indexOf(key);
+        if (start < 0) {
+            return null;
+        }
+        start += key.length();
+        int end = record.indexOf('"', start);
+        return end < 0 ? null : record.substring(start, end);
+    }
+
+    private static long jsonTimestamp(String record) {
+        String key = "{\"timestamp\":";
+        if (!record.startsWith(key)) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (int i = key.length(); i < record.length() && isDigit((byte) record.charAt(i)); i++) {
+            value = value * 10 + (record.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd HH:mm:ss.SSS} in the default time zone, which the trace was written in.
+     */
+    private long textTimestamp(String record) {
+        String second = record.substring(0, 19);
+        if (!second.equals(cachedSecond)) {
+            LocalDateTime time = LocalDateTime.of(
+                    number(record, 0, 4), number(record, 5, 2), number(record, 8, 2),
+                    number(record, 11, 2), number(record, 14, 2), number(record, 17, 2));
+            cachedSecondMillis = time.atZone(zone).toInstant().toEpochMilli();
+            cachedSecond = second;
+        }
+        return cachedSecondMillis + number(record, 20, 3);
+    }
+
+    private static int number(String text, int start, int digits) {
+        int value = 0;
+        for (int i = start; i < start + digits; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Record bytes are matched as ISO-8859-1, one char per byte, so non-ASCII names are compared by their UTF-8 bytes.
+     */
+    private static String latin1(String value) {
+        return new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+    }
+
+    public long getMatchedCount() {
+        return matchedCount;
+    }
+
+    /**
+     * @return indexed blocks that could hold matching records and were read.
+     */
+    public long getBlocksRead() {
+        return blocksRead;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return bytes after the last indexed block, which were scanned in full.
+     */
+    public long getUnindexedBytes() {
+        return Math.max(0, traceSize - tailOffset);
+    }
+
+    public long getTraceSize() {
+        return traceSize;
+    }
+}
@@ -0,0 +1,57 @@
+package com.asm.mja.logging;
+
+/**
+ * A single trace record as captured on the instrumented thread.
+ * Instances are reused as ring buffer slots, so fields are mutable and
+ * must be cleared once the record has been written.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class TraceRecord {
+
+    enum Level {
+        TRACE,
+        ERROR,
+        WARN,
+        EXCEPTION
+    }
+
+    Level level;
+    long timestamp;
+    long threadId;
+    String threadName;
+    /** Probe site that produced the record, or null for free-form agent messages. */
+    ProbeSite probe;
+    String message;
+    StackTraceElement[] stack;
+    /** Stack captured but not yet symbolized into {@link #stack}; resolved on the writer thread. */
+    Throwable rawStack;
+    /** {@link StackFilter} applied to {@link #rawStack} once symbolized, or -1. */
+    int rawStackFilterId;
+
+    void set(Level level, long timestamp, long threadId, String threadName, ProbeSite probe, String message, StackTraceElement[] stack) {
+        this.level = level;
+        this.timestamp = timestamp;
+        this.threadId = threadId;
+        this.threadName = threadName;
+        this.probe = probe;
+        this.message = message;
+        this.stack = stack;
+    }
+
+    void copyFrom(TraceRecord source) {
+        set(source.level, source.timestamp, source.threadId, source.threadName, source.probe, source.message, source.stack);
+        rawStack = source.rawStack;
+        rawStackFilterId = source.rawStackFilterId;
+    }
+
+    void clear() {
+        level = null;
+        threadName = null;
+        probe = null;
+        message = null;
+        stack = null;
+        rawStack = null;
+    }
+}
@@ -0,0 +1,123 @@
+package com.asm.mja.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of {@link TraceRecord} slots.
+ * Producers claim a slot with a CAS on the tail cursor and publish it through
+ * a per-slot sequence number, so instrumented threads never take a lock.
+ * Slots are preallocated and reused; nothing is allocated per record.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class TraceRingBuffer {
+
+    interface RecordConsumer {
+        void accept(TraceRecord record);
+    }
+
+    private final TraceRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    TraceRingBuffer(int requestedCapacity) {
+        int capacity = roundUpToPowerOfTwo(Math.min(MAX_CAPACITY, Math.max(2, requestedCapacity)));
+        this.slots = new TraceRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new TraceRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publishes a copy of {@code source} if a slot is free.
+     *
+     * @return false if the ring is full.
+     */
+    boolean offer(TraceRecord source) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+        slots[index].copyFrom(source);
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code maxRecords} published records to the consumer, in order.
+     * Must only be called from the single consumer thread. If the consumer throws, the
+     * batch ends with the record it failed on, which is consumed all the same.
+     *
+     * @return number of records drained.
+     * @throws DrainException if the consumer threw; it carries the number of records drained.
+     */
+    int drain(RecordConsumer consumer, int maxRecords) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxRecords) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            TraceRecord record = slots[index];
+            try {
+                consumer.accept(record);
+            } catch (Throwable t) {
+                throw new DrainException(drained + 1, t);
+            } finally {
+                record.clear();
+                sequences.lazySet(index, position + slots.length);
+                position++;
+                head = position;
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    int size() {
+        long size = tail.get() - head;
+        return size < 0 ? 0 : (int) Math.min(size, slots.length);
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+
+    /**
+     * Thrown by {@link #drain} when the consumer fails, so the caller still learns how many records
+     * left the ring and can flush what the consumer wrote before the failure.
+     */
+    static final class DrainException extends RuntimeException {
+        final int drained;
+
+        DrainException(int drained, Throwable cause) {
+            super(cause.getMessage(), cause);
+            this.drained = drained;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.asm.mja.logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Rebuilds one time-ordered trace from per-thread or per-thread-group shard files
+ * ({@code agent.trace.shard-*}, {@code agent.trace.bin.shard-*} or {@code agent.trace.jsonl.shard-*})
+ * with a k-way merge on record timestamps. Text and binary shards merge into text; JSON-lines shards stay JSON lines.
+ * Each shard is read sequentially and only its current record is held in memory.
+ * Records with equal timestamps keep the order of the shards as given.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class TraceShardMerger {
+
+    static final String SHARD_MARKER = ".shard-";
+    // digits are '0', everything else must match literally
+    private static final String TIMESTAMP_SHAPE = "0000-00-00 00:00:00.000";
+    private static final int TIMESTAMP_LENGTH = TIMESTAMP_SHAPE.length();
+
+    private TraceShardMerger() {
+    }
+
+    /**
+     * @return the shard files in {@code directory}, sorted by name.
+     */
+    public static List<Path> findShards(Path directory) throws IOException {
+        List<Path> shards = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SHARD_MARKER + "*")) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    shards.add(path);
+                }
+            }
+        }
+        shards.sort(null);
+        return shards;
+    }
+
+    /**
+     * Merges text or binary shards into text trace lines, or JSON-lines shards into JSON lines, written to {@code out}.
+     *
+     * @return the number of records written.
+     */
+    public static long merge(List<Path> shards, OutputStream out) throws IOException {
+        List<ShardCursor> cursors = new ArrayList<>();
+        PriorityQueue<ShardCursor> queue = new PriorityQueue<>(Math.max(1, shards.size()), (a, b) -> {
+            int byTime = Long.compare(a.timestamp(), b.timestamp());
+            return byTime != 0 ? byTime : Integer.compare(a.order, b.order);
+        });
+        long merged = 0;
+        try {
+            for (Path shard : shards) {
+                ShardCursor cursor = open(shard, cursors.size());
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            ShardCursor cursor;
+            while ((cursor = queue.poll()) != null) {
+                cursor.writeCurrent(out);
+                merged++;
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            out.flush();
+        } finally {
+            for (ShardCursor open : cursors) {
+                open.close();
+            }
+        }
+        return merged;
+    }
+
+    private static ShardCursor open(Path shard, int order) throws IOException {
+        InputStream in = BinaryTraceDecoder.buffered(Files.newInputStream(shard));
+        in.mark(BinaryTraceFormat.MAGIC.length);
+        int first = in.read();
+        in.reset();
+        if (first == '{') {
+            return new JsonShardCursor(shard, in, order);
+        }
+        boolean binary = true;
+        for (byte expected : BinaryTraceFormat.MAGIC) {
+            if (in.read() != expected) {
+                binary = false;
+                break;
+            }
+        }
+        in.reset();
+        return binary ? new BinaryShardCursor(shard, in, order) : new TextShardCursor(shard, in, order);
+    }
+
+    private abstract static class ShardCursor implements Closeable {
+        final Path shard;
+        final InputStream in;
+        final int order;
+
+        ShardCursor(Path shard, InputStream in, int order) {
+            this.shard = shard;
+            this.in = in;
+            this.order = order;
+        }
+
+        /**
+         * Moves to the next record. @return false once the shard is exhausted.
+         */
+        abstract boolean advance() throws IOException;
+
+        abstract long timestamp();
+
+        abstract void writeCurrent(OutputStream out) throws IOException;
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads text records: a timestamped line plus any continuation lines such as stack frames.
+     */
+    private static final class TextShardCursor extends ShardCursor {
+        private final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        private final ByteArrayOutputStream current = new ByteArrayOutputStream(256);
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        private boolean lineBuffered;
+        private long timestamp;
+
+        TextShardCursor(Path shard, InputStream in, int order) {
+            super(shard, in, order);
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            current.reset();
+            if (!lineBuffered && !readLine()) {
+                return false;
+            }
+            lineBuffered = false;
+            timestamp = parseTimestamp(line.toByteArray());
+            line.writeTo(current);
+            while (readLine()) {
+                if (isRecordStart(line.toByteArray())) {
+                    lineBuffered = true;
+                    break;
+                }
+                line.writeTo(current);
+            }
+            return true;
+        }
+
+        @Override
+        long timestamp() {
+            return timestamp;
+        }
+
+        @Override
+        void writeCurrent(OutputStream out) throws IOException {
+            current.writeTo(out);
+        }
+
+        private boolean readLine() throws IOException {
+            line.reset();
+            int b;
+            while ((b = in.read()) != -1) {
+                line.write(b);
+                if (b == '\n') {
+                    return true;
+                }
+            }
+            return line.size() > 0;
+        }
+
+        private long parseTimestamp(byte[] header) throws IOException {
+            if (!isRecordStart(header)) {
+                // leading lines without a timestamp sort first
+                return Long.MIN_VALUE;
+            }
+            try {
+                return format.parse(new String(header, 0, TIMESTAMP_LENGTH, "US-ASCII")).getTime();
+            } catch (ParseException e) {
+                throw new IOException("Unreadable timestamp in " + shard + ": " + e.getMessage());
+            }
+        }
+
+        private static boolean isRecordStart(byte[] text) {
+            if (text.length <= TIMESTAMP_LENGTH || text[TIMESTAMP_LENGTH] != ' ') {
+                return false;
+            }
+            for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+                char expected = TIMESTAMP_SHAPE.charAt(i);
+                byte b = text[i];
+                if (expected == '0' ? b < '0' || b > '9' : b != expected) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reads JSON lines; the record timestamp is the leading {@code "timestamp"} field in epoch milliseconds.
+     */
+    private static final class JsonShardCursor extends ShardCursor {
+        private static final byte[] TIMESTAMP_FIELD = "{\"timestamp\":".getBytes(StandardCharsets.US_ASCII);
+
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        private long timestamp;
+
+        JsonShardCursor(Path shard, InputStream in, int order) {
+            super(shard, in, order);
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            line.reset();
+            int b;
+            while ((b = in.read()) != -1) {
+                line.write(b);
+                if (b == '\n') {
+                    break;
+                }
+            }
+            if (line.size() == 0) {
+                return false;
+            }
+            timestamp = parseTimestamp(line.toByteArray());
+            return true;
+        }
+
+        @Override
+        long timestamp() {
+            return timestamp;
+        }
+
+        @Override
+        void writeCurrent(OutputStream out) throws IOException {
+            line.writeTo(out);
+        }
+
+        private long parseTimestamp(byte[] record) throws IOException {
+            int position = TIMESTAMP_FIELD.length;
+            for (int i = 0; i < position; i++) {
+                if (i >= record.length || record[i] != TIMESTAMP_FIELD[i]) {
+                    throw new IOException("JSON trace record without a leading timestamp in " + shard);
+                }
+            }
+            long value = 0;
+            int start = position;
+            while (position < record.length && record[position] >= '0' && record[position] <= '9') {
+                value = value * 10 + (record[position++] - '0');
+            }
+            if (position == start) {
+                throw new IOException("Unreadable timestamp in " + shard);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Reads binary records and re-encodes them in the text format.
+     */
+    private static final class BinaryShardCursor extends ShardCursor {
+        private final BinaryTraceDecoder decoder = new BinaryTraceDecoder(BinaryTraceDecoder.Output.TEXT);
+        private final TraceTextEncoder encoder = new TraceTextEncoder();
+        private final TraceBuffer buffer = new TraceBuffer();
+
+        BinaryShardCursor(Path shard, InputStream in, int order) {
+            super(shard, in, order);
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            return decoder.next(in);
+        }
+
+        @Override
+        long timestamp() {
+            return decoder.current().timestamp;
+        }
+
+        @Override
+        void writeCurrent(OutputStream out) throws IOException {
+            buffer.reset();
+            encoder.encode(decoder.current(), buffer);
+            out.write(buffer.array(), 0, buffer.length());
+        }
+    }
+}
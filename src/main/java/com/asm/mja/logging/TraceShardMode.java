@@ -0,0 +1,46 @@
+package com.asm.mja.logging;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * How trace records are split across files.
+ *
+ * NONE:         All threads write to one trace file.
+ * THREAD:       Each thread writes to its own buffered shard file.
+ * THREAD_GROUP: Threads of the same thread group share a buffered shard file.
+ *
+ * Shards are merged back into one time-ordered trace with {@code com.asm.mja.tools.TraceMergeCLI}.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public enum TraceShardMode {
+    NONE("none"),
+    THREAD("thread"),
+    THREAD_GROUP("threadGroup");
+
+    private final String value;
+
+    TraceShardMode(String value) {
+        this.value = value;
+    }
+
+    @JsonCreator
+    public static TraceShardMode fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (TraceShardMode mode : values()) {
+            if (mode.value.equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported trace shard mode - " + value);
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+}
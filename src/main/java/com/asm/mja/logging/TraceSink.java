@@ -0,0 +1,22 @@
+package com.asm.mja.logging;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Destination for encoded trace bytes. Calls are serialized by {@link TraceFileLogger},
+ * so implementations need not be thread-safe.
+ *
+ * Besides the built-in sinks, an implementation can be plugged in with {@code trace.sink: custom} and
+ * {@code trace.sinkClass}; it needs a public constructor taking the trace file path (for sinks that
+ * derive their own location from it) or a public no-arg constructor. Each {@link #write} call
+ * carries whole records, and {@link #close()} is called when the trace is closed or reconfigured.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public interface TraceSink extends Closeable, Flushable {
+
+    void write(byte[] bytes, int offset, int length) throws IOException;
+}
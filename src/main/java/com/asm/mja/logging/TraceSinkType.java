@@ -0,0 +1,46 @@
+package com.asm.mja.logging;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Where encoded trace records are written.
+ *
+ * FILE: A single append-only {@code agent.trace} file.
+ * MMAP: Memory-mapped, size-rolled {@code agent.trace.NNNNN} segments with retention and background compression.
+ * SOCKET: Batched records streamed to a local collector over TCP or a Unix domain socket.
+ * CUSTOM: A {@link TraceSink} implementation named by {@code trace.sinkClass}.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public enum TraceSinkType {
+    FILE("file"),
+    MMAP("mmap"),
+    SOCKET("socket"),
+    CUSTOM("custom");
+
+    private final String value;
+
+    TraceSinkType(String value) {
+        this.value = value;
+    }
+
+    @JsonCreator
+    public static TraceSinkType fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (TraceSinkType type : values()) {
+            if (type.value.equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported trace sink - " + value);
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,148 @@
+package com.asm.mja.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal reference collector for {@code trace.sink: socket}: accepts agent connections one at a time
+ * and copies the complete lines each one sends to an output stream. A line cut off by a dropped
+ * connection is discarded, because the agent resends it on its next connection.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class TraceSocketCollector implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final SocketEndpoint endpoint;
+    private final OutputStream out;
+    private final ServerSocketChannel server;
+    private final AtomicLong lines = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private volatile SocketChannel client;
+    private volatile boolean closed;
+
+    /**
+     * Binds the endpoint; call {@link #start()} or {@link #run()} to accept connections.
+     */
+    public TraceSocketCollector(SocketEndpoint endpoint, OutputStream out) throws IOException {
+        this.endpoint = endpoint;
+        this.out = out;
+        this.server = endpoint.bind();
+    }
+
+    /**
+     * @return the bound TCP port, useful when binding port 0; 0 for a Unix domain socket.
+     */
+    public int getPort() throws IOException {
+        return SocketEndpoint.localPort(server);
+    }
+
+    public long getLineCount() {
+        return lines.get();
+    }
+
+    public long getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Accepts connections on a daemon thread.
+     */
+    public Thread start() {
+        Thread thread = new Thread(this::runQuietly, "monarch-trace-collector");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Accepts and drains connections until {@link #close()} is called.
+     */
+    public void run() throws IOException {
+        while (!closed) {
+            SocketChannel accepted;
+            try {
+                accepted = server.accept();
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                throw e;
+            }
+            connections.incrementAndGet();
+            client = accepted;
+            try {
+                drain(accepted);
+            } catch (IOException e) {
+                // the agent went away; wait for it to reconnect
+            } finally {
+                client = null;
+                accepted.close();
+            }
+        }
+    }
+
+    /**
+     * Disconnects the current client, as if the connection had dropped.
+     */
+    public void disconnectClient() throws IOException {
+        SocketChannel current = client;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        disconnectClient();
+        server.close();
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (IOException e) {
+            System.err.println("Trace collector on " + endpoint + " stopped: " + e.getMessage());
+        }
+    }
+
+    private void drain(SocketChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            int end = buffer.limit();
+            while (end > 0 && buffer.get(end - 1) != '\n') {
+                end--;
+            }
+            if (end > 0) {
+                int count = 0;
+                for (int i = 0; i < end; i++) {
+                    if (buffer.get(i) == '\n') {
+                        count++;
+                    }
+                }
+                synchronized (out) {
+                    out.write(buffer.array(), 0, end);
+                    out.flush();
+                }
+                lines.addAndGet(count);
+            } else if (buffer.limit() == buffer.capacity()) {
+                // a single line longer than the buffer: pass it through in pieces
+                end = buffer.limit();
+                synchronized (out) {
+                    out.write(buffer.array(), 0, end);
+                }
+            }
+            buffer.position(end);
+            buffer.compact();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.asm.mja.logging;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes trace records in the human-readable {@code agent.trace} line format:
+ * <pre>
+ * 2026-10-17 10:02:03.456 [TRACE] [thread] message
+ * </pre>
+ * followed by {@code \tat frame} lines for stack records. Frames are written
+ * field by field instead of through {@link StackTraceElement#toString()}.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class TraceTextEncoder implements TraceEncoder {
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] LEVEL_TAGS = new byte[TraceRecord.Level.values().length][];
+    private static final byte[] FRAME_PREFIX = "\tat ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NATIVE_METHOD = "(Native Method)".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PAYLOAD_SEPARATOR = " | ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNKNOWN_SOURCE = "(Unknown Source)".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (TraceRecord.Level level : TraceRecord.Level.values()) {
+            LEVEL_TAGS[level.ordinal()] = (" [" + level.name() + "] [").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final TraceTimestampFormatter timestamps = new TraceTimestampFormatter();
+
+    @Override
+    public void encode(TraceRecord record, TraceBuffer out) {
+        timestamps.format(record.timestamp, out);
+        out.append(LEVEL_TAGS[record.level.ordinal()]);
+        out.append(record.threadName).append((byte) ']').append((byte) ' ');
+        ProbeSite probe = record.probe;
+        if (probe == null) {
+            out.append(record.message);
+        } else {
+            out.append(probe.prefix);
+            if (record.message != null) {
+                out.append(PAYLOAD_SEPARATOR).append(record.message);
+            }
+        }
+
+        StackTraceElement[] stack = record.stack;
+        if (stack != null) {
+            if (record.level == TraceRecord.Level.EXCEPTION) {
+                for (StackTraceElement element : stack) {
+                    out.append(FRAME_PREFIX);
+                    appendFrame(element, out);
+                    out.append((byte) '\n');
+                }
+            } else {
+                out.append((byte) '\n');
+                for (StackTraceElement element : stack) {
+                    if (isGetStackTraceFrame(element)) {
+                        continue;
+                    }
+                    out.append(FRAME_PREFIX);
+                    appendFrame(element, out);
+                    out.append((byte) '\n');
+                }
+            }
+        }
+        out.append(LINE_SEPARATOR);
+    }
+
+    static void appendFrame(StackTraceElement element, TraceBuffer out) {
+        out.append(element.getClassName()).append((byte) '.').append(element.getMethodName());
+        String fileName = element.getFileName();
+        int lineNumber = element.getLineNumber();
+        if (element.isNativeMethod()) {
+            out.append(NATIVE_METHOD);
+        } else if (fileName == null) {
+            out.append(UNKNOWN_SOURCE);
+        } else {
+            out.append((byte) '(').append(fileName);
+            if (lineNumber >= 0) {
+                out.append((byte) ':').append(lineNumber);
+            }
+            out.append((byte) ')');
+        }
+    }
+
+    static boolean isGetStackTraceFrame(StackTraceElement element) {
+        return "java.lang.Thread".equals(element.getClassName())
+                && element.getMethodName().startsWith("getStackTrace");
+    }
+}
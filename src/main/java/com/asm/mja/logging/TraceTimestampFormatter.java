@@ -0,0 +1,76 @@
+package com.asm.mja.logging;
+
+import java.util.TimeZone;
+
+/**
+ * Formats epoch milliseconds as {@code yyyy-MM-dd HH:mm:ss.SSS} in the default
+ * time zone. The {@code yyyy-MM-dd HH:mm:ss.} prefix is cached per second, so
+ * steady-state formatting is a byte copy plus three millisecond digits.
+ * Not thread-safe; each encoder owns its own instance.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class TraceTimestampFormatter {
+
+    private static final int PREFIX_LENGTH = 20;
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private final TimeZone timeZone;
+    private final byte[] prefix = new byte[PREFIX_LENGTH];
+    private long cachedSecond = Long.MIN_VALUE;
+
+    TraceTimestampFormatter() {
+        this(TimeZone.getDefault());
+    }
+
+    TraceTimestampFormatter(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    void format(long epochMillis, TraceBuffer out) {
+        long second = Math.floorDiv(epochMillis, 1000L);
+        if (second != cachedSecond) {
+            refreshPrefix(epochMillis);
+            cachedSecond = second;
+        }
+        out.append(prefix).appendPadded((int) Math.floorMod(epochMillis, 1000L), 3);
+    }
+
+    private void refreshPrefix(long epochMillis) {
+        long localSeconds = Math.floorDiv(epochMillis + timeZone.getOffset(epochMillis), 1000L);
+        long days = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(localSeconds, SECONDS_PER_DAY);
+
+        // civil-from-days, proleptic Gregorian calendar
+        long shifted = days + 719468;
+        long era = Math.floorDiv(shifted, 146097);
+        long dayOfEra = shifted - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        writeDigits(year, 0, 4);
+        prefix[4] = '-';
+        writeDigits(month, 5, 2);
+        prefix[7] = '-';
+        writeDigits(day, 8, 2);
+        prefix[10] = ' ';
+        writeDigits(secondOfDay / 3600, 11, 2);
+        prefix[13] = ':';
+        writeDigits((secondOfDay / 60) % 60, 14, 2);
+        prefix[16] = ':';
+        writeDigits(secondOfDay % 60, 17, 2);
+        prefix[19] = '.';
+    }
+
+    private void writeDigits(int value, int offset, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            prefix[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+    }
+}
@@ -1,12 +1,28 @@
 package com.asm.mja.metrics;
 
+import com.asm.mja.logging.TraceFileLogger;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author ashut
@@ -16,7 +32,13 @@ import java.nio.charset.StandardCharsets;
 public class MetricsHttpServer {
 
     private static MetricsHttpServer instance;
+    /** Concurrent {@code /trace/tail} streams; each holds a server thread for its duration. */
+    static final int MAX_TRACE_TAILS = 4;
+    private static final long TAIL_POLL_MILLIS = 200;
+    private static final int DEFAULT_TAIL_SECONDS = 600;
+    private static final int MAX_TAIL_SECONDS = 3600;
     private HttpServer server;
+    private ExecutorService executor;
 
     private MetricsHttpServer() {}
 
@@ -33,10 +55,21 @@ public class MetricsHttpServer {
             server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
             server.createContext("/metrics", new PrometheusMetricsHandler());
             server.createContext("/metrics.json", new JsonMetricsHandler());
-            server.setExecutor(null);
+            server.createContext("/flightrecorder/dump", new FlightRecorderDumpHandler());
+            server.createContext("/trace/tail", new TraceTailHandler());
+            server.createContext("/trace/download", new TraceDownloadHandler());
+            // trace tails hold their thread; leave room for scrapes while they run
+            executor = Executors.newFixedThreadPool(MAX_TRACE_TAILS + 2, runnable -> {
+                Thread thread = new Thread(runnable, "monarch-metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server.setExecutor(executor);
             server.start();
             System.out.println("Metrics endpoint running at http://127.0.0.1:" + port + "/metrics");
             System.out.println("Metrics JSON endpoint running at http://127.0.0.1:" + port + "/metrics.json");
+            System.out.println("Flight recorder dump endpoint running at http://127.0.0.1:" + port + "/flightrecorder/dump");
+            System.out.println("Trace endpoints running at http://127.0.0.1:" + port + "/trace/tail and /trace/download");
         } catch (IOException e) {
             System.err.println("Failed to start Metrics HTTP server: " + e.getMessage());
         }
@@ -47,6 +80,11 @@ public class MetricsHttpServer {
             server.stop(0);
             server = null;
         }
+        if (executor != null) {
+            // ends running tails, which sleep between polls
+            executor.shutdownNow();
+            executor = null;
+        }
     }
 
     /** Handler: returns metrics in Prometheus/OpenMetrics format */
@@ -114,4 +152,236 @@ public class MetricsHttpServer {
             }
         }
     }
+
+    /** Handler: dumps the trace flight recorder on POST and returns the dump file's path */
+    static class FlightRecorderDumpHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+                exchange.sendResponseHeaders(405, -1); // Method Not Allowed
+                return;
+            }
+
+            Path dump;
+            try {
+                dump = TraceFileLogger.getInstance().dumpFlightRecorder("HTTP request from " + exchange.getRemoteAddress());
+            } catch (IOException e) {
+                sendText(exchange, 500, "Flight recorder dump failed: " + e.getMessage() + "\n");
+                return;
+            }
+            if (dump == null) {
+                sendText(exchange, 404, "Flight recorder is not enabled\n");
+            } else {
+                sendText(exchange, 200, dump + "\n");
+            }
+        }
+    }
+
+    /**
+     * Handler: streams {@code agent.trace} as it grows, as a chunked {@code text/plain} response.
+     *
+     * {@code ?backlog=<bytes>} starts that many bytes before the current end (default 0, possibly mid-line) and
+     * {@code ?seconds=<n>} ends the stream after n seconds (default 600, at most 3600), since an idle client that
+     * went away is only noticed on the next write. A rotated file is followed into its replacement.
+     */
+    static class TraceTailHandler implements HttpHandler {
+        private static final AtomicInteger activeTails = new AtomicInteger();
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+                exchange.sendResponseHeaders(405, -1); // Method Not Allowed
+                return;
+            }
+            Path traceFile = TraceFileLogger.getInstance().getTraceFile();
+            if (traceFile == null) {
+                sendText(exchange, 404, "The trace is not written to a single file\n");
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange);
+            long backlog;
+            long seconds;
+            try {
+                backlog = Math.max(0, parseLong(query.get("backlog"), 0));
+                seconds = Math.min(MAX_TAIL_SECONDS, Math.max(1, parseLong(query.get("seconds"), DEFAULT_TAIL_SECONDS)));
+            } catch (NumberFormatException e) {
+                sendText(exchange, 400, "backlog and seconds must be integers\n");
+                return;
+            }
+            if (activeTails.incrementAndGet() > MAX_TRACE_TAILS) {
+                activeTails.decrementAndGet();
+                sendText(exchange, 503, "Too many trace tails; at most " + MAX_TRACE_TAILS + " can run at once\n");
+                return;
+            }
+            try {
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+                exchange.sendResponseHeaders(200, 0); // chunked
+                try (OutputStream os = exchange.getResponseBody()) {
+                    follow(traceFile, backlog, TimeUnit.SECONDS.toMillis(seconds), os);
+                }
+            } finally {
+                activeTails.decrementAndGet();
+            }
+        }
+
+        private static void follow(Path traceFile, long backlog, long durationMillis, OutputStream os) throws IOException {
+            WritableByteChannel target = Channels.newChannel(os);
+            long deadline = System.currentTimeMillis() + durationMillis;
+            FileChannel channel = null;
+            Object fileKey = null;
+            long position = 0;
+            boolean rotated = false;
+            try {
+                while (System.currentTimeMillis() < deadline) {
+                    if (channel == null) {
+                        try {
+                            channel = FileChannel.open(traceFile, StandardOpenOption.READ);
+                        } catch (NoSuchFileException e) {
+                            // between a rotation's rename and the new file
+                            sleep();
+                            continue;
+                        }
+                        fileKey = fileKey(traceFile);
+                        // a replacement file is sent from its start
+                        position = rotated ? 0 : Math.max(0, channel.size() - backlog);
+                    }
+                    long size = channel.size();
+                    if (size > position) {
+                        position += transfer(channel, position, size - position, target);
+                        os.flush();
+                        continue;
+                    }
+                    Object currentKey = fileKey(traceFile);
+                    if (size < position || !Objects.equals(currentKey, fileKey)) {
+                        // truncated or rotated: the old file was drained above, continue with the new one
+                        channel.close();
+                        channel = null;
+                        rotated = true;
+                        continue;
+                    }
+                    sleep();
+                }
+            } finally {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+        }
+
+        private static Object fileKey(Path file) {
+            try {
+                return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private static void sleep() throws IOException {
+            try {
+                Thread.sleep(TAIL_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Trace tail interrupted");
+            }
+        }
+    }
+
+    /**
+     * Handler: returns bytes {@code [from, to)} of {@code agent.trace}; {@code from} defaults to 0 and may be
+     * negative to count back from the end, {@code to} defaults to the current end. The trace size at the time of
+     * the request is returned in {@code X-Trace-Size}.
+     */
+    static class TraceDownloadHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+                exchange.sendResponseHeaders(405, -1); // Method Not Allowed
+                return;
+            }
+            Path traceFile = TraceFileLogger.getInstance().getTraceFile();
+            if (traceFile == null) {
+                sendText(exchange, 404, "The trace is not written to a single file\n");
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange);
+            try (FileChannel channel = FileChannel.open(traceFile, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long from;
+                long to;
+                try {
+                    from = parseLong(query.get("from"), 0);
+                    to = parseLong(query.get("to"), size);
+                } catch (NumberFormatException e) {
+                    sendText(exchange, 400, "from and to must be byte offsets\n");
+                    return;
+                }
+                if (from < 0) {
+                    from = Math.max(0, size + from);
+                }
+                to = Math.min(to, size);
+                if (from > to) {
+                    exchange.getResponseHeaders().set("X-Trace-Size", String.valueOf(size));
+                    sendText(exchange, 416, "Requested range is outside the trace (size " + size + ")\n");
+                    return;
+                }
+                long length = to - from;
+                exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                exchange.getResponseHeaders().set("Content-Disposition",
+                        "attachment; filename=\"" + traceFile.getFileName() + "\"");
+                exchange.getResponseHeaders().set("X-Trace-Size", String.valueOf(size));
+                exchange.sendResponseHeaders(200, length == 0 ? -1 : length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    transfer(channel, from, length, Channels.newChannel(os));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies file bytes to the response with {@link FileChannel#transferTo}, which never stages them in a
+     * buffer the size of the range. The JDK server only exposes the response as a stream, so they pass through
+     * the channel's fixed bounce buffer rather than going straight to the socket.
+     *
+     * @return bytes transferred; fewer than {@code count} if the file is shorter.
+     */
+    static long transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long sent = channel.transferTo(position + transferred, count - transferred, target);
+            if (sent <= 0) {
+                break;
+            }
+            transferred += sent;
+        }
+        return transferred;
+    }
+
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(pair.substring(0, equals), pair.substring(equals + 1));
+            }
+        }
+        return parameters;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] responseBytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
 }
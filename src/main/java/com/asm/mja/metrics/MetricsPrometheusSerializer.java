@@ -78,6 +78,30 @@ public class MetricsPrometheusSerializer {
             appendMetric(sb, "monarch_jvm_gc_monitor_interval_seconds", labels, getDouble(gcData, "intervalSeconds"));
         }
 
+        Map<String, Object> trace = snapshot.getTraceMetrics();
+        if (!trace.isEmpty()) {
+            appendHelpType(sb, "monarch_trace_records_enqueued_total", "Trace records handed to the asynchronous trace writer", "counter");
+            appendMetric(sb, "monarch_trace_records_enqueued_total", null, getDouble(trace, "enqueued"));
+            appendHelpType(sb, "monarch_trace_records_dropped_total", "Trace records dropped by the trace backpressure policy", "counter");
+            appendMetric(sb, "monarch_trace_records_dropped_total", null, getDouble(trace, "dropped"));
+            appendHelpType(sb, "monarch_trace_buffer_pending", "Trace records waiting in the asynchronous trace buffer", "gauge");
+            appendMetric(sb, "monarch_trace_buffer_pending", null, getDouble(trace, "pending"));
+            appendHelpType(sb, "monarch_trace_buffer_capacity", "Capacity of the asynchronous trace buffer", "gauge");
+            appendMetric(sb, "monarch_trace_buffer_capacity", null, getDouble(trace, "capacity"));
+        }
+
+        Map<String, Object> traceBudget = snapshot.getTraceBudgetMetrics();
+        if (!traceBudget.isEmpty()) {
+            appendHelpType(sb, "monarch_trace_verbosity_level", "Trace verbosity level: 0 full, 1 no payloads, 2 sampled stacks, 3 paused", "gauge");
+            appendMetric(sb, "monarch_trace_verbosity_level", null, getDouble(traceBudget, "verbosityLevel"));
+            appendHelpType(sb, "monarch_trace_write_bytes_per_second", "Trace bytes written per second at the last budget check", "gauge");
+            appendMetric(sb, "monarch_trace_write_bytes_per_second", null, getDouble(traceBudget, "writeBytesPerSecond"));
+            appendHelpType(sb, "monarch_trace_disk_bytes", "Size of the current run's trace directory at the last budget check", "gauge");
+            appendMetric(sb, "monarch_trace_disk_bytes", null, getDouble(traceBudget, "diskBytes"));
+            appendHelpType(sb, "monarch_trace_verbosity_changes_total", "Trace verbosity level changes made by the trace budget", "counter");
+            appendMetric(sb, "monarch_trace_verbosity_changes_total", null, getDouble(traceBudget, "verbosityChanges"));
+        }
+
         appendHelpType(sb, "monarch_agent_info", "Agent info metric with static value 1", "gauge");
         appendMetric(sb, "monarch_agent_info", "agent=\"MonarchJavaAgent\"", 1);
         appendHelpType(sb, "monarch_scrape_timestamp_millis", "Current scrape timestamp in milliseconds", "gauge");
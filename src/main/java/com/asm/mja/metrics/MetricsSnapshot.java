@@ -17,6 +17,8 @@ public class MetricsSnapshot {
     private final Map<String, Object> cpuMetrics = new ConcurrentHashMap<>();
     private final Map<String, Object> threadMetrics = new ConcurrentHashMap<>();
     private final Map<String, Object> classLoaderMetrics = new ConcurrentHashMap<>();
+    private final Map<String, Object> traceMetrics = new ConcurrentHashMap<>();
+    private final Map<String, Object> traceBudgetMetrics = new ConcurrentHashMap<>();
 
     private MetricsSnapshot() {}
 
@@ -93,6 +95,28 @@ public class MetricsSnapshot {
         return new HashMap<>(classLoaderMetrics);
     }
 
+    public void updateTraceMetrics(long enqueued, long dropped, int pending, int capacity) {
+        traceMetrics.put("enqueued", enqueued);
+        traceMetrics.put("dropped", dropped);
+        traceMetrics.put("pending", pending);
+        traceMetrics.put("capacity", capacity);
+    }
+
+    public Map<String, Object> getTraceMetrics() {
+        return new HashMap<>(traceMetrics);
+    }
+
+    public void updateTraceBudgetMetrics(int verbosityLevel, long writeBytesPerSecond, long diskBytes, long verbosityChanges) {
+        traceBudgetMetrics.put("verbosityLevel", verbosityLevel);
+        traceBudgetMetrics.put("writeBytesPerSecond", writeBytesPerSecond);
+        traceBudgetMetrics.put("diskBytes", diskBytes);
+        traceBudgetMetrics.put("verbosityChanges", verbosityChanges);
+    }
+
+    public Map<String, Object> getTraceBudgetMetrics() {
+        return new HashMap<>(traceBudgetMetrics);
+    }
+
     public Map<String, Object> getAllMetrics() {
         Map<String, Object> allMetrics = new HashMap<>();
         allMetrics.put("gc", getGCMetrics());
@@ -100,6 +124,8 @@ public class MetricsSnapshot {
         allMetrics.put("cpu", getCPUMetrics());
         allMetrics.put("threads", getThreadMetrics());
         allMetrics.put("classLoader", getClassLoaderMetrics());
+        allMetrics.put("trace", getTraceMetrics());
+        allMetrics.put("traceBudget", getTraceBudgetMetrics());
         allMetrics.put("timestamp", System.currentTimeMillis());
         allMetrics.put("agent", "MonarchJavaAgent");
         return allMetrics;
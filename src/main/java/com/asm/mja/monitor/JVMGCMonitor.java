@@ -103,6 +103,7 @@ public class JVMGCMonitor extends AbstractMonitor {
                 double gcTimePercent = (totalGCTime * 100.0) / elapsedTime;
                 if (gcTimePercent > GC_TIME_THRESHOLD_PERCENT) {
                     logger.warn(String.format("High GC activity: %.2f%% time spent in GC", gcTimePercent));
+                    logger.triggerFlightRecorder(String.format("GC alert (%.2f%% time spent in GC)", gcTimePercent));
                     EmailUtils.sendGCAlert(gcTimePercent);
                 }
 
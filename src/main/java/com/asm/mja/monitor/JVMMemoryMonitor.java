@@ -52,6 +52,7 @@ public class JVMMemoryMonitor extends AbstractMonitor {
                 long threshold = (long) (max * MEMORY_THRESHOLD_PERCENT);
                 if(used > threshold) {
                     logger.warn("Memory usage exceeds 90% of max heap");
+                    logger.triggerFlightRecorder("heap alert (" + used + "MB of " + max + "MB used)");
                     sendHeapUsageAlert(String.valueOf(used));
                 }
 
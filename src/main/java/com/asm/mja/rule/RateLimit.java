@@ -0,0 +1,74 @@
+package com.asm.mja.rule;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Optional per-rule limit on probe hits, written as a {@code ::RATE[<permits>/<unit>]} rule suffix
+ * where the unit is {@code s}, {@code m} or {@code h}, for example {@code ::RATE[100/s]}.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class RateLimit {
+    private static final Pattern SPEC = Pattern.compile("\\s*(\\d+)\\s*/\\s*(s|sec|m|min|h|hour)\\s*");
+
+    private final long permits;
+    private final TimeUnit unit;
+
+    public RateLimit(long permits, TimeUnit unit) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Rate limit must allow at least one hit per " + unitSymbol(unit));
+        }
+        this.permits = permits;
+        this.unit = unit;
+    }
+
+    /**
+     * @param spec the bracket payload of a RATE suffix, such as {@code 100/s}.
+     */
+    public static RateLimit parse(String spec) {
+        Matcher matcher = SPEC.matcher(spec);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid rate limit, expected <count>/s, <count>/m or <count>/h: " + spec);
+        }
+        long permits;
+        try {
+            permits = Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate limit count: " + spec);
+        }
+        switch (matcher.group(2).charAt(0)) {
+            case 's':
+                return new RateLimit(permits, TimeUnit.SECONDS);
+            case 'm':
+                return new RateLimit(permits, TimeUnit.MINUTES);
+            default:
+                return new RateLimit(permits, TimeUnit.HOURS);
+        }
+    }
+
+    public long getPermits() {
+        return permits;
+    }
+
+    public TimeUnit getUnit() {
+        return unit;
+    }
+
+    public long getPeriodNanos() {
+        return unit.toNanos(1);
+    }
+
+    private static String unitSymbol(TimeUnit unit) {
+        if (unit == TimeUnit.SECONDS) {
+            return "s";
+        }
+        return unit == TimeUnit.MINUTES ? "m" : "h";
+    }
+
+    @Override
+    public String toString() {
+        return permits + "/" + unitSymbol(unit);
+    }
+}
@@ -20,6 +20,10 @@ public class Rule {
     private String replacementSourcePath;
 
     private String filterName;
+    private RateLimit rateLimit;
+    private boolean trigger;
+    private boolean critical;
+
     public Rule(String className, String methodName, Event event, Action action, int lineNumber) {
         this(className, methodName, event, action, null, lineNumber);
     }
@@ -107,6 +111,39 @@ public class Rule {
         return filterName;
     }
 
+    /**
+     * @return the rule's {@code ::RATE[...]} limit, or null when every hit is traced.
+     */
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * @return true if a hit on the rule dumps the flight recorder ({@code ::TRIGGER}).
+     */
+    public boolean isTrigger() {
+        return trigger;
+    }
+
+    public void setTrigger(boolean trigger) {
+        this.trigger = trigger;
+    }
+
+    /**
+     * @return true if the rule keeps tracing when the trace budget pauses other rules ({@code ::CRITICAL}).
+     */
+    public boolean isCritical() {
+        return critical;
+    }
+
+    public void setCritical(boolean critical) {
+        this.critical = critical;
+    }
+
     public boolean isClassReplacementRule() {
         return Event.CHANGE.equals(event);
     }
@@ -118,4 +155,13 @@ public class Rule {
     public String getReplacementSourcePath() {
         return replacementSourcePath;
     }
+
+    /**
+     * @return every setting that changes the code the rule weaves; rules with equal keys weave the same probes.
+     */
+    public String getKey() {
+        return className + "::" + methodName + '@' + event + "::" + action + '#' + lineNumber
+                + '#' + filterName + '#' + rateLimit + '#' + trigger + '#' + critical
+                + '#' + replacementSourceType + '#' + replacementSourcePath + '#' + customCode;
+    }
 }
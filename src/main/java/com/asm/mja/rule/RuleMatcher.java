@@ -0,0 +1,247 @@
+package com.asm.mja.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the instrumentation rules whose class pattern matches a class name, in one walk down a trie of the
+ * patterns: the cost of a lookup grows with the length of the class name, not with the number of rules.
+ *
+ * A pattern is an exact class name, or a prefix followed by {@code *}, which matches every class whose name starts
+ * with the prefix; {@code com.shop.orders.*} matches the package and its sub packages. Names are compared ignoring
+ * case, as the transformer always looked rules up, and {@code /} in internal names is read as {@code .}.
+ *
+ * No pattern matches the agent's own classes, which its probes run on and the transformer never changes. A wildcard
+ * never matches classes of the JDK either; an exact pattern still does.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class RuleMatcher {
+
+    private static final RuleMatcher EMPTY = new RuleMatcher(new Node(), Collections.<Rule, Integer>emptyMap());
+    private static final String AGENT_PACKAGE = "com.asm.mja.";
+    private static final String[] UNMATCHED_BY_WILDCARDS = {"java.", "javax.", "jdk.", "sun.", "com.sun.", AGENT_PACKAGE};
+
+    private final Node root;
+    /** Position of every rule in the configuration, which rules matched through several patterns are sorted by. */
+    private final Map<Rule, Integer> order;
+
+    private RuleMatcher(Node root, Map<Rule, Integer> order) {
+        this.root = root;
+        this.order = order;
+    }
+
+    /**
+     * @param rules instrumentation rules; class replacement rules are ignored.
+     */
+    public static RuleMatcher compile(List<Rule> rules) {
+        Node root = new Node();
+        Map<Rule, Integer> order = new IdentityHashMap<>();
+        for (Rule rule : rules) {
+            if (rule.isClassReplacementRule() || rule.getClassName() == null) {
+                continue;
+            }
+            String pattern = rule.getClassName();
+            boolean wildcard = isPattern(pattern);
+            int length = wildcard ? pattern.length() - 1 : pattern.length();
+            Node node = root;
+            for (int i = 0; i < length; i++) {
+                node = node.childFor(fold(pattern.charAt(i)));
+            }
+            node.add(rule, wildcard);
+            order.put(rule, order.size());
+        }
+        if (order.isEmpty()) {
+            return EMPTY;
+        }
+        root.freeze();
+        return new RuleMatcher(root, order);
+    }
+
+    /**
+     * @return true if the class or method pattern ends with a wildcard.
+     */
+    public static boolean isPattern(String pattern) {
+        return pattern != null && pattern.endsWith("*");
+    }
+
+    /**
+     * Checks a class or method pattern: only a trailing {@code *} is supported.
+     *
+     * @throws IllegalArgumentException if a {@code *} appears anywhere else.
+     */
+    static void validate(String pattern, String what) {
+        int star = pattern.indexOf('*');
+        if (star >= 0 && star != pattern.length() - 1) {
+            throw new IllegalArgumentException("A " + what + " pattern may only end with '*': " + pattern);
+        }
+    }
+
+    /**
+     * @return true if {@code name} matches {@code pattern}, an exact name or a prefix followed by {@code *}; case matters.
+     */
+    public static boolean matchesName(String pattern, String name) {
+        if (isPattern(pattern)) {
+            return name.regionMatches(0, pattern, 0, pattern.length() - 1);
+        }
+        return name.equals(pattern);
+    }
+
+    /**
+     * @param className a binary or internal class name.
+     * @return true if the class belongs to the agent, which no rule applies to.
+     */
+    public static boolean isAgentClass(String className) {
+        return startsWith(className, AGENT_PACKAGE);
+    }
+
+    /**
+     * @return true if no rule was compiled.
+     */
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    /**
+     * @param className a binary name such as {@code com.shop.Orders} or an internal name such as {@code com/shop/Orders}.
+     * @return the matching rules in configuration order; an empty list, allocated once, if none match.
+     */
+    public List<Rule> match(String className) {
+        List<Rule> first = null;
+        List<Rule> merged = null;
+        int protectedName = -1;
+        Node node = root;
+        int length = className.length();
+        for (int i = 0; node != null; i++) {
+            if (node.wildcardRules != null) {
+                if (protectedName < 0) {
+                    protectedName = isUnmatchedByWildcards(className) ? 1 : 0;
+                }
+                if (protectedName == 0) {
+                    if (first == null) {
+                        first = node.wildcardRules;
+                    } else {
+                        merged = merge(merged, first, node.wildcardRules);
+                    }
+                }
+            }
+            if (i == length) {
+                if (node.exactRules != null && !isAgentClass(className)) {
+                    if (first == null) {
+                        first = node.exactRules;
+                    } else {
+                        merged = merge(merged, first, node.exactRules);
+                    }
+                }
+                break;
+            }
+            node = node.child(fold(className.charAt(i)));
+        }
+        if (merged != null) {
+            merged.sort(Comparator.comparingInt(order::get));
+            return Collections.unmodifiableList(merged);
+        }
+        return first != null ? first : Collections.<Rule>emptyList();
+    }
+
+    private static List<Rule> merge(List<Rule> merged, List<Rule> first, List<Rule> more) {
+        if (merged == null) {
+            merged = new ArrayList<>(first);
+        }
+        merged.addAll(more);
+        return merged;
+    }
+
+    private static boolean isUnmatchedByWildcards(String className) {
+        for (String prefix : UNMATCHED_BY_WILDCARDS) {
+            if (startsWith(className, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(String className, String prefix) {
+        if (className.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (fold(className.charAt(i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char fold(char c) {
+        return c == '/' ? '.' : Character.toLowerCase(c);
+    }
+
+    /**
+     * A trie node; children are kept sorted by character and found by binary search.
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        /** Rules whose pattern ends here, and those whose pattern's prefix before {@code *} ends here. */
+        private List<Rule> exactRules;
+        private List<Rule> wildcardRules;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childFor(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            Node child = new Node();
+            newChildren[insertAt] = child;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        void freeze() {
+            if (exactRules != null) {
+                exactRules = Collections.unmodifiableList(exactRules);
+            }
+            if (wildcardRules != null) {
+                wildcardRules = Collections.unmodifiableList(wildcardRules);
+            }
+            for (Node child : children) {
+                child.freeze();
+            }
+        }
+
+        void add(Rule rule, boolean wildcard) {
+            if (wildcard) {
+                if (wildcardRules == null) {
+                    wildcardRules = new ArrayList<>();
+                }
+                wildcardRules.add(rule);
+            } else {
+                if (exactRules == null) {
+                    exactRules = new ArrayList<>();
+                }
+                exactRules.add(rule);
+            }
+        }
+    }
+}
@@ -18,6 +18,9 @@ public class RuleParser {
 
     private static final Pattern pattern = Pattern.compile("\\((\\d+)\\)");
     private static final Pattern addPattern = Pattern.compile("\\[([^]]+)\\]");
+    private static final Pattern ratePattern = Pattern.compile("::RATE\\[([^]]*)\\]\\s*$");
+    private static final Pattern triggerPattern = Pattern.compile("::TRIGGER\\s*$");
+    private static final Pattern criticalPattern = Pattern.compile("::CRITICAL\\s*$");
     private static final String monarchPackage = "com.asm.mja";
 
     public static List<Rule> parseRules(List<String> rules) {
@@ -50,6 +53,35 @@ public class RuleParser {
     }
 
     private static Rule parseSingleRule(String rule) {
+        Matcher criticalMatcher = criticalPattern.matcher(rule);
+        if (criticalMatcher.find()) {
+            Rule parsed = parseSingleRule(rule.substring(0, criticalMatcher.start()));
+            if (parsed.isClassReplacementRule()) {
+                throw new IllegalArgumentException("CRITICAL is not supported for CHANGE rules: " + rule);
+            }
+            parsed.setCritical(true);
+            return parsed;
+        }
+        Matcher triggerMatcher = triggerPattern.matcher(rule);
+        if (triggerMatcher.find()) {
+            Rule parsed = parseSingleRule(rule.substring(0, triggerMatcher.start()));
+            if (parsed.isClassReplacementRule()) {
+                throw new IllegalArgumentException("TRIGGER is not supported for CHANGE rules: " + rule);
+            }
+            parsed.setTrigger(true);
+            return parsed;
+        }
+        Matcher rateMatcher = ratePattern.matcher(rule);
+        if (rateMatcher.find()) {
+            RateLimit rateLimit = RateLimit.parse(rateMatcher.group(1));
+            Rule parsed = parseSingleRule(rule.substring(0, rateMatcher.start()));
+            if (parsed.isClassReplacementRule()) {
+                throw new IllegalArgumentException("RATE is not supported for CHANGE rules: " + rule);
+            }
+            parsed.setRateLimit(rateLimit);
+            return parsed;
+        }
+
         String[] parts = rule.split("::|@");
 
         if (parts.length < 2) {
@@ -72,11 +104,16 @@ public class RuleParser {
         }
 
         String methodName = parts[1];
+        RuleMatcher.validate(className, "class");
+        RuleMatcher.validate(methodName, "method");
         String eventString = parts[2];
         Event event;
         int lineNumber = 0;
         if (eventString.startsWith("CODEPOINT")) {
             event = Event.CODEPOINT;
+            if (RuleMatcher.isPattern(methodName)) {
+                throw new IllegalArgumentException("CODEPOINT rules need an exact method name, as a line belongs to one method: " + rule);
+            }
             Matcher matcher = pattern.matcher(eventString);
             if (matcher.find()) {
                 lineNumber = Integer.parseInt(matcher.group(1));
@@ -0,0 +1,50 @@
+package com.asm.mja.tools;
+
+import com.asm.mja.logging.SocketEndpoint;
+import com.asm.mja.logging.TraceSocketCollector;
+import org.apache.commons.cli.*;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Reference collector for the socket trace sink ({@code trace.sink: socket}). Listens on a TCP address
+ * or a Unix domain socket (Java 16+) and appends every complete trace line it receives to a file or
+ * standard output.
+ *
+ * <pre>
+ * java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceCollectorCLI [-out file] (host:port | unix:/path/to/socket)
+ * </pre>
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceCollectorCLI {
+    public static void main(String[] args) {
+        Options options = new Options();
+        options.addOption("out", true, "File to append received trace lines to (default: standard output)");
+
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine cmd = parser.parse(options, args);
+            if (cmd.getArgList().size() != 1) {
+                throw new ParseException("Exactly one listen address is required");
+            }
+            SocketEndpoint endpoint = SocketEndpoint.parse(cmd.getArgList().get(0));
+            String outFile = cmd.getOptionValue("out");
+            OutputStream out = outFile == null ? System.out : new FileOutputStream(outFile, true);
+            try (TraceSocketCollector collector = new TraceSocketCollector(endpoint, out)) {
+                System.err.println("Collecting trace records on " + endpoint);
+                collector.run();
+            }
+        } catch (ParseException | IllegalArgumentException e) {
+            System.err.println("Error parsing command-line arguments: " + e.getMessage());
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp("java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceCollectorCLI [options] <host:port | unix:path>", options);
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Error while collecting trace records: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
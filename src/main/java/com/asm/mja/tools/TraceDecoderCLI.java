@@ -0,0 +1,101 @@
+package com.asm.mja.tools;
+
+import com.asm.mja.logging.BinaryTraceDecoder;
+import org.apache.commons.cli.*;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command-line decoder for binary trace files ({@code agent.trace.bin} and its segments).
+ *
+ * Files are decoded in the order given, so rolled segments can be passed oldest first;
+ * gzip-compressed segments ({@code .gz}) are decompressed on the fly.
+ *
+ * <pre>
+ * java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceDecoderCLI [-format text|json] [-out file] trace.bin...
+ * </pre>
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceDecoderCLI {
+    public static void main(String[] args) {
+        int exitCode = 0;
+        Options options = new Options();
+        options.addOption("format", true, "Output format: text (default) or json");
+        options.addOption("out", true, "Output file (default: standard output)");
+
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine cmd = parser.parse(options, args);
+            List<String> inputs = cmd.getArgList();
+            if (inputs.isEmpty()) {
+                throw new ParseException("At least one binary trace file is required");
+            }
+            BinaryTraceDecoder.Output output = parseOutput(cmd.getOptionValue("format", "text"));
+            decode(inputs, output, cmd.getOptionValue("out"));
+        } catch (ParseException e) {
+            System.err.println("Error parsing command-line arguments: " + e.getMessage());
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp("java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceDecoderCLI [options] <trace.bin>...", options);
+            exitCode = 1;
+        } catch (Exception e) {
+            System.err.println("Error while decoding binary trace: " + e.getMessage());
+            exitCode = 1;
+        }
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    private static BinaryTraceDecoder.Output parseOutput(String value) throws ParseException {
+        for (BinaryTraceDecoder.Output output : BinaryTraceDecoder.Output.values()) {
+            if (output.name().equalsIgnoreCase(value)) {
+                return output;
+            }
+        }
+        throw new ParseException("Unsupported output format - " + value);
+    }
+
+    /**
+     * Decodes the given files, in order, into one text or JSON-lines stream.
+     *
+     * @param inputs  Binary trace files or segments, oldest first.
+     * @param output  Output encoding.
+     * @param outFile Output file, or null for standard output.
+     * @throws IOException If a file cannot be read or is not a binary trace.
+     */
+    static void decode(List<String> inputs, BinaryTraceDecoder.Output output, String outFile) throws IOException {
+        BinaryTraceDecoder decoder = new BinaryTraceDecoder(output);
+        OutputStream out = new BufferedOutputStream(outFile == null ? System.out : new FileOutputStream(outFile), 64 * 1024);
+        try {
+            for (String input : inputs) {
+                try (InputStream in = open(input)) {
+                    decoder.decode(in, out);
+                }
+                if (decoder.isTruncated()) {
+                    System.err.println("Warning: " + input + " ends with an incomplete entry, which was skipped");
+                }
+            }
+        } finally {
+            if (outFile == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        }
+        System.err.println("Decoded " + decoder.getRecordCount() + " trace records");
+    }
+
+    private static InputStream open(String input) throws IOException {
+        InputStream in = new FileInputStream(input);
+        return input.endsWith(".gz") ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+}
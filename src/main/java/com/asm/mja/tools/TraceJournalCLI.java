@@ -0,0 +1,87 @@
+package com.asm.mja.tools;
+
+import com.asm.mja.logging.ProbeJournalReader;
+import org.apache.commons.cli.*;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Command-line reader for the crash-survivable trace journal ({@code agent.journal}).
+ *
+ * Dumps the journaled records, oldest first, and reports whether the agent closed the journal
+ * or its process ended abruptly.
+ *
+ * <pre>
+ * java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceJournalCLI [-out file] agent.journal
+ * </pre>
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceJournalCLI {
+    public static void main(String[] args) {
+        int exitCode = 0;
+        Options options = new Options();
+        options.addOption("out", true, "Output file (default: standard output)");
+
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine cmd = parser.parse(options, args);
+            List<String> inputs = cmd.getArgList();
+            if (inputs.size() != 1) {
+                throw new ParseException("Exactly one journal file is required");
+            }
+            dump(inputs.get(0), cmd.getOptionValue("out"));
+        } catch (ParseException e) {
+            System.err.println("Error parsing command-line arguments: " + e.getMessage());
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp("java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceJournalCLI [options] <agent.journal>", options);
+            exitCode = 1;
+        } catch (Exception e) {
+            System.err.println("Error while reading trace journal: " + e.getMessage());
+            exitCode = 1;
+        }
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    /**
+     * Copies the journaled records to a file or standard output and prints a summary to standard error.
+     *
+     * @param input   Journal file.
+     * @param outFile Output file, or null for standard output.
+     * @throws IOException If the journal cannot be read.
+     */
+    static void dump(String input, String outFile) throws IOException {
+        ProbeJournalReader reader = new ProbeJournalReader();
+        OutputStream out = new BufferedOutputStream(outFile == null ? System.out : new FileOutputStream(outFile), 64 * 1024);
+        try {
+            reader.read(Paths.get(input), out);
+        } finally {
+            if (outFile == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        }
+        if (reader.getFrameCount() == 0) {
+            System.err.println("The journal is empty");
+        } else {
+            System.err.println("Read " + reader.getFrameCount() + " journal entries (sequence "
+                    + reader.getFirstSequence() + "-" + reader.getLastSequence() + ")"
+                    + (reader.getFirstSequence() > 1 ? "; " + (reader.getFirstSequence() - 1) + " older entries were overwritten" : ""));
+        }
+        if (reader.isTruncated()) {
+            System.err.println("Warning: the journal ends with a damaged entry, which was skipped");
+        }
+        System.err.println(reader.isClosedCleanly()
+                ? "The agent closed the journal normally"
+                : "The journal was not closed: the agent is still running or its process ended abruptly");
+    }
+}
@@ -0,0 +1,94 @@
+package com.asm.mja.tools;
+
+import com.asm.mja.logging.TraceShardMerger;
+import org.apache.commons.cli.*;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line merger for sharded trace files ({@code trace.shardBy: thread|threadGroup}).
+ *
+ * Shards are merged by record timestamp into one text trace (JSON-lines shards into JSON lines). A directory argument
+ * expands to every shard file it contains; text and binary shards may be mixed.
+ *
+ * <pre>
+ * java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceMergeCLI [-out file] (trace-dir | shard...)
+ * </pre>
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceMergeCLI {
+    public static void main(String[] args) {
+        int exitCode = 0;
+        Options options = new Options();
+        options.addOption("out", true, "Output file (default: <dir>/agent.trace.merged for a directory, otherwise standard output)");
+
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine cmd = parser.parse(options, args);
+            List<String> inputs = cmd.getArgList();
+            if (inputs.isEmpty()) {
+                throw new ParseException("A trace directory or at least one shard file is required");
+            }
+            String outFile = cmd.getOptionValue("out");
+            if (outFile == null && inputs.size() == 1 && Files.isDirectory(Paths.get(inputs.get(0)))) {
+                outFile = Paths.get(inputs.get(0), "agent.trace.merged").toString();
+            }
+            merge(inputs, outFile);
+        } catch (ParseException e) {
+            System.err.println("Error parsing command-line arguments: " + e.getMessage());
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp("java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceMergeCLI [options] <trace-dir | shard...>", options);
+            exitCode = 1;
+        } catch (Exception e) {
+            System.err.println("Error while merging trace shards: " + e.getMessage());
+            exitCode = 1;
+        }
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    /**
+     * Merges the shards named by {@code inputs} into one time-ordered text trace.
+     *
+     * @param inputs  Shard files, or directories containing them.
+     * @param outFile Output file, or null for standard output.
+     * @throws IOException If a shard cannot be read.
+     */
+    static void merge(List<String> inputs, String outFile) throws IOException {
+        List<Path> shards = new ArrayList<>();
+        for (String input : inputs) {
+            Path path = Paths.get(input);
+            if (Files.isDirectory(path)) {
+                shards.addAll(TraceShardMerger.findShards(path));
+            } else {
+                shards.add(path);
+            }
+        }
+        if (shards.isEmpty()) {
+            throw new IOException("No trace shards found in " + inputs);
+        }
+        long records;
+        OutputStream out = new BufferedOutputStream(outFile == null ? System.out : new FileOutputStream(outFile), 64 * 1024);
+        try {
+            records = TraceShardMerger.merge(shards, out);
+        } finally {
+            if (outFile == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        }
+        System.err.println("Merged " + records + " trace records from " + shards.size() + " shards");
+    }
+}
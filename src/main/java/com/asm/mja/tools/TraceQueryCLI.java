@@ -0,0 +1,123 @@
+package com.asm.mja.tools;
+
+import com.asm.mja.logging.TraceIndexReader;
+import com.asm.mja.logging.TraceQuery;
+import org.apache.commons.cli.*;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Command-line query over an indexed text or JSON trace file ({@code agent.trace} with {@code agent.trace.idx}).
+ *
+ * Prints the records between {@code -from} (inclusive) and {@code -to} (exclusive), optionally only those of
+ * one probe site, seeking to the parts of the trace the index points at instead of reading all of it.
+ * Times are {@code HH:mm[:ss[.SSS]]} on the day the trace starts, {@code yyyy-MM-dd HH:mm[:ss[.SSS]]}, or
+ * epoch milliseconds, in the local time zone.
+ *
+ * <pre>
+ * java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceQueryCLI -from 10:02 -to 10:05 -method OrderService.place -action RET agent.trace
+ * </pre>
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceQueryCLI {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm[:ss[.SSS]]");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss[.SSS]]");
+
+    public static void main(String[] args) {
+        int exitCode = 0;
+        Options options = new Options();
+        options.addOption("from", true, "Start of the time range, inclusive (default: start of the trace)");
+        options.addOption("to", true, "End of the time range, exclusive (default: end of the trace)");
+        options.addOption("method", true, "Probe site as Class.method, fully qualified or simple class name, or method alone");
+        options.addOption("event", true, "Probe event, e.g. INGRESS, EGRESS or PROFILE");
+        options.addOption("action", true, "Probe action, e.g. ARGS, RET or STACK");
+        options.addOption("index", true, "Index file (default: <trace>.idx)");
+        options.addOption("out", true, "Output file (default: standard output)");
+
+        CommandLineParser parser = new DefaultParser();
+        try {
+            CommandLine cmd = parser.parse(options, args);
+            List<String> inputs = cmd.getArgList();
+            if (inputs.size() != 1) {
+                throw new ParseException("Exactly one trace file is required");
+            }
+            Path trace = Paths.get(inputs.get(0));
+            Path index = cmd.hasOption("index") ? Paths.get(cmd.getOptionValue("index")) : Paths.get(trace + ".idx");
+            query(trace, index, cmd);
+        } catch (ParseException e) {
+            System.err.println("Error parsing command-line arguments: " + e.getMessage());
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp("java -cp MonarchJavaAgent.jar com.asm.mja.tools.TraceQueryCLI [options] <agent.trace>", options);
+            exitCode = 1;
+        } catch (Exception e) {
+            System.err.println("Error while querying trace: " + e.getMessage());
+            exitCode = 1;
+        }
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    private static void query(Path trace, Path indexFile, CommandLine cmd) throws IOException, ParseException {
+        TraceIndexReader index = new TraceIndexReader();
+        index.read(indexFile);
+        LocalDate day = Instant.ofEpochMilli(index.getFirstTimestamp()).atZone(ZoneId.systemDefault()).toLocalDate();
+        long from = cmd.hasOption("from") ? parseTime(cmd.getOptionValue("from"), day) : Long.MIN_VALUE;
+        long to = cmd.hasOption("to") ? parseTime(cmd.getOptionValue("to"), day) : Long.MAX_VALUE;
+        TraceQuery query = new TraceQuery(index, from, to,
+                cmd.getOptionValue("method"), cmd.getOptionValue("event"), cmd.getOptionValue("action"));
+
+        String outFile = cmd.getOptionValue("out");
+        OutputStream out = new BufferedOutputStream(outFile == null ? System.out : new FileOutputStream(outFile), 64 * 1024);
+        try {
+            query.run(trace, out);
+        } finally {
+            if (outFile == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        }
+        System.err.println("Matched " + query.getMatchedCount() + " records; read " + query.getBytesRead()
+                + " of " + query.getTraceSize() + " bytes (" + query.getBlocksRead() + " of " + index.getBlockCount()
+                + " indexed blocks, " + query.getUnindexedBytes() + " unindexed bytes)");
+        if (index.isTruncated()) {
+            System.err.println("Warning: the index ends with an incomplete entry, which was skipped");
+        }
+    }
+
+    /**
+     * @param day the date of times given without one.
+     * @return epoch milliseconds.
+     */
+    static long parseTime(String value, LocalDate day) throws ParseException {
+        String trimmed = value.trim();
+        try {
+            if (trimmed.matches("\\d{9,}")) {
+                return Long.parseLong(trimmed);
+            }
+            LocalDateTime time = trimmed.length() > 12
+                    ? LocalDateTime.parse(trimmed.replace('T', ' '), DATE_TIME)
+                    : LocalTime.parse(trimmed, TIME).atDate(day);
+            return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new ParseException("Invalid time " + value + "; use HH:mm[:ss[.SSS]], yyyy-MM-dd HH:mm[:ss[.SSS]] or epoch milliseconds");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.asm.mja.transformer;
 
+import com.asm.mja.rule.RateLimit;
+
 /**
  * Carries rule execution context for action handlers.
  * @author ashut
@@ -12,25 +14,50 @@ public class ActionExecution {
     private final String customCode;
     private final String filterName;
     private final String formattedClassName;
-    private final byte[] modifiedBytes;
     private final int lineNumber;
+    private final RateLimit rateLimit;
+    private final boolean trigger;
+    private final boolean critical;
+    private final int switchId;
+
+    public ActionExecution(String methodName,
+                           Event event,
+                           Action action,
+                           String customCode,
+                           String filterName,
+                           String formattedClassName,
+                           int lineNumber,
+                           RateLimit rateLimit,
+                           boolean trigger,
+                           boolean critical) {
+        this(methodName, event, action, customCode, filterName, formattedClassName, lineNumber, rateLimit, trigger, critical, -1);
+    }
 
+    /**
+     * @param switchId the rule's {@code ProbeSwitches} id, or -1 for probes that cannot be switched off.
+     */
     public ActionExecution(String methodName,
                            Event event,
                            Action action,
                            String customCode,
                            String filterName,
                            String formattedClassName,
-                           byte[] modifiedBytes,
-                           int lineNumber) {
+                           int lineNumber,
+                           RateLimit rateLimit,
+                           boolean trigger,
+                           boolean critical,
+                           int switchId) {
         this.methodName = methodName;
         this.event = event;
         this.action = action;
         this.customCode = customCode;
         this.filterName = filterName;
         this.formattedClassName = formattedClassName;
-        this.modifiedBytes = modifiedBytes;
         this.lineNumber = lineNumber;
+        this.rateLimit = rateLimit;
+        this.trigger = trigger;
+        this.critical = critical;
+        this.switchId = switchId;
     }
 
     public String getMethodName() {
@@ -57,11 +84,23 @@ public class ActionExecution {
         return formattedClassName;
     }
 
-    public byte[] getModifiedBytes() {
-        return modifiedBytes;
-    }
-
     public int getLineNumber() {
         return lineNumber;
     }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public boolean isTrigger() {
+        return trigger;
+    }
+
+    public boolean isCritical() {
+        return critical;
+    }
+
+    public int getSwitchId() {
+        return switchId;
+    }
 }
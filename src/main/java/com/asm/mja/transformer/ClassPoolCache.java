@@ -0,0 +1,98 @@
+package com.asm.mja.transformer;
+
+import javassist.ClassPool;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Javassist class pools, one per class loader that defines instrumented classes.
+ *
+ * Every pool looks classes up through its loader first, so it can define a class the system class path also
+ * holds, and then through a shared root pool, which holds the system class path and, when the agent was
+ * attached on JDK 9 or later, the agent jar. The root's class path is set up once instead of being appended
+ * again on every transformation.
+ *
+ * Pools are held weakly by their loader, so they are dropped once the loader is collected; a pool does not
+ * reference its loader strongly, {@link LoaderClassPath} holds it through a weak reference. A pool also caches
+ * every class its snippets referenced, so it is replaced after {@link #MAX_TRANSFORMS_PER_POOL} transformations.
+ *
+ * A pool is not safe to modify from two threads at once: callers synchronize on the pool returned by
+ * {@link #get(ClassLoader)} while they use it. Classes of different loaders are then transformed in parallel.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class ClassPoolCache {
+
+    static final int MAX_TRANSFORMS_PER_POOL = 500;
+    private static final boolean isJdk9OrLater = Integer.parseInt(System.getProperty("java.version").split("\\.")[0]) >= 9;
+
+    private final boolean attached;
+    private final String agentAbsolutePath;
+    private final Map<ClassLoader, Entry> pools = new WeakHashMap<>();
+    private ClassPool root;
+
+    /**
+     * @param mode              "attachVM" when the agent was loaded into a running JVM.
+     * @param agentAbsolutePath the agent jar, added to the root pool in attach mode.
+     */
+    ClassPoolCache(String mode, String agentAbsolutePath) {
+        this.attached = "attachVM".equals(mode);
+        this.agentAbsolutePath = agentAbsolutePath;
+    }
+
+    /**
+     * Returns the pool for classes defined by the given loader; the root pool for the bootstrap loader.
+     *
+     * @param loader The defining class loader, null for the bootstrap loader.
+     * @return The pool, to be synchronized on while it is used.
+     * @throws NotFoundException If the agent jar cannot be added to the root pool.
+     */
+    synchronized ClassPool get(ClassLoader loader) throws NotFoundException {
+        ClassPool rootPool = getRoot();
+        if (loader == null) {
+            return rootPool;
+        }
+        Entry entry = pools.get(loader);
+        if (entry == null || entry.transforms >= MAX_TRANSFORMS_PER_POOL) {
+            ClassPool pool = new ClassPool(rootPool);
+            pool.childFirstLookup = true;
+            pool.appendClassPath(new LoaderClassPath(loader));
+            entry = new Entry(pool);
+            pools.put(loader, entry);
+        }
+        entry.transforms++;
+        return entry.pool;
+    }
+
+    /**
+     * @return The number of class loaders that have a pool and have not been collected.
+     */
+    synchronized int size() {
+        return pools.size();
+    }
+
+    private ClassPool getRoot() throws NotFoundException {
+        if (root == null) {
+            ClassPool pool = new ClassPool(true);
+            if (isJdk9OrLater && attached) {
+                pool.appendClassPath(agentAbsolutePath);
+                pool.appendClassPath(new LoaderClassPath(ClassLoader.getSystemClassLoader()));
+            }
+            root = pool;
+        }
+        return root;
+    }
+
+    private static final class Entry {
+        private final ClassPool pool;
+        private int transforms;
+
+        private Entry(ClassPool pool) {
+            this.pool = pool;
+        }
+    }
+}
@@ -4,15 +4,20 @@ import com.asm.mja.config.Config;
 import com.asm.mja.exception.BackupCreationException;
 import com.asm.mja.exception.TransformException;
 import com.asm.mja.exception.UnsupportedActionException;
+import com.asm.mja.logging.ProbeSwitches;
 import com.asm.mja.logging.TraceFileLogger;
 import com.asm.mja.rule.Rule;
+import com.asm.mja.rule.RuleMatcher;
+import com.asm.mja.transformer.asm.AsmClassTransformer;
 import com.asm.mja.transformer.handlers.*;
+import com.asm.mja.utils.ByteCodeUtils;
 import com.asm.mja.utils.ClassLoaderTracer;
 import javassist.CannotCompileException;
 import javassist.ClassPool;
-import javassist.LoaderClassPath;
+import javassist.CtClass;
 import javassist.NotFoundException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
@@ -36,17 +41,16 @@ public class GlobalTransformer implements ClassFileTransformer {
 
     private Config config;
     private List<Rule> rules;
-    private Map<String, List<Rule>> rulesByClassName = new ConcurrentHashMap<>();
+    private volatile RuleMatcher ruleMatcher = RuleMatcher.compile(Collections.<Rule>emptyList());
     private final TraceFileLogger logger;
     private final Set<String> classesTransformed = ConcurrentHashMap.newKeySet();
     private final Set<String> backupSet = ConcurrentHashMap.newKeySet();
     private static final String MJA_PACKAGE = "com/asm/mja";
-    private final String mode;
-    private final String agentAbsolutePath;
-    private static final boolean isJdk9OrLater = Integer.parseInt(System.getProperty("java.version").split("\\.")[0]) >= 9;
+    private final ClassPoolCache classPools;
 
     private final Map<Action, ActionHandler> actionHandlers = new EnumMap<>(Action.class);
     private final ActionHandler profileActionHandler;
+    private final AsmClassTransformer asmTransformer;
 
     public void resetConfig(Config config) {
         this.config = config;
@@ -61,16 +65,15 @@ public class GlobalTransformer implements ClassFileTransformer {
         this.config = config;
         this.logger = logger;
         setRules(rules);
-        this.mode = mode;
-        this.agentAbsolutePath = agentAbsolutePath;
-
-        ClassPoolProvider classPoolProvider = this::getClassPool;
-        actionHandlers.put(Action.ARGS, new ArgsActionHandler(classPoolProvider));
-        actionHandlers.put(Action.STACK, new StackActionHandler(classPoolProvider));
-        actionHandlers.put(Action.HEAP, new HeapActionHandler(classPoolProvider));
-        actionHandlers.put(Action.RET, new ReturnActionHandler(classPoolProvider, logger));
-        actionHandlers.put(Action.ADD, new CustomCodeActionHandler(classPoolProvider));
-        profileActionHandler = new ProfileActionHandler(classPoolProvider);
+        this.classPools = new ClassPoolCache(mode, agentAbsolutePath);
+
+        actionHandlers.put(Action.ARGS, new ArgsActionHandler());
+        actionHandlers.put(Action.STACK, new StackActionHandler());
+        actionHandlers.put(Action.HEAP, new HeapActionHandler());
+        actionHandlers.put(Action.RET, new ReturnActionHandler(logger));
+        actionHandlers.put(Action.ADD, new CustomCodeActionHandler());
+        profileActionHandler = new ProfileActionHandler();
+        asmTransformer = new AsmClassTransformer(logger);
     }
 
     /**
@@ -86,7 +89,6 @@ public class GlobalTransformer implements ClassFileTransformer {
      */
     public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
                             ProtectionDomain protectionDomain, byte[] classfileBuffer) throws IllegalClassFormatException {
-        String safeClassName = className == null ? "<null>" : className.replace("/", ".");
         try {
             if (className == null) {
                 logger.warn("Received null className during transformation. Loader: " + loader);
@@ -97,32 +99,34 @@ public class GlobalTransformer implements ClassFileTransformer {
                     !className.startsWith("sun/") && !className.startsWith("javax/") && !className.startsWith(MJA_PACKAGE)) {
                 logger.trace(ClassLoaderTracer.printClassInfo(className, loader, protectionDomain));
             }
-            if (rules.isEmpty()) {
+            if (className.startsWith(MJA_PACKAGE)) {
                 return classfileBuffer;
             }
 
-            String formattedClassName = className.replace("/", ".");
-            List<Rule> appropriateRules = getAppropriateRules(formattedClassName);
-            boolean needsInstrumentation = !appropriateRules.isEmpty();
-            if (needsInstrumentation) {
-                if (!backupSet.contains(formattedClassName)) {
-                    backupByteCode(formattedClassName, classfileBuffer, logger.getTraceDir());
-                }
-                return transformClass(formattedClassName, classfileBuffer, appropriateRules);
+            // every class the JVM loads passes here: look the internal name up as it is, the matcher reads '/' as '.',
+            // so a class no rule targets is turned away without a single allocation
+            List<Rule> appropriateRules = ruleMatcher.match(className);
+            if (appropriateRules.isEmpty()) {
+                return classfileBuffer;
             }
+
+            String formattedClassName = className.replace('/', '.');
+            if (!backupSet.contains(formattedClassName)) {
+                backupByteCode(formattedClassName, classfileBuffer, logger.getTraceDir());
+            }
+            return transformClass(loader, formattedClassName, classfileBuffer, appropriateRules);
         } catch (TransformException e) {
-            logger.error("Failed to transform class " + safeClassName, e);
+            logger.error("Failed to transform class " + binaryName(className), e);
         } catch (BackupCreationException e) {
-            logger.error("Failed to back up bytecode for class " + safeClassName + ", won't go ahead with the transformation", e);
+            logger.error("Failed to back up bytecode for class " + binaryName(className) + ", won't go ahead with the transformation", e);
         } catch (Throwable t) {
-            logger.error("Unexpected transformer error for class " + safeClassName + "; returning original bytecode. Reason: " + t.getMessage());
+            logger.error("Unexpected transformer error for class " + binaryName(className) + "; returning original bytecode. Reason: " + t.getMessage());
         }
         return classfileBuffer;
     }
 
-    private List<Rule> getAppropriateRules(String formattedClassName) {
-        List<Rule> result = rulesByClassName.get(formattedClassName.toLowerCase());
-        return result != null ? result : Collections.emptyList();
+    private static String binaryName(String className) {
+        return className == null ? "<null>" : className.replace('/', '.');
     }
 
     public void resetClassesTransformed() {
@@ -131,19 +135,14 @@ public class GlobalTransformer implements ClassFileTransformer {
 
     public void resetRules() {
         this.rules.clear();
-        this.rulesByClassName.clear();
+        this.ruleMatcher = RuleMatcher.compile(Collections.<Rule>emptyList());
     }
 
     public void setRules(List<Rule> rules) {
         this.rules = rules.stream()
                 .filter(rule -> !rule.isClassReplacementRule())
                 .collect(Collectors.toList());
-        Map<String, List<Rule>> newMap = new ConcurrentHashMap<>();
-        for (Rule rule : this.rules) {
-            String className = rule.getClassName().toLowerCase();
-            newMap.computeIfAbsent(className, k -> new ArrayList<>()).add(rule);
-        }
-        this.rulesByClassName = newMap;
+        this.ruleMatcher = RuleMatcher.compile(this.rules);
     }
 
     private void backupByteCode(String formattedClassName, byte[] classFileBuffer, String traceDir) throws BackupCreationException {
@@ -166,7 +165,12 @@ public class GlobalTransformer implements ClassFileTransformer {
         }
     }
 
-    private byte[] transformClass(String formattedClassName, byte[] modifiedBytes, List<Rule> rules) throws TransformException {
+    /**
+     * Parses the class once, applies every rule to it and writes it once, so the class loader waits for one
+     * parse and one compilation however many rules match. With the ASM engine, the rules it supports are
+     * applied in one more pass after the ADD rules, which Javassist still compiles.
+     */
+    private byte[] transformClass(ClassLoader loader, String formattedClassName, byte[] classfileBuffer, List<Rule> rules) throws TransformException {
         if (classesTransformed.contains(formattedClassName)) {
             logger.trace("Re-transforming class " + formattedClassName);
         } else {
@@ -174,51 +178,99 @@ public class GlobalTransformer implements ClassFileTransformer {
             classesTransformed.add(formattedClassName);
         }
 
+        long startNanos = System.nanoTime();
+        InstrumentationEngine engine = config.getInstrumentationEngine();
+        List<ActionExecution> javassistExecutions = new ArrayList<>();
+        List<ActionExecution> asmExecutions = new ArrayList<>();
+        List<String> declaredMethods = null;
         for (Rule rule : rules) {
+            List<ActionExecution> executions = engine == InstrumentationEngine.ASM && asmTransformer.supports(rule.getEvent(), rule.getAction())
+                    ? asmExecutions
+                    : javassistExecutions;
+            if (!RuleMatcher.isPattern(rule.getMethodName())) {
+                executions.add(toExecution(rule, formattedClassName, rule.getMethodName()));
+                continue;
+            }
+            // one execution per matching method, so each gets a probe site of its own
+            if (declaredMethods == null) {
+                declaredMethods = ByteCodeUtils.instrumentableMethodNames(classfileBuffer);
+            }
+            for (String methodName : declaredMethods) {
+                if (RuleMatcher.matchesName(rule.getMethodName(), methodName)) {
+                    executions.add(toExecution(rule, formattedClassName, methodName));
+                }
+            }
+        }
+        if (javassistExecutions.isEmpty() && asmExecutions.isEmpty()) {
+            logger.trace("No method of class " + formattedClassName + " matches its rules' method patterns");
+            return classfileBuffer;
+        }
+        try {
+            byte[] transformed = classfileBuffer;
+            if (!javassistExecutions.isEmpty()) {
+                transformed = transformWithJavassist(loader, transformed, javassistExecutions);
+            }
+            if (!asmExecutions.isEmpty()) {
+                transformed = asmTransformer.transform(loader, transformed, asmExecutions);
+            }
+            logger.trace("Transformed class " + formattedClassName + " with " + rules.size() + " rule(s) in "
+                    + (System.nanoTime() - startNanos) / 1000 + " us using " + engine.getValue());
+            return transformed;
+        } catch (Throwable t) {
+            if (t instanceof Exception) {
+                logger.error(t.getMessage(), (Exception) t);
+            } else {
+                logger.error("Unrecoverable transformer error in " + formattedClassName + ": " + t.getMessage());
+            }
+            throw new TransformException(t);
+        }
+    }
+
+    /**
+     * Compiles the rules into the class with the pool of its defining loader, which no other thread uses
+     * meanwhile; classes of other loaders are transformed in parallel.
+     */
+    private byte[] transformWithJavassist(ClassLoader loader, byte[] classfileBuffer, List<ActionExecution> executions) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException {
+        ClassPool pool = classPools.get(loader);
+        synchronized (pool) {
+            CtClass ctClass = pool.makeClass(new ByteArrayInputStream(classfileBuffer));
             try {
-                modifiedBytes = applyRule(rule, formattedClassName, modifiedBytes);
-            } catch (Throwable t) {
-                if (t instanceof Exception) {
-                    logger.error(t.getMessage(), (Exception) t);
-                } else {
-                    logger.error("Unrecoverable transformer error in " + formattedClassName + ": " + t.getMessage());
+                for (ActionExecution execution : executions) {
+                    applyRule(execution, ctClass);
                 }
-                throw new TransformException(t);
+                return ctClass.toBytecode();
+            } finally {
+                // a failed rule may have left the class half modified; the original bytecode is used instead
+                ctClass.detach();
             }
         }
-        logger.trace("Transformed class " + formattedClassName);
-        return modifiedBytes;
     }
 
-    private byte[] applyRule(Rule rule, String formattedClassName, byte[] modifiedBytes) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException {
-        ActionExecution execution = new ActionExecution(
-                rule.getMethodName(),
+    private ActionExecution toExecution(Rule rule, String formattedClassName, String methodName) {
+        return new ActionExecution(
+                methodName,
                 rule.getEvent(),
                 rule.getAction(),
                 rule.getCustomCode(),
                 rule.getFilterName(),
                 formattedClassName,
-                modifiedBytes,
-                rule.getLineNumber()
+                rule.getLineNumber(),
+                rule.getRateLimit(),
+                rule.isTrigger(),
+                rule.isCritical(),
+                ProbeSwitches.register(rule.getKey())
         );
+    }
 
-        if (rule.getEvent().equals(Event.PROFILE)) {
-            return profileActionHandler.apply(execution);
-        }
-
-        ActionHandler handler = actionHandlers.get(rule.getAction());
-        if (handler == null) {
-            return modifiedBytes;
+    private void applyRule(ActionExecution execution, CtClass ctClass) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException {
+        if (execution.getEvent().equals(Event.PROFILE)) {
+            profileActionHandler.apply(ctClass, execution);
+            return;
         }
-        return handler.apply(execution);
-    }
 
-    private ClassPool getClassPool() throws NotFoundException {
-        ClassPool pool = ClassPool.getDefault();
-        if (isJdk9OrLater && mode.equals("attachVM")) {
-            pool.appendClassPath(agentAbsolutePath);
-            pool.appendClassPath(new LoaderClassPath(ClassLoader.getSystemClassLoader()));
+        ActionHandler handler = actionHandlers.get(execution.getAction());
+        if (handler != null) {
+            handler.apply(ctClass, execution);
         }
-        return pool;
     }
 }
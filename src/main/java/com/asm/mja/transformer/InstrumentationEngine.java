@@ -0,0 +1,46 @@
+package com.asm.mja.transformer;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * How rules are woven into classes.
+ *
+ * JAVASSIST: Every rule's Java source snippet is compiled into the class with Javassist.
+ * ASM: ARGS, RET, STACK, HEAP and PROFILE rules emit their bytecode directly with ASM and the stack map frames
+ * of the methods they touch are recomputed; ADD rules still compile their source with Javassist.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public enum InstrumentationEngine {
+    JAVASSIST,
+    ASM;
+
+    private final String value;
+
+    InstrumentationEngine() {
+        // not a literal: the shaded jar rewrites the string "javassist" to its relocated package name
+        this.value = name().toLowerCase(Locale.ROOT);
+    }
+
+    @JsonCreator
+    public static InstrumentationEngine fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (InstrumentationEngine engine : values()) {
+            if (engine.value.equalsIgnoreCase(value)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported instrumentation engine - " + value);
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+}
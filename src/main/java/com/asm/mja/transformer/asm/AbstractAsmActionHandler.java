@@ -0,0 +1,49 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.logging.ProbeRegistry;
+import com.asm.mja.transformer.ActionExecution;
+import com.asm.mja.transformer.Event;
+import com.asm.mja.utils.ByteCodeUtils;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Shared utilities for ASM action handlers.
+ * @author ashut
+ * @since 17-10-2026
+ */
+abstract class AbstractAsmActionHandler implements AsmActionHandler {
+
+    /**
+     * Registers the probe site for this rule and the guard its probes are wrapped in.
+     *
+     * @param action       rule action written after the event, or null for actionless events such as PROFILE.
+     * @param classVersion major version of the class file the probes go into.
+     */
+    protected ProbeGuard register(ActionExecution execution, String action, int classVersion) {
+        int probeId = ProbeRegistry.getInstance().register(
+                execution.getFormattedClassName(),
+                execution.getMethodName(),
+                String.valueOf(execution.getEvent()),
+                action
+        );
+        return new ProbeGuard(execution, probeId, classVersion);
+    }
+
+    protected boolean isConstructorTarget(String formattedClassName, String methodName) {
+        return ByteCodeUtils.isConstructorTarget(formattedClassName, methodName);
+    }
+
+    /**
+     * @return advice that emits {@code emitter}'s code at the rule's event.
+     */
+    protected MethodAdvice atEvent(ActionExecution execution, ProbeGuard guard, EventAdviceVisitor.ProbeEmitter emitter) {
+        Event event = execution.getEvent();
+        return (next, access, name, descriptor) -> new EventAdviceVisitor(next, access, name, descriptor,
+                execution.getFormattedClassName(), event, execution.getLineNumber(), guard, emitter);
+    }
+
+    protected static void invokeStatic(MethodVisitor mv, String owner, String name, String descriptor) {
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner, name, descriptor, false);
+    }
+}
@@ -0,0 +1,93 @@
+package com.asm.mja.transformer.asm;
+
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Passes a method's code through and calls {@link #onEnter()} once the method starts, {@link #onReturn(int)}
+ * before every return instruction and {@link #onLine(int)} at the start of every source line. Subclasses emit
+ * their probe through {@code mv}, the next visitor, so their own code is not seen by their own hooks.
+ *
+ * In a constructor the method starts after the call to the super or another constructor, like
+ * Javassist's {@code insertBefore}: {@code new} instructions ahead of it are counted so constructors of
+ * arguments, as in {@code super(new Foo())}, are not mistaken for it.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+abstract class AdviceMethodVisitor extends MethodVisitor {
+
+    protected final int access;
+    protected final String name;
+    protected final String descriptor;
+    private boolean entered;
+    private int pendingNews;
+
+    AdviceMethodVisitor(MethodVisitor next, int access, String name, String descriptor) {
+        super(Opcodes.ASM9, next);
+        this.access = access;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    protected boolean isStatic() {
+        return (access & Opcodes.ACC_STATIC) != 0;
+    }
+
+    protected void onEnter() {
+    }
+
+    /**
+     * @param opcode one of {@code IRETURN} to {@code RETURN}; the returned value, if any, is on the stack.
+     */
+    protected void onReturn(int opcode) {
+    }
+
+    protected void onLine(int line) {
+    }
+
+    @Override
+    public void visitCode() {
+        super.visitCode();
+        if (!"<init>".equals(name)) {
+            entered = true;
+            onEnter();
+        }
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String type) {
+        super.visitTypeInsn(opcode, type);
+        if (!entered && opcode == Opcodes.NEW) {
+            pendingNews++;
+        }
+    }
+
+    @Override
+    public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+        super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        if (!entered && opcode == Opcodes.INVOKESPECIAL && "<init>".equals(name)) {
+            if (pendingNews > 0) {
+                pendingNews--;
+            } else {
+                entered = true;
+                onEnter();
+            }
+        }
+    }
+
+    @Override
+    public void visitInsn(int opcode) {
+        if (opcode >= Opcodes.IRETURN && opcode <= Opcodes.RETURN) {
+            onReturn(opcode);
+        }
+        super.visitInsn(opcode);
+    }
+
+    @Override
+    public void visitLineNumber(int line, Label start) {
+        super.visitLineNumber(line, start);
+        onLine(line);
+    }
+}
@@ -0,0 +1,20 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.exception.UnsupportedActionException;
+import com.asm.mja.transformer.ActionExecution;
+
+/**
+ * Contract for action handlers of the ASM engine. A handler checks a rule and registers its probe once per class;
+ * the {@link MethodAdvice} it returns then emits the probe's bytecode into each method the rule targets while
+ * {@link AsmClassTransformer} copies the class.
+ * @author ashut
+ * @since 17-10-2026
+ */
+interface AsmActionHandler {
+
+    /**
+     * @param classVersion major version of the class file being transformed.
+     * @return the advice for the rule's target methods, or null if the rule adds nothing to this class.
+     */
+    MethodAdvice prepare(ActionExecution execution, int classVersion) throws UnsupportedActionException;
+}
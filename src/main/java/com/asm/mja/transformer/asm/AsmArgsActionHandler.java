@@ -0,0 +1,77 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.exception.UnsupportedActionException;
+import com.asm.mja.transformer.ActionExecution;
+import com.asm.mja.transformer.Event;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Handles ARGS action instrumentation: appends each argument to a {@link StringBuilder} through
+ * {@code ProbePayloads.arg} and writes it with {@code ProbePayloads.args}, unless the trace budget drops payloads.
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class AsmArgsActionHandler extends AbstractAsmActionHandler {
+
+    private static final String STRING_BUILDER = "java/lang/StringBuilder";
+
+    @Override
+    public MethodAdvice prepare(ActionExecution execution, int classVersion) throws UnsupportedActionException {
+        if (execution.getEvent().equals(Event.EGRESS)) {
+            throw new UnsupportedActionException("Getting arguments for EGRESS is not supported");
+        }
+        if (execution.getEvent().equals(Event.CODEPOINT)) {
+            throw new UnsupportedActionException("Getting arguments for CODEPOINT is not supported");
+        }
+
+        ProbeGuard guard = register(execution, "ARGS", classVersion);
+        return atEvent(execution, guard, (mv, access, descriptor) -> emitArgs(mv, access, descriptor, guard.getProbeId()));
+    }
+
+    private static void emitArgs(MethodVisitor mv, int access, String descriptor, int probeId) {
+        Label done = new Label();
+        ProbeGuard.push(mv, probeId);
+        invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "skipPayload", "(I)Z");
+        mv.visitJumpInsn(Opcodes.IFNE, done);
+
+        mv.visitTypeInsn(Opcodes.NEW, STRING_BUILDER);
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, STRING_BUILDER, "<init>", "()V", false);
+        int slot = (access & Opcodes.ACC_STATIC) != 0 ? 0 : 1;
+        Type[] argumentTypes = Type.getArgumentTypes(descriptor);
+        for (int i = 0; i < argumentTypes.length; i++) {
+            Type type = argumentTypes[i];
+            ProbeGuard.push(mv, i);
+            mv.visitVarInsn(type.getOpcode(Opcodes.ILOAD), slot);
+            invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "arg",
+                    "(L" + STRING_BUILDER + ";I" + payloadDescriptor(type) + ")L" + STRING_BUILDER + ";");
+            slot += type.getSize();
+        }
+        ProbeGuard.push(mv, probeId);
+        invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "args", "(L" + STRING_BUILDER + ";I)V");
+        mv.visitLabel(done);
+    }
+
+    /**
+     * @return the parameter descriptor of the {@code ProbePayloads} overload that takes a value of {@code type}.
+     */
+    static String payloadDescriptor(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+            case Type.CHAR:
+            case Type.INT:
+            case Type.LONG:
+            case Type.FLOAT:
+            case Type.DOUBLE:
+                return type.getDescriptor();
+            case Type.BYTE:
+            case Type.SHORT:
+                return "I";
+            default:
+                return "Ljava/lang/Object;";
+        }
+    }
+}
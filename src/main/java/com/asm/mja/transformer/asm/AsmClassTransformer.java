@@ -0,0 +1,115 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.exception.TransformException;
+import com.asm.mja.exception.UnsupportedActionException;
+import com.asm.mja.logging.TraceFileLogger;
+import com.asm.mja.transformer.Action;
+import com.asm.mja.transformer.ActionExecution;
+import com.asm.mja.transformer.Event;
+import com.asm.mja.utils.ByteCodeUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ASM instrumentation engine. Copies a class once for all of its ARGS, RET, STACK, HEAP and PROFILE rules,
+ * emitting each rule's probe as bytecode into the methods it targets. Only those methods are rewritten, and
+ * their stack map frames are computed by {@link LoaderClassWriter}; every other method is copied as is.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class AsmClassTransformer {
+
+    private static final String CONSTRUCTOR = "<init>";
+
+    private final Map<Action, AsmActionHandler> actionHandlers = new EnumMap<>(Action.class);
+    private final AsmActionHandler profileActionHandler = new AsmProfileActionHandler();
+
+    public AsmClassTransformer(TraceFileLogger logger) {
+        actionHandlers.put(Action.ARGS, new AsmArgsActionHandler());
+        actionHandlers.put(Action.STACK, new AsmStackActionHandler());
+        actionHandlers.put(Action.HEAP, new AsmHeapActionHandler());
+        actionHandlers.put(Action.RET, new AsmReturnActionHandler(logger));
+    }
+
+    /**
+     * @return true if this engine can apply a rule with this event and action; ADD rules are left to Javassist.
+     */
+    public boolean supports(Event event, Action action) {
+        return event == Event.PROFILE || actionHandlers.containsKey(action);
+    }
+
+    /**
+     * @param loader     the class's loader, which stack map frames are computed against; null for the bootstrap loader.
+     * @param executions rules for this class, all {@link #supports supported}.
+     * @return the instrumented class file.
+     * @throws TransformException if a type the stack map frames refer to can be neither read nor loaded.
+     */
+    public byte[] transform(ClassLoader loader, byte[] classfile, List<ActionExecution> executions) throws UnsupportedActionException, TransformException {
+        List<TargetedAdvice> advices = new ArrayList<>();
+        int classVersion = ((classfile[6] & 0xFF) << 8) | (classfile[7] & 0xFF);
+        for (ActionExecution execution : executions) {
+            AsmActionHandler handler = execution.getEvent() == Event.PROFILE
+                    ? profileActionHandler
+                    : actionHandlers.get(execution.getAction());
+            MethodAdvice advice = handler == null ? null : handler.prepare(execution, classVersion);
+            if (advice != null) {
+                advices.add(new TargetedAdvice(execution, advice));
+            }
+        }
+        if (advices.isEmpty()) {
+            return classfile;
+        }
+
+        ClassReader reader = new ClassReader(classfile);
+        // frames were optional before Java 6, and cannot be computed for the jsr/ret such classes may use
+        int flags = classVersion >= Opcodes.V1_6 ? ClassWriter.COMPUTE_FRAMES : ClassWriter.COMPUTE_MAXS;
+        ClassWriter writer = new LoaderClassWriter(reader, flags, loader);
+        try {
+            reader.accept(new ClassVisitor(Opcodes.ASM9, writer) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+                    if ((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+                        return mv;
+                    }
+                    for (TargetedAdvice advice : advices) {
+                        if (advice.targets(name)) {
+                            mv = advice.advice.advise(mv, access, name, descriptor);
+                        }
+                    }
+                    return mv;
+                }
+            }, ClassReader.SKIP_FRAMES);
+            return writer.toByteArray();
+        } catch (TypeNotPresentException e) {
+            throw new TransformException("Cannot compute stack map frames of " + reader.getClassName().replace('/', '.')
+                    + ": type " + e.typeName() + " is not visible to its class loader", e);
+        }
+    }
+
+    private static final class TargetedAdvice {
+        private final String methodName;
+        private final MethodAdvice advice;
+
+        TargetedAdvice(ActionExecution execution, MethodAdvice advice) {
+            // a rule naming the class itself targets its constructors, as in AbstractActionHandler
+            this.methodName = ByteCodeUtils.isConstructorTarget(execution.getFormattedClassName(), execution.getMethodName())
+                    ? CONSTRUCTOR
+                    : execution.getMethodName();
+            this.advice = advice;
+        }
+
+        boolean targets(String name) {
+            return methodName.equals(name);
+        }
+    }
+}
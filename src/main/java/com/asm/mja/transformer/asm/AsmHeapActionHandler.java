@@ -0,0 +1,20 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.transformer.ActionExecution;
+
+/**
+ * Handles HEAP action instrumentation.
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class AsmHeapActionHandler extends AbstractAsmActionHandler {
+
+    @Override
+    public MethodAdvice prepare(ActionExecution execution, int classVersion) {
+        ProbeGuard guard = register(execution, "HEAP", classVersion);
+        return atEvent(execution, guard, (mv, access, descriptor) -> {
+            ProbeGuard.push(mv, guard.getProbeId());
+            invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "heap", "(I)V");
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.transformer.ActionExecution;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.TypePath;
+
+/**
+ * Handles PROFILE event instrumentation: the start time is kept in a new local variable, which is declared to
+ * the verifier through the recomputed stack map frames instead of requiring verification to be turned off.
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class AsmProfileActionHandler extends AbstractAsmActionHandler {
+
+    @Override
+    public MethodAdvice prepare(ActionExecution execution, int classVersion) {
+        if (isConstructorTarget(execution.getFormattedClassName(), execution.getMethodName())) {
+            // only methods are profiled
+            return null;
+        }
+        ProbeGuard guard = register(execution, null, classVersion);
+        return (next, access, name, descriptor) -> new ProfileMethodVisitor(next, access, name, descriptor, guard);
+    }
+
+    /**
+     * Stores {@code System.nanoTime()} in the first slot after the arguments when the method starts, and moves the
+     * method's own local variables two slots up to make room for it. Relies on the class being read with
+     * {@code SKIP_FRAMES}, as the original frames are not remapped.
+     */
+    private static final class ProfileMethodVisitor extends AdviceMethodVisitor {
+
+        private final ProbeGuard guard;
+        private final int startSlot;
+
+        ProfileMethodVisitor(MethodVisitor next, int access, String name, String descriptor, ProbeGuard guard) {
+            super(next, access, name, descriptor);
+            this.guard = guard;
+            // the argument size includes an implicit this
+            int argumentSize = Type.getArgumentsAndReturnSizes(descriptor) >> 2;
+            this.startSlot = isStatic() ? argumentSize - 1 : argumentSize;
+        }
+
+        @Override
+        protected void onEnter() {
+            // a switched off probe does not read the clock; the slot still needs a value on every path
+            Label off = new Label();
+            Label store = new Label();
+            boolean switchable = guard.ifSwitchedOff(mv, off);
+            invokeStatic(mv, "java/lang/System", "nanoTime", "()J");
+            if (switchable) {
+                mv.visitJumpInsn(Opcodes.GOTO, store);
+                mv.visitLabel(off);
+                mv.visitInsn(Opcodes.LCONST_0);
+                mv.visitLabel(store);
+            }
+            mv.visitVarInsn(Opcodes.LSTORE, startSlot);
+        }
+
+        @Override
+        protected void onReturn(int opcode) {
+            Label skip = guard.begin(mv);
+            mv.visitVarInsn(Opcodes.LLOAD, startSlot);
+            ProbeGuard.push(mv, guard.getProbeId());
+            invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "profile", "(JI)V");
+            guard.end(mv, skip);
+        }
+
+        private int remap(int slot) {
+            return slot < startSlot ? slot : slot + 2;
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int varIndex) {
+            super.visitVarInsn(opcode, remap(varIndex));
+        }
+
+        @Override
+        public void visitIincInsn(int varIndex, int increment) {
+            super.visitIincInsn(remap(varIndex), increment);
+        }
+
+        @Override
+        public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
+            super.visitLocalVariable(name, descriptor, signature, start, end, remap(index));
+        }
+
+        @Override
+        public AnnotationVisitor visitLocalVariableAnnotation(int typeRef, TypePath typePath, Label[] start, Label[] end,
+                                                             int[] index, String descriptor, boolean visible) {
+            int[] remapped = new int[index.length];
+            for (int i = 0; i < index.length; i++) {
+                remapped[i] = remap(index[i]);
+            }
+            return super.visitLocalVariableAnnotation(typeRef, typePath, start, end, remapped, descriptor, visible);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.exception.UnsupportedActionException;
+import com.asm.mja.logging.TraceFileLogger;
+import com.asm.mja.transformer.ActionExecution;
+import com.asm.mja.transformer.Event;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Handles RET action instrumentation: before every return, a copy of the returned value is passed to
+ * {@code ProbePayloads.returned}.
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class AsmReturnActionHandler extends AbstractAsmActionHandler {
+
+    private final TraceFileLogger logger;
+
+    AsmReturnActionHandler(TraceFileLogger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public MethodAdvice prepare(ActionExecution execution, int classVersion) throws UnsupportedActionException {
+        if (!execution.getEvent().equals(Event.EGRESS)) {
+            throw new UnsupportedActionException("Getting return value for " + execution.getEvent() + " is not supported");
+        }
+
+        if (isConstructorTarget(execution.getFormattedClassName(), execution.getMethodName())) {
+            logger.warn("Constructors don't return values, please make sure you are not using RET for constructor instrumentation");
+            return null;
+        }
+
+        ProbeGuard guard = register(execution, "RET", classVersion);
+        return (next, access, name, descriptor) -> new AdviceMethodVisitor(next, access, name, descriptor) {
+            @Override
+            protected void onReturn(int opcode) {
+                Label skip = guard.begin(mv);
+                if (opcode == Opcodes.RETURN) {
+                    ProbeGuard.push(mv, guard.getProbeId());
+                    invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "returnedVoid", "(I)V");
+                } else {
+                    Type returnType = Type.getReturnType(descriptor);
+                    mv.visitInsn(returnType.getSize() == 2 ? Opcodes.DUP2 : Opcodes.DUP);
+                    ProbeGuard.push(mv, guard.getProbeId());
+                    invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "returned",
+                            "(" + AsmArgsActionHandler.payloadDescriptor(returnType) + "I)V");
+                }
+                guard.end(mv, skip);
+            }
+        };
+    }
+}
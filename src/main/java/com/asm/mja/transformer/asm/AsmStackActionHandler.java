@@ -0,0 +1,51 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.logging.StackFilter;
+import com.asm.mja.transformer.ActionExecution;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Handles STACK action instrumentation. The capture is delegated to {@code ProbePayloads}, which never throws, so
+ * the probe adds no exception handler that could come after, or in place of, the method's own. A deferred stack
+ * is still created in the instrumented method, as the trace expects its first frame to be that method.
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class AsmStackActionHandler extends AbstractAsmActionHandler {
+
+    private static final String THROWABLE = "java/lang/Throwable";
+
+    @Override
+    public MethodAdvice prepare(ActionExecution execution, int classVersion) {
+        ProbeGuard guard = register(execution, "STACK", classVersion);
+        String filterName = execution.getFilterName();
+        // the filter is compiled once here; frames are only materialized when it matches
+        int filterId = filterName != null && !filterName.isEmpty() ? StackFilter.register(filterName) : -1;
+        return atEvent(execution, guard, (mv, access, descriptor) -> emitStack(mv, guard.getProbeId(), filterId));
+    }
+
+    private static void emitStack(MethodVisitor mv, int probeId, int filterId) {
+        Label capture = new Label();
+        Label done = new Label();
+        invokeStatic(mv, ProbeGuard.TRACE_BUDGET, "sampleStack", "()Z");
+        mv.visitJumpInsn(Opcodes.IFEQ, done);
+        // a deferred stack is only recorded here and symbolized on the writer thread
+        invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "isStackDeferred", "()Z");
+        mv.visitJumpInsn(Opcodes.IFEQ, capture);
+        mv.visitTypeInsn(Opcodes.NEW, THROWABLE);
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, THROWABLE, "<init>", "()V", false);
+        ProbeGuard.push(mv, probeId);
+        ProbeGuard.push(mv, filterId);
+        invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "rawStack", "(L" + THROWABLE + ";II)V");
+        mv.visitJumpInsn(Opcodes.GOTO, done);
+
+        mv.visitLabel(capture);
+        ProbeGuard.push(mv, probeId);
+        ProbeGuard.push(mv, filterId);
+        invokeStatic(mv, ProbeGuard.PROBE_PAYLOADS, "stack", "(II)V");
+        mv.visitLabel(done);
+    }
+}
@@ -0,0 +1,78 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.logging.TraceFileLogger;
+import com.asm.mja.transformer.Event;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+/**
+ * Emits a probe at a rule's event: when the method starts (INGRESS), before every return (EGRESS), or at the
+ * first instruction of the rule's source line (CODEPOINT), wrapped in the rule's {@link ProbeGuard}.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class EventAdviceVisitor extends AdviceMethodVisitor {
+
+    /**
+     * Emits the probe's own code, which must leave the operand stack as it found it.
+     */
+    @FunctionalInterface
+    interface ProbeEmitter {
+        void emit(MethodVisitor mv, int access, String descriptor);
+    }
+
+    private final Event event;
+    private final int lineNumber;
+    private final ProbeGuard guard;
+    private final ProbeEmitter emitter;
+    private final String className;
+    private boolean lineReached;
+
+    EventAdviceVisitor(MethodVisitor next, int access, String name, String descriptor, String className,
+                       Event event, int lineNumber, ProbeGuard guard, ProbeEmitter emitter) {
+        super(next, access, name, descriptor);
+        this.className = className;
+        this.event = event;
+        this.lineNumber = lineNumber;
+        this.guard = guard;
+        this.emitter = emitter;
+    }
+
+    @Override
+    protected void onEnter() {
+        if (event == Event.INGRESS) {
+            emitGuarded();
+        }
+    }
+
+    @Override
+    protected void onReturn(int opcode) {
+        if (event == Event.EGRESS) {
+            emitGuarded();
+        }
+    }
+
+    @Override
+    protected void onLine(int line) {
+        if (event == Event.CODEPOINT && line == lineNumber && !lineReached) {
+            lineReached = true;
+            emitGuarded();
+        }
+    }
+
+    @Override
+    public void visitEnd() {
+        if (event == Event.CODEPOINT && !lineReached) {
+            TraceFileLogger.getInstance().warn("Line " + lineNumber + " not found in " + className + "." + name
+                    + descriptor + ", its CODEPOINT probe was not added");
+        }
+        super.visitEnd();
+    }
+
+    private void emitGuarded() {
+        Label skip = guard.begin(mv);
+        emitter.emit(mv, access, descriptor);
+        guard.end(mv, skip);
+    }
+}
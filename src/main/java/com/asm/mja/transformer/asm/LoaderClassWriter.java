@@ -0,0 +1,94 @@
+package com.asm.mja.transformer.asm;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes stack map frames without loading classes. ASM's default resolves the common superclass of two types
+ * with {@code Class.forName}, which from inside a transformer can load classes early, in the wrong loader or
+ * recursively; this writer reads the superclass from the class files the loading class loader can see instead.
+ *
+ * A type whose class file cannot be read, such as a class defined at runtime, is looked up with
+ * {@code Class.forName} without initializing it. If that fails as well, a {@link TypeNotPresentException} is
+ * thrown rather than guessing {@code Object}, which would give the instrumented method frames that fail
+ * verification.
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class LoaderClassWriter extends ClassWriter {
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private final ClassLoader loader;
+    /** Superclass of each type looked up so far; null for interfaces. */
+    private final Map<String, String> superNames = new HashMap<>();
+
+    LoaderClassWriter(ClassReader reader, int flags, ClassLoader loader) {
+        super(reader, flags);
+        this.loader = loader;
+        // the class being transformed may not be readable from its loader yet
+        superNames.put(reader.getClassName(), (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0 ? null : reader.getSuperName());
+    }
+
+    @Override
+    protected String getCommonSuperClass(String type1, String type2) {
+        if (type1.equals(type2)) {
+            return type1;
+        }
+        List<String> ancestors = new ArrayList<>();
+        for (String type = type1; type != null; type = superName(type)) {
+            ancestors.add(type);
+        }
+        for (String type = type2; type != null; type = superName(type)) {
+            if (ancestors.contains(type)) {
+                return type;
+            }
+        }
+        return OBJECT;
+    }
+
+    private String superName(String type) {
+        if (OBJECT.equals(type)) {
+            return null;
+        }
+        if (superNames.containsKey(type)) {
+            return superNames.get(type);
+        }
+        String superName;
+        ClassReader reader = read(type);
+        if (reader != null) {
+            superName = (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0 ? null : reader.getSuperName();
+        } else {
+            Class<?> loaded;
+            try {
+                loaded = Class.forName(type.replace('/', '.'), false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new TypeNotPresentException(type.replace('/', '.'), e);
+            }
+            Class<?> superclass = loaded.isInterface() ? null : loaded.getSuperclass();
+            superName = superclass == null ? null : superclass.getName().replace('.', '/');
+        }
+        superNames.put(type, superName);
+        return superName;
+    }
+
+    /**
+     * @return the type's class file as the loader sees it, or null if it cannot be read.
+     */
+    private ClassReader read(String type) {
+        String resource = type + ".class";
+        try (InputStream in = loader != null ? loader.getResourceAsStream(resource) : ClassLoader.getSystemResourceAsStream(resource)) {
+            return in != null ? new ClassReader(in) : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.asm.mja.transformer.asm;
+
+import org.objectweb.asm.MethodVisitor;
+
+/**
+ * Adds one rule's probe to a method it targets.
+ * @author ashut
+ * @since 17-10-2026
+ */
+@FunctionalInterface
+interface MethodAdvice {
+
+    /**
+     * @param next receives the method's code with the probe added.
+     * @return the visitor to pass the method's original code to.
+     */
+    MethodVisitor advise(MethodVisitor next, int access, String name, String descriptor);
+}
@@ -0,0 +1,129 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.logging.ProbeRateLimiter;
+import com.asm.mja.logging.ProbeSwitches;
+import com.asm.mja.rule.RateLimit;
+import com.asm.mja.transformer.ActionExecution;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Emits the bytecode equivalent of {@code AbstractActionHandler.guarded}: the probe is skipped while the trace
+ * budget pauses probes, unless the rule is {@code ::CRITICAL}, and when the rule's {@code ::RATE[...]} token
+ * bucket is empty; a {@code ::TRIGGER} rule dumps the flight recorder on every hit, suppressed or not.
+ *
+ * Before all of that, the rule's {@link ProbeSwitches switch} is checked, through an {@code invokedynamic} call
+ * site in Java 7 and later class files, and the probe, trigger included, is skipped while it is off.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+final class ProbeGuard {
+
+    static final String TRACE_BUDGET = "com/asm/mja/logging/TraceBudget";
+    static final String TRACE_FILE_LOGGER = "com/asm/mja/logging/TraceFileLogger";
+    static final String TRACE_FILE_LOGGER_DESC = "L" + TRACE_FILE_LOGGER + ";";
+    static final String PROBE_PAYLOADS = "com/asm/mja/logging/ProbePayloads";
+    private static final String RATE_LIMITER = "com/asm/mja/logging/ProbeRateLimiter";
+    private static final String PROBE_SWITCHES = "com/asm/mja/logging/ProbeSwitches";
+    private static final Handle SWITCH_BOOTSTRAP = new Handle(Opcodes.H_INVOKESTATIC, PROBE_SWITCHES, "bootstrap",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;I)Ljava/lang/invoke/CallSite;",
+            false);
+
+    private final int probeId;
+    private final int limiterId;
+    private final boolean pausable;
+    private final boolean trigger;
+    private final int switchId;
+    private final boolean dynamicSwitch;
+
+    /**
+     * @param classVersion major version of the class file the probes go into; {@code invokedynamic} needs Java 7.
+     */
+    ProbeGuard(ActionExecution execution, int probeId, int classVersion) {
+        RateLimit rateLimit = execution.getRateLimit();
+        this.probeId = probeId;
+        this.limiterId = rateLimit == null ? -1
+                : ProbeRateLimiter.register(probeId, rateLimit.getPermits(), rateLimit.getPeriodNanos(), rateLimit.toString());
+        this.pausable = !execution.isCritical();
+        this.trigger = execution.isTrigger();
+        this.switchId = execution.getSwitchId();
+        this.dynamicSwitch = classVersion >= Opcodes.V1_7;
+    }
+
+    int getProbeId() {
+        return probeId;
+    }
+
+    /**
+     * Emits the checks that jump past the probe.
+     *
+     * @return the label to pass to {@link #end} after the probe's code.
+     */
+    Label begin(MethodVisitor mv) {
+        Label skip = new Label();
+        ifSwitchedOff(mv, skip);
+        if (pausable) {
+            // checked first, so paused hits do not take rate limit tokens
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, TRACE_BUDGET, "isPaused", "()Z", false);
+            mv.visitJumpInsn(Opcodes.IFNE, skip);
+        }
+        if (limiterId >= 0) {
+            push(mv, limiterId);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, RATE_LIMITER, "tryAcquire", "(I)Z", false);
+            mv.visitJumpInsn(Opcodes.IFEQ, skip);
+        }
+        return skip;
+    }
+
+    void end(MethodVisitor mv, Label skip) {
+        mv.visitLabel(skip);
+        if (trigger) {
+            // checked again, as a switched off probe joins suppressed ones at skip
+            Label off = new Label();
+            boolean switchable = ifSwitchedOff(mv, off);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, TRACE_FILE_LOGGER, "getInstance", "()" + TRACE_FILE_LOGGER_DESC, false);
+            push(mv, probeId);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, TRACE_FILE_LOGGER, "triggerFlightRecorder", "(I)V", false);
+            if (switchable) {
+                mv.visitLabel(off);
+            }
+        }
+    }
+
+    /**
+     * Emits a jump to {@code target} taken while the rule's probes are switched off.
+     *
+     * @return false if the rule has no switch, and nothing was emitted.
+     */
+    boolean ifSwitchedOff(MethodVisitor mv, Label target) {
+        if (switchId < 0) {
+            return false;
+        }
+        if (dynamicSwitch) {
+            mv.visitInvokeDynamicInsn("isEnabled", "()Z", SWITCH_BOOTSTRAP, switchId);
+        } else {
+            push(mv, switchId);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, PROBE_SWITCHES, "isEnabled", "(I)Z", false);
+        }
+        mv.visitJumpInsn(Opcodes.IFEQ, target);
+        return true;
+    }
+
+    /**
+     * Pushes an int constant with the shortest instruction that holds it.
+     */
+    static void push(MethodVisitor mv, int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.asm.mja.transformer.handlers;
 
+import com.asm.mja.logging.ProbeRateLimiter;
+import com.asm.mja.logging.ProbeRegistry;
+import com.asm.mja.rule.RateLimit;
+import com.asm.mja.transformer.ActionExecution;
 import com.asm.mja.transformer.Event;
+import com.asm.mja.utils.ByteCodeUtils;
 import javassist.*;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 /**
@@ -23,25 +27,76 @@ public abstract class AbstractActionHandler implements ActionHandler {
         void apply(CtMethod method) throws CannotCompileException, NotFoundException, IOException;
     }
 
-    protected final ClassPoolProvider classPoolProvider;
+    /**
+     * Registers the probe site for this rule, so generated code can log through
+     * {@code TraceFileLogger.probe(id, payload)} instead of repeating the site name.
+     *
+     * @param action rule action written after the event, or null for actionless events such as PROFILE.
+     */
+    protected int registerProbe(ActionExecution execution, String action) {
+        return ProbeRegistry.getInstance().register(
+                execution.getFormattedClassName(),
+                execution.getMethodName(),
+                String.valueOf(execution.getEvent()),
+                action
+        );
+    }
 
-    protected AbstractActionHandler(ClassPoolProvider classPoolProvider) {
-        this.classPoolProvider = classPoolProvider;
+    /**
+     * Guards {@code code} with the rule's token bucket, if it has a {@code ::RATE[...]} limit, so a
+     * suppressed hit skips the whole snippet including any payload building. A {@code ::TRIGGER} rule
+     * additionally dumps the flight recorder on every hit, suppressed or not. Unless the rule is
+     * {@code ::CRITICAL}, the snippet is also skipped while the trace budget pauses probes, and every rule's
+     * snippet, trigger included, is skipped while its probes are switched off.
+     *
+     * @param probeId the probe site that suppressed-hit counts are reported for.
+     */
+    protected String guarded(ActionExecution execution, int probeId, String code) {
+        return guarded(execution, probeId, code, true);
     }
 
-    protected CtClass toCtClass(byte[] modifiedBytes) throws NotFoundException, IOException {
-        ClassPool pool = classPoolProvider.getClassPool();
-        return pool.makeClass(new ByteArrayInputStream(modifiedBytes));
+    /**
+     * @param pausable false for code that must run even while the trace budget pauses probes.
+     */
+    protected String guarded(ActionExecution execution, int probeId, String code, boolean pausable) {
+        RateLimit rateLimit = execution.getRateLimit();
+        String guarded = code;
+        if (rateLimit != null) {
+            int limiterId = ProbeRateLimiter.register(probeId, rateLimit.getPermits(), rateLimit.getPeriodNanos(), rateLimit.toString());
+            guarded = "if (com.asm.mja.logging.ProbeRateLimiter.tryAcquire(" + limiterId + ")) { " + code + " }";
+        }
+        if (pausable && !execution.isCritical()) {
+            // checked first, so paused hits do not take rate limit tokens
+            guarded = "if (!com.asm.mja.logging.TraceBudget.isPaused()) { " + guarded + " }";
+        }
+        if (execution.isTrigger()) {
+            guarded = "{ " + guarded + " com.asm.mja.logging.TraceFileLogger.getInstance().triggerFlightRecorder(" + probeId + "); }";
+        }
+        return switched(execution, guarded);
+    }
+
+    /**
+     * Skips {@code code} while the rule's probes are switched off by a config reload.
+     */
+    protected String switched(ActionExecution execution, String code) {
+        if (execution.getSwitchId() < 0) {
+            return code;
+        }
+        return "if (com.asm.mja.logging.ProbeSwitches.isEnabled(" + execution.getSwitchId() + ")) { " + code + " }";
     }
 
-    protected byte[] toBytecodeAndDetach(CtClass ctClass) throws IOException, CannotCompileException {
-        byte[] updated = ctClass.toBytecode();
-        ctClass.detach();
-        return updated;
+    /**
+     * Writes the probe without a payload while the trace budget drops payloads, instead of running
+     * {@code code}, which builds and writes it.
+     */
+    protected String withPayload(int probeId, String code) {
+        return "if (com.asm.mja.logging.TraceBudget.isPayloadDropped()) { " +
+                "com.asm.mja.logging.TraceFileLogger.getInstance().probe(" + probeId + ", null); " +
+                "} else { " + code + " }";
     }
 
     protected boolean isConstructorTarget(String formattedClassName, String methodName) {
-        return formattedClassName.endsWith(methodName);
+        return ByteCodeUtils.isConstructorTarget(formattedClassName, methodName);
     }
 
     protected void applyToTargets(CtClass ctClass,
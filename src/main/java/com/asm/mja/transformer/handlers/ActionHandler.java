@@ -3,15 +3,17 @@ package com.asm.mja.transformer.handlers;
 import com.asm.mja.exception.UnsupportedActionException;
 import com.asm.mja.transformer.ActionExecution;
 import javassist.CannotCompileException;
+import javassist.CtClass;
 import javassist.NotFoundException;
 
 import java.io.IOException;
 
 /**
- * Contract for bytecode action handlers.
+ * Contract for bytecode action handlers. All rules for a class are applied to one {@link CtClass}, which the
+ * caller parses once before the first rule and compiles once after the last.
  * @author ashut
  * @since 22-03-2026
  */
 public interface ActionHandler {
-    byte[] apply(ActionExecution execution) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException;
+    void apply(CtClass ctClass, ActionExecution execution) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException;
 }
@@ -14,12 +14,8 @@ import java.io.IOException;
  */
 public class ArgsActionHandler extends AbstractActionHandler {
 
-    public ArgsActionHandler(ClassPoolProvider classPoolProvider) {
-        super(classPoolProvider);
-    }
-
     @Override
-    public byte[] apply(ActionExecution execution) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException {
+    public void apply(CtClass ctClass, ActionExecution execution) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException {
         if (execution.getEvent().equals(Event.EGRESS)) {
             throw new UnsupportedActionException("Getting arguments for EGRESS is not supported");
         }
@@ -27,18 +23,17 @@ public class ArgsActionHandler extends AbstractActionHandler {
             throw new UnsupportedActionException("Getting arguments for CODEPOINT is not supported");
         }
 
-        CtClass ctClass = toCtClass(execution.getModifiedBytes());
+        int probeId = registerProbe(execution, "ARGS");
         applyToTargets(
                 ctClass,
                 execution.getFormattedClassName(),
                 execution.getMethodName(),
-                constructor -> constructor.insertBefore(buildArgsSnippet(constructor, execution.getFormattedClassName(), execution.getMethodName(), execution.getEvent())),
-                method -> method.insertBefore(buildArgsSnippet(method, execution.getFormattedClassName(), execution.getMethodName(), execution.getEvent()))
+                constructor -> constructor.insertBefore(guarded(execution, probeId, withPayload(probeId, buildArgsSnippet(constructor, probeId)))),
+                method -> method.insertBefore(guarded(execution, probeId, withPayload(probeId, buildArgsSnippet(method, probeId))))
         );
-        return toBytecodeAndDetach(ctClass);
     }
 
-    private String buildArgsSnippet(CtBehavior behavior, String formattedClassName, String methodName, Event event) {
+    private String buildArgsSnippet(CtBehavior behavior, int probeId) {
         StringBuilder code = new StringBuilder();
         CtClass[] parameterTypes = new CtClass[0];
         try {
@@ -49,7 +44,7 @@ public class ArgsActionHandler extends AbstractActionHandler {
 
         if (parameterTypes.length == 0) {
             code.append("try {");
-            code.append("    com.asm.mja.logging.TraceFileLogger.getInstance().trace(\"{").append(formattedClassName).append('.').append(methodName).append("} | ").append(event).append(" | ARGS | NULL\");");
+            code.append("    com.asm.mja.logging.TraceFileLogger.getInstance().probe(").append(probeId).append(", \"NULL\");");
             code.append("} catch (Exception e) {}");
         } else {
             code.append("try {");
@@ -63,7 +58,7 @@ public class ArgsActionHandler extends AbstractActionHandler {
                 }
                 code.append(");");
             }
-            code.append("    com.asm.mja.logging.TraceFileLogger.getInstance().trace(\"{").append(formattedClassName).append('.').append(methodName).append("} | ").append(event).append(" | ARGS | \" + args.toString());");
+            code.append("    com.asm.mja.logging.TraceFileLogger.getInstance().probe(").append(probeId).append(", args.toString());");
             code.append("} catch (Exception e) {}");
         }
         return code.toString();
@@ -15,17 +15,17 @@ import java.io.IOException;
 public class CustomCodeActionHandler extends AbstractActionHandler {
     private static final String MLOG_TOKEN = "MLOG(";
 
-    public CustomCodeActionHandler(ClassPoolProvider classPoolProvider) {
-        super(classPoolProvider);
-    }
-
     @Override
-    public byte[] apply(ActionExecution execution) throws IOException, CannotCompileException, NotFoundException {
-        CtClass ctClass = toCtClass(execution.getModifiedBytes());
+    public void apply(CtClass ctClass, ActionExecution execution) throws IOException, CannotCompileException, NotFoundException {
         String rewrittenCustomCode = rewriteMlogMacros(execution.getCustomCode());
-        String safeCustomCode = "try { " + rewrittenCustomCode + " } catch (Exception e) { " +
+        String guardedCustomCode = "try { " + rewrittenCustomCode + " } catch (Exception e) { " +
                 "com.asm.mja.logging.TraceFileLogger.getInstance().error(\"Custom code threw an exception in " + execution.getFormattedClassName() + '.' + execution.getMethodName() + ": \" + e.getMessage());" +
                 "}";
+        // ADD rules only need a probe site to report suppressed hits and triggers against; they change
+        // what the method does, so the trace budget never pauses them
+        String safeCustomCode = execution.getRateLimit() == null && !execution.isTrigger()
+                ? switched(execution, guardedCustomCode)
+                : guarded(execution, registerProbe(execution, "ADD"), guardedCustomCode, false);
 
         applyToTargets(
                 ctClass,
@@ -34,7 +34,6 @@ public class CustomCodeActionHandler extends AbstractActionHandler {
                 constructor -> insertForEvent(constructor, execution.getEvent(), execution.getLineNumber(), safeCustomCode),
                 method -> insertForEvent(method, execution.getEvent(), execution.getLineNumber(), safeCustomCode)
         );
-        return toBytecodeAndDetach(ctClass);
     }
 
     static String rewriteMlogMacros(String customCode) {
@@ -14,17 +14,13 @@ import java.io.IOException;
  */
 public class HeapActionHandler extends AbstractActionHandler {
 
-    public HeapActionHandler(ClassPoolProvider classPoolProvider) {
-        super(classPoolProvider);
-    }
-
     @Override
-    public byte[] apply(ActionExecution execution) throws IOException, CannotCompileException, NotFoundException {
-        CtClass ctClass = toCtClass(execution.getModifiedBytes());
-        String insertString = "try { " +
+    public void apply(CtClass ctClass, ActionExecution execution) throws IOException, CannotCompileException, NotFoundException {
+        int probeId = registerProbe(execution, "HEAP");
+        String insertString = guarded(execution, probeId, "try { " +
                 "com.asm.mja.utils.HeapDumpUtils.collectHeap();" +
-                "com.asm.mja.logging.TraceFileLogger.getInstance().trace(\"{" + execution.getFormattedClassName() + '.' + execution.getMethodName() + "} | " + execution.getEvent() + " | HEAP\"); " +
-                "} catch (Exception e) {}";
+                "com.asm.mja.logging.TraceFileLogger.getInstance().probe(" + probeId + ", null); " +
+                "} catch (Exception e) {}");
 
         applyToTargets(
                 ctClass,
@@ -33,6 +29,5 @@ public class HeapActionHandler extends AbstractActionHandler {
                 constructor -> insertForEvent(constructor, execution.getEvent(), execution.getLineNumber(), insertString),
                 method -> insertForEvent(method, execution.getEvent(), execution.getLineNumber(), insertString)
         );
-        return toBytecodeAndDetach(ctClass);
     }
 }
@@ -15,24 +15,19 @@ import java.io.IOException;
  */
 public class ProfileActionHandler extends AbstractActionHandler {
 
-    public ProfileActionHandler(ClassPoolProvider classPoolProvider) {
-        super(classPoolProvider);
-    }
-
     @Override
-    public byte[] apply(ActionExecution execution) throws IOException, CannotCompileException, NotFoundException {
-        CtClass ctClass = toCtClass(execution.getModifiedBytes());
+    public void apply(CtClass ctClass, ActionExecution execution) throws IOException, CannotCompileException, NotFoundException {
+        int probeId = registerProbe(execution, null);
         for (CtMethod method : ctClass.getDeclaredMethods()) {
             if (method.getName().equals(execution.getMethodName())) {
                 method.addLocalVariable("startTime", CtClass.longType);
                 method.insertBefore("try { startTime = System.nanoTime(); } catch(Exception e){}");
-                method.insertAfter("try {" +
+                method.insertAfter(guarded(execution, probeId, "try {" +
                         "    long endTime = System.nanoTime();" +
                         "    final long executionTime = (endTime - startTime) / 1000000;" +
-                        "    com.asm.mja.logging.TraceFileLogger.getInstance().trace(\"{" + execution.getFormattedClassName() + '.' + execution.getMethodName() + "} | PROFILE | Execution time: \" + executionTime + \"ms\");" +
-                        "} catch (Exception e) { }");
+                        "    com.asm.mja.logging.TraceFileLogger.getInstance().probe(" + probeId + ", \"Execution time: \" + executionTime + \"ms\");" +
+                        "} catch (Exception e) { }"));
             }
         }
-        return toBytecodeAndDetach(ctClass);
     }
 }
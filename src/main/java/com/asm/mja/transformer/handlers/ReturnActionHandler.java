@@ -17,32 +17,30 @@ public class ReturnActionHandler extends AbstractActionHandler {
 
     private final TraceFileLogger logger;
 
-    public ReturnActionHandler(ClassPoolProvider classPoolProvider, TraceFileLogger logger) {
-        super(classPoolProvider);
+    public ReturnActionHandler(TraceFileLogger logger) {
         this.logger = logger;
     }
 
     @Override
-    public byte[] apply(ActionExecution execution) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException {
+    public void apply(CtClass ctClass, ActionExecution execution) throws IOException, CannotCompileException, UnsupportedActionException, NotFoundException {
         if (!execution.getEvent().equals(Event.EGRESS)) {
             throw new UnsupportedActionException("Getting return value for " + execution.getEvent() + " is not supported");
         }
 
         if (isConstructorTarget(execution.getFormattedClassName(), execution.getMethodName())) {
             logger.warn("Constructors don't return values, please make sure you are not using RET for constructor instrumentation");
-            return execution.getModifiedBytes();
+            return;
         }
 
-        CtClass ctClass = toCtClass(execution.getModifiedBytes());
+        int probeId = registerProbe(execution, "RET");
         for (CtMethod method : ctClass.getDeclaredMethods()) {
             if (method.getName().equals(execution.getMethodName())) {
-                method.insertAfter(buildReturnSnippet(method, execution.getFormattedClassName(), execution.getMethodName(), execution.getEvent()));
+                method.insertAfter(guarded(execution, probeId, withPayload(probeId, buildReturnSnippet(method, probeId))));
             }
         }
-        return toBytecodeAndDetach(ctClass);
     }
 
-    private String buildReturnSnippet(CtMethod method, String formattedClassName, String methodName, Event event) throws UnsupportedActionException {
+    private String buildReturnSnippet(CtMethod method, int probeId) throws UnsupportedActionException {
         StringBuilder code = new StringBuilder();
         CtClass returnType;
         try {
@@ -52,21 +50,21 @@ public class ReturnActionHandler extends AbstractActionHandler {
         }
 
         if (returnType.equals(CtClass.voidType)) {
-            code.append("com.asm.mja.logging.TraceFileLogger.getInstance().trace(\"{").append(formattedClassName).append('.').append(methodName).append("} | ").append(event).append(" | RET | VOID\");");
+            code.append("com.asm.mja.logging.TraceFileLogger.getInstance().probe(").append(probeId).append(", \"VOID\");");
         } else if (returnType.isPrimitive()) {
             String returnVariableName = "$$_returnValue";
             code.append(returnType.getName()).append(' ').append(returnVariableName).append(" = ($r) $_;");
             code.append("try {");
-            code.append("    com.asm.mja.logging.TraceFileLogger.getInstance().trace(\"{").append(formattedClassName).append('.').append(methodName).append("} | ").append(event).append(" | RET | \" + ").append(returnVariableName).append(");");
+            code.append("    com.asm.mja.logging.TraceFileLogger.getInstance().probe(").append(probeId).append(", \"\" + ").append(returnVariableName).append(");");
             code.append("} catch (Exception e) {}");
         } else {
             String returnVariableName = "$$_returnValue";
             code.append(returnType.getName()).append(' ').append(returnVariableName).append(" = ($r) $_;");
             code.append("try {");
             code.append("    if (").append(returnVariableName).append(" != null) {");
-            code.append("        com.asm.mja.logging.TraceFileLogger.getInstance().trace(\"{").append(formattedClassName).append('.').append(methodName).append("} | ").append(event).append(" | RET | \" + ").append(returnVariableName).append(".toString());");
+            code.append("        com.asm.mja.logging.TraceFileLogger.getInstance().probe(").append(probeId).append(", ").append(returnVariableName).append(".toString());");
             code.append("    } else {");
-            code.append("        com.asm.mja.logging.TraceFileLogger.getInstance().trace(\"{").append(formattedClassName).append('.').append(methodName).append("} | ").append(event).append(" | RET | NULL\");");
+            code.append("        com.asm.mja.logging.TraceFileLogger.getInstance().probe(").append(probeId).append(", \"NULL\");");
             code.append("    }");
             code.append("} catch (Exception e) {}");
         }
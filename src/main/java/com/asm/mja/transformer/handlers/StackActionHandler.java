@@ -1,6 +1,7 @@
 package com.asm.mja.transformer.handlers;
 
 import com.asm.mja.logging.AgentLogger;
+import com.asm.mja.logging.StackFilter;
 import com.asm.mja.transformer.ActionExecution;
 import com.asm.mja.transformer.Event;
 import javassist.CannotCompileException;
@@ -16,19 +17,11 @@ import java.io.IOException;
  */
 public class StackActionHandler extends AbstractActionHandler {
 
-    public StackActionHandler(ClassPoolProvider classPoolProvider) {
-        super(classPoolProvider);
-    }
-
     @Override
-    public byte[] apply(ActionExecution execution) throws IOException, CannotCompileException, NotFoundException {
-        CtClass ctClass = toCtClass(execution.getModifiedBytes());
-        String insertString = buildStackSnippet(
-                execution.getFormattedClassName(),
-                execution.getMethodName(),
-                execution.getEvent(),
-                execution.getFilterName()
-        );
+    public void apply(CtClass ctClass, ActionExecution execution) throws IOException, CannotCompileException, NotFoundException {
+        int probeId = registerProbe(execution, "STACK");
+        String insertString = guarded(execution, probeId,
+                "if (com.asm.mja.logging.TraceBudget.sampleStack()) " + buildStackSnippet(probeId, execution.getFilterName()));
 
         applyToTargets(
                 ctClass,
@@ -42,37 +35,33 @@ public class StackActionHandler extends AbstractActionHandler {
                     insertForEvent(method, execution.getEvent(), execution.getLineNumber(), insertString);
                 }
         );
-        return toBytecodeAndDetach(ctClass);
     }
 
-    private String buildStackSnippet(String formattedClassName, String methodName, Event event, String filterName) {
+    private String buildStackSnippet(int probeId, String filterName) {
+        boolean filtered = filterName != null && !filterName.isEmpty();
+        // the filter is compiled once here; frames are only materialized when it matches
+        int filterId = filtered ? StackFilter.register(filterName) : -1;
         StringBuilder code = new StringBuilder();
         code.append("{\n");
         code.append("  try {\n");
-        code.append("    StackTraceElement[] stack = new Throwable().getStackTrace();\n");
-
-        if (filterName != null && !filterName.isEmpty()) {
-            code.append("    boolean shouldLog = false;\n");
-            code.append("    for (int i = 0; i < stack.length; i++) {\n");
-            code.append("      StackTraceElement element = stack[i];\n");
-            code.append("      String signature = element.getClassName() + \".\" + element.getMethodName();\n");
-            code.append("      if (signature.indexOf(\"").append(filterName).append("\") >= 0) {\n");
-            code.append("        shouldLog = true;\n");
-            code.append("        break;\n");
+        // a deferred stack is only recorded here and symbolized on the writer thread
+        code.append("    if (com.asm.mja.logging.TraceFileLogger.getInstance().isStackSymbolizationDeferred()) {\n");
+        code.append("      com.asm.mja.logging.TraceFileLogger.getInstance()\n");
+        code.append("        .probeRawStack(").append(probeId).append(", ").append(filterId).append(", new Throwable());\n");
+        code.append("    } else {\n");
+        if (filtered) {
+            code.append("      StackTraceElement[] stack = com.asm.mja.logging.StackCapture.captureIfMatches(")
+                    .append(filterId).append(");\n");
+            code.append("      if (stack != null) {\n");
+            code.append("        com.asm.mja.logging.TraceFileLogger.getInstance()\n");
+            code.append("          .probeStack(").append(probeId).append(", stack);\n");
             code.append("      }\n");
-            code.append("    }\n");
-            code.append("    if (shouldLog) {\n");
-            code.append("      com.asm.mja.logging.TraceFileLogger.getInstance()\n");
-            code.append("        .stack(\"{").append(formattedClassName).append(".")
-                    .append(methodName).append("} | ").append(event)
-                    .append(" | STACK\", stack);\n");
-            code.append("    }\n");
         } else {
-            code.append("    com.asm.mja.logging.TraceFileLogger.getInstance()\n");
-            code.append("      .stack(\"{").append(formattedClassName).append(".")
-                    .append(methodName).append("} | ").append(event)
-                    .append(" | STACK\", stack);\n");
+            code.append("      StackTraceElement[] stack = com.asm.mja.logging.StackCapture.capture();\n");
+            code.append("      com.asm.mja.logging.TraceFileLogger.getInstance()\n");
+            code.append("        .probeStack(").append(probeId).append(", stack);\n");
         }
+        code.append("    }\n");
 
         code.append("  } catch (Exception e) {\n");
         code.append("    e.printStackTrace();\n");
@@ -1,8 +1,15 @@
 package com.asm.mja.utils;
 
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author ashut
@@ -32,4 +39,35 @@ public class ByteCodeUtils {
             return baos.toByteArray();
         }
     }
+
+    /**
+     * Lists the methods of a class file that a rule with a wildcard method pattern can target: methods with code,
+     * declared in the source, so constructors, initializers, bridges and other synthetic methods are left out.
+     *
+     * @return the method names, each once however many overloads it has.
+     */
+    public static List<String> instrumentableMethodNames(byte[] classfile) {
+        List<String> names = new ArrayList<>();
+        int excluded = Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE | Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE;
+        new ClassReader(classfile).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                if ((access & excluded) == 0 && name.charAt(0) != '<' && !names.contains(name)) {
+                    names.add(name);
+                }
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return names;
+    }
+
+    /**
+     * A rule whose method name is the simple name of its class targets the class's constructors.
+     *
+     * @param className the binary name, such as {@code com.shop.Orders} or {@code com.shop.Orders$Line}.
+     */
+    public static boolean isConstructorTarget(String className, String methodName) {
+        int simpleName = Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1;
+        return className.length() - simpleName == methodName.length() && className.startsWith(methodName, simpleName);
+    }
 }
@@ -1,10 +1,10 @@
 package com.asm.mja.utils;
 
 import com.asm.mja.rule.Rule;
+import com.asm.mja.rule.RuleMatcher;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -14,19 +14,23 @@ import java.util.stream.Collectors;
 
 public class ClassRuleUtils {
     public static Class<?>[] ruleClasses(Class<?>[] allLoadedClasses, List<Rule> rules) {
-        Set<String> classNamesToInstrument = rules.stream()
-                .filter(rule -> !rule.isClassReplacementRule())
-                .map(Rule::getClassName)
-                .collect(Collectors.toSet());
-
+        RuleMatcher matcher = RuleMatcher.compile(rules);
         return Arrays.stream(allLoadedClasses)
-                .filter(clazz -> classNamesToInstrument.contains(clazz.getName()))
+                .filter(clazz -> !matcher.match(clazz.getName()).isEmpty())
                 .toArray(Class<?>[]::new);
     }
 
     public static List<Class<?>> resolveRuleClasses(Class<?>[] allLoadedClasses, List<Rule> rules) {
+        // instrumentation rules match as the transformer matches them; class replacement rules keep their own patterns
+        RuleMatcher matcher = RuleMatcher.compile(rules);
+        List<Rule> replacementRules = rules.stream()
+                .filter(Rule::isClassReplacementRule)
+                .collect(Collectors.toList());
+        // the transformer leaves the agent's own classes alone, so retransforming them would be wasted work
         return Arrays.stream(allLoadedClasses)
-                .filter(clazz -> rules.stream().anyMatch(rule -> matchesClassPattern(rule.getClassName(), clazz.getName())))
+                .filter(clazz -> !matcher.match(clazz.getName()).isEmpty()
+                        || !RuleMatcher.isAgentClass(clazz.getName())
+                        && replacementRules.stream().anyMatch(rule -> matchesClassPattern(rule.getClassName(), clazz.getName())))
                 .collect(Collectors.toList());
     }
 
@@ -10,9 +10,15 @@ import java.util.Date;
 
 public class DateUtils {
 
+    private static final ThreadLocal<SimpleDateFormat> TIMESTAMP_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS"));
+
     public static String getFormattedTimestamp() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
-        return dateFormat.format(new Date());
+        return getFormattedTimestamp(System.currentTimeMillis());
+    }
+
+    public static String getFormattedTimestamp(long timestamp) {
+        return TIMESTAMP_FORMAT.get().format(new Date(timestamp));
     }
 
     public static String getFormattedTimestampForFileName() {
@@ -0,0 +1,137 @@
+package com.asm.mja.logging;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Captures the caller's stack for STACK probes. Called from instrumented code.
+ *
+ * Java 9+ implementation, packaged under {@code META-INF/versions/9} of the multi-release jar.
+ * With a depth limit, a filtered capture first walks at most {@code maxDepth} frames with
+ * {@link StackWalker}, matching the {@link StackFilter} against class names and resolving method
+ * names only when a pattern needs them, and stops at the first deciding frame. Only accepted
+ * stacks are then converted to {@link StackTraceElement}s.
+ *
+ * Walking frame by frame costs more per frame than {@link Throwable#getStackTrace()}, so without
+ * a depth limit the whole stack is captured natively and filtered like the Java 8 version.
+ *
+ * @author ashut
+ * @since 17-10-2026
+ */
+public final class StackCapture {
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    /** Frames of this class between the caller and the walk: the walking helper and the public entry point. */
+    private static final int OWN_FRAMES = 2;
+    /** Filtered captures go through {@link #capture(int, int)} as well. */
+    private static final int FILTERED_OWN_FRAMES = OWN_FRAMES + 1;
+
+    /** Frames captured per stack; 0 means the whole stack. */
+    private static volatile int maxDepth;
+
+    private StackCapture() {
+    }
+
+    static void setMaxDepth(int depth) {
+        maxDepth = Math.max(0, depth);
+    }
+
+    static int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the caller's stack, starting with the calling method, limited to the configured depth.
+     */
+    public static StackTraceElement[] capture() {
+        return materialize(maxDepth, OWN_FRAMES);
+    }
+
+    /**
+     * @param filterId id returned by {@link StackFilter#register(String)}.
+     * @return the caller's stack, limited to the configured depth, or null if the filter rejects it.
+     */
+    public static StackTraceElement[] captureIfMatches(int filterId) {
+        return capture(filterId, FILTERED_OWN_FRAMES);
+    }
+
+    /**
+     * Captures the stack of the method that called the caller, for helpers that instrumented code calls.
+     *
+     * @param filterId id returned by {@link StackFilter#register(String)}, or -1 for none.
+     * @return the stack, starting with the caller's caller, or null if the filter rejects it.
+     */
+    static StackTraceElement[] captureCallerOf(int filterId) {
+        return capture(filterId, FILTERED_OWN_FRAMES + 1);
+    }
+
+    private static StackTraceElement[] capture(int filterId, int ownFrames) {
+        int depth = maxDepth;
+        StackFilter filter = StackFilter.get(filterId);
+        if (depth == 0) {
+            StackTraceElement[] stack = materialize(0, ownFrames);
+            return filter == null || filter.matches(stack) ? stack : null;
+        }
+        if (filter != null && !accepts(filter, depth, ownFrames)) {
+            return null;
+        }
+        return materialize(depth, ownFrames);
+    }
+
+    private static boolean accepts(StackFilter filter, int depth, int ownFrames) {
+        return WALKER.walk(stream -> {
+            Stream<StackWalker.StackFrame> frames = limit(stream.skip(ownFrames), depth);
+            WalkedFrame frame = new WalkedFrame();
+            if (!filter.hasExclusions()) {
+                return frames.anyMatch(next -> filter.includes(frame.at(next)));
+            }
+            boolean[] included = {false};
+            boolean rejected = frames.anyMatch(next -> {
+                if (filter.excludes(frame.at(next))) {
+                    return true;
+                }
+                if (!included[0]) {
+                    included[0] = filter.includes(frame);
+                }
+                return false;
+            });
+            return !rejected && included[0];
+        });
+    }
+
+    private static StackTraceElement[] materialize(int depth, int ownFrames) {
+        if (depth == 0) {
+            StackTraceElement[] stack = new Throwable().getStackTrace();
+            return Arrays.copyOfRange(stack, Math.min(ownFrames, stack.length), stack.length);
+        }
+        return WALKER.walk(stream -> limit(stream.skip(ownFrames), depth)
+                .map(StackWalker.StackFrame::toStackTraceElement)
+                .toArray(StackTraceElement[]::new));
+    }
+
+    private static Stream<StackWalker.StackFrame> limit(Stream<StackWalker.StackFrame> frames, int depth) {
+        return depth > 0 ? frames.limit(depth) : frames;
+    }
+
+    /**
+     * Reused view of the current frame, so method names are resolved only on demand.
+     */
+    private static final class WalkedFrame implements StackFilter.Frame {
+        private StackWalker.StackFrame frame;
+
+        WalkedFrame at(StackWalker.StackFrame frame) {
+            this.frame = frame;
+            return this;
+        }
+
+        @Override
+        public String getClassName() {
+            return frame.getClassName();
+        }
+
+        @Override
+        public String getMethodName() {
+            return frame.getMethodName();
+        }
+    }
+}
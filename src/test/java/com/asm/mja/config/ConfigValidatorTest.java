@@ -1,5 +1,8 @@
 package com.asm.mja.config;
 
+import com.asm.mja.logging.AgentLogger;
+import com.asm.mja.logging.LogLevel;
+import com.asm.mja.logging.TraceSinkType;
 import org.junit.jupiter.api.Test;
 
 import java.nio.file.Files;
@@ -122,4 +125,32 @@ public class ConfigValidatorTest {
         assertTrue(result.isValid());
         assertEquals(1, result.getRuleValidationReport().getRejectedIssues().size());
     }
+
+    @Test
+    void diskBudgetRequiresRetentionThatLetsVerbosityRecover() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-trace");
+        AgentLogger.init(traceDir.resolve("agent.log").toString(), LogLevel.WARNING);
+        Config config = new Config();
+        config.setMode(AgentMode.INSTRUMENTER);
+        InstrumentationConfig instrumentation = new InstrumentationConfig();
+        instrumentation.setEnabled(true);
+        instrumentation.setTraceFileLocation(traceDir.toString());
+        instrumentation.setAgentRules(new HashSet<>(Arrays.asList("com.example.Foo::bar@INGRESS::ARGS")));
+        TraceBudgetConfig budget = new TraceBudgetConfig();
+        budget.setMaxDiskMb(1000);
+        TraceConfig trace = new TraceConfig();
+        trace.setBudget(budget);
+        instrumentation.setTrace(trace);
+        config.setInstrumentation(instrumentation);
+
+        // a single trace file only grows
+        assertFalse(ConfigValidator.isValid(config));
+
+        trace.setSink(TraceSinkType.MMAP);
+        assertFalse(ConfigValidator.isValid(config));
+        trace.setMaxTotalSizeMb(1000);
+        assertFalse(ConfigValidator.isValid(config));
+        trace.setMaxTotalSizeMb(600);
+        assertTrue(ConfigValidator.isValid(config));
+    }
 }
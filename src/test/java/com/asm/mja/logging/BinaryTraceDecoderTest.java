@@ -0,0 +1,127 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the binary trace format and its decoder.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class BinaryTraceDecoderTest {
+
+    @Test
+    void decodesBinaryRecordsBackToTheTextFormat() throws Exception {
+        int argsProbe = ProbeRegistry.getInstance().register("com.example.Foo", "bar", "INGRESS", "ARGS");
+        int stackProbe = ProbeRegistry.getInstance().register("com.example.Foo", "bar", "EGRESS", "STACK");
+        long now = System.currentTimeMillis();
+        StackTraceElement[] stack = {
+                new StackTraceElement("com.example.Foo", "bar", "Foo.java", 42),
+                new StackTraceElement("com.example.Foo", "run", null, -2)
+        };
+        TraceRecord[] records = {
+                record(TraceRecord.Level.TRACE, now, 7, "main", ProbeRegistry.getInstance().get(argsProbe), " 0=café 1=null", null),
+                record(TraceRecord.Level.TRACE, now + 5, 8, "worker-1", ProbeRegistry.getInstance().get(stackProbe), null, stack),
+                record(TraceRecord.Level.WARN, now - 3, 7, "main", null, "free-form message", null),
+                record(TraceRecord.Level.EXCEPTION, now + 9, 7, "main", null, null, stack)
+        };
+
+        BinaryTraceDictionary dictionary = new BinaryTraceDictionary(now);
+        BinaryTraceEncoder binaryEncoder = new BinaryTraceEncoder(now);
+        TraceTextEncoder textEncoder = new TraceTextEncoder();
+        TraceBuffer binary = new TraceBuffer();
+        TraceBuffer text = new TraceBuffer();
+        dictionary.appendPreamble(binary);
+        for (TraceRecord record : records) {
+            dictionary.define(record, binary);
+            binaryEncoder.encode(record, binary);
+            textEncoder.encode(record, text);
+        }
+
+        assertEquals(new String(text.toByteArray(), StandardCharsets.UTF_8), decode(binary.toByteArray(), BinaryTraceDecoder.Output.TEXT));
+    }
+
+    @Test
+    void decodesTraceFileLoggerOutputAsJsonLines() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-binary-trace");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setFormat(TraceFormat.BINARY);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.OrderService", "placeOrder", "EGRESS", "RET");
+        for (int i = 0; i < 1000; i++) {
+            logger.probe(probeId, "Order{id=" + i + "}");
+        }
+        logger.close();
+
+        Path binaryFile = traceDir.resolve("agent.trace.bin");
+        String json = decode(Files.readAllBytes(binaryFile), BinaryTraceDecoder.Output.JSON);
+        String[] lines = json.split("\n");
+        assertTrue(lines.length >= 1000);
+        assertTrue(json.contains("\"class\":\"com.example.OrderService\",\"method\":\"placeOrder\",\"event\":\"EGRESS\",\"action\":\"RET\",\"payload\":\"Order{id=999}\""));
+        assertTrue(json.contains("\"message\":\"Shutting down TraceFileLogger\""));
+
+        // the site name is written once, so each record costs a few bytes plus its payload
+        assertTrue(Files.size(binaryFile) < 1000 * 30, "Binary trace is " + Files.size(binaryFile) + " bytes");
+    }
+
+    @Test
+    void reportsTruncatedTailWithoutFailing() throws Exception {
+        long now = System.currentTimeMillis();
+        BinaryTraceDictionary dictionary = new BinaryTraceDictionary(now);
+        TraceBuffer binary = new TraceBuffer();
+        dictionary.appendPreamble(binary);
+        TraceRecord record = record(TraceRecord.Level.TRACE, now, 1, "main", null, "complete", null);
+        dictionary.define(record, binary);
+        new BinaryTraceEncoder(now).encode(record, binary);
+        int complete = binary.length();
+        record.message = "cut off by a crash";
+        new BinaryTraceEncoder(now).encode(record, binary);
+
+        byte[] torn = new byte[complete + 6 + 64];
+        System.arraycopy(binary.array(), 0, torn, 0, complete + 6);
+        BinaryTraceDecoder decoder = new BinaryTraceDecoder(BinaryTraceDecoder.Output.TEXT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new ByteArrayInputStream(torn, 0, complete + 6)) {
+            decoder.decode(in, out);
+        }
+        assertEquals(1, decoder.getRecordCount());
+        assertTrue(decoder.isTruncated());
+
+        // zero padding after the last entry, as left by a memory-mapped segment, is skipped
+        decoder = new BinaryTraceDecoder(BinaryTraceDecoder.Output.TEXT);
+        try (InputStream in = new ByteArrayInputStream(torn, 0, complete)) {
+            ByteArrayOutputStream padded = new ByteArrayOutputStream();
+            padded.write(torn, 0, complete);
+            padded.write(new byte[64]);
+            decoder.decode(new ByteArrayInputStream(padded.toByteArray()), out);
+        }
+        assertEquals(1, decoder.getRecordCount());
+        assertFalse(decoder.isTruncated());
+    }
+
+    private static String decode(byte[] binary, BinaryTraceDecoder.Output output) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryTraceDecoder(output).decode(new ByteArrayInputStream(binary), out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static TraceRecord record(TraceRecord.Level level, long timestamp, long threadId, String threadName,
+                                      ProbeSite probe, String message, StackTraceElement[] stack) {
+        TraceRecord record = new TraceRecord();
+        record.set(level, timestamp, threadId, threadName, probe, message, stack);
+        return record;
+    }
+}
@@ -0,0 +1,61 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for plugging a {@link TraceSink} implementation in by class name.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class CustomTraceSinkTest {
+
+    @Test
+    void traceFileLoggerWritesToConfiguredSinkClass() throws Exception {
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setSink(TraceSinkType.CUSTOM);
+        traceConfig.setSinkClass(MemorySink.class.getName());
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(Files.createTempDirectory("mja-custom-sink").toString(), traceConfig);
+        logger.trace("hello custom sink");
+        logger.close();
+
+        String written = new String(MemorySink.last.bytes.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(MemorySink.last.traceFile.endsWith("agent.trace"), MemorySink.last.traceFile);
+        assertTrue(written.contains("[TRACE] [main] hello custom sink"), written);
+        assertTrue(MemorySink.last.closed);
+    }
+
+    public static class MemorySink implements TraceSink {
+        static MemorySink last;
+
+        final String traceFile;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        boolean closed;
+
+        public MemorySink(String traceFile) {
+            this.traceFile = traceFile;
+            last = this;
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            bytes.write(data, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.FlightRecorderConfig;
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the in-memory probe flight recorder.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class FlightRecorderTest {
+
+    @BeforeEach
+    void initLogger() throws Exception {
+        // dumps are reported in the trace file
+        TraceFileLogger.getInstance().init(Files.createTempDirectory("mja-flight-log").toString(), new TraceConfig());
+    }
+
+    @AfterEach
+    void closeLogger() {
+        TraceFileLogger.getInstance().close();
+    }
+
+    @Test
+    void dumpsOnlyTheNewestRecords() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-flight-ring");
+        FlightRecorder recorder = new FlightRecorder(6, 0, 0, true, traceDir, TraceFormat.TEXT);
+        assertEquals(8, recorder.capacity());
+        ProbeSite probe = probe("ring");
+        TraceRecord record = new TraceRecord();
+        for (int i = 0; i < 20; i++) {
+            record.set(TraceRecord.Level.TRACE, System.currentTimeMillis(), 1, "main", probe, " hit=" + i, null);
+            recorder.record(record);
+            record.clear();
+        }
+        try {
+            String dump = read(recorder.dumpNow("test"));
+
+            assertTrue(dump.contains("Flight recorder dump triggered by test"), dump);
+            assertFalse(dump.contains(" hit=11\n"), dump);
+            for (int i = 12; i < 20; i++) {
+                assertTrue(dump.contains(" hit=" + i + "\n"), dump);
+            }
+        } finally {
+            recorder.close();
+        }
+    }
+
+    @Test
+    void skipsRecordsOlderThanTheMaximumAge() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-flight-age");
+        FlightRecorder recorder = new FlightRecorder(16, 60_000, 0, true, traceDir, TraceFormat.TEXT);
+        ProbeSite probe = probe("age");
+        TraceRecord record = new TraceRecord();
+        record.set(TraceRecord.Level.TRACE, System.currentTimeMillis() - 120_000, 1, "main", probe, " stale", null);
+        recorder.record(record);
+        record.set(TraceRecord.Level.TRACE, System.currentTimeMillis(), 1, "main", probe, " fresh", null);
+        recorder.record(record);
+        try {
+            String dump = read(recorder.dumpNow("test"));
+
+            assertFalse(dump.contains(" stale"), dump);
+            assertTrue(dump.contains(" fresh"), dump);
+        } finally {
+            recorder.close();
+        }
+    }
+
+    @Test
+    void automaticTriggersHonorTheMinimumDumpInterval() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-flight-interval");
+        FlightRecorder recorder = new FlightRecorder(16, 0, 60_000, true, traceDir, TraceFormat.TEXT);
+        try {
+            assertTrue(recorder.trigger("first alert"));
+            assertFalse(recorder.trigger("second alert"));
+            // explicit dumps are not limited
+            recorder.dumpNow("request");
+        } finally {
+            recorder.close();
+        }
+        assertEquals(2, Files.list(traceDir).count());
+    }
+
+    @Test
+    void keepsProbeRecordsOutOfTheTraceFileUntilDumped() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-flight-trace");
+        TraceConfig traceConfig = new TraceConfig();
+        FlightRecorderConfig recorderConfig = new FlightRecorderConfig();
+        recorderConfig.setEnabled(true);
+        traceConfig.setFlightRecorder(recorderConfig);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+        assertTrue(logger.isFlightRecorderEnabled());
+        assertTrue(logger.isStackSymbolizationDeferred());
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.Flight", "run", "INGRESS", "ARGS");
+        int stackId = ProbeRegistry.getInstance().register("com.example.Flight", "run", "INGRESS", "STACK");
+        logger.probe(probeId, " 0=1");
+        logger.probeRawStack(stackId, -1, new Throwable());
+        Path dump = logger.dumpFlightRecorder("test");
+        logger.close();
+        assertFalse(logger.isFlightRecorderEnabled());
+        assertNull(logger.dumpFlightRecorder("closed"));
+
+        String trace = read(traceDir.resolve("agent.trace"));
+        String dumped = read(dump);
+        assertFalse(trace.contains("{com.example.Flight.run}"), trace);
+        assertTrue(trace.contains("Flight recorder dumped 2 records to " + dump), trace);
+        assertTrue(dumped.contains("{com.example.Flight.run} | INGRESS | ARGS |  0=1\n"), dumped);
+        assertTrue(dumped.contains("keepsProbeRecordsOutOfTheTraceFileUntilDumped"), dumped);
+    }
+
+    private static ProbeSite probe(String method) {
+        return ProbeRegistry.getInstance().get(ProbeRegistry.getInstance().register("com.example.Flight", method, "INGRESS", "ARGS"));
+    }
+
+    private static String read(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,102 @@
+package com.asm.mja.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for memory-mapped, size-rolled trace segments.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class MappedSegmentTraceSinkTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Test
+    void rollsSegmentsWithoutSplittingRecordsAndTruncatesOnClose() throws Exception {
+        Path dir = Files.createTempDirectory("mja-segments");
+        MappedSegmentTraceSink sink = new MappedSegmentTraceSink(dir, "agent.trace", SEGMENT_SIZE, 100, 0, false, null, Runnable::run);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String line = "record-" + i + " | INGRESS | ARGS |  0=" + i + "\n";
+            expected.append(line);
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            sink.write(bytes, 0, bytes.length);
+        }
+        sink.close();
+
+        List<Path> segments = sink.listSegments();
+        assertTrue(segments.size() > 1, "Expected the sink to roll");
+        StringBuilder actual = new StringBuilder();
+        for (Path segment : segments) {
+            String content = new String(Files.readAllBytes(segment), StandardCharsets.UTF_8);
+            assertTrue(Files.size(segment) <= SEGMENT_SIZE);
+            assertTrue(content.endsWith("\n"), "Records must not straddle segments: " + segment);
+            actual.append(content);
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void compressesClosedSegmentsAndKeepsOnlyConfiguredCount() throws Exception {
+        Path dir = Files.createTempDirectory("mja-segments");
+        MappedSegmentTraceSink sink = new MappedSegmentTraceSink(dir, "agent.trace", SEGMENT_SIZE, 3, 0, true, null, Runnable::run);
+        byte[] line = new byte[64];
+        Arrays.fill(line, (byte) 'x');
+        line[line.length - 1] = '\n';
+        for (int i = 0; i < 16 * 10; i++) {
+            sink.write(line, 0, line.length);
+        }
+        Path active = sink.getActiveSegment();
+        sink.close();
+
+        List<Path> segments = sink.listSegments();
+        assertEquals(3, segments.size(), "Retention should keep 3 segments: " + segments);
+        assertEquals(active, segments.get(segments.size() - 1));
+        for (Path segment : segments.subList(0, segments.size() - 1)) {
+            assertTrue(segment.toString().endsWith(MappedSegmentTraceSink.COMPRESSED_SUFFIX), "Expected compressed " + segment);
+            assertEquals(SEGMENT_SIZE, gunzip(segment).length);
+        }
+    }
+
+    @Test
+    void deletesOldestSegmentsOnceDiskBudgetIsExceeded() throws Exception {
+        Path dir = Files.createTempDirectory("mja-segments");
+        MappedSegmentTraceSink sink = new MappedSegmentTraceSink(dir, "agent.trace", SEGMENT_SIZE, 100, 3L * SEGMENT_SIZE, false, null, Runnable::run);
+        byte[] line = new byte[SEGMENT_SIZE];
+        for (int i = 0; i < 10; i++) {
+            sink.write(line, 0, line.length);
+        }
+        sink.close();
+
+        long total = 0;
+        for (Path segment : sink.listSegments()) {
+            total += Files.size(segment);
+        }
+        assertTrue(total <= 3L * SEGMENT_SIZE, "Segments exceed the disk budget: " + total);
+    }
+
+    private static byte[] gunzip(Path path) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the memory-mapped trace journal.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class ProbeJournalTest {
+
+    @Test
+    void keepsTheNewestRecordsWhenWrapping() throws Exception {
+        Path file = Files.createTempDirectory("mja-journal").resolve(ProbeJournal.FILE_NAME);
+        Random random = new Random(42);
+        List<String> appended = new ArrayList<>();
+        try (ProbeJournal journal = new ProbeJournal(file, 1000)) {
+            for (int i = 0; i < 500; i++) {
+                StringBuilder line = new StringBuilder("record-").append(i).append(' ');
+                for (int pad = random.nextInt(80); pad > 0; pad--) {
+                    line.append('x');
+                }
+                String record = line.append('\n').toString();
+                appended.add(record);
+                byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+                journal.append(bytes, 0, bytes.length);
+            }
+        }
+
+        ProbeJournalReader reader = new ProbeJournalReader();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reader.read(file, out);
+
+        assertTrue(reader.isClosedCleanly());
+        assertFalse(reader.isTruncated());
+        assertEquals(500, reader.getLastSequence());
+        assertTrue(reader.getFirstSequence() > 1);
+        assertEquals(reader.getLastSequence() - reader.getFirstSequence() + 1, reader.getFrameCount());
+        StringBuilder expected = new StringBuilder();
+        for (int i = (int) reader.getFirstSequence() - 1; i < appended.size(); i++) {
+            expected.append(appended.get(i));
+        }
+        assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        // only whole frames are kept and the next frame would not have fit
+        assertTrue(expected.length() + 12 * reader.getFrameCount() <= 1000);
+    }
+
+    @Test
+    void isReadableWhileStillOpen() throws Exception {
+        Path file = Files.createTempDirectory("mja-journal-open").resolve(ProbeJournal.FILE_NAME);
+        ProbeJournal journal = new ProbeJournal(file, 4096);
+        try {
+            byte[] record = "last words\n".getBytes(StandardCharsets.UTF_8);
+            journal.append(record, 0, record.length);
+
+            ProbeJournalReader reader = new ProbeJournalReader();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            reader.read(file, out);
+
+            assertFalse(reader.isClosedCleanly());
+            assertEquals(1, reader.getFrameCount());
+            assertEquals("last words\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void skipsRecordsLargerThanTheJournal() throws Exception {
+        Path file = Files.createTempDirectory("mja-journal-oversized").resolve(ProbeJournal.FILE_NAME);
+        try (ProbeJournal journal = new ProbeJournal(file, 64)) {
+            journal.append(new byte[100], 0, 100);
+            assertEquals(1, journal.getOversizedCount());
+        }
+        ProbeJournalReader reader = new ProbeJournalReader();
+        reader.read(file, new ByteArrayOutputStream());
+        assertEquals(0, reader.getFrameCount());
+    }
+
+    @Test
+    void journalsTraceRecordsAlongsideTheTraceFile() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-journal-trace");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setJournalSizeMb(1);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.Journal", "run", "INGRESS", "ARGS");
+        logger.probe(probeId, " 0=1");
+        logger.close();
+
+        ProbeJournalReader reader = new ProbeJournalReader();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reader.read(traceDir.resolve(ProbeJournal.FILE_NAME), out);
+        String journaled = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        assertTrue(journaled.contains("{com.example.Journal.run} | INGRESS | ARGS |  0=1\n"), journaled);
+        assertEquals(trace, journaled);
+    }
+}
@@ -0,0 +1,81 @@
+package com.asm.mja.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for per-rule token buckets.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class ProbeRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstOfOnePeriodThenRefillsAtConfiguredRate() {
+        long start = 1_000_000_000L;
+        ProbeRateLimiter limiter = new ProbeRateLimiter(0, 100, SECOND, "100/s", start);
+        ProbeRateLimiter.setReportIntervalMillis(0);
+
+        int allowed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (limiter.acquire(start)) {
+                allowed++;
+            }
+        }
+        assertEquals(100, allowed);
+        assertEquals(900, limiter.getSuppressedCount());
+
+        // one refill interval later exactly one more hit is allowed
+        assertTrue(limiter.acquire(start + SECOND / 100));
+        assertFalse(limiter.acquire(start + SECOND / 100));
+
+        // over ten seconds of steady hits, about 100 per second get through
+        allowed = 0;
+        for (long now = start + SECOND / 100; now < start + SECOND / 100 + 10 * SECOND; now += SECOND / 10_000) {
+            if (limiter.acquire(now)) {
+                allowed++;
+            }
+        }
+        assertTrue(allowed >= 999 && allowed <= 1001, "allowed=" + allowed);
+    }
+
+    @Test
+    void concurrentHitsNeverExceedBucketCapacity() throws Exception {
+        ProbeRateLimiter limiter = new ProbeRateLimiter(0, 1000, TimeUnit.HOURS.toNanos(1), "1000/h", System.nanoTime());
+        ProbeRateLimiter.setReportIntervalMillis(0);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (limiter.acquire(System.nanoTime())) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertEquals(1000, allowed.get());
+        assertEquals(79_000, limiter.getSuppressedCount());
+    }
+
+    @Test
+    void registerReusesBucketForSameProbeAndLimit() {
+        int first = ProbeRateLimiter.register(7, 10, SECOND, "10/s");
+        assertEquals(first, ProbeRateLimiter.register(7, 10, SECOND, "10/s"));
+        assertNotEquals(first, ProbeRateLimiter.register(7, 20, SECOND, "20/s"));
+        assertNotEquals(first, ProbeRateLimiter.register(8, 10, SECOND, "10/s"));
+        assertTrue(ProbeRateLimiter.tryAcquire(-1), "Unknown limiters must not suppress probes");
+    }
+}
@@ -0,0 +1,63 @@
+package com.asm.mja.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link ProbeSwitches}.
+ * @author ashut
+ * @since 17-10-2026
+ */
+class ProbeSwitchesTest {
+
+    @Test
+    void registersOneSwitchPerRuleTurnedOn() {
+        int id = ProbeSwitches.register("switches-test::register");
+        assertEquals(id, ProbeSwitches.register("switches-test::register"));
+        assertTrue(ProbeSwitches.isEnabled(id));
+        assertTrue(ProbeSwitches.isEnabled(-1));
+        assertTrue(ProbeSwitches.isEnabled(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void callSitesFollowTheSwitch() throws Throwable {
+        int id = ProbeSwitches.register("switches-test::toggle");
+        MethodType type = MethodType.methodType(boolean.class);
+        CallSite site = ProbeSwitches.bootstrap(MethodHandles.lookup(), "isEnabled", type, id);
+        assertSame(site, ProbeSwitches.bootstrap(MethodHandles.lookup(), "isEnabled", type, id));
+        MethodHandle check = site.dynamicInvoker();
+        assertTrue((boolean) check.invokeExact());
+
+        assertTrue(ProbeSwitches.setEnabled("switches-test::toggle", false));
+        assertFalse(ProbeSwitches.setEnabled("switches-test::toggle", false));
+        assertFalse((boolean) check.invokeExact());
+        assertFalse(ProbeSwitches.isEnabled(id));
+
+        assertTrue(ProbeSwitches.setEnabled("switches-test::toggle", true));
+        assertTrue((boolean) check.invokeExact());
+        assertTrue(ProbeSwitches.isEnabled(id));
+    }
+
+    @Test
+    void keepsTheStateOfRulesNotWovenYet() {
+        ProbeSwitches.setEnabled("switches-test::later", false);
+        assertFalse(ProbeSwitches.isEnabled(ProbeSwitches.register("switches-test::later")));
+    }
+
+    @Test
+    void rejectsCallSitesOfOtherTypes() {
+        int id = ProbeSwitches.register("switches-test::type");
+        assertThrows(IllegalArgumentException.class, () -> ProbeSwitches.bootstrap(MethodHandles.lookup(), "isEnabled",
+                MethodType.methodType(int.class), id));
+    }
+}
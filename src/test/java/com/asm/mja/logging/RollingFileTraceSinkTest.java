@@ -0,0 +1,116 @@
+package com.asm.mja.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for size- and time-rotated trace files.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class RollingFileTraceSinkTest {
+
+    private static final int ROTATE_BYTES = 1024;
+
+    @Test
+    void rotatesBySizeAndCompressesRotatedFiles() throws Exception {
+        Path dir = Files.createTempDirectory("mja-rolling");
+        Path active = dir.resolve("agent.trace");
+        RollingFileTraceSink sink = new RollingFileTraceSink(active, 0, ROTATE_BYTES, 0, 100, 0, true, null, Runnable::run);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String line = "record-" + i + " | INGRESS | ARGS |  0=" + i + "\n";
+            expected.append(line);
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            sink.write(bytes, 0, bytes.length);
+        }
+        sink.close();
+
+        List<Path> rotated = new SegmentFiles(dir, "agent.trace").list();
+        assertTrue(rotated.size() > 1, "Expected the sink to rotate");
+        StringBuilder actual = new StringBuilder();
+        for (Path file : rotated) {
+            assertTrue(file.toString().endsWith(SegmentFiles.COMPRESSED_SUFFIX), "Expected compressed " + file);
+            byte[] content = gunzip(file);
+            assertTrue(content.length <= ROTATE_BYTES);
+            actual.append(new String(content, StandardCharsets.UTF_8));
+        }
+        actual.append(new String(Files.readAllBytes(active), StandardCharsets.UTF_8));
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void keepsConfiguredFileCountIncludingActiveFile() throws Exception {
+        Path dir = Files.createTempDirectory("mja-rolling");
+        Path active = dir.resolve("agent.trace");
+        RollingFileTraceSink sink = new RollingFileTraceSink(active, 0, ROTATE_BYTES, 0, 3, 0, false, null, Runnable::run);
+        byte[] line = new byte[ROTATE_BYTES];
+        for (int i = 0; i < 10; i++) {
+            sink.write(line, 0, line.length);
+        }
+        sink.close();
+
+        List<Path> rotated = new SegmentFiles(dir, "agent.trace").list();
+        assertEquals(2, rotated.size(), rotated.toString());
+        assertTrue(rotated.get(1).toString().endsWith("agent.trace.00008"), rotated.toString());
+        assertEquals(ROTATE_BYTES, Files.size(active));
+    }
+
+    @Test
+    void rotatesByAgeAndRepeatsBinaryPreamble() throws Exception {
+        Path dir = Files.createTempDirectory("mja-rolling");
+        Path active = dir.resolve("agent.trace.bin");
+        long now = System.currentTimeMillis();
+        BinaryTraceDictionary dictionary = new BinaryTraceDictionary(now);
+        RollingFileTraceSink sink = new RollingFileTraceSink(active, 0, 0, 1, 100, 0, false, dictionary, Runnable::run);
+        BinaryTraceEncoder encoder = new BinaryTraceEncoder(now);
+        TraceRecord record = new TraceRecord();
+        TraceBuffer buffer = new TraceBuffer();
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(5);
+            record.set(TraceRecord.Level.TRACE, System.currentTimeMillis(), 1, "main", null, "message " + i, null);
+            buffer.reset();
+            dictionary.define(record, buffer);
+            encoder.encode(record, buffer);
+            buffer.writeTo(sink);
+        }
+        sink.close();
+
+        List<Path> rotated = new SegmentFiles(dir, "agent.trace.bin").list();
+        assertEquals(2, rotated.size(), rotated.toString());
+        rotated.add(active);
+        for (Path file : rotated) {
+            // every file is decodable on its own
+            BinaryTraceDecoder decoder = new BinaryTraceDecoder(BinaryTraceDecoder.Output.TEXT);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream in = Files.newInputStream(file)) {
+                decoder.decode(in, out);
+            }
+            assertEquals(1, decoder.getRecordCount(), file.toString());
+            assertTrue(out.toString("UTF-8").contains("[TRACE] [main] message"), out.toString("UTF-8"));
+        }
+    }
+
+    private static byte[] gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
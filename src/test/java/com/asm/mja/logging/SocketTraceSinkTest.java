@@ -0,0 +1,161 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for streaming trace records to a local collector.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class SocketTraceSinkTest {
+
+    @Test
+    void streamsRecordsInOrderOverTcp() throws Exception {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        try (TraceSocketCollector collector = new TraceSocketCollector(SocketEndpoint.parse("127.0.0.1:0"), received)) {
+            collector.start();
+            SocketTraceSink sink = new SocketTraceSink(SocketEndpoint.parse("127.0.0.1:" + collector.getPort()), 1024 * 1024);
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 5000; i++) {
+                expected.append(writeLine(sink, i));
+            }
+            sink.close();
+            awaitTrue(() -> collector.getLineCount() == 5000);
+            assertEquals(expected.toString(), received(received));
+            assertEquals(0, sink.getDroppedRecordCount());
+        }
+    }
+
+    @Test
+    void reconnectsAndDeliversWholeLinesAfterCollectorRestarts() throws Exception {
+        int port = freePort();
+        SocketEndpoint endpoint = SocketEndpoint.parse("127.0.0.1:" + port);
+        SocketTraceSink sink = new SocketTraceSink(endpoint, 64 * 1024);
+        // nothing is listening yet: records wait in the buffer
+        for (int i = 0; i < 100; i++) {
+            writeLine(sink, i);
+        }
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        try (TraceSocketCollector collector = new TraceSocketCollector(endpoint, received)) {
+            collector.start();
+            awaitTrue(() -> collector.getLineCount() == 100);
+
+            collector.disconnectClient();
+            for (int i = 100; i < 200; i++) {
+                writeLine(sink, i);
+                Thread.sleep(1);
+            }
+            sink.close();
+            awaitTrue(() -> received(received).contains("record-199 "));
+            assertTrue(collector.getConnectionCount() >= 2);
+        }
+        for (String line : received(received).split("\n")) {
+            assertTrue(line.matches("record-\\d+ payload-x{40}"), "Partial line: " + line);
+        }
+    }
+
+    @Test
+    void dropsRecordsThatDoNotFitWhileCollectorIsDown() throws Exception {
+        SocketTraceSink sink = new SocketTraceSink(SocketEndpoint.parse("127.0.0.1:" + freePort()), 1024);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            writeLine(sink, i);
+        }
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "Writes must not block on the network");
+        assertTrue(sink.getDroppedRecordCount() >= 1000 - 2 * 1024 / 60, "dropped=" + sink.getDroppedRecordCount());
+        sink.close();
+    }
+
+    @Test
+    void streamsOverUnixDomainSocket() throws Exception {
+        assumeTrue(SocketEndpoint.isUnixSupported());
+        Path socket = Files.createTempDirectory("mja-socket").resolve("trace.sock");
+        SocketEndpoint endpoint = SocketEndpoint.parse("unix:" + socket);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        try (TraceSocketCollector collector = new TraceSocketCollector(endpoint, received)) {
+            collector.start();
+            SocketTraceSink sink = new SocketTraceSink(endpoint, 64 * 1024);
+            String expected = writeLine(sink, 1) + writeLine(sink, 2);
+            sink.close();
+            awaitTrue(() -> collector.getLineCount() == 2);
+            assertEquals(expected, received(received));
+        }
+    }
+
+    @Test
+    void traceFileLoggerStreamsJsonLinesToCollector() throws Exception {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        try (TraceSocketCollector collector = new TraceSocketCollector(SocketEndpoint.parse("127.0.0.1:0"), received)) {
+            collector.start();
+            TraceConfig traceConfig = new TraceConfig();
+            traceConfig.setSink(TraceSinkType.SOCKET);
+            traceConfig.setFormat(TraceFormat.JSON);
+            traceConfig.setSocketAddress("127.0.0.1:" + collector.getPort());
+            TraceFileLogger logger = TraceFileLogger.getInstance();
+            logger.init(Files.createTempDirectory("mja-socket-trace").toString(), traceConfig);
+            int probeId = ProbeRegistry.getInstance().register("com.example.Socket", "send", "INGRESS", "ARGS");
+            logger.probe(probeId, " 0=1");
+            logger.close();
+
+            awaitTrue(() -> received(received).contains("Shutting down TraceFileLogger"));
+            assertTrue(received(received).contains("\"method\":\"send\",\"event\":\"INGRESS\",\"action\":\"ARGS\",\"payload\":\" 0=1\""));
+        }
+    }
+
+    @Test
+    void parsesEndpoints() {
+        assertTrue(SocketEndpoint.parse("unix:/tmp/trace.sock").isUnix());
+        assertEquals("localhost:9400", SocketEndpoint.parse("localhost:9400").toString());
+        assertEquals("[::1]:9400", SocketEndpoint.parse("[::1]:9400").toString());
+        for (String invalid : new String[]{"", "localhost", "localhost:", "localhost:http", "localhost:-1", "localhost:70000", "unix:"}) {
+            try {
+                SocketEndpoint.parse(invalid);
+                throw new AssertionError("Accepted " + invalid);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    private static String writeLine(SocketTraceSink sink, int i) throws Exception {
+        String line = "record-" + i + " payload-" + "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx" + "\n";
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        sink.write(bytes, 0, bytes.length);
+        return line;
+    }
+
+    private static String received(ByteArrayOutputStream received) {
+        synchronized (received) {
+            return new String(received.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for the collector");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
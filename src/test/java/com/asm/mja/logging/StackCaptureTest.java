@@ -0,0 +1,64 @@
+package com.asm.mja.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for STACK probe stack capture and filter matching.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class StackCaptureTest {
+
+    @AfterEach
+    void resetDepth() {
+        StackCapture.setMaxDepth(0);
+    }
+
+    @Test
+    void capturesFromTheCallingMethod() {
+        StackTraceElement[] stack = StackCapture.capture();
+        assertEquals(StackCaptureTest.class.getName(), stack[0].getClassName());
+        assertEquals("capturesFromTheCallingMethod", stack[0].getMethodName());
+        assertTrue(stack.length > 2);
+    }
+
+    @Test
+    void limitsCapturedFramesToMaxDepth() {
+        StackCapture.setMaxDepth(2);
+        StackTraceElement[] stack = StackCapture.capture();
+        assertEquals(2, stack.length);
+        assertEquals("limitsCapturedFramesToMaxDepth", stack[0].getMethodName());
+    }
+
+    @Test
+    void capturesOnlyWhenAFrameMatchesTheFilter() {
+        assertNotNull(StackCapture.captureIfMatches(StackFilter.register("StackCaptureTest.capturesOnly")));
+        assertNull(StackCapture.captureIfMatches(StackFilter.register("com.example.NotOnTheStack")));
+        assertNull(StackCapture.captureIfMatches(StackFilter.register("StackCaptureTest,!org.junit")));
+
+        // frames beyond the depth limit are not matched
+        StackCapture.setMaxDepth(1);
+        assertNotNull(StackCapture.captureIfMatches(StackFilter.register("StackCaptureTest")));
+        assertNull(StackCapture.captureIfMatches(StackFilter.register("junit")));
+    }
+
+    @Test
+    void capturesFromTheCallerOfAHelper() {
+        StackTraceElement[] stack = helper(-1);
+        assertEquals("capturesFromTheCallerOfAHelper", stack[0].getMethodName());
+
+        StackCapture.setMaxDepth(1);
+        assertEquals(1, helper(-1).length);
+        assertNull(helper(StackFilter.register("StackCaptureTest.helper")));
+    }
+
+    private static StackTraceElement[] helper(int filterId) {
+        return StackCapture.captureCallerOf(filterId);
+    }
+}
@@ -0,0 +1,138 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for STACK deduplication.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class StackDeduplicatorTest {
+
+    @Test
+    void identifiesEqualStacksPerProbeSite() {
+        ProbeSite ingress = ProbeRegistry.getInstance().get(
+                ProbeRegistry.getInstance().register("com.example.Foo", "bar", "INGRESS", "STACK"));
+        ProbeSite egress = ProbeRegistry.getInstance().get(
+                ProbeRegistry.getInstance().register("com.example.Foo", "bar", "EGRESS", "STACK"));
+        StackDeduplicator stacks = new StackDeduplicator(0, 10, System.currentTimeMillis());
+
+        StackDeduplicator.Entry first = stacks.lookup(ingress, stack(42));
+        assertSame(first, stacks.lookup(ingress, stack(42)));
+        assertNotSame(first, stacks.lookup(ingress, stack(43)));
+        assertNotSame(first, stacks.lookup(egress, stack(42)));
+        assertEquals(3, stacks.size());
+        // an interval of 0 only summarizes on shutdown
+        assertFalse(stacks.isSummaryDue(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void stopsTrackingOnceFull() {
+        StackDeduplicator stacks = new StackDeduplicator(0, 10, System.currentTimeMillis());
+        for (int i = 0; i < StackDeduplicator.MAX_STACKS; i++) {
+            stacks.lookup(null, stack(i));
+        }
+        assertNull(stacks.lookup(null, stack(-7)));
+        // turned away by the full flag, without inserting
+        assertNull(stacks.lookup(null, stack(-8)));
+        assertEquals(StackDeduplicator.MAX_STACKS, stacks.size());
+        assertEquals(1, stacks.lookup(null, stack(0)).id);
+    }
+
+    @Test
+    void neverRefersToAStackBeforeItIsWritten() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-stack-dedup-race");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setStackDedup(true);
+        traceConfig.setStackSummaryIntervalSec(0);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.OrderService", "cancel", "INGRESS", "STACK");
+        int stacks = 200;
+        Thread[] threads = new Thread[4];
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int line = 0; line < stacks; line++) {
+                    logger.probeStack(probeId, stack(line));
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        logger.close();
+
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        for (int id = 1; id <= stacks; id++) {
+            int definition = trace.indexOf("| STACK | stack=" + id + "\n");
+            int reference = trace.indexOf("| STACK | stack=" + id + " hits=");
+            assertTrue(definition >= 0, trace);
+            assertTrue(reference < 0 || reference > definition, "stack=" + id + " referenced before it is written");
+        }
+        assertEquals(threads.length, count(trace, "at com.example.OrderService.placeOrder(OrderService.java:0)")
+                + count(trace, "| STACK | stack=1 hits="), trace);
+    }
+
+    @Test
+    void writesEachStackOnceAndSummarizesTopStacks() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-stack-dedup");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setStackDedup(true);
+        traceConfig.setStackSummaryIntervalSec(0);
+        traceConfig.setStackSummaryTop(1);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.OrderService", "placeOrder", "INGRESS", "STACK");
+        for (int i = 0; i < 5; i++) {
+            logger.probeStack(probeId, stack(10));
+        }
+        logger.probeStack(probeId, stack(20));
+        logger.close();
+
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        assertEquals(1, count(trace, "at com.example.OrderService.placeOrder(OrderService.java:10)"), trace);
+        assertTrue(trace.contains("| INGRESS | STACK | stack=1\n"), trace);
+        assertTrue(trace.contains("| INGRESS | STACK | stack=1 hits=5\n"), trace);
+        assertTrue(trace.contains("| INGRESS | STACK | stack=2\n"), trace);
+        assertTrue(trace.contains("Top 1 of 2 distinct STACK traces by hits"), trace);
+        assertTrue(trace.contains("| INGRESS | STACK | top#1 stack=1 hits=5\n"), trace);
+    }
+
+    private static StackTraceElement[] stack(int line) {
+        return new StackTraceElement[]{
+                new StackTraceElement("com.example.OrderService", "placeOrder", "OrderService.java", line),
+                new StackTraceElement("com.example.Main", "main", "Main.java", 7)
+        };
+    }
+
+    private static int count(String text, String needle) {
+        int count = 0;
+        for (int at = text.indexOf(needle); at >= 0; at = text.indexOf(needle, at + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,63 @@
+package com.asm.mja.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for compiled STACK filters.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class StackFilterTest {
+
+    private static final String[][] FRAMES = {
+            {"com.example.Foo", "bar"},
+            {"com.example.Foo", "<init>"},
+            {"com.example.inner.Service$1", "lambda$run$0"},
+            {"Foo", "run"},
+    };
+
+    private static final String[] PATTERNS = {
+            "com", "com.example", "com.example.", "example.Foo", "Foo.bar", "Foo.ba", "oo.b", ".bar", "bar",
+            "com.example.Foo.bar", "Foo.bar2", "Foobar", "<init>", "Foo.<in", "Service$1.lambda", "$run", ".", "x.y.z"
+    };
+
+    @Test
+    void patternMatchesLikeSignatureContains() {
+        for (String[] frame : FRAMES) {
+            String signature = frame[0] + "." + frame[1];
+            for (String pattern : PATTERNS) {
+                StackFilter filter = StackFilter.compile(pattern);
+                assertEquals(signature.contains(pattern), filter.includes(frame[0], frame[1]),
+                        pattern + " against " + signature);
+            }
+        }
+    }
+
+    @Test
+    void matchesAnyAlternativeAndRejectsNegatedFrames() {
+        StackTraceElement[] stack = {
+                new StackTraceElement("com.example.OrderService", "placeOrder", "OrderService.java", 10),
+                new StackTraceElement("com.example.internal.Retry", "run", "Retry.java", 20),
+                new StackTraceElement("com.example.Main", "main", "Main.java", 30)
+        };
+        assertTrue(StackFilter.compile("org.other, Main.main").matches(stack));
+        assertFalse(StackFilter.compile("org.other,org.another").matches(stack));
+        assertFalse(StackFilter.compile("Main.main,!com.example.internal").matches(stack));
+        assertTrue(StackFilter.compile("Main.main,!com.example.internal.Other").matches(stack));
+        assertTrue(StackFilter.compile("!org.other").matches(stack));
+        assertFalse(StackFilter.compile("!Retry.run").matches(stack));
+    }
+
+    @Test
+    void registersEachFilterOnce() {
+        int id = StackFilter.register("com.example.registered");
+        assertEquals(id, StackFilter.register("com.example.registered"));
+        assertTrue(StackFilter.get(id).includes("com.example.registered.Foo", "bar"));
+        assertThrows(IllegalArgumentException.class, () -> StackFilter.register("com.example,,!"));
+    }
+}
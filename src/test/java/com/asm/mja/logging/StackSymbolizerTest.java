@@ -0,0 +1,118 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for deferred STACK symbolization.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class StackSymbolizerTest {
+
+    @AfterEach
+    void resetDepth() {
+        StackCapture.setMaxDepth(0);
+    }
+
+    @Test
+    void symbolizesFromTheCapturingMethod() {
+        StackCapture.setMaxDepth(2);
+        StackTraceElement[] stack = StackSymbolizer.symbolize(new Throwable(), -1);
+
+        assertEquals(2, stack.length);
+        assertEquals("symbolizesFromTheCapturingMethod", stack[0].getMethodName());
+        assertEquals(StackSymbolizerTest.class.getName(), stack[0].getClassName());
+    }
+
+    @Test
+    void appliesTheFilterAfterSymbolizing() {
+        assertNull(StackSymbolizer.symbolize(new Throwable(), StackFilter.register("com.example.NotOnTheStack")));
+        assertEquals("appliesTheFilterAfterSymbolizing", StackSymbolizer.symbolize(new Throwable(),
+                StackFilter.register("StackSymbolizerTest.appliesTheFilter"))[0].getMethodName());
+    }
+
+    @Test
+    void writesDeferredStacksFromTheSymbolizerThread() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-deferred-stack");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setDeferStacks(true);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+        assertTrue(logger.isStackSymbolizationDeferred());
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.Deferred", "run", "INGRESS", "STACK");
+        logger.probeRawStack(probeId, -1, new Throwable());
+        logger.probeRawStack(probeId, StackFilter.register("com.example.NotOnTheStack"), new Throwable());
+        logger.close();
+        assertFalse(logger.isStackSymbolizationDeferred());
+
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        assertEquals(1, count(trace, "{com.example.Deferred.run} | INGRESS | STACK"), trace);
+        // the record keeps the capturing thread, not the symbolizer's
+        assertTrue(trace.contains("[" + Thread.currentThread().getName() + "]"), trace);
+        assertTrue(trace.contains("at " + StackSymbolizerTest.class.getName() + ".writesDeferredStacksFromTheSymbolizerThread("), trace);
+        assertTrue(trace.contains("Stack symbolizer stopped; enqueued=2, dropped=0"), trace);
+    }
+
+    @Test
+    void deduplicatesDeferredStacksOnTheAsyncWriter() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-deferred-stack-async");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setAsync(true);
+        traceConfig.setDeferStacks(true);
+        traceConfig.setStackDedup(true);
+        traceConfig.setStackSummaryIntervalSec(0);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+        assertTrue(logger.isStackSymbolizationDeferred());
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.Deferred", "poll", "EGRESS", "STACK");
+        for (int i = 0; i < 3; i++) {
+            captureFromSameLine(logger, probeId);
+        }
+        logger.close();
+
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        assertEquals(1, count(trace, ".captureFromSameLine("), trace);
+        assertTrue(trace.contains("| EGRESS | STACK | stack=1\n"), trace);
+        assertTrue(trace.contains("| EGRESS | STACK | stack=1 hits=3\n"), trace);
+    }
+
+    @Test
+    void symbolizesInlineWhenNotDeferred() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-inline-stack");
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), new TraceConfig());
+        assertFalse(logger.isStackSymbolizationDeferred());
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.Deferred", "inline", "INGRESS", "STACK");
+        logger.probeRawStack(probeId, -1, new Throwable());
+        logger.close();
+
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        assertTrue(trace.contains("at " + StackSymbolizerTest.class.getName() + ".symbolizesInlineWhenNotDeferred("), trace);
+    }
+
+    private static void captureFromSameLine(TraceFileLogger logger, int probeId) {
+        logger.probeRawStack(probeId, -1, new Throwable());
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int index = text.indexOf(token); index >= 0; index = text.indexOf(token, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,102 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import com.asm.mja.metrics.MetricsSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for trace verbosity degradation under a write rate or disk budget.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceBudgetTest {
+
+    private Path traceDir;
+
+    @BeforeEach
+    void initLogger() throws Exception {
+        // level changes are reported in the trace file
+        traceDir = Files.createTempDirectory("mja-budget");
+        TraceFileLogger.getInstance().init(traceDir.toString(), new TraceConfig());
+    }
+
+    @AfterEach
+    void closeLogger() {
+        TraceFileLogger.getInstance().close();
+    }
+
+    @Test
+    void degradesOneStepPerCheckAndRecoversAfterTheCalmPeriod() throws Exception {
+        AtomicLong written = new AtomicLong();
+        TraceBudget budget = new TraceBudget(10_240, 0, 4, 5_000, traceDir, written::get);
+        budget.activate();
+        long now = System.currentTimeMillis();
+        try {
+            // 9.5 KB/s is over 90% of the 10 KB/s budget
+            assertEquals(TraceBudget.NO_PAYLOADS, budget.evaluate(now += 1000, written.addAndGet(9_500), 0));
+            assertTrue(TraceBudget.isPayloadDropped());
+            assertTrue(TraceBudget.sampleStack());
+            assertEquals(TraceBudget.SAMPLED_STACKS, budget.evaluate(now += 1000, written.addAndGet(9_500), 0));
+            assertEquals(TraceBudget.PAUSED, budget.evaluate(now += 1000, written.addAndGet(20_000), 0));
+            assertTrue(TraceBudget.isPaused());
+            assertEquals(TraceBudget.PAUSED, budget.evaluate(now += 1000, written.addAndGet(20_000), 0));
+
+            int captured = 0;
+            for (int i = 0; i < 40; i++) {
+                if (TraceBudget.sampleStack()) {
+                    captured++;
+                }
+            }
+            assertEquals(10, captured);
+
+            // between the thresholds: neither lower nor raise
+            assertEquals(TraceBudget.PAUSED, budget.evaluate(now += 1000, written.addAndGet(7_000), 0));
+            // calm from here on, raised one step per five seconds
+            assertEquals(TraceBudget.PAUSED, budget.evaluate(now += 1000, written.get(), 0));
+            assertEquals(TraceBudget.PAUSED, budget.evaluate(now += 4000, written.get(), 0));
+            assertEquals(TraceBudget.SAMPLED_STACKS, budget.evaluate(now += 1000, written.get(), 0));
+            assertFalse(TraceBudget.isPaused());
+            assertEquals(TraceBudget.NO_PAYLOADS, budget.evaluate(now += 5000, written.get(), 0));
+            assertEquals(TraceBudget.FULL, budget.evaluate(now += 5000, written.get(), 0));
+            assertFalse(TraceBudget.isPayloadDropped());
+            assertEquals(6L, MetricsSnapshot.getInstance().getTraceBudgetMetrics().get("verbosityChanges"));
+        } finally {
+            budget.close();
+        }
+
+        TraceFileLogger.getInstance().close();
+        String trace = new String(Files.readAllBytes(traceDir.resolve(TraceFormat.TEXT.getFileName())), StandardCharsets.UTF_8);
+        assertTrue(trace.contains("Trace budget: verbosity lowered to NO_PAYLOADS (write rate 9 KB/s of 10 KB/s)"), trace);
+        assertTrue(trace.contains("Trace budget: verbosity lowered to PAUSED"), trace);
+        assertTrue(trace.contains("Trace budget: verbosity raised to FULL"), trace);
+    }
+
+    @Test
+    void pausesWhileTheTraceDirectoryIsNearItsDiskBudget() throws Exception {
+        TraceBudget budget = new TraceBudget(0, 1000, 10, 0, traceDir, () -> 0);
+        budget.activate();
+        long now = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < 5; i++) {
+                budget.evaluate(now += 1000, 0, 950);
+            }
+            assertEquals(TraceBudget.PAUSED, TraceBudget.getLevel());
+            // with no recovery delay, each calm check raises verbosity by one step
+            assertEquals(TraceBudget.SAMPLED_STACKS, budget.evaluate(now += 1000, 0, 100));
+        } finally {
+            budget.close();
+        }
+        assertEquals(TraceBudget.FULL, TraceBudget.getLevel());
+    }
+}
@@ -0,0 +1,126 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the asynchronous trace pipeline.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceFileLoggerAsyncTest {
+
+    @Test
+    void asyncModeWritesEveryRecordWithBlockingBackpressure() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-async-trace");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setAsync(true);
+        traceConfig.setBufferSize(64);
+        traceConfig.setBackpressure(BackpressurePolicy.BLOCK);
+
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+        assertTrue(logger.isAsync());
+
+        int threads = 4;
+        int perThread = 2000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    logger.trace("{com.example.Foo.bar} | INGRESS | ARGS |  0=" + i);
+                }
+            }, "worker-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long enqueued = logger.getEnqueuedRecordCount();
+        long dropped = logger.getDroppedRecordCount();
+        logger.close();
+
+        List<String> probeLines = Files.readAllLines(traceDir.resolve("agent.trace"), StandardCharsets.UTF_8).stream()
+                .filter(line -> line.contains("{com.example.Foo.bar}"))
+                .collect(Collectors.toList());
+        assertEquals(0, dropped);
+        assertEquals(threads * perThread, probeLines.size());
+        assertTrue(enqueued >= threads * perThread);
+        assertTrue(probeLines.get(0).contains("[TRACE] [worker-"));
+    }
+
+    @Test
+    void asyncModeDropsOnlyTheRecordThatFailsToEncode() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-async-trace-failure");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setAsync(true);
+        traceConfig.setBackpressure(BackpressurePolicy.BLOCK);
+
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+        int probeId = ProbeRegistry.getInstance().register("com.example.Broken", "frames", "INGRESS", "STACK");
+        logger.trace("{com.example.Foo.bar} | INGRESS | ARGS |  0=before");
+        // the encoder fails on the null frame after writing the record's first line
+        logger.probeStack(probeId, new StackTraceElement[]{
+                new StackTraceElement("com.example.Broken", "frames", "Broken.java", 3), null});
+        logger.trace("{com.example.Foo.bar} | INGRESS | ARGS |  0=after");
+        logger.close();
+
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        assertTrue(trace.contains("{com.example.Foo.bar} | INGRESS | ARGS |  0=before\n"), trace);
+        assertTrue(trace.contains("{com.example.Foo.bar} | INGRESS | ARGS |  0=after\n"), trace);
+        assertFalse(trace.contains("com.example.Broken"), trace);
+    }
+
+    @Test
+    void asyncWriterFlushesTheBatchWhenItsLastRecordFails() throws Exception {
+        CountDownLatch published = new CountDownLatch(1);
+        List<String> batch = new ArrayList<>();
+        List<String> written = new ArrayList<>();
+        AsyncTraceWriter writer = new AsyncTraceWriter(16, BackpressurePolicy.BLOCK, 1, new AsyncTraceWriter.RecordWriter() {
+            @Override
+            public void accept(TraceRecord record) {
+                try {
+                    // hold the first record until the rest are published, so all three share one batch
+                    published.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if ("m2".equals(record.message)) {
+                    throw new IllegalStateException("cannot encode");
+                }
+                batch.add(record.message);
+            }
+
+            @Override
+            public void flush() {
+                written.addAll(batch);
+                batch.clear();
+            }
+        }, "monarch-test-writer", false);
+        writer.start();
+        for (int i = 0; i < 3; i++) {
+            TraceRecord record = new TraceRecord();
+            record.set(TraceRecord.Level.TRACE, i, 1L, "main", null, "m" + i, null);
+            assertTrue(writer.publish(record));
+        }
+        published.countDown();
+        writer.stop();
+
+        assertEquals(0, writer.getPendingCount());
+        assertEquals(Arrays.asList("m0", "m1"), written);
+    }
+}
@@ -0,0 +1,101 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.HousekeepingConfig;
+import com.asm.mja.config.RetentionConfig;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for retention of trace, backup and heap dump artifacts.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceHousekeeperTest {
+
+    private static final long HOUR = 60L * 60L * 1000L;
+
+    @Test
+    void appliesRetentionPerCategoryAndSparesTheCurrentRun() throws Exception {
+        Path root = Files.createTempDirectory("mja-housekeeping");
+        long now = System.currentTimeMillis();
+        Path oldest = run(root, "Monarch_1_old", now - 50 * HOUR);
+        Path older = run(root, "Monarch_2_older", now - 10 * HOUR);
+        Path previous = run(root, "Monarch_3_previous", now - 2 * HOUR);
+        Path current = run(root, "Monarch_4_current", now - 100 * HOUR);
+        Path heapDump1 = file(current, "heapDump_41.hprof", 10, now - 3 * HOUR);
+        Path heapDump2 = file(previous, "heapDump_31.hprof", 10, now - 2 * HOUR);
+        Path heapDump3 = file(root, "heapDump_01.hprof", 10, now - HOUR);
+
+        HousekeepingConfig config = new HousekeepingConfig();
+        config.setTrace(retention(null, 24, null));
+        config.setBackup(retention(1, null, null));
+        config.setHprof(retention(1, null, null));
+
+        int deleted = TraceHousekeeper.sweep(root, current, config, now);
+
+        // trace: only the run older than 24 hours; the whole directory goes once empty
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(older.resolve("agent.trace")));
+        // backup: only the newest previous backup directory is kept
+        assertFalse(Files.exists(older.resolve("backup")));
+        assertTrue(Files.exists(previous.resolve("backup")));
+        // the current run is never pruned, however old
+        assertTrue(Files.exists(current.resolve("agent.trace")));
+        assertTrue(Files.exists(current.resolve("backup")));
+        // hprof: counted across all runs, newest kept
+        assertFalse(Files.exists(heapDump1));
+        assertFalse(Files.exists(heapDump2));
+        assertTrue(Files.exists(heapDump3));
+        // 2 traces + 2 backups (oldest run's and older run's) + 2 heap dumps
+        assertEquals(6, deleted);
+    }
+
+    @Test
+    void deletesOldestArtifactsUntilUnderByteBudgetButKeepsNewestHeapDump() throws Exception {
+        Path root = Files.createTempDirectory("mja-housekeeping");
+        long now = System.currentTimeMillis();
+        Path first = file(root, "heapDump_1.hprof", 600 * 1024, now - 3 * HOUR);
+        Path second = file(root, "heapDump_2.hprof", 600 * 1024, now - 2 * HOUR);
+        Path third = file(root, "heapDump_3.hprof", 2 * 1024 * 1024, now - HOUR);
+
+        HousekeepingConfig config = new HousekeepingConfig();
+        config.setHprof(retention(null, null, 1));
+
+        TraceHousekeeper.sweep(root, root.resolve("Monarch_current"), config, now);
+
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(third), "The newest heap dump is kept even when it alone exceeds the budget");
+    }
+
+    private static Path run(Path root, String name, long modified) throws Exception {
+        Path run = Files.createDirectory(root.resolve(name));
+        file(run, "agent.trace", 100, modified);
+        file(run, "agent.trace.00000.gz", 100, modified);
+        Path backup = Files.createDirectory(run.resolve("backup"));
+        file(backup, "com_example_Foo.class", 100, modified);
+        Files.setLastModifiedTime(backup, FileTime.fromMillis(modified));
+        return run;
+    }
+
+    private static Path file(Path dir, String name, int size, long modified) throws Exception {
+        Path file = Files.write(dir.resolve(name), new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+        return file;
+    }
+
+    private static RetentionConfig retention(Integer maxFiles, Integer maxAgeHours, Integer maxTotalSizeMb) {
+        RetentionConfig retention = new RetentionConfig();
+        retention.setMaxFiles(maxFiles);
+        retention.setMaxAgeHours(maxAgeHours);
+        retention.setMaxTotalSizeMb(maxTotalSizeMb);
+        return retention;
+    }
+}
@@ -0,0 +1,75 @@
+package com.asm.mja.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for JSON-lines trace records.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceJsonEncoderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void encodesProbeRecordsWithTypedFields() throws Exception {
+        ProbeSite probe = new ProbeSite(42, "com.example.Foo", "bar", "INGRESS", "ARGS");
+        TraceRecord record = new TraceRecord();
+        record.set(TraceRecord.Level.TRACE, 1792224123456L, 7L, "worker \"1\"", probe, " 0=café\t1=\u0001", null);
+
+        JsonNode json = encode(record);
+
+        assertEquals(1792224123456L, json.get("timestamp").asLong());
+        assertTrue(json.get("timestamp").isIntegralNumber());
+        assertEquals("TRACE", json.get("level").asText());
+        assertEquals(7L, json.get("threadId").asLong());
+        assertEquals("worker \"1\"", json.get("thread").asText());
+        assertEquals(42, json.get("ruleId").asInt());
+        assertEquals("com.example.Foo", json.get("class").asText());
+        assertEquals("bar", json.get("method").asText());
+        assertEquals("INGRESS", json.get("event").asText());
+        assertEquals("ARGS", json.get("action").asText());
+        assertEquals(" 0=café\t1=\u0001", json.get("payload").asText());
+        assertFalse(json.has("message"));
+    }
+
+    @Test
+    void encodesMessagesAndStacks() throws Exception {
+        TraceRecord record = new TraceRecord();
+        StackTraceElement[] stack = {
+                new StackTraceElement("com.example.Foo", "bar", "Foo.java", 12),
+                new StackTraceElement("com.example.Main", "main", null, -1)
+        };
+        record.set(TraceRecord.Level.WARN, 1L, 1L, "main", null, "Shutting down", stack);
+
+        JsonNode json = encode(record);
+
+        assertEquals("Shutting down", json.get("message").asText());
+        assertFalse(json.has("ruleId"));
+        assertEquals(2, json.get("stack").size());
+        assertEquals("com.example.Foo.bar(Foo.java:12)", json.get("stack").get(0).asText());
+
+        ProbeSite profile = new ProbeSite(1, "com.example.Foo", "bar", "PROFILE", null);
+        record.set(TraceRecord.Level.TRACE, 1L, 1L, "main", profile, null, null);
+        JsonNode probeOnly = encode(record);
+        assertFalse(probeOnly.has("action"));
+        assertFalse(probeOnly.has("payload"));
+    }
+
+    private JsonNode encode(TraceRecord record) throws Exception {
+        TraceBuffer buffer = new TraceBuffer(16);
+        new TraceJsonEncoder().encode(record, buffer);
+        String line = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(line.endsWith("}\n"), line);
+        assertEquals(line.length() - 1, line.indexOf('\n'), "One record per line");
+        return mapper.readTree(line);
+    }
+}
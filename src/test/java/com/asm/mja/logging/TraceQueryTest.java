@@ -0,0 +1,129 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the sparse trace index and indexed queries.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceQueryTest {
+
+    private static final long START = 1_792_224_000_000L;
+
+    @Test
+    void readsOnlyTheBlocksOfTheRequestedTimeAndMethod() throws Exception {
+        for (TraceFormat format : new TraceFormat[]{TraceFormat.TEXT, TraceFormat.JSON}) {
+            Path trace = Files.createTempDirectory("mja-query").resolve(format.getFileName());
+            int ret = ProbeRegistry.getInstance().register("com.example.Orders", "place", "EGRESS", "RET");
+            int args = ProbeRegistry.getInstance().register("com.example.Orders", "place", "INGRESS", "ARGS");
+            int other = ProbeRegistry.getInstance().register("com.example.Billing", "charge", "EGRESS", "RET");
+            // one record per second for ten minutes; place() returns only during minutes 3 and 7
+            writeIndexed(trace, format, 600, second -> (second / 60 == 3 || second / 60 == 7) && second % 2 == 0
+                    ? (second % 4 == 0 ? ret : args)
+                    : other);
+
+            TraceIndexReader index = new TraceIndexReader();
+            index.read(TraceIndex.indexFileOf(trace));
+            assertEquals(format.getValue(), index.getFormat());
+            assertEquals(START, index.getFirstTimestamp());
+
+            TraceQuery query = new TraceQuery(index, START + 120_000, START + 300_000, "Orders.place", "EGRESS", "RET");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            query.run(trace, out);
+
+            String result = new String(out.toByteArray(), StandardCharsets.UTF_8);
+            assertEquals(15, query.getMatchedCount(), result);
+            assertEquals(15, result.split("\n").length, result);
+            assertFalse(result.contains("charge"), result);
+            assertFalse(result.contains("ARGS"), result);
+            // minute 3 only, out of ten one-minute buckets
+            assertEquals(1, query.getBlocksRead());
+            assertTrue(query.getBytesRead() < Files.size(trace) / 5, query.getBytesRead() + " of " + Files.size(trace));
+            assertEquals(0, query.getUnindexedBytes());
+        }
+    }
+
+    @Test
+    void scansTheUnindexedTail() throws Exception {
+        Path trace = Files.createTempDirectory("mja-query-tail").resolve(TraceFormat.TEXT.getFileName());
+        int probe = ProbeRegistry.getInstance().register("com.example.Tail", "run", "INGRESS", "ARGS");
+        writeIndexed(trace, TraceFormat.TEXT, 120, second -> probe);
+        try (FileTraceSink sink = new FileTraceSink(trace.toString())) {
+            // written after the index was closed, as if the agent had crashed
+            TraceRecord record = new TraceRecord();
+            record.set(TraceRecord.Level.TRACE, START + 130_000, 1, "main", ProbeRegistry.getInstance().get(probe), " late", null);
+            TraceBuffer buffer = new TraceBuffer();
+            new TraceTextEncoder().encode(record, buffer);
+            buffer.writeTo(sink);
+        }
+
+        TraceIndexReader index = new TraceIndexReader();
+        index.read(TraceIndex.indexFileOf(trace));
+        TraceQuery query = new TraceQuery(index, START + 125_000, Long.MAX_VALUE, "Tail.run", null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        query.run(trace, out);
+
+        assertEquals(1, query.getMatchedCount());
+        assertEquals(0, query.getBlocksRead());
+        assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).endsWith(" late\n"));
+    }
+
+    @Test
+    void indexesTheTraceFileAsItIsWritten() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-query-logger");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setIndexBucketSec(10);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+        int probeId = ProbeRegistry.getInstance().register("com.example.Indexed", "run", "EGRESS", "RET");
+        logger.probe(probeId, "42");
+        logger.close();
+
+        Path trace = traceDir.resolve(TraceFormat.TEXT.getFileName());
+        TraceIndexReader index = new TraceIndexReader();
+        index.read(TraceIndex.indexFileOf(trace));
+        TraceQuery query = new TraceQuery(index, Long.MIN_VALUE, Long.MAX_VALUE, "com.example.Indexed.run", null, "RET");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        query.run(trace, out);
+
+        assertFalse(index.isTruncated());
+        assertTrue(index.getBlockCount() >= 1);
+        assertEquals(1, query.getMatchedCount());
+        assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).endsWith("{com.example.Indexed.run} | EGRESS | RET | 42\n"));
+    }
+
+    private interface ProbeChooser {
+        int probeAt(int second);
+    }
+
+    /**
+     * Writes one record per second from {@link #START}, in one-minute index buckets.
+     */
+    private static void writeIndexed(Path trace, TraceFormat format, int seconds, ProbeChooser chooser) throws Exception {
+        TraceEncoder encoder = format.newEncoder(START);
+        TraceRecord record = new TraceRecord();
+        TraceBuffer buffer = new TraceBuffer();
+        try (TraceIndex index = new TraceIndex(trace, format, 60_000);
+             FileTraceSink sink = new FileTraceSink(trace.toString())) {
+            for (int second = 0; second < seconds; second++) {
+                record.set(TraceRecord.Level.TRACE, START + second * 1000L, 1, "main",
+                        ProbeRegistry.getInstance().get(chooser.probeAt(second)), "value-" + second, null);
+                buffer.reset();
+                encoder.encode(record, buffer);
+                index.add(record, buffer.length());
+                buffer.writeTo(sink);
+            }
+        }
+    }
+}
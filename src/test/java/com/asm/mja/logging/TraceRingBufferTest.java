@@ -0,0 +1,97 @@
+package com.asm.mja.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the asynchronous trace ring buffer.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceRingBufferTest {
+
+    @Test
+    void offerRejectsRecordsOnceFullAndAcceptsAfterDrain() {
+        TraceRingBuffer ring = new TraceRingBuffer(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(record(i, "main", "m" + i)));
+        }
+        assertFalse(ring.offer(record(4, "main", "overflow")));
+        assertEquals(4, ring.size());
+
+        List<String> drained = new ArrayList<>();
+        assertEquals(4, ring.drain(record -> drained.add(record.message), 16));
+        assertEquals(4, drained.size());
+        assertEquals("m0", drained.get(0));
+        assertEquals("m3", drained.get(3));
+        assertEquals(0, ring.size());
+
+        assertTrue(ring.offer(record(5, "main", "after-drain")));
+    }
+
+    @Test
+    void drainReportsRecordsConsumedWhenTheConsumerThrows() {
+        TraceRingBuffer ring = new TraceRingBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ring.offer(record(i, "main", "m" + i)));
+        }
+
+        List<String> drained = new ArrayList<>();
+        TraceRingBuffer.DrainException failure = assertThrows(TraceRingBuffer.DrainException.class,
+                () -> ring.drain(record -> {
+                    if ("m2".equals(record.message)) {
+                        throw new IllegalStateException("cannot encode");
+                    }
+                    drained.add(record.message);
+                }, 16));
+        assertEquals(3, failure.drained);
+        assertEquals("cannot encode", failure.getCause().getMessage());
+        assertEquals(2, ring.size());
+
+        assertEquals(2, ring.drain(record -> drained.add(record.message), 16));
+        assertEquals(Arrays.asList("m0", "m1", "m3", "m4"), drained);
+    }
+
+    @Test
+    void concurrentProducersPublishEveryRecordExactlyOnce() throws Exception {
+        TraceRingBuffer ring = new TraceRingBuffer(1 << 16);
+        int producers = 8;
+        int perProducer = 5000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(record(i, "producer", "x"))) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = 0;
+        int drained;
+        while ((drained = ring.drain(record -> { }, 1024)) > 0) {
+            total += drained;
+        }
+        assertEquals(producers * perProducer, total);
+    }
+
+    private static TraceRecord record(long timestamp, String threadName, String message) {
+        TraceRecord record = new TraceRecord();
+        record.set(TraceRecord.Level.TRACE, timestamp, 1L, threadName, null, message, null);
+        return record;
+    }
+}
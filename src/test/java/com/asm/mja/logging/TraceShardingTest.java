@@ -0,0 +1,98 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.config.TraceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for per-thread trace shards and the offline shard merger.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceShardingTest {
+
+    private static final int THREADS = 4;
+    private static final int RECORDS_PER_THREAD = 500;
+    private static final Pattern WORKER_PAYLOAD = Pattern.compile(" worker=(\\d+) i=(\\d+)");
+
+    @Test
+    void writesOneShardPerThreadAndMergesThemInTimeOrder() throws Exception {
+        assertShardsMerge(TraceFormat.TEXT);
+    }
+
+    @Test
+    void mergesBinaryShardsIntoText() throws Exception {
+        assertShardsMerge(TraceFormat.BINARY);
+    }
+
+    @Test
+    void mergesJsonShardsIntoJsonLines() throws Exception {
+        assertShardsMerge(TraceFormat.JSON);
+    }
+
+    private static void assertShardsMerge(TraceFormat format) throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-sharded-trace");
+        TraceConfig traceConfig = new TraceConfig();
+        traceConfig.setFormat(format);
+        traceConfig.setShardBy(TraceShardMode.THREAD);
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString(), traceConfig);
+
+        int probeId = ProbeRegistry.getInstance().register("com.example.Worker", "run", "INGRESS", "ARGS");
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int worker = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                    logger.probe(probeId, " worker=" + worker + " i=" + i);
+                }
+            }, "shard-worker-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        logger.close();
+
+        List<Path> shards = TraceShardMerger.findShards(traceDir);
+        // one shard per worker plus the one written by the initializing thread
+        assertEquals(THREADS + 1, shards.size(), shards.toString());
+        assertFalse(Files.exists(traceDir.resolve(format.getFileName())));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long merged = TraceShardMerger.merge(shards, out);
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(merged, lines.length);
+
+        int workerRecords = 0;
+        String previous = "";
+        int[] nextIndex = new int[THREADS];
+        for (String line : lines) {
+            String timestamp = format == TraceFormat.JSON
+                    ? String.format("%020d", Long.parseLong(line.replaceFirst("^\\{\"timestamp\":(\\d+),.*$", "$1")))
+                    : line.substring(0, 23);
+            assertTrue(timestamp.compareTo(previous) >= 0, "Out of order: " + line);
+            previous = timestamp;
+            Matcher matcher = WORKER_PAYLOAD.matcher(line);
+            if (matcher.find()) {
+                int worker = Integer.parseInt(matcher.group(1));
+                int index = Integer.parseInt(matcher.group(2));
+                // each thread's records keep their original order
+                assertEquals(nextIndex[worker]++, index);
+                workerRecords++;
+            }
+        }
+        assertEquals(THREADS * RECORDS_PER_THREAD, workerRecords);
+    }
+}
@@ -0,0 +1,96 @@
+package com.asm.mja.logging;
+
+import com.asm.mja.utils.DateUtils;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for allocation-free trace record encoding.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class TraceTextEncoderTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    void timestampsMatchSimpleDateFormatOutput() {
+        TraceTimestampFormatter formatter = new TraceTimestampFormatter();
+        TraceBuffer buffer = new TraceBuffer();
+        long[] samples = {0L, 951782400123L, 1709164800999L, System.currentTimeMillis(), 4102444799000L};
+        for (long sample : samples) {
+            buffer.reset();
+            formatter.format(sample, buffer);
+            assertEquals(DateUtils.getFormattedTimestamp(sample), new String(buffer.toByteArray(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void encodesTraceAndStackRecordsInTraceFileFormat() {
+        TraceTextEncoder encoder = new TraceTextEncoder();
+        TraceBuffer buffer = new TraceBuffer(16);
+        TraceRecord record = new TraceRecord();
+        long now = System.currentTimeMillis();
+        String prefix = DateUtils.getFormattedTimestamp(now);
+
+        record.set(TraceRecord.Level.TRACE, now, 1L, "worker-1", null, "{com.example.Foo.bar} | INGRESS | ARGS |  0=café", null);
+        encoder.encode(record, buffer);
+        assertEquals(prefix + " [TRACE] [worker-1] {com.example.Foo.bar} | INGRESS | ARGS |  0=café" + NL,
+                new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+
+        buffer.reset();
+        StackTraceElement[] stack = {
+                new StackTraceElement("java.lang.Thread", "getStackTrace", "Thread.java", 1559),
+                new StackTraceElement("com.example.Foo", "bar", "Foo.java", 42),
+                new StackTraceElement("com.example.Foo", "run", null, -1)
+        };
+        record.set(TraceRecord.Level.TRACE, now, 1L, "worker-1", null, "{com.example.Foo.bar} | INGRESS | STACK", stack);
+        encoder.encode(record, buffer);
+        assertEquals(prefix + " [TRACE] [worker-1] {com.example.Foo.bar} | INGRESS | STACK\n"
+                        + "\tat com.example.Foo.bar(Foo.java:42)\n"
+                        + "\tat com.example.Foo.run(Unknown Source)\n" + NL,
+                new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void steadyStateProbeLoggingDoesNotAllocate() throws Exception {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled());
+
+        Path traceDir = Files.createTempDirectory("mja-trace-alloc");
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString());
+        String argsMessage = "{com.example.Foo.bar} | INGRESS | ARGS |  0=4 1=7";
+        String retMessage = "{com.example.Foo.bar} | EGRESS | RET | 11";
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+
+        long threadId = Thread.currentThread().getId();
+        int iterations = 20000;
+        for (int i = 0; i < iterations; i++) {
+            logger.trace(argsMessage);
+            logger.trace(retMessage);
+            logger.stack("{com.example.Foo.bar} | INGRESS | STACK", stack);
+        }
+
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            logger.trace(argsMessage);
+            logger.trace(retMessage);
+            logger.stack("{com.example.Foo.bar} | INGRESS | STACK", stack);
+        }
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+        logger.close();
+
+        assertTrue(allocated < 4096, "Expected allocation-free steady state but allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,120 @@
+package com.asm.mja.metrics;
+
+import com.asm.mja.logging.TraceFileLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the trace download and tail endpoints of the metrics HTTP server.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class MetricsHttpServerTraceTest {
+
+    private TraceFileLogger logger;
+    private int port;
+
+    @BeforeEach
+    void start() throws Exception {
+        logger = TraceFileLogger.getInstance();
+        logger.init(Files.createTempDirectory("mja-http-trace").toString());
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        MetricsHttpServer.getInstance().start(port);
+    }
+
+    @AfterEach
+    void stop() {
+        MetricsHttpServer.getInstance().stop();
+        logger.close();
+    }
+
+    @Test
+    void downloadsAByteRangeOfTheTrace() throws Exception {
+        logger.trace("first record");
+        logger.trace("second record");
+        Path traceFile = logger.getTraceFile();
+        byte[] trace = Files.readAllBytes(traceFile);
+
+        HttpURLConnection all = open("/trace/download");
+        assertEquals(200, all.getResponseCode());
+        assertArrayEquals(trace, read(all));
+        assertEquals(String.valueOf(trace.length), all.getHeaderField("X-Trace-Size"));
+
+        HttpURLConnection last = open("/trace/download?from=-10");
+        assertArrayEquals(Arrays.copyOfRange(trace, trace.length - 10, trace.length), read(last));
+
+        HttpURLConnection middle = open("/trace/download?from=5&to=15");
+        assertArrayEquals(Arrays.copyOfRange(trace, 5, 15), read(middle));
+
+        assertEquals(416, open("/trace/download?from=" + (trace.length + 1)).getResponseCode());
+        assertEquals(400, open("/trace/download?from=abc").getResponseCode());
+    }
+
+    @Test
+    void tailsRecordsWrittenWhileConnected() throws Exception {
+        logger.trace("before the tail");
+        HttpURLConnection tail = open("/trace/tail?seconds=2");
+        assertEquals(200, tail.getResponseCode());
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                return;
+            }
+            logger.trace("while tailing");
+        });
+        writer.start();
+
+        String streamed = new String(read(tail), StandardCharsets.UTF_8);
+        writer.join();
+
+        assertTrue(streamed.contains("while tailing"), streamed);
+        assertFalse(streamed.contains("before the tail"), streamed);
+    }
+
+    @Test
+    void tailStartsWithTheRequestedBacklog() throws Exception {
+        logger.trace("already written");
+        HttpURLConnection tail = open("/trace/tail?seconds=1&backlog=" + Files.size(logger.getTraceFile()));
+
+        String streamed = new String(read(tail), StandardCharsets.UTF_8);
+
+        assertTrue(streamed.contains("already written"), streamed);
+    }
+
+    private HttpURLConnection open(String path) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+        connection.setReadTimeout(10_000);
+        return connection;
+    }
+
+    private static byte[] read(HttpURLConnection connection) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+package com.asm.mja.rule;
+
+import com.asm.mja.transformer.Action;
+import com.asm.mja.transformer.Event;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link RuleMatcher}.
+ * @author ashut
+ * @since 17-10-2026
+ */
+class RuleMatcherTest {
+
+    private static final Rule ORDERS = rule("com.shop.orders.Orders");
+    private static final Rule ORDERS_PACKAGE = rule("com.shop.orders.*");
+    private static final Rule SHOP = rule("com.shop.*");
+    private static final Rule ORDER_PREFIX = rule("com.shop.orders.Order*");
+    private static final Rule ANY = rule("*");
+
+    @Test
+    void matchesExactNamesAndPrefixesInConfigurationOrder() {
+        RuleMatcher matcher = RuleMatcher.compile(Arrays.asList(ORDERS, ORDERS_PACKAGE, SHOP, ORDER_PREFIX));
+
+        assertEquals(Arrays.asList(ORDERS, ORDERS_PACKAGE, SHOP, ORDER_PREFIX), matcher.match("com.shop.orders.Orders"));
+        assertEquals(Arrays.asList(ORDERS_PACKAGE, SHOP, ORDER_PREFIX), matcher.match("com.shop.orders.OrderLine"));
+        assertEquals(Arrays.asList(ORDERS_PACKAGE, SHOP), matcher.match("com.shop.orders.api.Client"));
+        assertEquals(Collections.singletonList(SHOP), matcher.match("com.shop.Cart"));
+        assertTrue(matcher.match("com.shopping.Cart").isEmpty());
+        assertTrue(matcher.match("com.shop.orders.Orders2").stream().noneMatch(rule -> rule == ORDERS));
+    }
+
+    @Test
+    void readsInternalNamesAndIgnoresCase() {
+        RuleMatcher matcher = RuleMatcher.compile(Arrays.asList(ORDERS, SHOP));
+
+        assertEquals(Arrays.asList(ORDERS, SHOP), matcher.match("com/shop/orders/Orders"));
+        assertEquals(Arrays.asList(ORDERS, SHOP), matcher.match("COM.SHOP.ORDERS.ORDERS"));
+    }
+
+    @Test
+    void wildcardsSkipJdkAndAgentClasses() {
+        Rule string = rule("java.lang.String");
+        RuleMatcher matcher = RuleMatcher.compile(Arrays.asList(ANY, rule("java.*"), string));
+
+        assertEquals(Collections.singletonList(ANY), matcher.match("com.shop.Cart"));
+        assertEquals(Collections.singletonList(string), matcher.match("java/lang/String"));
+        assertTrue(matcher.match("java.util.ArrayList").isEmpty());
+        assertTrue(matcher.match("com.asm.mja.logging.TraceFileLogger").isEmpty());
+    }
+
+    @Test
+    void exactPatternsSkipAgentClasses() {
+        RuleMatcher matcher = RuleMatcher.compile(Collections.singletonList(rule("com.asm.mja.logging.TraceFileLogger")));
+
+        assertTrue(matcher.match("com.asm.mja.logging.TraceFileLogger").isEmpty());
+        assertTrue(matcher.match("com/asm/mja/logging/TraceFileLogger").isEmpty());
+        assertTrue(RuleMatcher.isAgentClass("com/asm/mja/logging/TraceFileLogger"));
+        assertFalse(RuleMatcher.isAgentClass("com.asm.mjax.Other"));
+    }
+
+    @Test
+    void returnsOneSharedListWhenNothingMatches() {
+        RuleMatcher matcher = RuleMatcher.compile(Collections.singletonList(ORDERS));
+        List<Rule> none = matcher.match("org.example.Other");
+
+        assertSame(none, matcher.match("com.shop.orders.Order"));
+        assertTrue(none.isEmpty());
+        assertTrue(RuleMatcher.compile(Collections.<Rule>emptyList()).isEmpty());
+        assertFalse(matcher.isEmpty());
+    }
+
+    @Test
+    void matchesMethodNamesWithCase() {
+        assertTrue(RuleMatcher.matchesName("get*", "getTotal"));
+        assertTrue(RuleMatcher.matchesName("*", "place"));
+        assertTrue(RuleMatcher.matchesName("place", "place"));
+        assertFalse(RuleMatcher.matchesName("get*", "GetTotal"));
+        assertFalse(RuleMatcher.matchesName("place", "placeAll"));
+    }
+
+    private static Rule rule(String classPattern) {
+        return new Rule(classPattern, "place", Event.INGRESS, Action.ARGS, 0);
+    }
+}
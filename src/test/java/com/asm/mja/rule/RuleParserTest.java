@@ -1,12 +1,16 @@
 package com.asm.mja.rule;
 
+import com.asm.mja.transformer.Action;
 import com.asm.mja.transformer.Event;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -60,4 +64,104 @@ class RuleParserTest {
         assertEquals(1, report.getRejectedIssues().size());
         assertEquals(1, report.getSkippedRules());
     }
+
+    @Test
+    void parseSupportsRateLimitSuffix() {
+        List<Rule> parsed = RuleParser.parseRules(Arrays.asList(
+                "com.asm.test.ClassA::methodA@INGRESS::ARGS::RATE[100/s]",
+                "com.asm.test.ClassA::methodA@INGRESS::STACK::[com.asm,!Internal]::RATE[5/m]",
+                "com.asm.test.ClassA::methodA@PROFILE::RATE[1/h]",
+                "com.asm.test.ClassA::methodA@EGRESS::RET"
+        ));
+
+        Rule args = parsed.get(0);
+        assertEquals(Action.ARGS, args.getAction());
+        assertEquals(100, args.getRateLimit().getPermits());
+        assertEquals(TimeUnit.SECONDS, args.getRateLimit().getUnit());
+
+        Rule stack = parsed.get(1);
+        assertEquals("com.asm,!Internal", stack.getFilterName());
+        assertEquals("5/m", stack.getRateLimit().toString());
+
+        Rule profile = parsed.get(2);
+        assertEquals(Event.PROFILE, profile.getEvent());
+        assertEquals(TimeUnit.HOURS, profile.getRateLimit().getUnit());
+
+        assertNull(parsed.get(3).getRateLimit());
+    }
+
+    @Test
+    void parseRejectsInvalidRateLimit() {
+        RuleValidationReport report = RuleParser.parseRulesWithDiagnostics(Arrays.asList(
+                "com.asm.test.ClassA::methodA@INGRESS::ARGS::RATE[0/s]",
+                "com.asm.test.ClassA::methodA@INGRESS::ARGS::RATE[100/day]",
+                "com.asm.test.ClassA@CHANGE::FILE::[/root/files/ClassA.class]::RATE[1/s]"
+        ));
+
+        assertEquals(0, report.getAcceptedRules().size());
+        assertEquals(3, report.getRejectedIssues().size());
+    }
+
+    @Test
+    void parseSupportsTriggerSuffix() {
+        List<Rule> parsed = RuleParser.parseRules(Arrays.asList(
+                "com.asm.test.ClassA::methodA@EGRESS::RET::TRIGGER",
+                "com.asm.test.ClassA::methodA@INGRESS::ARGS::TRIGGER::RATE[10/s]",
+                "com.asm.test.ClassA::methodA@INGRESS::ARGS::RATE[10/s]::TRIGGER",
+                "com.asm.test.ClassA::methodA@INGRESS::ARGS"
+        ));
+
+        assertTrue(parsed.get(0).isTrigger());
+        assertEquals(Action.RET, parsed.get(0).getAction());
+        for (Rule rule : parsed.subList(1, 3)) {
+            assertTrue(rule.isTrigger());
+            assertEquals("10/s", rule.getRateLimit().toString());
+        }
+        assertFalse(parsed.get(3).isTrigger());
+
+        RuleValidationReport report = RuleParser.parseRulesWithDiagnostics(Arrays.asList(
+                "com.asm.test.ClassA@CHANGE::FILE::[/root/files/ClassA.class]::TRIGGER"
+        ));
+        assertEquals(1, report.getRejectedIssues().size());
+    }
+
+    @Test
+    void parseSupportsCriticalSuffix() {
+        List<Rule> parsed = RuleParser.parseRules(Arrays.asList(
+                "com.asm.test.ClassA::methodA@EGRESS::RET::CRITICAL",
+                "com.asm.test.ClassA::methodA@INGRESS::STACK::CRITICAL::RATE[5/s]::TRIGGER",
+                "com.asm.test.ClassA::methodA@EGRESS::RET"
+        ));
+
+        assertTrue(parsed.get(0).isCritical());
+        assertEquals(Action.RET, parsed.get(0).getAction());
+        assertTrue(parsed.get(1).isCritical());
+        assertTrue(parsed.get(1).isTrigger());
+        assertEquals("5/s", parsed.get(1).getRateLimit().toString());
+        assertFalse(parsed.get(2).isCritical());
+
+        RuleValidationReport report = RuleParser.parseRulesWithDiagnostics(Arrays.asList(
+                "com.asm.test.ClassA@CHANGE::FILE::[/root/files/ClassA.class]::CRITICAL"
+        ));
+        assertEquals(1, report.getRejectedIssues().size());
+    }
+
+    @Test
+    void parseAcceptsTrailingWildcardsOnly() {
+        List<Rule> parsed = RuleParser.parseRules(Arrays.asList(
+                "com.shop.orders.*::*@INGRESS::ARGS",
+                "com.shop.Order*::get*@PROFILE"
+        ));
+        assertEquals("com.shop.orders.*", parsed.get(0).getClassName());
+        assertEquals("*", parsed.get(0).getMethodName());
+        assertEquals("get*", parsed.get(1).getMethodName());
+
+        RuleValidationReport report = RuleParser.parseRulesWithDiagnostics(Arrays.asList(
+                "com.shop.*.Orders::place@INGRESS::ARGS",
+                "com.shop.Orders::*Order@INGRESS::ARGS",
+                "com.shop.Orders::pla*@CODEPOINT(42)::ADD::[MLOG(1);]"
+        ));
+        assertEquals(0, report.getAcceptedRules().size());
+        assertEquals(3, report.getRejectedIssues().size());
+    }
 }
@@ -0,0 +1,81 @@
+package com.asm.mja.transformer;
+
+import javassist.ClassPool;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link ClassPoolCache}.
+ * @author ashut
+ * @since 17-10-2026
+ */
+class ClassPoolCacheTest {
+
+    @Test
+    void reusesOnePoolPerLoader() throws Exception {
+        ClassPoolCache cache = new ClassPoolCache("javaagent", null);
+        ClassLoader first = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        ClassLoader second = new URLClassLoader(new URL[0], getClass().getClassLoader());
+
+        ClassPool pool = cache.get(first);
+        assertSame(pool, cache.get(first));
+        assertNotSame(pool, cache.get(second));
+        assertSame(cache.get(null), cache.get(null));
+        assertNotSame(pool, cache.get(null));
+        assertEquals(2, cache.size());
+        assertNotNull(pool.get(String.class.getName()));
+        // the root pool sees the test classes too, yet the loader's pool defines its own copy
+        pool.makeClass(ClassPoolCacheTest.class.getName()).detach();
+    }
+
+    @Test
+    void replacesPoolAfterTransformLimit() throws Exception {
+        ClassPoolCache cache = new ClassPoolCache("javaagent", null);
+        ClassLoader loader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+
+        ClassPool pool = cache.get(loader);
+        for (int i = 1; i < ClassPoolCache.MAX_TRANSFORMS_PER_POOL; i++) {
+            assertSame(pool, cache.get(loader));
+        }
+        assertNotSame(pool, cache.get(loader));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void dropsPoolOnceLoaderIsCollected() throws Exception {
+        ClassPoolCache cache = new ClassPoolCache("javaagent", null);
+        ReferenceQueue<ClassLoader> collected = new ReferenceQueue<>();
+        WeakReference<ClassLoader> loader = poolFor(cache, collected);
+        assertEquals(1, cache.size());
+
+        // the cache's own weak reference to the loader is cleared together with this one
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        do {
+            assertTrue(System.nanoTime() < deadline, "class loader was not collected");
+            System.gc();
+        } while (collected.remove(100) == null);
+        assertNull(loader.get());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Creates a pool for a loader that nothing but the returned reference and the cache refer to.
+     */
+    private static WeakReference<ClassLoader> poolFor(ClassPoolCache cache, ReferenceQueue<ClassLoader> queue) throws Exception {
+        ClassLoader loader = new URLClassLoader(new URL[0], ClassPoolCacheTest.class.getClassLoader());
+        cache.get(loader);
+        return new WeakReference<>(loader, queue);
+    }
+}
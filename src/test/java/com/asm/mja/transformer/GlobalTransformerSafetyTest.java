@@ -3,14 +3,17 @@ package com.asm.mja.transformer;
 import com.asm.mja.config.Config;
 import com.asm.mja.logging.TraceFileLogger;
 import com.asm.mja.rule.Rule;
+import com.asm.mja.rule.RuleParser;
 import org.junit.jupiter.api.Test;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class GlobalTransformerSafetyTest {
 
@@ -40,4 +43,30 @@ class GlobalTransformerSafetyTest {
         assertArrayEquals(original, transformed);
         logger.close();
     }
+
+    @Test
+    void transformHandsBackClassesNoRuleTargetsUntouched() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-transform-reject");
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString());
+
+        Config config = new Config();
+        config.setPrintClassLoaderTrace(false);
+        GlobalTransformer transformer = new GlobalTransformer(
+                config,
+                logger,
+                RuleParser.parseRules(Arrays.asList(
+                        "com.example.shop.Orders::place@INGRESS::ARGS",
+                        "com.example.billing.*::charge@EGRESS::RET")),
+                "javaagent",
+                null
+        );
+
+        // not a class file: a rejected class must not even be parsed
+        byte[] original = new byte[]{1, 2, 3, 4};
+        assertSame(original, transformer.transform(null, "com/example/shop/OrdersTest", null, null, original));
+        assertSame(original, transformer.transform(null, "com/example/shipping/Label", null, null, original));
+        assertSame(original, transformer.transform(null, "java/lang/String", null, null, original));
+        logger.close();
+    }
 }
@@ -0,0 +1,263 @@
+package com.asm.mja.transformer.asm;
+
+import com.asm.mja.config.Config;
+import com.asm.mja.config.InstrumentationConfig;
+import com.asm.mja.logging.ProbeSwitches;
+import com.asm.mja.logging.TraceFileLogger;
+import com.asm.mja.rule.RuleParser;
+import com.asm.mja.transformer.GlobalTransformer;
+import com.asm.mja.transformer.InstrumentationEngine;
+import javassist.ClassPool;
+import javassist.CtClass;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the ASM instrumentation engine. Instrumented classes are loaded by a class loader of their own,
+ * so the JVM verifies them, including the stack map frames the engine computed.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class AsmClassTransformerTest {
+
+    /** The agent does not instrument its own packages, so {@link Orders} is renamed before it is transformed. */
+    private static final String ORDERS = "com.example.shop.Orders";
+    private static final List<String> RULES = Arrays.asList(
+            ORDERS + "::Orders@INGRESS::ARGS",
+            ORDERS + "::place@INGRESS::ARGS",
+            ORDERS + "::place@PROFILE",
+            ORDERS + "::describe@EGRESS::RET",
+            ORDERS + "::total@EGRESS::RET",
+            ORDERS + "::audit@EGRESS::STACK"
+    );
+
+    @Test
+    void writesProbesFromVerifiedBytecode() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-asm-engine");
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString());
+        byte[] instrumented = instrument(logger, InstrumentationEngine.ASM);
+
+        Class<?> orders = new IsolatedLoader(ORDERS, instrumented).loadClass(ORDERS);
+        Object instance = orders.getConstructor(String.class).newInstance("ada");
+        assertEquals(7L, orders.getMethod("place", int.class, double.class, String.class).invoke(instance, 3, 2.5, "tea"));
+        assertEquals("ada", orders.getMethod("describe", boolean.class).invoke(instance, false));
+        orders.getMethod("describe", boolean.class).invoke(instance, true);
+        assertEquals(7L, orders.getMethod("total").invoke(instance));
+        orders.getMethod("audit").invoke(instance);
+        logger.close();
+
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        assertTrue(trace.contains("Orders.Orders} | INGRESS | ARGS |  0=ada\n"), trace);
+        assertTrue(trace.contains("Orders.place} | INGRESS | ARGS |  0=3 1=2.5 2=tea\n"), trace);
+        assertTrue(trace.contains("Orders.place} | PROFILE | Execution time: "), trace);
+        assertTrue(trace.contains("Orders.describe} | EGRESS | RET | ada\n"), trace);
+        assertTrue(trace.contains("Orders.describe} | EGRESS | RET | NULL\n"), trace);
+        assertTrue(trace.contains("Orders.total} | EGRESS | RET | 7\n"), trace);
+        assertTrue(trace.contains("Orders.audit} | EGRESS | STACK"), trace);
+        assertTrue(trace.contains(ORDERS + ".audit("), trace);
+    }
+
+    @Test
+    void emitsSmallerMethodsThanJavassist() throws Exception {
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(Files.createTempDirectory("mja-asm-engine-size").toString());
+        byte[] javassist = instrument(logger, InstrumentationEngine.JAVASSIST);
+        byte[] asm = instrument(logger, InstrumentationEngine.ASM);
+        logger.close();
+
+        for (String method : new String[]{"place", "describe", "total", "audit"}) {
+            int javassistSize = codeLength(javassist, method);
+            int asmSize = codeLength(asm, method);
+            assertTrue(asmSize < javassistSize, method + ": " + asmSize + " bytes with ASM, " + javassistSize + " with Javassist");
+        }
+    }
+
+    @Test
+    void skipsSwitchedOffProbesWithoutRetransforming() throws Exception {
+        List<String> rules = Arrays.asList(ORDERS + "::place@INGRESS::ARGS", ORDERS + "::total@EGRESS::RET::TRIGGER");
+        String placeKey = RuleParser.parseRules(rules).get(0).getKey();
+        for (InstrumentationEngine engine : InstrumentationEngine.values()) {
+            Path traceDir = Files.createTempDirectory("mja-probe-switch");
+            TraceFileLogger logger = TraceFileLogger.getInstance();
+            logger.init(traceDir.toString());
+            Class<?> orders = new IsolatedLoader(ORDERS, instrument(logger, engine, rules)).loadClass(ORDERS);
+            Object instance = orders.getConstructor(String.class).newInstance("ada");
+            try {
+                orders.getMethod("place", int.class, double.class, String.class).invoke(instance, 1, 1.0, "on");
+                assertTrue(ProbeSwitches.setEnabled(placeKey, false));
+                orders.getMethod("place", int.class, double.class, String.class).invoke(instance, 1, 1.0, "off");
+                orders.getMethod("total").invoke(instance);
+                assertTrue(ProbeSwitches.setEnabled(placeKey, true));
+                orders.getMethod("place", int.class, double.class, String.class).invoke(instance, 1, 1.0, "again");
+            } finally {
+                ProbeSwitches.setEnabled(placeKey, true);
+                logger.close();
+            }
+
+            String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+            assertTrue(trace.contains(" 2=on\n") && trace.contains(" 2=again\n"), engine + ": " + trace);
+            assertFalse(trace.contains(" 2=off\n"), engine + ": " + trace);
+            assertTrue(trace.contains("Orders.total} | EGRESS | RET | "), engine + ": " + trace);
+        }
+    }
+
+    @Test
+    void expandsWildcardMethodsIntoOneProbeSiteEach() throws Exception {
+        Path traceDir = Files.createTempDirectory("mja-wildcard-rules");
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(traceDir.toString());
+        byte[] instrumented = instrument(logger, InstrumentationEngine.ASM,
+                Arrays.asList("com.example.*::*@INGRESS::ARGS", "com.example.shop.Orders::to*@EGRESS::RET"));
+
+        Class<?> orders = new IsolatedLoader(ORDERS, instrumented).loadClass(ORDERS);
+        Object instance = orders.getConstructor(String.class).newInstance("ada");
+        orders.getMethod("place", int.class, double.class, String.class).invoke(instance, 1, 1.0, "tea");
+        orders.getMethod("describe", boolean.class).invoke(instance, true);
+        orders.getMethod("total").invoke(instance);
+        orders.getMethod("rs").invoke(instance);
+        logger.close();
+
+        String trace = new String(Files.readAllBytes(traceDir.resolve("agent.trace")), StandardCharsets.UTF_8);
+        assertTrue(trace.contains("Orders.place} | INGRESS | ARGS |  0=1 1=1.0 2=tea\n"), trace);
+        // a method named like the end of the class name is not taken for a constructor
+        assertEquals(1, trace.split("Orders.rs} \\| INGRESS \\| ARGS \\| NULL\n", -1).length - 1, trace);
+        assertTrue(trace.contains("Orders.describe} | INGRESS | ARGS |  0=true\n"), trace);
+        assertTrue(trace.contains("Orders.total} | INGRESS | ARGS | NULL\n"), trace);
+        assertTrue(trace.contains("Orders.total} | EGRESS | RET | 2\n"), trace);
+        assertFalse(trace.contains("Orders.Orders}"), trace);
+        assertFalse(trace.contains("*}"), trace);
+    }
+
+    @Test
+    void keepsProbeFailuresOutOfTheMethodsOwnCatchBlocks() throws Exception {
+        TraceFileLogger logger = TraceFileLogger.getInstance();
+        logger.init(Files.createTempDirectory("mja-stack-in-try").toString());
+        byte[] instrumented = instrument(logger, InstrumentationEngine.ASM, Arrays.asList(ORDERS + "::review@EGRESS::STACK"));
+        logger.close();
+        Class<?> orders = new IsolatedLoader(ORDERS, instrumented).loadClass(ORDERS);
+        Object instance = orders.getConstructor(String.class).newInstance("ada");
+
+        // the probe sits inside review's try block and writes to a logger that was never initialized
+        Field singleton = TraceFileLogger.class.getDeclaredField("instance");
+        singleton.setAccessible(true);
+        Constructor<TraceFileLogger> constructor = TraceFileLogger.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        singleton.set(null, constructor.newInstance());
+        try {
+            assertEquals("ada", orders.getMethod("review").invoke(instance));
+        } finally {
+            singleton.set(null, logger);
+        }
+    }
+
+    private static byte[] instrument(TraceFileLogger logger, InstrumentationEngine engine) throws Exception {
+        return instrument(logger, engine, RULES);
+    }
+
+    private static byte[] instrument(TraceFileLogger logger, InstrumentationEngine engine, List<String> rules) throws Exception {
+        InstrumentationConfig instrumentation = new InstrumentationConfig();
+        instrumentation.setEngine(engine);
+        Config config = new Config();
+        config.setPrintClassLoaderTrace(false);
+        config.setInstrumentation(instrumentation);
+        GlobalTransformer transformer = new GlobalTransformer(config, logger, RuleParser.parseRules(rules), "javaagent", null);
+        byte[] original = renamedOrders();
+        byte[] transformed = transformer.transform(AsmClassTransformerTest.class.getClassLoader(),
+                ORDERS.replace('.', '/'), null, null, original);
+        assertTrue(transformed != original, "transformation failed");
+        return transformed;
+    }
+
+    private static int codeLength(byte[] classfile, String method) throws Exception {
+        CtClass ctClass = new ClassPool(true).makeClass(new ByteArrayInputStream(classfile));
+        return ctClass.getDeclaredMethod(method).getMethodInfo().getCodeAttribute().getCodeLength();
+    }
+
+    private static byte[] renamedOrders() throws Exception {
+        CtClass ctClass = new ClassPool(true).get(Orders.class.getName());
+        ctClass.setName(ORDERS);
+        return ctClass.toBytecode();
+    }
+
+    /**
+     * Defines one class from the given bytes and delegates everything else to the test's class loader.
+     */
+    private static final class IsolatedLoader extends ClassLoader {
+        private final String className;
+        private final byte[] classfile;
+
+        IsolatedLoader(String className, byte[] classfile) {
+            super(AsmClassTransformerTest.class.getClassLoader());
+            this.className = className;
+            this.classfile = classfile;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(className)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                return loaded != null ? loaded : defineClass(name, classfile, 0, classfile.length);
+            }
+        }
+    }
+
+    public static class Orders {
+        private final String customer;
+        private long total;
+
+        public Orders(String customer) {
+            this.customer = customer;
+        }
+
+        public long place(int quantity, double price, String item) {
+            long sum = 0;
+            for (int i = 0; i < quantity; i++) {
+                sum += (long) price + item.length() - 3;
+            }
+            total += sum + 1;
+            return total;
+        }
+
+        public String describe(boolean gift) {
+            return gift ? null : customer;
+        }
+
+        public long total() {
+            return total;
+        }
+
+        public int rs() {
+            return 0;
+        }
+
+        public String review() {
+            try {
+                return customer.trim();
+            } catch (Exception e) {
+                return "caught";
+            }
+        }
+
+        public void audit() {
+            if (customer.isEmpty()) {
+                throw new IllegalStateException("no customer");
+            }
+        }
+    }
+}
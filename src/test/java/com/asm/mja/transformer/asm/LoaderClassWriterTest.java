@@ -0,0 +1,50 @@
+package com.asm.mja.transformer.asm;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link LoaderClassWriter}.
+ * @author ashut
+ * @since 17-10-2026
+ */
+public class LoaderClassWriterTest {
+
+    @Test
+    void readsSuperclassesFromClassFiles() throws Exception {
+        LoaderClassWriter writer = writer(getClass().getClassLoader());
+        assertEquals("java/util/AbstractList", writer.getCommonSuperClass("java/util/ArrayList", "java/util/Vector"));
+        assertEquals("java/lang/Object", writer.getCommonSuperClass("java/util/ArrayList", "java/lang/String"));
+    }
+
+    @Test
+    void loadsTypesWhoseClassFilesCannotBeRead() throws Exception {
+        // like a loader of classes defined at runtime, which has no class files to hand out
+        ClassLoader withoutClassFiles = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                return null;
+            }
+        };
+        LoaderClassWriter writer = writer(withoutClassFiles);
+        assertEquals("java/util/AbstractList", writer.getCommonSuperClass("java/util/ArrayList", "java/util/Vector"));
+        assertEquals("java/util/AbstractList", writer.getCommonSuperClass("java/util/ArrayList", "java/util/AbstractList"));
+    }
+
+    @Test
+    void refusesToGuessTypesItCannotFind() throws Exception {
+        LoaderClassWriter writer = writer(getClass().getClassLoader());
+        assertThrows(TypeNotPresentException.class,
+                () -> writer.getCommonSuperClass("java/util/ArrayList", "com/example/NotOnTheClassPath"));
+    }
+
+    private static LoaderClassWriter writer(ClassLoader loader) throws Exception {
+        return new LoaderClassWriter(new ClassReader("java.util.ArrayList"), ClassWriter.COMPUTE_FRAMES, loader);
+    }
+}
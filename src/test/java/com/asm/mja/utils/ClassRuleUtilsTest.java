@@ -18,23 +18,23 @@ class ClassRuleUtilsTest {
 
     @Test
     void ruleClassesExcludesClassReplacementRules() {
-        Class<?>[] loaded = new Class<?>[]{TargetA.class, TargetB.class};
+        Class<?>[] loaded = new Class<?>[]{StringBuilder.class, StringBuffer.class};
         List<Rule> rules = Arrays.asList(
-                new Rule(TargetA.class.getName(), "run", Event.INGRESS, Action.ARGS, 0),
-                Rule.forClassReplacement(TargetB.class.getName(), ReplacementSourceType.FILE, "/tmp/TargetB.class")
+                new Rule(StringBuilder.class.getName(), "append", Event.INGRESS, Action.ARGS, 0),
+                Rule.forClassReplacement(StringBuffer.class.getName(), ReplacementSourceType.FILE, "/tmp/StringBuffer.class")
         );
 
         Class<?>[] matched = ClassRuleUtils.ruleClasses(loaded, rules);
         assertEquals(1, matched.length);
-        assertEquals(TargetA.class.getName(), matched[0].getName());
+        assertEquals(StringBuilder.class.getName(), matched[0].getName());
     }
 
     @Test
     void resolveRuleClassesSupportsWildcardPatterns() {
-        Class<?>[] loaded = new Class<?>[]{TargetA.class, TargetB.class, String.class};
+        Class<?>[] loaded = new Class<?>[]{StringBuilder.class, StringBuffer.class, String.class};
         List<Rule> rules = Collections.singletonList(
                 Rule.forClassReplacement(
-                        "com.asm.mja.utils.ClassRuleUtilsTest$Target*",
+                        "java.lang.StringB*",
                         ReplacementSourceType.JAR,
                         "/tmp/patches.jar"
                 )
@@ -44,8 +44,21 @@ class ClassRuleUtilsTest {
         List<String> names = matched.stream().map(Class::getName).collect(Collectors.toList());
 
         assertEquals(2, names.size());
-        assertTrue(names.contains(TargetA.class.getName()));
-        assertTrue(names.contains(TargetB.class.getName()));
+        assertTrue(names.contains(StringBuilder.class.getName()));
+        assertTrue(names.contains(StringBuffer.class.getName()));
+    }
+
+    @Test
+    void neverResolvesAgentClasses() {
+        // the transformer leaves these classes alone, so retransforming them would change nothing
+        Class<?>[] loaded = new Class<?>[]{TargetA.class, TargetB.class};
+        List<Rule> rules = Arrays.asList(
+                new Rule(TargetA.class.getName(), "run", Event.INGRESS, Action.ARGS, 0),
+                Rule.forClassReplacement("com.asm.mja.utils.ClassRuleUtilsTest$Target*", ReplacementSourceType.JAR, "/tmp/patches.jar")
+        );
+
+        assertEquals(0, ClassRuleUtils.ruleClasses(loaded, rules).length);
+        assertTrue(ClassRuleUtils.resolveRuleClasses(loaded, rules).isEmpty());
     }
 
     static class TargetA {